@@ -0,0 +1,208 @@
+package com.pneumaliback.www.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import com.pneumaliback.www.entity.Category;
+import com.pneumaliback.www.entity.Order;
+import com.pneumaliback.www.entity.OrderItem;
+import com.pneumaliback.www.entity.PooledSequenceIdGenerator;
+import com.pneumaliback.www.entity.Product;
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.entity.QuoteRequestItem;
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.OrderStatus;
+import com.pneumaliback.www.enums.Role;
+
+import jakarta.persistence.Entity;
+
+/**
+ * Insertion d'une commande (checkout) et d'une demande de devis de 20 lignes
+ *
+ * allocationSize = 1 et batchSize = 1 reproduisent l'ancien comportement
+ * IDENTITY (un aller-retour par ligne) ; allocationSize = 50 et batchSize = 20
+ * la configuration de production. Le compteur "statements" donne le nombre
+ * d'instructions préparées par opération (lots JDBC compris).
+ *
+ * Nécessite une base PostgreSQL dédiée, recréée à chaque exécution :
+ * -Dbench.db.url (défaut jdbc:postgresql://localhost:5432/pneumali_bench),
+ * -Dbench.db.user, -Dbench.db.password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    private static final int LINES = 20;
+
+    @Param({ "1", "50" })
+    private int allocationSize;
+
+    @Param({ "1", "20" })
+    private int batchSize;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private User client;
+    private List<Product> products;
+
+    /**
+     * Instructions préparées par la dernière opération, ajoutées aux résultats
+     * JMH
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounter {
+        public long statements;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            statements = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL,
+                        System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/pneumali_bench"))
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("bench.db.user", "postgres"))
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("bench.db.password", ""))
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .applySetting(AvailableSettings.IMPLICIT_NAMING_STRATEGY, new SpringImplicitNamingStrategy())
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+                // Données de test : seule l'insertion est mesurée
+                .applySetting(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+                .applySetting(PooledSequenceIdGenerator.ALLOCATION_SIZE_SETTING, allocationSize)
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition definition : scanner.findCandidateComponents("com.pneumaliback.www.entity")) {
+            sources.addAnnotatedClassName(definition.getBeanClassName());
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            client = new User();
+            client.setEmail("bench@example.ml");
+            client.setPassword("x");
+            client.setFirstName("Awa");
+            client.setLastName("Traoré");
+            client.setRole(Role.CLIENT);
+            session.persist(client);
+
+            Category category = new Category();
+            category.setName("Tourisme");
+            session.persist(category);
+
+            products = new ArrayList<>();
+            for (int i = 0; i < LINES; i++) {
+                Product product = new Product();
+                product.setName("Pneu " + i);
+                product.setPrice(BigDecimal.valueOf(45_000 + i * 1_000L));
+                product.setStock(100);
+                product.setCategory(category);
+                session.persist(product);
+                products.add(product);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public Long checkout(StatementCounter counter) {
+        Statistics statistics = sessionFactory.getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        Order order = sessionFactory.fromTransaction(session -> {
+            Order created = new Order();
+            created.setOrderNumber(UUID.randomUUID().toString().substring(0, 32));
+            created.setStatus(OrderStatus.PENDING);
+            created.setUser(session.getReference(User.class, client.getId()));
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (Product product : products) {
+                OrderItem item = new OrderItem();
+                item.setOrder(created);
+                item.setProduct(session.getReference(Product.class, product.getId()));
+                item.setQuantity(2);
+                item.setUnitPrice(product.getPrice());
+                created.getItems().add(item);
+                subtotal = subtotal.add(product.getPrice().multiply(BigDecimal.TWO));
+            }
+            created.setSubtotal(subtotal);
+            created.setTotalAmount(subtotal);
+            session.persist(created);
+            return created;
+        });
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        return order.getId();
+    }
+
+    @Benchmark
+    public Long quoteCreation(StatementCounter counter) {
+        Statistics statistics = sessionFactory.getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        QuoteRequest quote = sessionFactory.fromTransaction(session -> {
+            QuoteRequest created = new QuoteRequest();
+            created.setRequestNumber(UUID.randomUUID().toString().substring(0, 32));
+            created.setUser(session.getReference(User.class, client.getId()));
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (Product product : products) {
+                QuoteRequestItem item = new QuoteRequestItem();
+                item.setQuoteRequest(created);
+                item.setProductId(product.getId());
+                item.setProductName(product.getName());
+                item.setQuantity(4);
+                item.setUnitPrice(product.getPrice());
+                item.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(4)));
+                created.getItems().add(item);
+                subtotal = subtotal.add(item.getLineTotal());
+            }
+            created.setSubtotalRequested(subtotal);
+            session.persist(created);
+            return created;
+        });
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        return quote.getId();
+    }
+}
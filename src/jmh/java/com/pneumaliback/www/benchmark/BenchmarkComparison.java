@@ -0,0 +1,112 @@
+package com.pneumaliback.www.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compare un résultat JMH (-rf json) à la référence enregistrée
+ *
+ * Pour chaque benchmark et jeu de paramètres présent des deux côtés, affiche
+ * les scores et l'écart. Une régression est un écart défavorable (temps plus
+ * long, débit plus faible) au-delà du seuil (10 % par défaut) et des marges
+ * d'erreur des deux mesures ; le code de sortie vaut alors 1. Procédure :
+ *
+ * 1. mvn -Pbenchmark test-compile exec:exec
+ * -Djmh.args="-rf json -rff target/jmh-result.json -e BatchInsert"
+ * 2. mvn -Pbenchmark exec:exec
+ * -Djmh.main=com.pneumaliback.www.benchmark.BenchmarkComparison
+ * -Djmh.args="src/jmh/baseline.json target/jmh-result.json 10"
+ *
+ * La référence n'a de sens que mesurée sur la même machine, au repos (les
+ * marges d'erreur d'une mesure perturbée masquent les régressions) : après
+ * un changement de machine ou une optimisation voulue, la remplacer par le
+ * nouveau target/jmh-result.json.
+ */
+public final class BenchmarkComparison {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage : <référence.json> <résultat.json> [seuil %]");
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JsonNode> baseline = read(Path.of(args[0]));
+        Map<String, JsonNode> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-72s %14s %14s %9s%n", "benchmark", "référence", "actuel", "écart");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-72s %14s %14s %9s%n", entry.getKey(), "-", score(after), "nouveau");
+                continue;
+            }
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            if (!unit.equals(before.path("primaryMetric").path("scoreUnit").asText())) {
+                System.out.printf("%-72s %14s %14s %9s%n", entry.getKey(), score(before), score(after), "unité ?");
+                continue;
+            }
+            double x = before.path("primaryMetric").path("score").asDouble();
+            double y = after.path("primaryMetric").path("score").asDouble();
+            double delta = x == 0 ? 0 : (y - x) / x * 100;
+            // Temps moyen, échantillonné ou ponctuel : plus bas est meilleur ; débit : plus haut
+            boolean lowerIsBetter = !"thrpt".equals(after.path("mode").asText());
+            double worse = lowerIsBetter ? delta : -delta;
+            double noise = error(before) + error(after);
+            boolean regression = worse > threshold && Math.abs(y - x) > noise;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-72s %14s %14s %+8.1f%%%s%n", entry.getKey(), score(before), score(after), delta,
+                    regression ? "  RÉGRESSION" : "");
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-72s %14s %14s %9s%n", key, score(baseline.get(key)), "-",
+                        "absent"));
+
+        if (regressions > 0) {
+            System.out.printf("%d régression(s) au-delà de %.1f %%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("Aucune régression au-delà de %.1f %%%n", threshold);
+    }
+
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                .replace(BenchmarkComparison.class.getPackageName() + ".", ""));
+        Map<String, String> params = new TreeMap<>();
+        result.path("params").properties().forEach(param -> params.put(param.getKey(), param.getValue().asText()));
+        params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+        return key.toString();
+    }
+
+    private static String score(JsonNode result) {
+        JsonNode metric = result.path("primaryMetric");
+        return String.format("%.3f %s", metric.path("score").asDouble(), metric.path("scoreUnit").asText());
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
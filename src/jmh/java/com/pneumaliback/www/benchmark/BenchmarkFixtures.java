@@ -0,0 +1,247 @@
+package com.pneumaliback.www.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.pneumaliback.www.entity.Address;
+import com.pneumaliback.www.entity.Brand;
+import com.pneumaliback.www.entity.Category;
+import com.pneumaliback.www.entity.Delivery;
+import com.pneumaliback.www.entity.Influenceur;
+import com.pneumaliback.www.entity.Order;
+import com.pneumaliback.www.entity.OrderItem;
+import com.pneumaliback.www.entity.Product;
+import com.pneumaliback.www.entity.Promotion;
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.entity.QuoteRequestItem;
+import com.pneumaliback.www.entity.TireDiameter;
+import com.pneumaliback.www.entity.TireProfile;
+import com.pneumaliback.www.entity.TireWidth;
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.PromotionType;
+import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.enums.TireSeason;
+
+/**
+ * Jeux de données des benchmarks, aux tailles rencontrées en production
+ *
+ * Générés avec une graine fixe : deux exécutions mesurent les mêmes données,
+ * condition pour comparer un résultat à la référence (BenchmarkComparison).
+ */
+final class BenchmarkFixtures {
+
+    private static final long SEED = 20251019L;
+
+    private static final String[] BRANDS = { "Michelin", "Bridgestone", "Continental", "Pirelli", "Goodyear",
+            "Dunlop", "Hankook", "Kumho", "Yokohama", "Toyo", "Falken", "Nexen" };
+    private static final String[] CATEGORIES = { "Tourisme", "4x4 / SUV", "Utilitaire", "Poids lourd",
+            "Moto", "Agricole" };
+    private static final int[] WIDTHS = { 155, 165, 175, 185, 195, 205, 215, 225, 235, 245, 265, 285, 315 };
+    private static final int[] PROFILES = { 35, 40, 45, 50, 55, 60, 65, 70, 75, 80 };
+    private static final int[] DIAMETERS = { 13, 14, 15, 16, 17, 18, 19, 20, 22 };
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<Product> products(int count) {
+        Random random = new Random(SEED);
+        List<Brand> brands = new ArrayList<>();
+        for (int i = 0; i < BRANDS.length; i++) {
+            Brand brand = new Brand();
+            brand.setId(i + 1L);
+            brand.setName(BRANDS[i]);
+            brands.add(brand);
+        }
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Category category = new Category();
+            category.setId(i + 1L);
+            category.setName(CATEGORIES[i]);
+            category.setDescription("Pneus " + CATEGORIES[i].toLowerCase() + " neufs et d'occasion");
+            categories.add(category);
+        }
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Brand brand = brands.get(random.nextInt(brands.size()));
+            int width = WIDTHS[random.nextInt(WIDTHS.length)];
+            int profile = PROFILES[random.nextInt(PROFILES.length)];
+            int diameter = DIAMETERS[random.nextInt(DIAMETERS.length)];
+            TireSeason season = TireSeason.values()[random.nextInt(TireSeason.values().length)];
+
+            Product product = new Product();
+            product.setId(i + 1L);
+            product.setCreatedAt(LocalDateTime.of(2025, 1, 1, 8, 0).plusHours(i));
+            product.setUpdatedAt(product.getCreatedAt());
+            product.setVersion(1);
+            product.setName(brand.getName() + " " + width + "/" + profile + " R" + diameter);
+            product.setSize(width + "/" + profile + " R" + diameter);
+            product.setPrice(BigDecimal.valueOf(25_000 + random.nextInt(150) * 1_000L));
+            product.setStock(random.nextInt(120));
+            product.setBrand(brand);
+            product.setWidth(new TireWidth());
+            product.getWidth().setValue(width);
+            product.setProfile(new TireProfile());
+            product.getProfile().setValue(profile);
+            product.setDiameter(new TireDiameter());
+            product.getDiameter().setValue(diameter);
+            product.setSeason(season);
+            product.setCategory(categories.get(random.nextInt(categories.size())));
+            String image = "https://cdn.pneumali.ml/storage/v1/object/public/products/" + product.getId();
+            product.setImageUrl(image + ".webp");
+            product.setImageThumbnailUrl(image + "-thumb.webp");
+            product.setImageCardUrl(image + "-card.webp");
+            product.setDescription("Pneu " + season.name().toLowerCase() + " " + brand.getName()
+                    + " en " + product.getSize() + ", adapté aux routes du Mali : bonne tenue sur piste, "
+                    + "usure régulière et adhérence sur sol mouillé. Montage et équilibrage disponibles en agence.");
+            products.add(product);
+        }
+        return products;
+    }
+
+    static Order order(int lines, Promotion promotion) {
+        List<Product> catalog = products(Math.max(lines, 1));
+        Random random = new Random(SEED);
+        Order order = new Order();
+        order.setOrderNumber("CMD-2025-000123");
+        for (int i = 0; i < lines; i++) {
+            Product product = catalog.get(i);
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setOrder(order);
+            item.setQuantity(1 + random.nextInt(4));
+            item.setUnitPrice(product.getPrice());
+            order.getItems().add(item);
+        }
+        Delivery delivery = new Delivery();
+        delivery.setShippingFee(new BigDecimal("2500"));
+        order.setDelivery(delivery);
+        order.setPromotion(promotion);
+        return order;
+    }
+
+    static List<Influenceur> influenceurs(int count) {
+        List<Influenceur> influenceurs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Influenceur influenceur = new Influenceur();
+            influenceur.setId(i + 1L);
+            influenceur.setPromoCode(influencerCode(i));
+            influenceur.setCommissionRate(new BigDecimal("5.00"));
+            influenceurs.add(influenceur);
+        }
+        return influenceurs;
+    }
+
+    /**
+     * Promotions directes, puis une promotion par influenceur
+     */
+    static List<Promotion> promotions(int count, List<Influenceur> influenceurs) {
+        Random random = new Random(SEED);
+        LocalDate today = LocalDate.now();
+        List<Promotion> promotions = new ArrayList<>(count + influenceurs.size());
+        for (int i = 0; i < count; i++) {
+            Promotion promotion = new Promotion();
+            promotion.setId(i + 1L);
+            promotion.setCode(promotionCode(i));
+            boolean percentage = random.nextBoolean();
+            promotion.setType(percentage ? PromotionType.PERCENTAGE : PromotionType.FIXED_AMOUNT);
+            promotion.setDiscountPercentage(percentage ? BigDecimal.valueOf(5 + random.nextInt(20)) : null);
+            promotion.setDiscountAmount(percentage ? null : BigDecimal.valueOf(1_000L * (1 + random.nextInt(10))));
+            // Un quart des promotions sont expirées, comme l'historique d'un catalogue réel
+            boolean expired = i % 4 == 0;
+            promotion.setStartDate(today.minusDays(expired ? 90 : 10));
+            promotion.setEndDate(today.plusDays(expired ? -30 : 30));
+            promotion.setActive(!expired);
+            promotions.add(promotion);
+        }
+        for (Influenceur influenceur : influenceurs) {
+            Promotion promotion = new Promotion();
+            promotion.setId(promotions.size() + 1L);
+            promotion.setCode("INF-" + influenceur.getPromoCode());
+            promotion.setType(PromotionType.INFLUENCER_CODE);
+            promotion.setDiscountPercentage(new BigDecimal("10"));
+            promotion.setStartDate(today.minusDays(10));
+            promotion.setEndDate(today.plusDays(30));
+            promotion.setInfluenceur(influenceur);
+            promotions.add(promotion);
+        }
+        return promotions;
+    }
+
+    static String promotionCode(int index) {
+        return String.format("PROMO%04d", index);
+    }
+
+    static String influencerCode(int index) {
+        return String.format("INFLU%03d", index);
+    }
+
+    static User client() {
+        User client = new User();
+        client.setFirstName("Awa");
+        client.setLastName("Traoré");
+        client.setEmail("awa.traore@example.ml");
+        client.setPhoneNumber("+223 70 00 00 00");
+        client.setRole(Role.CLIENT);
+        client.setEnabled(true);
+        Address address = new Address();
+        address.setStreet("Rue 305, Porte 12, Hamdallaye ACI 2000");
+        address.setCity("Bamako");
+        address.setRegion("District de Bamako");
+        address.setDefault(true);
+        address.setUser(client);
+        client.getAddresses().add(address);
+        return client;
+    }
+
+    static QuoteRequest quote(int lines) {
+        QuoteRequest request = new QuoteRequest();
+        request.setRequestNumber("DEV-2025-000123");
+        request.setQuoteNumber("Q-2025-000123");
+        request.setUser(client());
+        request.setCreatedAt(LocalDateTime.now());
+        request.setAdminNotes("Livraison sous 48h après validation.");
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            QuoteRequestItem item = new QuoteRequestItem();
+            item.setProductName("Pneu été " + (195 + i % 5 * 10) + "/" + (55 + i % 3 * 5) + " R" + (15 + i % 4));
+            item.setBrandName(BRANDS[i % BRANDS.length]);
+            item.setWidthValue(195 + i % 5 * 10);
+            item.setProfileValue(55 + i % 3 * 5);
+            item.setDiameterValue(15 + i % 4);
+            item.setQuantity(1 + i % 4);
+            item.setUnitPrice(new BigDecimal("42500"));
+            item.setLineTotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            subtotal = subtotal.add(item.getLineTotal());
+            request.getItems().add(item);
+        }
+        request.setSubtotalRequested(subtotal);
+        request.setTotalQuoted(subtotal);
+        return request;
+    }
+
+    /**
+     * Dépôt Spring Data simulé : chaque méthode nommée renvoie sa valeur fixe
+     */
+    @SuppressWarnings("unchecked")
+    static <R> R repository(Class<R> type, Map<String, Object> answers) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (answers.containsKey(method.getName())) {
+                return answers.get(method.getName());
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " (benchmark)";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package com.pneumaliback.www.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.service.MailService;
+import com.pneumaliback.www.service.mail.EmailSender;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Construction du HTML des emails de devis prêt et d'assignation livreur
+ * (devis de 1, 10 et 50 lignes)
+ *
+ * L'envoi est remplacé par un EmailSender qui ne garde que la taille du corps ;
+ * les journaux info de MailService sont coupés pour ne pas mesurer la console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class MailHtmlBenchmark {
+
+    @Param({ "1", "10", "50" })
+    private int lines;
+
+    private final CapturingSender sender = new CapturingSender();
+    private MailService mailService;
+    private QuoteRequest quote;
+    private User livreur;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(MailService.class)).setLevel(Level.WARN);
+        mailService = new MailService(sender, null);
+        ReflectionTestUtils.setField(mailService, "frontendUrl", "https://pneufront.vercel.app");
+        quote = BenchmarkFixtures.quote(lines);
+        livreur = new User();
+        livreur.setFirstName("Moussa");
+        livreur.setLastName("Keïta");
+        livreur.setEmail("moussa.keita@example.ml");
+        livreur.setRole(Role.LIVREUR);
+    }
+
+    @Benchmark
+    public int quoteReadyEmail() {
+        mailService.sendQuoteReadyEmailSync(quote.getUser(), quote, null);
+        return sender.length;
+    }
+
+    @Benchmark
+    public int livreurAssignmentEmail() {
+        mailService.notifyLivreurAssignmentSync(livreur, quote);
+        return sender.length;
+    }
+
+    private static final class CapturingSender implements EmailSender {
+
+        private int length;
+
+        @Override
+        public void sendEmail(String to, String subject, String body) {
+            length = body.length();
+        }
+
+        @Override
+        public void sendHtmlEmail(String to, String subject, String htmlBody, String textBody) {
+            length = htmlBody.length() + textBody.length();
+        }
+
+        @Override
+        public String getProviderName() {
+            return "benchmark";
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.pneumaliback.www.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pneumaliback.www.entity.Order;
+import com.pneumaliback.www.entity.Promotion;
+import com.pneumaliback.www.enums.PromotionType;
+import com.pneumaliback.www.service.OrderService;
+
+/**
+ * Calcul des totaux d'une commande de 1, 5 et 20 lignes, sans promotion, avec
+ * un pourcentage ou un montant fixe
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class OrderTotalsBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int lines;
+
+    @Param({ "NONE", "PERCENTAGE", "FIXED_AMOUNT" })
+    private String promotion;
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        // computeTotals n'utilise pas le service de commissions
+        orderService = new OrderService(null);
+        order = BenchmarkFixtures.order(lines, promotion());
+    }
+
+    @Benchmark
+    public BigDecimal computeTotals() {
+        orderService.computeTotals(order);
+        return order.getTotalAmount();
+    }
+
+    private Promotion promotion() {
+        if ("NONE".equals(promotion)) {
+            return null;
+        }
+        Promotion promo = new Promotion();
+        promo.setCode("BIENVENUE");
+        promo.setType(PromotionType.valueOf(promotion));
+        promo.setDiscountPercentage(new BigDecimal("12.5"));
+        promo.setDiscountAmount(new BigDecimal("5000"));
+        promo.setActive(true);
+        return promo;
+    }
+}
@@ -0,0 +1,79 @@
+package com.pneumaliback.www.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pneumaliback.www.entity.Influenceur;
+import com.pneumaliback.www.entity.Promotion;
+import com.pneumaliback.www.repository.InfluenceurRepository;
+import com.pneumaliback.www.repository.PromotionRepository;
+import com.pneumaliback.www.service.InfluenceurService;
+import com.pneumaliback.www.service.PromotionService;
+
+/**
+ * Résolution d'un code promo saisi au panier parmi 50, 500 et 5000 promotions
+ * (et un influenceur pour dix promotions)
+ *
+ * Les dépôts renvoient les listes en mémoire : seul le coût du filtrage côté
+ * application est mesuré, pas l'aller-retour vers Postgres.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class PromotionResolutionBenchmark {
+
+    @Param({ "50", "500", "5000" })
+    private int promotions;
+
+    private PromotionService promotionService;
+    private String directCode;
+    private String influencerCode;
+
+    @Setup
+    public void setUp() {
+        List<Influenceur> influenceurs = BenchmarkFixtures.influenceurs(promotions / 10);
+        List<Promotion> catalog = BenchmarkFixtures.promotions(promotions, influenceurs);
+        PromotionRepository promotionRepository = BenchmarkFixtures.repository(PromotionRepository.class,
+                Map.of("findAll", catalog));
+        InfluenceurRepository influenceurRepository = BenchmarkFixtures.repository(InfluenceurRepository.class,
+                Map.of("findByArchived", influenceurs));
+        InfluenceurService influenceurService = new InfluenceurService(influenceurRepository, null, null, null,
+                promotionRepository, null);
+        promotionService = new PromotionService(promotionRepository, influenceurService, influenceurRepository, null);
+        // Codes valides en milieu de liste (les multiples de 4 sont expirés)
+        directCode = BenchmarkFixtures.promotionCode(promotions / 2 + 1);
+        influencerCode = BenchmarkFixtures.influencerCode(influenceurs.size() / 2);
+    }
+
+    @Benchmark
+    public Optional<Promotion> directCode() {
+        return promotionService.findValidPromotionByCode(directCode);
+    }
+
+    @Benchmark
+    public Optional<Promotion> influencerCode() {
+        return promotionService.findValidPromotionByCode(influencerCode);
+    }
+
+    @Benchmark
+    public Optional<Promotion> unknownCode() {
+        return promotionService.findValidPromotionByCode("INCONNU");
+    }
+}
@@ -0,0 +1,60 @@
+package com.pneumaliback.www.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pneumaliback.www.config.PdfRenderProperties;
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.service.QuotePdfService;
+import com.pneumaliback.www.service.pdf.PdfRenderEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Génération du PDF d'un devis de 1, 10 et 50 lignes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class QuotePdfBenchmark {
+
+    @Param({ "1", "10", "50" })
+    private int lines;
+
+    private PdfRenderEngine engine;
+    private QuotePdfService quotePdfService;
+    private QuoteRequest quote;
+
+    @Setup
+    public void setUp() {
+        engine = new PdfRenderEngine(new PdfRenderProperties(), new SimpleMeterRegistry());
+        // generateQuote n'utilise ni le cache ni le stockage
+        quotePdfService = new QuotePdfService(engine, null, null);
+        quote = BenchmarkFixtures.quote(lines);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public byte[] generateQuote() {
+        return quotePdfService.generateQuote(quote, null);
+    }
+}
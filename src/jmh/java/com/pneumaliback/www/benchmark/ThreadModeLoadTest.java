@@ -0,0 +1,206 @@
+package com.pneumaliback.www.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Charge HTTP sur une instance démarrée, pour comparer threads de plateforme
+ * et threads virtuels (APP_VIRTUAL_THREADS)
+ *
+ * N clients enchaînent les requêtes GET sur les URLs données pendant la durée
+ * fixée (après un échauffement) ; le débit, les latences p50/p95/p99, les
+ * réponses 503 (cloison saturée) et les erreurs sont écrits dans
+ * target/loadtest-&lt;label&gt;.json. Procédure :
+ *
+ * 1. APP_VIRTUAL_THREADS=false, puis
+ * mvn -Pbenchmark test-compile exec:exec
+ * -Djmh.main=com.pneumaliback.www.benchmark.ThreadModeLoadTest
+ * -Djmh.args="--label platform --concurrency 200 --duration 60
+ * http://localhost:8080/api/products/active"
+ * 2. même chose avec APP_VIRTUAL_THREADS=true et --label virtual
+ * 3. -Djmh.args="--compare target/loadtest-platform.json
+ * target/loadtest-virtual.json"
+ *
+ * À lancer sur le profil de production (pool oltp, threads Tomcat) et avec
+ * des endpoints qui attendent réellement Postgres ou un service distant : sur
+ * un endpoint servi par le cache, les deux modes se valent.
+ */
+public final class ThreadModeLoadTest {
+
+    private static final Pattern NUMBER = Pattern.compile("\"(\\w+)\"\\s*:\\s*([-0-9.]+)");
+    private static final List<String> COMPARED = List.of("throughput", "p50Ms", "p95Ms", "p99Ms", "rejected",
+            "errors");
+
+    private ThreadModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                options.put(args[i].substring(2), i + 1 < args.length ? args[++i] : "");
+            } else {
+                urls.add(args[i]);
+            }
+        }
+        if (options.containsKey("compare")) {
+            compare(Path.of(options.get("compare")), Path.of(urls.get(0)));
+            return;
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une URL à charger");
+        }
+        String label = options.getOrDefault("label", "run");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        String token = options.get("token");
+
+        System.out.printf("Échauffement %d s...%n", warmup.toSeconds());
+        run(urls, token, concurrency, warmup);
+        System.out.printf("Charge %s : %d clients, %d s%n", label, concurrency, duration.toSeconds());
+        Result result = run(urls, token, concurrency, duration);
+
+        Map<String, Number> report = result.report(duration);
+        report.forEach((name, value) -> System.out.printf("  %-11s %s%n", name, value));
+        Path output = Path.of("target", "loadtest-" + label + ".json");
+        Files.createDirectories(output.getParent());
+        StringBuilder json = new StringBuilder("{\"label\": \"").append(label).append('"');
+        report.forEach((name, value) -> json.append(", \"").append(name).append("\": ").append(value));
+        Files.writeString(output, json.append("}\n"));
+        System.out.println("Résultat : " + output);
+    }
+
+    private static Result run(List<String> urls, String token, int concurrency, Duration duration)
+            throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        List<Future<Result>> clients = new ArrayList<>();
+        // Les clients eux-mêmes sur des threads virtuels : le générateur de charge n'est pas le goulot
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                HttpClient http = HttpClient.newBuilder().executor(executor)
+                        .connectTimeout(Duration.ofSeconds(5)).build()) {
+            for (int c = 0; c < concurrency; c++) {
+                int offset = c;
+                clients.add(executor.submit(() -> client(http, urls, token, offset, end)));
+            }
+            Result total = new Result();
+            for (Future<Result> client : clients) {
+                total.add(client.get());
+            }
+            return total;
+        }
+    }
+
+    private static Result client(HttpClient http, List<String> urls, String token, int offset, long end) {
+        Result result = new Result();
+        for (int n = offset; System.nanoTime() < end; n++) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(urls.get(n % urls.size())))
+                    .timeout(Duration.ofSeconds(30)).GET();
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            long start = System.nanoTime();
+            try {
+                int status = http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                result.record(status, System.nanoTime() - start);
+            } catch (IOException e) {
+                result.errors++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static void compare(Path before, Path after) throws IOException {
+        Map<String, Double> a = read(before);
+        Map<String, Double> b = read(after);
+        System.out.printf("%-11s %12s %12s %9s%n", "", before.getFileName(), after.getFileName(), "écart");
+        for (String name : COMPARED) {
+            double x = a.getOrDefault(name, 0d);
+            double y = b.getOrDefault(name, 0d);
+            String delta = x == 0 ? "-" : String.format("%+.1f%%", (y - x) * 100 / x);
+            System.out.printf("%-11s %12.1f %12.1f %9s%n", name, x, y, delta);
+        }
+    }
+
+    private static Map<String, Double> read(Path file) throws IOException {
+        Map<String, Double> values = new LinkedHashMap<>();
+        Matcher matcher = NUMBER.matcher(Files.readString(file));
+        while (matcher.find()) {
+            values.put(matcher.group(1), Double.parseDouble(matcher.group(2)));
+        }
+        return values;
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long ok;
+        private long rejected;
+        private long errors;
+
+        void record(int status, long nanos) {
+            if (status == 503) {
+                rejected++;
+            } else if (status >= 400) {
+                errors++;
+            } else {
+                ok++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void add(Result other) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + other.count));
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            ok += other.ok;
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+
+        Map<String, Number> report(Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Number> report = new LinkedHashMap<>();
+            report.put("requests", count);
+            report.put("throughput", Math.round(ok * 10.0 / duration.toSeconds()) / 10.0);
+            report.put("p50Ms", percentile(sorted, 0.50));
+            report.put("p95Ms", percentile(sorted, 0.95));
+            report.put("p99Ms", percentile(sorted, 0.99));
+            report.put("rejected", rejected);
+            report.put("errors", errors);
+            return report;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            long nanos = sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+            return Math.round(nanos / 100_000.0) / 10.0;
+        }
+    }
+}
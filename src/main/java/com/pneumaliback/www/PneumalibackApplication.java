@@ -2,6 +2,7 @@ package com.pneumaliback.www;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -11,14 +12,21 @@ import org.springframework.scheduling.annotation.EnableScheduling;
  * Envoi d'emails géré par Pattern Strategy (voir MailConfig) :
  * - Production : Brevo API HTTP
  * - Développement : LogOnly
+ *
+ * Les étapes du démarrage sont chronométrées (voir StartupTimingReport).
  */
 @SpringBootApplication
 @EnableScheduling
 @EnableAsync
 public class PneumalibackApplication {
 
+	// Étapes conservées : création de chaque bean comprise
+	private static final int STARTUP_STEPS = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(PneumalibackApplication.class, args);
+		SpringApplication application = new SpringApplication(PneumalibackApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 }
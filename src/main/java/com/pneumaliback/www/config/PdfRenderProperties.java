@@ -0,0 +1,29 @@
+package com.pneumaliback.www.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paramètres du moteur de rendu PDF (voir PdfRenderEngine)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.pdf.render")
+public class PdfRenderProperties {
+
+    // Nombre de rendus simultanés (chaque rendu occupe un cœur et quelques Mo)
+    private int poolSize = 2;
+
+    // Rendus en attente au-delà desquels les demandes sont refusées
+    private int queueCapacity = 50;
+
+    // Délai maximal d'attente d'un rendu (file + rendu), en ms
+    private long timeoutMs = 30000;
+
+    // Rendu d'un devis fictif sur chaque thread au démarrage
+    private boolean warmUp = true;
+
+    // Taille initiale du buffer de sortie, ajustée ensuite à la taille observée
+    private int initialBufferSize = 64 * 1024;
+}
@@ -1,9 +1,51 @@
 package com.pneumaliback.www.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerBuilder;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerCustomizer;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.pneumaliback.www.configuration.PoolRoutingDataSource;
+
 @Configuration
 @EnableScheduling
 public class SchedulingConfig {
+
+    /**
+     * Ordonnanceur des @Scheduled, déclaré ici : le broker STOMP définit son
+     * propre TaskScheduler, ce qui désactive celui de Spring Boot et ferait
+     * tourner les tâches planifiées sur l'ordonnanceur du broker, sans les
+     * personnalisations ci-dessous (pool de connexions batch)
+     *
+     * Avec spring.threads.virtual.enabled, chaque exécution tourne sur son
+     * propre thread virtuel (spring.task.scheduling.simple.concurrency-limit
+     * exécutions simultanées au plus).
+     */
+    @Bean
+    public TaskScheduler taskScheduler(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            ThreadPoolTaskSchedulerBuilder threadPoolBuilder, SimpleAsyncTaskSchedulerBuilder simpleBuilder) {
+        if (virtualThreads) {
+            return simpleBuilder.build();
+        }
+        return threadPoolBuilder.build();
+    }
+
+    /**
+     * Les tâches planifiées (purges, reprises d'envoi) utilisent le pool de
+     * connexions des traitements de fond
+     */
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer batchPoolSchedulerCustomizer() {
+        return scheduler -> scheduler.setTaskDecorator(PoolRoutingDataSource::onBatchPool);
+    }
+
+    @Bean
+    public SimpleAsyncTaskSchedulerCustomizer batchPoolVirtualSchedulerCustomizer() {
+        return scheduler -> scheduler.setTaskDecorator(PoolRoutingDataSource::onBatchPool);
+    }
 }
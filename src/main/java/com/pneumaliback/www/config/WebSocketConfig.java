@@ -1,26 +1,118 @@
 package com.pneumaliback.www.config;
 
+import com.pneumaliback.www.security.StompAuthChannelInterceptor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * Configuration STOMP / WebSocket
+ *
+ * Deux modes de broker (app.websocket.broker-mode) :
+ * - SIMPLE : broker en mémoire, sélecteurs désactivés et cache de résolution
+ * des abonnements dimensionné
+ * - RELAY : relais vers un broker STOMP externe, les destinations /user sont
+ * diffusées entre instances via le broker
+ *
+ * Les canaux entrant/sortant ont des pools et des files bornés, et le
+ * transport coupe les clients trop lents (send-time-limit / buffer-size-limit)
+ * au lieu de laisser grossir la mémoire.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketProperties properties;
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
-                .setAllowedOriginPatterns("*")
+                .setAllowedOriginPatterns(properties.getAllowedOriginPatterns().split("\\s*,\\s*"))
                 .withSockJS();
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic", "/queue");
+        long[] heartbeat = { properties.getHeartbeatSendInterval(), properties.getHeartbeatReceiveInterval() };
+
+        if (properties.getBrokerMode() == WebSocketProperties.BrokerMode.RELAY) {
+            WebSocketProperties.Relay relay = properties.getRelay();
+            StompBrokerRelayRegistration registration = registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relay.getHost())
+                    .setRelayPort(relay.getPort())
+                    .setClientLogin(relay.getClientLogin())
+                    .setClientPasscode(relay.getClientPasscode())
+                    .setSystemLogin(relay.getSystemLogin())
+                    .setSystemPasscode(relay.getSystemPasscode())
+                    .setSystemHeartbeatSendInterval(heartbeat[0])
+                    .setSystemHeartbeatReceiveInterval(heartbeat[1])
+                    // Destinations /user résolues sur n'importe quelle instance
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (relay.getVirtualHost() != null && !relay.getVirtualHost().isBlank()) {
+                registration.setVirtualHost(relay.getVirtualHost());
+            }
+            log.info("Broker STOMP : relais vers {}:{}", relay.getHost(), relay.getPort());
+        } else {
+            registry.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(heartbeat)
+                    .setTaskScheduler(messageBrokerTaskScheduler)
+                    // Pas d'évaluation d'expression "selector" à chaque envoi
+                    .setSelectorHeaderName(null);
+            registry.setCacheLimit(properties.getSubscriptionCacheLimit());
+            log.info("Broker STOMP : simple (en mémoire)");
+        }
+
         registry.setApplicationDestinationPrefixes("/app");
         registry.setUserDestinationPrefix("/user");
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        WebSocketProperties.Channel inbound = properties.getInbound();
+        registration.interceptors(stompAuthChannelInterceptor);
+        registration.taskExecutor()
+                .corePoolSize(inbound.getCorePoolSize())
+                .maxPoolSize(inbound.getMaxPoolSize())
+                .queueCapacity(inbound.getQueueCapacity());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        WebSocketProperties.Channel outbound = properties.getOutbound();
+        registration.taskExecutor()
+                .corePoolSize(outbound.getCorePoolSize())
+                .maxPoolSize(outbound.getMaxPoolSize())
+                .queueCapacity(outbound.getQueueCapacity());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        WebSocketProperties.Transport transport = properties.getTransport();
+        registration.setMessageSizeLimit(transport.getMessageSizeLimit())
+                .setSendBufferSizeLimit(transport.getSendBufferSizeLimit())
+                .setSendTimeLimit(transport.getSendTimeLimit());
+    }
 }
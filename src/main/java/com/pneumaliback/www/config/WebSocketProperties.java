@@ -0,0 +1,66 @@
+package com.pneumaliback.www.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paramètres du broker STOMP (voir WebSocketConfig)
+ *
+ * - SIMPLE : broker en mémoire, adapté à une instance unique
+ * - RELAY : relais vers un broker STOMP externe (RabbitMQ, ActiveMQ...),
+ * requis dès que plusieurs instances tournent en parallèle
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.websocket")
+public class WebSocketProperties {
+
+    public enum BrokerMode {
+        SIMPLE, RELAY
+    }
+
+    private BrokerMode brokerMode = BrokerMode.SIMPLE;
+    private String allowedOriginPatterns = "http://localhost:4200,http://localhost:3000";
+
+    // Publication en double sur /topic/notifications/{userId} tant que le front
+    // n'a pas migré vers /user/queue/notifications
+    private boolean legacyTopics = true;
+
+    // Heartbeats STOMP serveur -> client / client -> serveur (ms)
+    private long heartbeatSendInterval = 20000;
+    private long heartbeatReceiveInterval = 20000;
+
+    // Taille du cache de résolution destination -> abonnements du broker simple
+    private int subscriptionCacheLimit = 1024;
+
+    private final Channel inbound = new Channel();
+    private final Channel outbound = new Channel();
+    private final Transport transport = new Transport();
+    private final Relay relay = new Relay();
+
+    @Data
+    public static class Channel {
+        private int corePoolSize = 2;
+        private int maxPoolSize = 4;
+        private int queueCapacity = 500;
+    }
+
+    @Data
+    public static class Transport {
+        private int messageSizeLimit = 64 * 1024;
+        private int sendBufferSizeLimit = 512 * 1024;
+        private int sendTimeLimit = 10000;
+    }
+
+    @Data
+    public static class Relay {
+        private String host = "localhost";
+        private int port = 61613;
+        private String virtualHost;
+        private String clientLogin = "guest";
+        private String clientPasscode = "guest";
+        private String systemLogin = "guest";
+        private String systemPasscode = "guest";
+    }
+}
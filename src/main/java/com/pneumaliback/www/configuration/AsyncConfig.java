@@ -1,6 +1,8 @@
 package com.pneumaliback.www.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -9,8 +11,21 @@ import java.util.concurrent.Executor;
 @Configuration
 public class AsyncConfig implements AsyncConfigurer {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.async.virtual.concurrency-limit:20}")
+    private int virtualConcurrencyLimit;
+
     @Override
     public Executor getAsyncExecutor() {
+        if (virtualThreads) {
+            // Un thread virtuel par tâche ; au-delà de la limite, l'appelant attend qu'une tâche se termine
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-mail-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(1);
         executor.setMaxPoolSize(2);
@@ -0,0 +1,127 @@
+package com.pneumaliback.www.configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cloison (bulkhead) devant une ressource lente : au plus maxConcurrent appels
+ * simultanés, au plus maxWaiting appels en attente d'une place
+ *
+ * Avec les threads virtuels, le nombre de threads ne borne plus la
+ * concurrence : sans cloison, des milliers de requêtes attendraient ensemble
+ * une connexion Postgres ou une réponse HTTP. Un appel est refusé aussitôt si
+ * la file est pleine, ou après maxWait sans place (RejectedException, 503 pour
+ * le client).
+ *
+ * Métriques : bulkhead.active{name}, bulkhead.waiting{name},
+ * bulkhead.rejected{name}.
+ */
+public class Bulkhead implements MeterBinder {
+
+    public static class RejectedException extends IllegalStateException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrent, int maxWaiting, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Cloison " + name + " : au moins un appel simultané");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = Math.max(0, maxWaiting);
+        this.maxWait = maxWait;
+        // Équitable : les places sont servies dans l'ordre d'arrivée
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Prend une place, à rendre par release()
+     *
+     * @throws RejectedException si la file d'attente est pleine ou si aucune
+     *                           place ne s'est libérée à temps
+     */
+    public void acquire() {
+        try {
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                throw reject(maxWaiting + " appels déjà en attente");
+            }
+            try {
+                if (!permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw reject("aucune place libérée en " + maxWait.toMillis() + " ms");
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("attente interrompue");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bulkhead.active", this, Bulkhead::getActive)
+                .description("Appels en cours derrière la cloison")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("bulkhead.waiting", this, Bulkhead::getWaiting)
+                .description("Appels en attente d'une place")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("bulkhead.rejected", this, Bulkhead::getRejected)
+                .description("Appels refusés (file pleine ou attente trop longue)")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    private RejectedException reject(String reason) {
+        rejected.incrementAndGet();
+        return new RejectedException("Cloison " + name + " saturée : " + reason);
+    }
+}
@@ -0,0 +1,156 @@
+package com.pneumaliback.www.configuration;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import com.pneumaliback.www.entity.CacheRegions;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Métriques d'accès aux données issues des statistiques Hibernate
+ * (hibernate.generate_statistics) :
+ * - hibernate.query.plan.cache{result=hit|miss} : requêtes JPQL servies par le
+ * cache des plans (pas de nouvelle traduction en SQL) ;
+ * - hibernate.statements{state=prepared|closed} : PreparedStatement JDBC
+ * obtenus du pilote, dont le cache (prepareThreshold,
+ * preparedStatementCacheQueries) évite une nouvelle analyse côté serveur ;
+ * - hibernate.cache.region{region, result=hit|miss|put} et
+ * hibernate.cache.region.size{region} : cache de second niveau, par région
+ * (CacheRegions) ;
+ * - hibernate.cache.query{result=hit|miss|put} : cache des résultats de
+ * requêtes, toutes régions confondues.
+ *
+ * - db.readonly.connections{route=replica|primary|fallback} : connexions des
+ * transactions readOnly servies par un réplica, gardées sur le primaire
+ * (écriture, read-your-writes, traitement de fond) ou repliées faute de
+ * réplica à jour ;
+ * - db.replica.lag{replica} et db.replica.available{replica} : dernière mesure
+ * de chaque réplica.
+ *
+ * Les pools (attente, utilisation) sont publiés sous hikaricp.*{pool} : par
+ * Spring Boot pour oltp et batch, ici pour chaque réplica.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataAccessMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReplicaRoutingDataSource replicaDataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (replicaDataSource.hasReplicas()) {
+            bindReplicas(registry);
+        }
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("hibernate.query.plan.cache", statistics, Statistics::getQueryPlanCacheHitCount)
+                .description("Requêtes servies par le cache des plans Hibernate")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.plan.cache", statistics, Statistics::getQueryPlanCacheMissCount)
+                .description("Requêtes traduites faute de plan en cache")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("hibernate.statements", statistics, Statistics::getPrepareStatementCount)
+                .description("PreparedStatement JDBC obtenus")
+                .tag("state", "prepared")
+                .register(registry);
+        FunctionCounter.builder("hibernate.statements", statistics, Statistics::getCloseStatementCount)
+                .description("PreparedStatement JDBC fermés")
+                .tag("state", "closed")
+                .register(registry);
+
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        CacheRegions.ENTITY_REGIONS.forEach(region -> bindRegion(registry, region,
+                statistics::getDomainDataRegionStatistics));
+        // Régions de requêtes créées au premier usage : compteurs à zéro jusque-là
+        CacheRegions.QUERY_REGIONS.forEach(region -> bindRegion(registry, region,
+                statistics::getQueryRegionStatistics));
+        bindQueryCache(registry, statistics, "hit", Statistics::getQueryCacheHitCount);
+        bindQueryCache(registry, statistics, "miss", Statistics::getQueryCacheMissCount);
+        bindQueryCache(registry, statistics, "put", Statistics::getQueryCachePutCount);
+    }
+
+    private void bindReplicas(MeterRegistry registry) {
+        for (ReplicaRoutingDataSource.Replica replica : replicaDataSource.getReplicas()) {
+            HikariDataSource pool = replica.getDataSource();
+            if (pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            Gauge.builder("db.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagMs)
+                    .description("Retard de réjeu mesuré (-1 avant la première mesure)")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+            Gauge.builder("db.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Réplica joignable à la dernière mesure")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+        }
+        bindReadOnlyRoute(registry, "replica", ReplicaRoutingDataSource::getReplicaReads);
+        bindReadOnlyRoute(registry, "primary", ReplicaRoutingDataSource::getPrimaryReads);
+        bindReadOnlyRoute(registry, "fallback", ReplicaRoutingDataSource::getFallbackReads);
+    }
+
+    private void bindReadOnlyRoute(MeterRegistry registry, String route,
+            ToLongFunction<ReplicaRoutingDataSource> value) {
+        FunctionCounter.builder("db.readonly.connections", replicaDataSource, d -> value.applyAsLong(d))
+                .description("Connexions des transactions en lecture seule")
+                .tag("route", route)
+                .register(registry);
+    }
+
+    private void bindRegion(MeterRegistry registry, String region, Function<String, CacheRegionStatistics> lookup) {
+        bindRegionCounter(registry, region, lookup, "hit", CacheRegionStatistics::getHitCount);
+        bindRegionCounter(registry, region, lookup, "miss", CacheRegionStatistics::getMissCount);
+        bindRegionCounter(registry, region, lookup, "put", CacheRegionStatistics::getPutCount);
+        Gauge.builder("hibernate.cache.region.size", lookup,
+                l -> regionValue(l, region, CacheRegionStatistics::getElementCountInMemory))
+                .description("Entrées en mémoire dans la région")
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private void bindRegionCounter(MeterRegistry registry, String region,
+            Function<String, CacheRegionStatistics> lookup, String result,
+            ToLongFunction<CacheRegionStatistics> value) {
+        FunctionCounter.builder("hibernate.cache.region", lookup, l -> regionValue(l, region, value))
+                .description("Accès au cache de second niveau")
+                .tag("region", region)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void bindQueryCache(MeterRegistry registry, Statistics statistics, String result,
+            ToLongFunction<Statistics> value) {
+        FunctionCounter.builder("hibernate.cache.query", statistics, s -> value.applyAsLong(s))
+                .description("Accès au cache des résultats de requêtes")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static double regionValue(Function<String, CacheRegionStatistics> lookup, String region,
+            ToLongFunction<CacheRegionStatistics> value) {
+        CacheRegionStatistics regionStatistics = lookup.apply(region);
+        return regionStatistics != null ? Math.max(0, value.applyAsLong(regionStatistics)) : 0;
+    }
+}
@@ -0,0 +1,172 @@
+package com.pneumaliback.www.configuration;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.pneumaliback.www.configuration.PoolRoutingDataSource.Pool;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pools de connexions
+ *
+ * - oltp : requêtes HTTP. Taille déduite du nombre de threads Tomcat
+ * (server.tomcat.threads.max / app.datasource.oltp.threads-per-connection,
+ * plafonnée par app.datasource.oltp.max-pool-size) ;
+ * spring.datasource.hikari.maximum-pool-size l'emporte s'il est défini. Avec
+ * les threads virtuels, le nombre de threads ne borne plus rien : le pool
+ * prend max-pool-size et, si app.bulkhead.enabled, une cloison
+ * (BulkheadDataSource) borne les requêtes en attente d'une connexion
+ * (app.bulkhead.db.max-waiting).
+ * - batch : traitements de fond (app.datasource.batch.hikari.*), sans
+ * connexion inactive, pour qu'un job ne prive jamais les requêtes de
+ * connexions. Une connexion par thread qui l'utilise : envoi des devis
+ * (app.quote.dispatch.parallelism), régénération des PDF (coordinateur +
+ * app.pdf.regeneration.parallelism) et tâches planifiées, plafonné par
+ * app.datasource.batch.max-pool-size ;
+ * app.datasource.batch.hikari.maximum-pool-size l'emporte s'il est défini.
+ *
+ * - replica-N : un pool par réplica en lecture (app.datasource.replica.urls),
+ * mêmes identifiants que le primaire. Sans réplica, rien ne change.
+ *
+ * Le DataSource principal (JPA, JdbcTemplate) aiguille vers l'un ou l'autre
+ * (PoolRoutingDataSource). Avec des réplicas, il obtient la connexion au
+ * premier ordre SQL : une transaction readOnly passe alors par
+ * ReplicaRoutingDataSource. Tous les pools sont exposés dans les métriques
+ * hikaricp.* (attente, utilisation, connexions en attente).
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource oltpDataSource(DataSourceProperties properties,
+            @Value("${server.tomcat.threads.max:200}") int requestThreads,
+            @Value("${app.datasource.oltp.threads-per-connection:2}") int threadsPerConnection,
+            @Value("${app.datasource.oltp.min-pool-size:2}") int minPoolSize,
+            @Value("${app.datasource.oltp.max-pool-size:10}") int maxPoolSize,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("oltp");
+        int derived = virtualThreads ? maxPoolSize
+                : (requestThreads + Math.max(1, threadsPerConnection) - 1) / Math.max(1, threadsPerConnection);
+        dataSource.setMaximumPoolSize(Math.max(minPoolSize, Math.min(maxPoolSize, derived)));
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.batch.hikari")
+    public HikariDataSource batchDataSource(DataSourceProperties properties,
+            @Qualifier("oltpDataSource") HikariDataSource oltpDataSource,
+            @Value("${app.quote.dispatch.parallelism:2}") int dispatchWorkers,
+            @Value("${app.pdf.regeneration.parallelism:2}") int regenerationWorkers,
+            @Value("${spring.task.scheduling.pool.size:1}") int schedulerThreads,
+            @Value("${spring.task.scheduling.simple.concurrency-limit:2}") int virtualSchedulerLimit,
+            @Value("${app.datasource.batch.max-pool-size:10}") int maxPoolSize,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("batch");
+        int derived = Math.max(1, dispatchWorkers) + 1 + Math.max(1, regenerationWorkers)
+                + Math.max(1, virtualThreads ? virtualSchedulerLimit : schedulerThreads);
+        dataSource.setMaximumPoolSize(Math.max(1, Math.min(maxPoolSize, derived)));
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(oltpDataSource.getConnectionTimeout());
+        dataSource.setMaxLifetime(oltpDataSource.getMaxLifetime());
+        // Mêmes réglages du pilote (requêtes préparées) que le pool principal
+        Properties driverProperties = new Properties();
+        driverProperties.putAll(oltpDataSource.getDataSourceProperties());
+        dataSource.setDataSourceProperties(driverProperties);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true")
+    public Bulkhead dbBulkhead(@Qualifier("oltpDataSource") HikariDataSource oltpDataSource,
+            @Value("${app.bulkhead.db.max-waiting:200}") int maxWaiting) {
+        return new Bulkhead("db-oltp", oltpDataSource.getMaximumPoolSize(), maxWaiting,
+                Duration.ofMillis(oltpDataSource.getConnectionTimeout()));
+    }
+
+    @Bean
+    public PoolRoutingDataSource poolRoutingDataSource(@Qualifier("oltpDataSource") HikariDataSource oltpDataSource,
+            @Qualifier("batchDataSource") HikariDataSource batchDataSource,
+            @Qualifier("dbBulkhead") ObjectProvider<Bulkhead> dbBulkhead) {
+        Bulkhead bulkhead = dbBulkhead.getIfAvailable();
+        DataSource oltp = bulkhead != null ? new BulkheadDataSource(oltpDataSource, bulkhead) : oltpDataSource;
+        PoolRoutingDataSource dataSource = new PoolRoutingDataSource();
+        dataSource.setTargetDataSources(Map.of(Pool.OLTP, oltp, Pool.BATCH, batchDataSource));
+        dataSource.setDefaultTargetDataSource(oltp);
+        log.info("Pools de connexions: oltp={} (min idle {}{}), batch={}", oltpDataSource.getMaximumPoolSize(),
+                oltpDataSource.getMinimumIdle(), bulkhead != null ? ", cloison" : "",
+                batchDataSource.getMaximumPoolSize());
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(DataSourceProperties properties,
+            @Qualifier("oltpDataSource") HikariDataSource oltpDataSource,
+            PoolRoutingDataSource poolRoutingDataSource,
+            @Value("${app.datasource.replica.urls:}") String[] urls,
+            @Value("${app.datasource.replica.max-pool-size:10}") int maxPoolSize,
+            @Value("${app.datasource.replica.connection-timeout-ms:2000}") long connectionTimeoutMs,
+            @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs,
+            @Value("${app.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : Arrays.stream(urls).map(String::trim).filter(u -> !u.isEmpty()).toList()) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url).build();
+            dataSource.setPoolName("replica-" + (replicas.size() + 1));
+            dataSource.setMaximumPoolSize(maxPoolSize);
+            dataSource.setMinimumIdle(oltpDataSource.getMinimumIdle());
+            dataSource.setReadOnly(true);
+            // Un réplica lent à répondre est écarté au profit du primaire plutôt qu'attendu
+            dataSource.setConnectionTimeout(Math.min(connectionTimeoutMs, oltpDataSource.getConnectionTimeout()));
+            dataSource.setInitializationFailTimeout(-1);
+            dataSource.setMaxLifetime(oltpDataSource.getMaxLifetime());
+            Properties driverProperties = new Properties();
+            driverProperties.putAll(oltpDataSource.getDataSourceProperties());
+            dataSource.setDataSourceProperties(driverProperties);
+            replicas.add(dataSource);
+        }
+        if (!replicas.isEmpty()) {
+            log.info("Réplicas en lecture: {} (pool {} chacun, retard max {} ms, read-your-writes {} ms)",
+                    replicas.size(), maxPoolSize, maxLagMs, readYourWritesMs);
+        }
+        return new ReplicaRoutingDataSource(poolRoutingDataSource, replicas, maxLagMs, readYourWritesMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(PoolRoutingDataSource poolRoutingDataSource,
+            ReplicaRoutingDataSource replicaDataSource) {
+        if (!replicaDataSource.hasReplicas()) {
+            return poolRoutingDataSource;
+        }
+        // Connexion obtenue au premier ordre SQL, une fois le caractère readOnly de la transaction connu
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(poolRoutingDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+}
@@ -3,12 +3,15 @@ package com.pneumaliback.www.configuration;
 import com.pneumaliback.www.add.ErrorResponse;
 import com.pneumaliback.www.security.exceptions.TokenExpiredException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.LockedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -67,6 +70,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    // Cloison saturée ou connexion à la base indisponible : le client peut réessayer
+    @ExceptionHandler({ Bulkhead.RejectedException.class, CannotCreateTransactionException.class,
+            DataAccessResourceFailureException.class })
+    public ResponseEntity<ErrorResponse> handleOverload(RuntimeException e) {
+        log.warn("Service saturé: {}", e.getMessage());
+        ErrorResponse error = new ErrorResponse("Service momentanément saturé. Veuillez réessayer.", false);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException e) {
         log.error("RuntimeException occurred: ", e);
@@ -0,0 +1,35 @@
+package com.pneumaliback.www.configuration;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Cloisons par hôte (HttpBulkheads) devant les appels du RestTemplate
+ * (Brevo, Paydunya, Supabase, Google)
+ *
+ * Un service qui ralentit n'immobilise que ses propres appels ; la place est
+ * tenue jusqu'à la réception des en-têtes de la réponse.
+ */
+public class HttpBulkheadInterceptor implements ClientHttpRequestInterceptor {
+
+    private final HttpBulkheads bulkheads;
+
+    public HttpBulkheadInterceptor(HttpBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        bulkheads.acquire(request.getURI());
+        try {
+            return execution.execute(request, body);
+        } finally {
+            bulkheads.release(request.getURI());
+        }
+    }
+}
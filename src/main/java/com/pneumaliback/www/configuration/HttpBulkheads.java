@@ -0,0 +1,67 @@
+package com.pneumaliback.www.configuration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Une cloison (Bulkhead) par service distant, nommée http-&lt;hôte&gt;,
+ * partagée par le RestTemplate (HttpBulkheadInterceptor) et les clients
+ * java.net.http (transferts Supabase) : un même hôte n'a qu'une cloison
+ *
+ * Désactivé (app.bulkhead.enabled=false), acquire et release ne font rien.
+ */
+public class HttpBulkheads {
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final Duration maxWait;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public HttpBulkheads(boolean enabled, int maxConcurrent, int maxWaiting, Duration maxWait,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWait = maxWait;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prend une place sur la cloison de l'hôte de uri, à rendre par release(uri)
+     *
+     * @throws Bulkhead.RejectedException si la cloison est saturée
+     */
+    public void acquire(URI uri) {
+        if (enabled) {
+            bulkhead(uri).acquire();
+        }
+    }
+
+    public void release(URI uri) {
+        if (enabled) {
+            bulkhead(uri).release();
+        }
+    }
+
+    private Bulkhead bulkhead(URI uri) {
+        return bulkheads.computeIfAbsent(String.valueOf(uri.getHost()), this::create);
+    }
+
+    private Bulkhead create(String host) {
+        Bulkhead bulkhead = new Bulkhead("http-" + host, maxConcurrent, maxWaiting, maxWait);
+        if (meterRegistry != null) {
+            bulkhead.bindTo(meterRegistry);
+        }
+        return bulkhead;
+    }
+}
@@ -0,0 +1,94 @@
+package com.pneumaliback.www.configuration;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Durée des appels aux services externes (Brevo, Paydunya, Supabase, Google)
+ *
+ * integration.calls{integration, operation, outcome} : outcome vaut success,
+ * client_error (4xx), server_error (5xx) ou error (délai, connexion, cloison
+ * saturée). Avec les minuteurs par route (http.server.requests) et le temps
+ * SQL par requête (RequestStatementMetrics), dit où est passé le temps d'un
+ * paiement ou d'un envoi de devis lent. Pour un corps lu en flux, la durée
+ * s'arrête à la réception des en-têtes.
+ */
+@Component
+@RequiredArgsConstructor
+public class IntegrationMetrics {
+
+    private static final String METRIC = "integration.calls";
+
+    private final MeterRegistry meterRegistry;
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public <T, E extends Exception> T record(String integration, String operation, Call<T, E> call) throws E {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = outcome(result);
+            return result;
+        } catch (RestClientResponseException e) {
+            outcome = outcome(e.getStatusCode().value());
+            throw e;
+        } finally {
+            stop(start, integration, operation, outcome);
+        }
+    }
+
+    public <T> HttpResponse<T> send(String integration, String operation, HttpClient client, HttpRequest request,
+            HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            HttpResponse<T> response = client.send(request, handler);
+            outcome = outcome(response);
+            return response;
+        } finally {
+            stop(start, integration, operation, outcome);
+        }
+    }
+
+    private void stop(long start, String integration, String operation, String outcome) {
+        Timer.builder(METRIC)
+                .description("Appels aux services externes")
+                .tag("integration", integration)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(Object result) {
+        if (result instanceof HttpResponse<?> response) {
+            return outcome(response.statusCode());
+        }
+        if (result instanceof ResponseEntity<?> response) {
+            return outcome(response.getStatusCode().value());
+        }
+        return "success";
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "server_error";
+        }
+        return status >= 400 ? "client_error" : "success";
+    }
+}
@@ -0,0 +1,26 @@
+package com.pneumaliback.www.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+
+/**
+ * Sérialisation des entités renvoyées telles quelles par les contrôleurs
+ *
+ * Les associations LAZY chargées par le plan de chargement (entity graph) de
+ * la requête sont écrites en entier ; celles qui ne l'ont pas été ne
+ * déclenchent aucune requête et sont écrites sous la forme {"id": ...}.
+ */
+@Configuration
+public class JacksonHibernateConfig {
+
+    @Bean
+    public Hibernate6Module hibernate6Module() {
+        Hibernate6Module module = new Hibernate6Module();
+        module.enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+        // @Transient (JPA) ne masque pas un champ JSON
+        module.disable(Hibernate6Module.Feature.USE_TRANSIENT_ANNOTATION);
+        return module;
+    }
+}
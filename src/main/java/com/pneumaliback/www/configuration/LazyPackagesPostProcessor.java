@@ -0,0 +1,64 @@
+package com.pneumaliback.www.configuration;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Initialisation différée des beans de bibliothèques inutiles au démarrage
+ *
+ * Les beans déclarés dans les paquets de app.startup.lazy-packages (par défaut
+ * springdoc et le client OAuth2 de Spring Security, que l'application
+ * n'utilise pas pour sa propre connexion Google) ne sont créés qu'au premier
+ * usage : /v3/api-docs ou /swagger-ui paient leur construction au premier
+ * appel au lieu du démarrage.
+ */
+@Component
+@Slf4j
+public class LazyPackagesPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private List<String> packages = List.of();
+
+    @Override
+    public void setEnvironment(@NonNull Environment environment) {
+        packages = List.of(environment.getProperty("app.startup.lazy-packages", String[].class, new String[0]));
+    }
+
+    @Override
+    public void postProcessBeanFactory(@NonNull ConfigurableListableBeanFactory beanFactory) {
+        if (packages.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            String declaringClass = declaringClass(definition);
+            if (declaringClass != null && definition.isSingleton() && !definition.isLazyInit()
+                    && packages.stream().anyMatch(declaringClass::startsWith)) {
+                definition.setLazyInit(true);
+                count++;
+            }
+        }
+        log.debug("{} beans différés ({})", count, packages);
+    }
+
+    private static String declaringClass(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                return factoryMethod.getDeclaringClassName();
+            }
+        }
+        return definition.getBeanClassName();
+    }
+}
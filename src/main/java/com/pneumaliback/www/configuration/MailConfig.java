@@ -35,13 +35,14 @@ public class MailConfig {
     @Bean
     public EmailSender emailSender(
             @Value("${app.mail.provider:logonly}") String provider,
-            @Value("${app.mail.brevo.api-key:}") String apiKey) {
+            @Value("${app.mail.brevo.api-key:}") String apiKey,
+            IntegrationMetrics integrationMetrics) {
 
         // Mode Brevo activé et API key présente
         if ("brevo".equalsIgnoreCase(provider) && apiKey != null && !apiKey.trim().isEmpty()) {
             log.info("✅ Configuration email : Brevo (API HTTP) - From: {}", fromAddress);
             log.info("💡 Brevo: 300 emails gratuits/jour");
-            return new BrevoEmailSender(apiKey, fromAddress);
+            return new BrevoEmailSender(apiKey, fromAddress, integrationMetrics);
         }
 
         // Mode LogOnly (par défaut ou si Brevo non configuré)
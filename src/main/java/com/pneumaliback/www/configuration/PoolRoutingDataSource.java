@@ -0,0 +1,52 @@
+package com.pneumaliback.www.configuration;
+
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Aiguillage des connexions entre le pool transactionnel (requêtes HTTP) et le
+ * pool des traitements de fond (jobs, purges, envois en tâche de fond)
+ *
+ * Le pool est choisi à l'ouverture de la connexion, c'est-à-dire au début de
+ * la transaction : onBatchPool/callOnBatchPool s'utilisent autour des appels
+ * transactionnels, jamais à l'intérieur.
+ */
+public class PoolRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Pool {
+        OLTP, BATCH
+    }
+
+    private static final ThreadLocal<Pool> CURRENT = new ThreadLocal<>();
+
+    /**
+     * La tâche ouvre ses connexions dans le pool des traitements de fond
+     */
+    public static Runnable onBatchPool(Runnable task) {
+        return () -> callOnBatchPool(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T callOnBatchPool(Supplier<T> task) {
+        Pool previous = CURRENT.get();
+        CURRENT.set(Pool.BATCH);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Pool pool = CURRENT.get();
+        return pool != null ? pool : Pool.OLTP;
+    }
+}
@@ -0,0 +1,58 @@
+package com.pneumaliback.www.configuration;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Aiguillage des lectures vers les réplicas, requête par requête
+ *
+ * Une requête GET/HEAD peut lire sur un réplica, sauf si son utilisateur a
+ * écrit depuis moins de app.datasource.replica.read-your-writes-ms : il relit
+ * alors ses propres écritures sur le primaire. Les autres méthodes restent
+ * entièrement sur le primaire et épinglent l'utilisateur authentifié.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplicaReadFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD");
+
+    private final ReplicaRoutingDataSource replicaDataSource;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !replicaDataSource.hasReplicas();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String user = request.getRemoteUser();
+        if (!READ_METHODS.contains(request.getMethod())) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                if (user != null) {
+                    replicaDataSource.pin(user);
+                }
+            }
+            return;
+        }
+        ReplicaRoutingDataSource.allowReplicas(user == null || !replicaDataSource.isPinned(user));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.allowReplicas(false);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.pneumaliback.www.configuration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connexions des transactions en lecture seule : réplicas Postgres, avec repli
+ * sur le primaire
+ *
+ * Seules les requêtes HTTP de lecture y sont autorisées (ReplicaReadFilter) ;
+ * les écritures, les traitements de fond et les lectures d'un utilisateur qui
+ * vient d'écrire (read-your-writes) restent sur le primaire. Un réplica est
+ * choisi à tour de rôle parmi ceux dont le retard mesuré (checkReplicas) ne
+ * dépasse pas maxLagMs ; s'il n'y en a aucun, la lecture passe au primaire.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    // Retard de réjeu en millisecondes ; 0 si tout le WAL reçu est rejoué ou si la base n'est pas un réplica
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    public static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean available;
+        private volatile long lagMs = -1;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return dataSource.getPoolName();
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        public long getLagMs() {
+            return lagMs;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesMs;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+    private volatile long maxLagMs;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, long maxLagMs,
+            long readYourWritesMs) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+        this.readYourWritesMs = readYourWritesMs;
+    }
+
+    /**
+     * Autorise les réplicas pour les transactions en lecture seule du thread
+     * courant (requête HTTP de lecture)
+     */
+    static void allowReplicas(boolean allowed) {
+        if (allowed) {
+            REPLICA_ALLOWED.set(Boolean.TRUE);
+        } else {
+            REPLICA_ALLOWED.remove();
+        }
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+
+    /**
+     * Les lectures de l'utilisateur restent sur le primaire pendant
+     * readYourWritesMs après une écriture (état propre à chaque instance)
+     */
+    public void pin(String user) {
+        pinnedUntil.put(user, System.currentTimeMillis() + readYourWritesMs);
+    }
+
+    public boolean isPinned(String user) {
+        Long until = pinnedUntil.get(user);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    public long getFallbackReads() {
+        return fallbackReads.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!Boolean.TRUE.equals(REPLICA_ALLOWED.get())) {
+            primaryReads.incrementAndGet();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!isUsable(replica)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReads.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                replica.available = false;
+                log.warn("Réplica {} indisponible, lecture sur le primaire: {}", replica.getName(), e.getMessage());
+            }
+        }
+        fallbackReads.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    /**
+     * Identifiants explicites : ceux des réplicas ne sont pas supposés identiques,
+     * la connexion est ouverte sur le primaire
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryReads.incrementAndGet();
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Mesure le retard de chaque réplica ; un réplica injoignable est écarté
+     * jusqu'à la mesure suivante
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void checkReplicas() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+        for (Replica replica : replicas) {
+            boolean wasUsable = isUsable(replica);
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                replica.lagMs = rs.getLong(1);
+                replica.available = true;
+            } catch (SQLException | RuntimeException e) {
+                replica.available = false;
+                if (wasUsable) {
+                    log.warn("Réplica {} injoignable, lectures sur le primaire: {}", replica.getName(),
+                            e.getMessage());
+                }
+                continue;
+            }
+            if (isUsable(replica) && !wasUsable) {
+                log.info("Réplica {} utilisé pour les lectures (retard {} ms)", replica.getName(), replica.lagMs);
+            } else if (!isUsable(replica) && wasUsable) {
+                log.warn("Réplica {} en retard de {} ms (max {} ms), lectures sur le primaire", replica.getName(),
+                        replica.lagMs, maxLagMs);
+            }
+        }
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private boolean isUsable(Replica replica) {
+        return replica.available && replica.lagMs <= maxLagMs;
+    }
+}
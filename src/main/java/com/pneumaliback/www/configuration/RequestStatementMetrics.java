@@ -0,0 +1,122 @@
+package com.pneumaliback.www.configuration;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Requêtes SQL exécutées pendant chaque requête HTTP, par route
+ *
+ * - http.server.requests.db.statements{method, uri} : nombre d'instructions
+ * JDBC (un lot compte pour une) ;
+ * - http.server.requests.db.time{method, uri} : temps passé à les exécuter.
+ *
+ * Comptées par StatementListener (hibernate.session.events.auto) pour les
+ * sessions ouvertes sur le thread de la requête ; le travail asynchrone n'est
+ * pas imputé. app.observability.db.sample-rate limite le suivi à une fraction
+ * des requêtes.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestStatementMetrics extends OncePerRequestFilter {
+
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.observability.db.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/actuator/")) {
+            return true;
+        }
+        return sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Usage usage = new Usage();
+        CURRENT.set(usage);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                Tags tags = Tags.of("method", request.getMethod(), "uri", route.toString());
+                DistributionSummary.builder("http.server.requests.db.statements")
+                        .description("Instructions SQL par requête HTTP")
+                        .baseUnit("statements")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .record(usage.statements);
+                Timer.builder("http.server.requests.db.time")
+                        .description("Temps SQL par requête HTTP")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .record(usage.nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static final class Usage {
+        private int statements;
+        private long nanos;
+    }
+
+    /**
+     * Instancié par Hibernate pour chaque session
+     */
+    public static class StatementListener implements SessionEventListener {
+
+        private long start;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            record();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            record();
+        }
+
+        private void record() {
+            Usage usage = CURRENT.get();
+            if (usage != null) {
+                usage.statements++;
+                usage.nanos += System.nanoTime() - start;
+            }
+        }
+    }
+}
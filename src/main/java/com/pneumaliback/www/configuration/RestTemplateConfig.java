@@ -1,14 +1,34 @@
 package com.pneumaliback.www.configuration;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public HttpBulkheads httpBulkheads(@Value("${app.bulkhead.enabled:false}") boolean bulkheadEnabled,
+            @Value("${app.bulkhead.http.max-concurrent:10}") int maxConcurrent,
+            @Value("${app.bulkhead.http.max-waiting:100}") int maxWaiting,
+            @Value("${app.bulkhead.http.max-wait-ms:5000}") long maxWaitMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new HttpBulkheads(bulkheadEnabled, maxConcurrent, maxWaiting, Duration.ofMillis(maxWaitMs),
+                meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpBulkheads httpBulkheads) {
+        RestTemplate restTemplate = new RestTemplate();
+        if (httpBulkheads.isEnabled()) {
+            restTemplate.getInterceptors().add(new HttpBulkheadInterceptor(httpBulkheads));
+        }
+        return restTemplate;
     }
 }
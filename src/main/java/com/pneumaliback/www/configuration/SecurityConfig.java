@@ -7,27 +7,38 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Configuration de sécurité Spring Security pour l'application PneuMali
@@ -87,6 +98,9 @@ public class SecurityConfig {
         @Value("${app.cors.allowed-origin-patterns:}")
         private String allowedOriginPatternsString;
 
+        @Value("${app.metrics.scrape-token:}")
+        private String scrapeToken;
+
         // ========== Configuration principale ==========
 
         /**
@@ -149,15 +163,53 @@ public class SecurityConfig {
                                 .requestMatchers(HttpMethod.GET, "/api/products/brands").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/api/products/dimensions").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/api/tire-dimensions/**").permitAll()
+                                // Fichiers du stockage local (équivalent des URL publiques Supabase)
+                                .requestMatchers(HttpMethod.GET, "/files/**").permitAll()
+                                // Envoi direct au stockage local : authentifié par le ticket d'upload
+                                .requestMatchers(HttpMethod.PUT, "/files/upload").permitAll()
                                 .requestMatchers("/api/admin/influenceurs/**").hasAnyRole(ADMIN_ROLES)
                                 .requestMatchers(HttpMethod.DELETE, "/api/admin/influenceurs/**")
                                 .hasAnyRole(DEVELOPER_ROLES)
                                 .requestMatchers("/api/livreur/**").hasRole(Role.LIVREUR.name())
                                 .requestMatchers("/api/admin/**").hasAnyRole(ADMIN_ROLES)
+                                // Collecte Prometheus : administrateur ou jeton de collecte
+                                .requestMatchers("/actuator/prometheus").access(prometheusAccess())
+                                // Métriques (pools de connexions, cache des requêtes)
+                                .requestMatchers("/actuator/**").hasAnyRole(ADMIN_ROLES)
                                 .requestMatchers("/api/influenceur/**").hasRole(Role.INFLUENCEUR.name())
                                 .anyRequest().authenticated();
         }
 
+        /**
+         * Accès à /actuator/prometheus : rôle d'administration (JWT) ou jeton
+         * app.metrics.scrape-token transmis comme mot de passe Basic (basic_auth
+         * du collecteur), le nom d'utilisateur étant ignoré
+         */
+        private AuthorizationManager<RequestAuthorizationContext> prometheusAccess() {
+                AuthorizationManager<RequestAuthorizationContext> admin = AuthorityAuthorizationManager
+                                .hasAnyRole(ADMIN_ROLES);
+                AuthorizationManager<RequestAuthorizationContext> scraper = this::checkScrapeToken;
+                return AuthorizationManagers.anyOf(admin, scraper);
+        }
+
+        private AuthorizationDecision checkScrapeToken(Supplier<Authentication> authentication,
+                        RequestAuthorizationContext context) {
+                String header = context.getRequest().getHeader(HttpHeaders.AUTHORIZATION);
+                if (scrapeToken == null || scrapeToken.isBlank() || header == null || !header.startsWith("Basic ")) {
+                        return new AuthorizationDecision(false);
+                }
+                String credentials;
+                try {
+                        credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()),
+                                        StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                        return new AuthorizationDecision(false);
+                }
+                byte[] password = credentials.substring(credentials.indexOf(':') + 1).getBytes(StandardCharsets.UTF_8);
+                return new AuthorizationDecision(
+                                MessageDigest.isEqual(password, scrapeToken.getBytes(StandardCharsets.UTF_8)));
+        }
+
         // ========== Configuration CORS ==========
 
         /**
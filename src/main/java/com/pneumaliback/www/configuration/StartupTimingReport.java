@@ -0,0 +1,108 @@
+package com.pneumaliback.www.configuration;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durée du démarrage à froid, du lancement de la JVM à la première requête
+ *
+ * Quand l'application est prête, journalise le temps écoulé depuis le
+ * lancement de la JVM et les étapes les plus coûteuses relevées par
+ * BufferingApplicationStartup (temps propre, hors étapes imbriquées : un bean
+ * ne se voit pas imputer la création de ses dépendances). La première requête
+ * servie donne le temps jusqu'à la première réponse, l'indicateur qui compte
+ * au réveil d'une instance endormie : métriques application.startup.ready et
+ * application.startup.first-request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupTimingReport extends OncePerRequestFilter {
+
+    private static final int REPORTED_STEPS = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        meterRegistry.timer("application.startup.ready").record(Duration.ofMillis(uptime));
+        log.info("Application prête {} ms après le lancement de la JVM", uptime);
+        if (event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup) {
+            log.info("Étapes de démarrage les plus longues (temps propre) :\n{}",
+                    slowestSteps(startup.getBufferedTimeline().getEvents()));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return firstRequestSeen.get();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (firstRequestSeen.compareAndSet(false, true)) {
+                long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                meterRegistry.timer("application.startup.first-request").record(Duration.ofMillis(uptime));
+                log.info("Première requête ({} {}) servie {} ms après le lancement de la JVM", request.getMethod(),
+                        request.getRequestURI(), uptime);
+            }
+        }
+    }
+
+    private static String slowestSteps(List<TimelineEvent> events) {
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childNanos.merge(parentId, event.getDuration().toNanos(), Long::sum);
+            }
+        }
+        return events.stream()
+                .map(event -> Map.entry(describe(event.getStartupStep()),
+                        event.getDuration().toNanos() - childNanos.getOrDefault(event.getStartupStep().getId(), 0L)))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(REPORTED_STEPS)
+                .map(step -> String.format("  %6d ms  %s", step.getValue() / 1_000_000, step.getKey()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String describe(StartupStep step) {
+        StringBuilder description = new StringBuilder(step.getName());
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey()) || "repository".equals(tag.getKey())) {
+                description.append(' ').append(tag.getValue());
+            }
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.pneumaliback.www.configuration;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Diagnostic des threads virtuels épinglés à leur thread porteur
+ *
+ * Un thread virtuel qui se bloque (JDBC, HTTP, sleep) à l'intérieur d'un bloc
+ * synchronized ou d'un appel natif garde son porteur : avec quelques
+ * épinglages simultanés, plus aucune requête n'avance. L'événement JFR
+ * jdk.VirtualThreadPinned (au-delà de app.virtual-threads.pinned-threshold-ms)
+ * est compté dans jvm.threads.virtual.pinned{frame}, frame étant la première
+ * méthode de l'application dans la pile, et journalisé une fois par
+ * emplacement. Pile complète : -Djdk.tracePinnedThreads=full.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.pneumaliback.";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @Value("${app.virtual-threads.pinned-threshold-ms:20}")
+    private long thresholdMs;
+
+    @PostConstruct
+    void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Threads virtuels : épinglages de plus de {} ms suivis (jvm.threads.virtual.pinned)", thresholdMs);
+        } catch (RuntimeException e) {
+            log.warn("Suivi des épinglages de threads virtuels indisponible (JFR): {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String frame = applicationFrame(stackTrace);
+        meterRegistry.counter("jvm.threads.virtual.pinned", "frame", frame).increment();
+        if (reported.add(frame)) {
+            log.warn("Thread virtuel épinglé {} ms dans {} (bloqué dans {}) : bloc synchronized ou appel natif",
+                    event.getDuration().toMillis(), frame, topFrame(stackTrace));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private static String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                String name = nameOf(frame);
+                if (name.startsWith(APP_PACKAGE)) {
+                    return name;
+                }
+            }
+        }
+        return topFrame(stackTrace);
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "inconnu";
+        }
+        return nameOf(stackTrace.getFrames().get(0));
+    }
+
+    private static String nameOf(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,26 @@
+package com.pneumaliback.www.configuration.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Migration écrite en Java, rejouée par {@link SchemaMigrator} chaque fois que
+ * son empreinte change (configuration, nouvelle version du schéma)
+ */
+public interface RepeatableMigration {
+
+    /**
+     * Nom enregistré dans l'historique (R__...)
+     */
+    String script();
+
+    /**
+     * @param schemaVersion dernière version de script du schéma
+     */
+    String checksum(int schemaVersion);
+
+    /**
+     * Exécutée dans la transaction de migration : toute erreur annule la
+     * migration et bloque le démarrage
+     */
+    void migrate(JdbcTemplate jdbcTemplate);
+}
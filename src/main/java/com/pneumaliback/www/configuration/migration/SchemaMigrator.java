@@ -0,0 +1,287 @@
+package com.pneumaliback.www.configuration.migration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migrations versionnées du schéma (remplace ddl-auto=update)
+ *
+ * - V{n}__{description}.sql : exécuté une seule fois, dans l'ordre des
+ * versions. Son empreinte SHA-256 est enregistrée ; un script modifié après
+ * application bloque le démarrage.
+ * - R__{description}.sql et {@link RepeatableMigration} : rejoués après les
+ * scripts versionnés quand leur empreinte change.
+ *
+ * L'historique est dans la table schema_history. Au démarrage, une base à jour
+ * ne coûte que la lecture de cet historique. Sinon les migrations en attente
+ * s'exécutent dans une seule transaction, sous verrou consultatif : une
+ * instance démarrée en parallèle (redémarrage progressif) attend puis trouve
+ * la base à jour. Une base créée avant les migrations (table users présente,
+ * pas d'historique) est enregistrée comme déjà au schéma initial (baseline).
+ *
+ * S'exécute avant la création de l'EntityManagerFactory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaMigrator implements InitializingBean {
+
+    private static final String HISTORY_TABLE = "schema_history";
+    // Clé du verrou consultatif PostgreSQL partagé par les instances
+    private static final long LOCK_KEY = 0x706e65756d616c69L;
+    private static final Pattern VERSIONED = Pattern.compile("^V(\\d+)__(\\w+)\\.sql$");
+    private static final Pattern REPEATABLE = Pattern.compile("^R__(\\w+)\\.sql$");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<RepeatableMigration> javaMigrations;
+
+    @Value("${app.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.migration.locations:classpath*:db/migration/*.sql}")
+    private String locations;
+
+    @Value("${app.migration.baseline-version:1}")
+    private int baselineVersion;
+
+    /**
+     * L'EntityManagerFactory (et donc le premier accès JPA) attend les migrations
+     */
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super(SchemaMigrator.class);
+        }
+    }
+
+    private record Script(Integer version, String name, String description, String sql, String checksum) {
+    }
+
+    private record Applied(Integer version, String script, String checksum) {
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    public void migrate() throws IOException {
+        List<Script> versioned = new ArrayList<>();
+        List<Script> repeatable = new ArrayList<>();
+        loadScripts(versioned, repeatable);
+        int schemaVersion = versioned.isEmpty() ? 0 : versioned.get(versioned.size() - 1).version();
+
+        if (historyExists() && pending(versioned, repeatable, schemaVersion, readHistory()) == 0) {
+            log.debug("Schéma à jour (version {})", schemaVersion);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int executed = new TransactionTemplate(new DataSourceTransactionManager(dataSource)).execute(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", LOCK_KEY);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+                    + "script varchar(200) PRIMARY KEY, "
+                    + "version integer UNIQUE, "
+                    + "description varchar(200) NOT NULL, "
+                    + "type varchar(16) NOT NULL, "
+                    + "checksum varchar(64) NOT NULL, "
+                    + "installed_on timestamp NOT NULL DEFAULT now(), "
+                    + "execution_ms bigint NOT NULL)");
+            // Relu sous verrou : une autre instance a pu migrer entre-temps
+            Map<String, Applied> applied = readHistory();
+            if (applied.isEmpty()) {
+                baselineLegacySchema(versioned, applied);
+            }
+            return apply(versioned, repeatable, schemaVersion, applied);
+        });
+        if (executed > 0) {
+            log.info("{} migration(s) de schéma appliquée(s) en {} ms, version {}", executed,
+                    System.currentTimeMillis() - start, schemaVersion);
+        }
+    }
+
+    private void loadScripts(List<Script> versioned, List<Script> repeatable) throws IOException {
+        Map<Integer, String> versions = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locations)) {
+            String name = resource.getFilename();
+            if (name == null) {
+                continue;
+            }
+            Matcher matcher = VERSIONED.matcher(name);
+            Matcher repeatableMatcher = REPEATABLE.matcher(name);
+            if (matcher.matches()) {
+                int version = Integer.parseInt(matcher.group(1));
+                String duplicate = versions.put(version, name);
+                if (duplicate != null) {
+                    throw new IllegalStateException("Version de migration en double: " + duplicate + ", " + name);
+                }
+                versioned.add(script(version, name, matcher.group(2), resource));
+            } else if (repeatableMatcher.matches()) {
+                repeatable.add(script(null, name, repeatableMatcher.group(1), resource));
+            } else {
+                log.warn("Script de migration ignoré (nom invalide): {}", name);
+            }
+        }
+        versioned.sort(Comparator.comparing(Script::version));
+        repeatable.sort(Comparator.comparing(Script::name));
+    }
+
+    private Script script(Integer version, String name, String description, Resource resource) throws IOException {
+        // Empreinte indépendante des fins de ligne (checkout Windows)
+        String sql = resource.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+        return new Script(version, name, description.replace('_', ' '), sql, sha256(sql));
+    }
+
+    private boolean historyExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('" + HISTORY_TABLE + "') IS NOT NULL", Boolean.class));
+    }
+
+    /**
+     * Historique indexé par version (scripts versionnés) ou par nom (rejouables)
+     */
+    private Map<String, Applied> readHistory() {
+        Map<String, Applied> applied = new TreeMap<>();
+        jdbcTemplate.query("SELECT version, script, checksum FROM " + HISTORY_TABLE, row -> {
+            Integer version = (Integer) row.getObject("version");
+            Applied entry = new Applied(version, row.getString("script"), row.getString("checksum"));
+            applied.put(version != null ? "V" + version : entry.script(), entry);
+        });
+        return applied;
+    }
+
+    /**
+     * @return nombre de migrations à exécuter ; échoue si un script appliqué a
+     *         été modifié
+     */
+    private int pending(List<Script> versioned, List<Script> repeatable, int schemaVersion,
+            Map<String, Applied> applied) {
+        int pending = 0;
+        for (Script script : versioned) {
+            Applied entry = applied.get("V" + script.version());
+            if (entry == null) {
+                pending++;
+            } else if (!entry.checksum().equals(script.checksum())) {
+                throw new IllegalStateException("Le script de migration " + script.name()
+                        + " a été modifié après son application (créer une nouvelle version)");
+            }
+        }
+        for (Script script : repeatable) {
+            if (!matches(applied.get(script.name()), script.checksum())) {
+                pending++;
+            }
+        }
+        for (RepeatableMigration migration : javaMigrations) {
+            if (!matches(applied.get(migration.script()), sha256(migration.checksum(schemaVersion)))) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    private int apply(List<Script> versioned, List<Script> repeatable, int schemaVersion,
+            Map<String, Applied> applied) {
+        pending(versioned, repeatable, schemaVersion, applied);
+        int executed = 0;
+        for (Script script : versioned) {
+            if (!applied.containsKey("V" + script.version())) {
+                long start = System.currentTimeMillis();
+                jdbcTemplate.execute(script.sql());
+                record(script.name(), script.version(), script.description(), "SQL", script.checksum(), start);
+                executed++;
+            }
+        }
+        for (Script script : repeatable) {
+            if (!matches(applied.get(script.name()), script.checksum())) {
+                long start = System.currentTimeMillis();
+                jdbcTemplate.execute(script.sql());
+                record(script.name(), null, script.description(), "SQL", script.checksum(), start);
+                executed++;
+            }
+        }
+        for (RepeatableMigration migration : javaMigrations) {
+            String checksum = sha256(migration.checksum(schemaVersion));
+            if (!matches(applied.get(migration.script()), checksum)) {
+                long start = System.currentTimeMillis();
+                migration.migrate(jdbcTemplate);
+                record(migration.script(), null, migration.script().substring(3).replace('_', ' '), "JAVA", checksum,
+                        start);
+                executed++;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Base créée par ddl-auto=update avant les migrations : les scripts jusqu'à
+     * la version de baseline décrivent un schéma déjà en place
+     */
+    private void baselineLegacySchema(List<Script> versioned, Map<String, Applied> applied) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass('users') IS NOT NULL",
+                Boolean.class))) {
+            return;
+        }
+        for (Script script : versioned) {
+            if (script.version() <= baselineVersion) {
+                record(script.name(), script.version(), script.description(), "BASELINE", script.checksum(),
+                        System.currentTimeMillis());
+                applied.put("V" + script.version(), new Applied(script.version(), script.name(), script.checksum()));
+                log.info("Schéma existant enregistré comme baseline: {}", script.name());
+            }
+        }
+    }
+
+    private void record(String script, Integer version, String description, String type, String checksum,
+            long start) {
+        jdbcTemplate.update("INSERT INTO " + HISTORY_TABLE
+                + " (script, version, description, type, checksum, execution_ms) VALUES (?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT (script) DO UPDATE SET checksum = EXCLUDED.checksum, "
+                + "installed_on = now(), execution_ms = EXCLUDED.execution_ms",
+                script, version, description, type, checksum, System.currentTimeMillis() - start);
+        if (!"BASELINE".equals(type)) {
+            log.info("Migration appliquée: {} ({} ms)", script, System.currentTimeMillis() - start);
+        }
+    }
+
+    private static boolean matches(Applied entry, String checksum) {
+        return entry != null && entry.checksum().equals(checksum);
+    }
+
+    private static String sha256(String content) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
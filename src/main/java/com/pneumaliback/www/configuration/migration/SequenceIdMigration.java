@@ -0,0 +1,123 @@
+package com.pneumaliback.www.configuration.migration;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.pneumaliback.www.entity.PooledSequenceIdGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Séquences par table des identifiants (PooledSequenceIdGenerator), sans
+ * toucher aux ids existants
+ *
+ * Pour chaque table ayant une colonne id :
+ * - crée la séquence {table}_seq avec le pas d'allocation configuré (ou met ce
+ * pas à jour) ;
+ * - l'avance jusqu'au max(id) de la table si elle est en retard : le bloc
+ * suivant commence après le dernier id existant ;
+ * - remplace l'IDENTITY éventuelle de la colonne par DEFAULT
+ * nextval('{table}_seq'), utilisé par les INSERT natifs (ConversationRepository,
+ * données de référence). Une valeur obtenue par nextval est la borne haute
+ * d'un bloc que Hibernate ne réservera jamais : pas de collision avec les ids
+ * alloués par blocs.
+ *
+ * Rejouée après chaque nouveau script et à chaque changement du pas
+ * d'allocation. Les séquences ne reculent jamais.
+ */
+@Component
+@Slf4j
+public class SequenceIdMigration implements RepeatableMigration {
+
+    @Value("${spring.jpa.properties." + PooledSequenceIdGenerator.ALLOCATION_SIZE_SETTING + ":"
+            + PooledSequenceIdGenerator.DEFAULT_ALLOCATION_SIZE + "}")
+    private int allocationSize;
+
+    @Override
+    public String script() {
+        return "R__pooled_id_sequences";
+    }
+
+    @Override
+    public String checksum(int schemaVersion) {
+        return "allocation-size=" + allocationSize + ";schema=" + schemaVersion;
+    }
+
+    @Override
+    public void migrate(JdbcTemplate jdbcTemplate) {
+        if (allocationSize < 1) {
+            throw new IllegalStateException(PooledSequenceIdGenerator.ALLOCATION_SIZE_SETTING
+                    + " doit être supérieur à 0");
+        }
+        List<Map<String, Object>> columns = jdbcTemplate.queryForList("""
+                SELECT c.table_name, c.is_identity, c.column_default
+                FROM information_schema.columns c
+                JOIN information_schema.tables t
+                  ON t.table_schema = c.table_schema AND t.table_name = c.table_name
+                WHERE c.table_schema = current_schema() AND c.column_name = 'id'
+                  AND t.table_type = 'BASE TABLE'
+                  -- Partitions (notifications partitionnée) : ids tirés de la séquence de la table mère
+                  AND NOT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class p ON p.oid = i.inhrelid
+                                  WHERE p.relname = c.table_name AND p.relnamespace = current_schema()::regnamespace)
+                ORDER BY c.table_name
+                """);
+        int migrated = 0;
+        for (Map<String, Object> column : columns) {
+            if (migrateTable(jdbcTemplate, (String) column.get("table_name"),
+                    "YES".equals(column.get("is_identity")), (String) column.get("column_default"))) {
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            log.info("Séquences d'identifiants migrées pour {} table(s) (pas d'allocation {})", migrated,
+                    allocationSize);
+        }
+    }
+
+    /**
+     * @return true si la table a été modifiée
+     */
+    private boolean migrateTable(JdbcTemplate jdbcTemplate, String table, boolean identity, String columnDefault) {
+        String sequence = table + PooledSequenceIdGenerator.SEQUENCE_SUFFIX;
+        boolean changed = false;
+
+        Map<String, Object> state = jdbcTemplate.queryForList(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                sequence).stream().findFirst().orElse(null);
+        if (state == null) {
+            jdbcTemplate.execute("CREATE SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+            changed = true;
+        } else if (((Number) state.get("increment_by")).longValue() != allocationSize) {
+            // Sans risque : la prochaine valeur reste au-delà du dernier bloc distribué
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+            changed = true;
+        }
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Map<String, Object> current = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) current.get("last_value")).longValue();
+        boolean called = Boolean.TRUE.equals(current.get("is_called"));
+        if (maxId != null && maxId > 0 && (called ? lastValue < maxId : lastValue <= maxId)) {
+            jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, true)", Long.class, sequence, maxId);
+            changed = true;
+        }
+
+        String expectedDefault = "nextval('" + sequence + "'::regclass)";
+        if (identity) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            changed = true;
+        }
+        if (identity || !expectedDefault.equals(columnDefault)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+            changed = true;
+        }
+        if (changed) {
+            log.debug("Séquence {} alignée (max(id) = {})", sequence, maxId);
+        }
+        return changed;
+    }
+}
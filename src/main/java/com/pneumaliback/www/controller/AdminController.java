@@ -27,6 +27,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -349,9 +350,10 @@ public class AdminController {
             @ApiResponse(responseCode = "404", description = "Commande non trouvée", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "500", description = "Erreur interne", content = @Content(mediaType = "application/json"))
     })
+    @Transactional
     public ResponseEntity<?> confirmOrder(@PathVariable Long orderId) {
         try {
-            Optional<Order> opt = orderRepository.findById(orderId);
+            Optional<Order> opt = orderRepository.findDetailedById(orderId);
             if (opt.isEmpty())
                 return ResponseEntity.status(404).body(Map.of("error", "Commande non trouvée"));
             Order order = opt.get();
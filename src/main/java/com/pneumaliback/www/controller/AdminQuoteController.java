@@ -1,20 +1,26 @@
 package com.pneumaliback.www.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import com.pneumaliback.www.dto.KeysetPage;
 import com.pneumaliback.www.dto.quote.AssignLivreurRequest;
 import com.pneumaliback.www.dto.quote.QuoteAdminUpdateRequest;
 import com.pneumaliback.www.dto.quote.QuoteResponse;
+import com.pneumaliback.www.dto.quote.QuoteSummaryResponse;
+import com.pneumaliback.www.entity.BatchJob;
 import com.pneumaliback.www.entity.QuoteRequest;
 import com.pneumaliback.www.entity.User;
 import com.pneumaliback.www.enums.QuoteStatus;
 import com.pneumaliback.www.enums.Role;
 import com.pneumaliback.www.repository.UserRepository;
 import com.pneumaliback.www.repository.AddressRepository;
+import com.pneumaliback.www.service.PdfRegenerationJobService;
 import com.pneumaliback.www.service.QuotePdfService;
 import com.pneumaliback.www.service.QuoteRequestService;
 import com.pneumaliback.www.service.QuoteRequestService.QuoteAdminItem;
 import com.pneumaliback.www.service.QuoteRequestService.QuoteAdminUpdate;
+import com.pneumaliback.www.service.quote.QuoteDispatchService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -23,6 +29,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -33,6 +42,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -48,12 +58,27 @@ import jakarta.validation.Valid;
 public class AdminQuoteController {
 
     private final QuoteRequestService quoteRequestService;
+    @Lazy
     private final QuotePdfService quotePdfService;
+    private final PdfRegenerationJobService pdfRegenerationJobService;
+    private final QuoteDispatchService quoteDispatchService;
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
 
+    @GetMapping("/summaries")
+    @Operation(summary = "Lister les demandes de devis (admin), résumés paginés par curseur")
+    public ResponseEntity<KeysetPage<QuoteSummaryResponse>> listSummaries(
+            @RequestParam(name = "status", required = false) List<QuoteStatus> statuses,
+            @RequestParam(required = false) Long livreurId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(quoteRequestService.pageForAdmin(statuses, livreurId, from, to, cursor, size));
+    }
+
     @GetMapping
-    @Operation(summary = "Lister les demandes de devis (admin)")
+    @Operation(summary = "Lister les demandes de devis (admin)", deprecated = true, description = "Charge tous les devis avec leurs articles : préférer /summaries")
     @ApiResponse(responseCode = "200", description = "Liste des devis", content = @Content(array = @ArraySchema(schema = @Schema(implementation = QuoteResponse.class))))
     public ResponseEntity<List<QuoteResponse>> listQuotes(
             @RequestParam(name = "status", required = false) List<QuoteStatus> statuses) {
@@ -80,12 +105,21 @@ public class AdminQuoteController {
     }
 
     @PostMapping("/{id}/send")
-    @Operation(summary = "Générer et envoyer le devis au client")
+    @Operation(summary = "Générer et envoyer le devis au client", description = "Le PDF et l'email sont produits en tâche de fond : suivre dispatchStage, ou /user/queue/quotes/dispatch en WebSocket")
     public ResponseEntity<QuoteResponse> generateAndSend(
             @PathVariable Long id,
             @Valid @RequestBody QuoteAdminUpdateRequest payload,
             @RequestParam(name = "quoteUrl", required = false) String frontendQuoteUrl) {
         QuoteRequest updated = quoteRequestService.generateAndSendQuote(id, toServiceUpdate(payload), frontendQuoteUrl);
+        quoteDispatchService.dispatch(updated.getId());
+        return ResponseEntity.ok(QuoteResponse.from(updated));
+    }
+
+    @PostMapping("/{id}/send/retry")
+    @Operation(summary = "Relancer l'envoi d'un devis en échec")
+    public ResponseEntity<QuoteResponse> retrySend(@PathVariable Long id) {
+        QuoteRequest updated = quoteRequestService.retryDispatch(id);
+        quoteDispatchService.dispatch(updated.getId());
         return ResponseEntity.ok(QuoteResponse.from(updated));
     }
 
@@ -99,7 +133,8 @@ public class AdminQuoteController {
     @GetMapping("/{id}/preview-pdf")
     @Operation(summary = "Télécharger l'aperçu PDF du devis")
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
-    public ResponseEntity<byte[]> getPreviewPdf(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getPreviewPdf(@PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             QuoteRequest request = quoteRequestService.getById(id);
             if (request == null) {
@@ -115,7 +150,16 @@ public class AdminQuoteController {
                 quoteRequestService.loadUserAddresses(request.getUser());
             }
 
-            byte[] pdf = quotePdfService.generateQuote(request, emitter);
+            // Le navigateur revalide à chaque affichage ; 304 si le devis n'a pas changé
+            String etag = "\"" + quotePdfService.fingerprint(request, emitter) + "\"";
+            if (matchesEtag(ifNoneMatch, etag)) {
+                return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
+            }
+
+            byte[] pdf = quotePdfService.render(request, emitter).content();
 
             if (pdf == null || pdf.length == 0) {
                 return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR)
@@ -126,9 +170,8 @@ public class AdminQuoteController {
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("inline", "devis-" + request.getRequestNumber() + ".pdf");
             headers.setContentLength(pdf.length);
-            headers.setCacheControl("no-cache, no-store, must-revalidate");
-            headers.setPragma("no-cache");
-            headers.setExpires(0);
+            headers.setETag(etag);
+            headers.setCacheControl(CacheControl.noCache().cachePrivate());
 
             return ResponseEntity.ok()
                     .headers(headers)
@@ -139,6 +182,22 @@ public class AdminQuoteController {
         }
     }
 
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private User resolveCurrentAdmin() {
         org.springframework.security.core.Authentication authentication = org.springframework.security.core.context.SecurityContextHolder
                 .getContext().getAuthentication();
@@ -178,14 +237,21 @@ public class AdminQuoteController {
 
     @PostMapping("/regenerate-all-pdfs")
     @Operation(summary = "Regénérer tous les PDFs existants avec le nouveau format", 
-               description = "Remplace tous les anciens PDFs dans Supabase par les nouveaux (sans le message du client)")
-    public ResponseEntity<java.util.Map<String, Object>> regenerateAllPdfs() {
+               description = "Lance en tâche de fond le remplacement des PDFs dans Supabase (seuls les PDFs dont le contenu change sont renvoyés). Suivi via /regenerate-all-pdfs/status")
+    public ResponseEntity<java.util.Map<String, Object>> regenerateAllPdfs(
+            org.springframework.security.core.Authentication authentication) {
         try {
-            int regeneratedCount = quoteRequestService.regenerateAllPdfs();
-            return ResponseEntity.ok(java.util.Map.of(
+            BatchJob job = pdfRegenerationJobService.start(authentication != null ? authentication.getName() : null);
+            return ResponseEntity.accepted().body(java.util.Map.of(
                     "success", true,
-                    "message", "Migration des PDFs terminée",
-                    "regeneratedCount", regeneratedCount));
+                    "message", "Regénération des PDFs lancée",
+                    "jobId", job.getId(),
+                    "total", job.getTotal()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT)
+                    .body(java.util.Map.of(
+                            "success", false,
+                            "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(java.util.Map.of(
@@ -194,6 +260,13 @@ public class AdminQuoteController {
         }
     }
 
+    @GetMapping("/regenerate-all-pdfs/status")
+    @Operation(summary = "Avancement de la regénération des PDFs (progression et temps restant estimé)")
+    public ResponseEntity<java.util.Map<String, Object>> regenerateAllPdfsStatus() {
+        java.util.Map<String, Object> status = pdfRegenerationJobService.status();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
     private QuoteAdminUpdate toServiceUpdate(QuoteAdminUpdateRequest payload) {
         List<QuoteAdminItem> items = payload.items() != null
                 ? payload.items().stream()
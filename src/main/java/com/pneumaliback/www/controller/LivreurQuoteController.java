@@ -1,15 +1,24 @@
 package com.pneumaliback.www.controller;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
+import com.pneumaliback.www.dto.KeysetPage;
+import com.pneumaliback.www.dto.PresignedUploadRequest;
+import com.pneumaliback.www.dto.PresignedUploadResponse;
 import com.pneumaliback.www.dto.quote.MarkClientAbsentPayload;
 import com.pneumaliback.www.dto.quote.MarkDeliveryPayload;
 import com.pneumaliback.www.dto.quote.QuoteResponse;
+import com.pneumaliback.www.dto.quote.QuoteSummaryResponse;
 import com.pneumaliback.www.entity.QuoteRequest;
 import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.QuoteStatus;
 import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.enums.UploadPurpose;
 import com.pneumaliback.www.repository.UserRepository;
 import com.pneumaliback.www.service.QuoteRequestService;
+import com.pneumaliback.www.service.storage.PresignedUploadService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -19,6 +28,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -29,6 +39,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -41,9 +52,23 @@ public class LivreurQuoteController {
 
     private final QuoteRequestService quoteRequestService;
     private final UserRepository userRepository;
+    private final PresignedUploadService presignedUploadService;
+
+    @GetMapping("/summaries")
+    @Operation(summary = "Devis assignés au livreur, résumés paginés par curseur")
+    public ResponseEntity<KeysetPage<QuoteSummaryResponse>> listAssignedSummaries(
+            @AuthenticationPrincipal UserDetails principal,
+            @RequestParam(name = "status", required = false) List<QuoteStatus> statuses,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        User livreur = resolveLivreur(principal);
+        return ResponseEntity.ok(quoteRequestService.pageForLivreur(livreur, statuses, from, to, cursor, size));
+    }
 
     @GetMapping
-    @Operation(summary = "Devis assignés au livreur")
+    @Operation(summary = "Devis assignés au livreur", deprecated = true, description = "Charge tous les devis avec leurs articles : préférer /summaries")
     @ApiResponse(responseCode = "200", description = "Liste des devis", content = @Content(array = @ArraySchema(schema = @Schema(implementation = QuoteResponse.class))))
     public ResponseEntity<List<QuoteResponse>> listAssigned(
             @AuthenticationPrincipal UserDetails principal) {
@@ -54,6 +79,16 @@ public class LivreurQuoteController {
         return ResponseEntity.ok(responses);
     }
 
+    @PostMapping("/photo-uploads")
+    @Operation(summary = "Préparer l'envoi direct d'une photo de livraison", description = "Renvoie l'URL d'envoi direct au stockage et le ticket à joindre ensuite (photoUploadTicket)")
+    public ResponseEntity<PresignedUploadResponse> presignPhotoUpload(
+            @AuthenticationPrincipal UserDetails principal,
+            @Valid @RequestBody PresignedUploadRequest payload) throws IOException {
+        User livreur = resolveLivreur(principal);
+        return ResponseEntity.ok(presignedUploadService.issue(UploadPurpose.DELIVERY_PHOTO,
+                payload.contentType(), payload.size(), null, livreur.getEmail()));
+    }
+
     @PostMapping("/{id}/complete")
     @Operation(summary = "Confirmer la livraison d'un devis avec preuves")
     public ResponseEntity<QuoteResponse> markDelivered(
@@ -63,7 +98,7 @@ public class LivreurQuoteController {
         User livreur = resolveLivreur(principal);
         QuoteRequest updated = quoteRequestService.markDelivered(
                 id, livreur, payload.latitude(), payload.longitude(),
-                payload.photoBase64(), payload.signatureData(), payload.deliveryNotes());
+                payload.photoBase64(), payload.photoUploadTicket(), payload.signatureData(), payload.deliveryNotes());
         return ResponseEntity.ok(QuoteResponse.from(updated));
     }
 
@@ -74,7 +109,8 @@ public class LivreurQuoteController {
             @PathVariable Long id,
             @Valid @RequestBody MarkClientAbsentPayload payload) {
         User livreur = resolveLivreur(principal);
-        QuoteRequest updated = quoteRequestService.markClientAbsent(id, livreur, payload.photoBase64(), payload.notes());
+        QuoteRequest updated = quoteRequestService.markClientAbsent(id, livreur, payload.photoBase64(),
+                payload.photoUploadTicket(), payload.notes());
         return ResponseEntity.ok(QuoteResponse.from(updated));
     }
 
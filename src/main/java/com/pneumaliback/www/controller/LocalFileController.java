@@ -0,0 +1,167 @@
+package com.pneumaliback.www.controller;
+
+import com.pneumaliback.www.service.storage.LocalStorageBackend;
+import com.pneumaliback.www.service.storage.PresignedUploadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sert les fichiers du stockage local (app.storage.backend=local) et reçoit
+ * les envois directs annoncés par un ticket d'upload
+ *
+ * Sous Tomcat, le corps est envoyé par sendfile (copie noyau du fichier vers
+ * la socket) ; à défaut, par FileChannel.transferTo.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Storage", description = "Gestion du stockage des fichiers")
+public class LocalFileController {
+
+    // Attributs de requête de Tomcat pour l'envoi par sendfile
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalStorageBackend localStorageBackend;
+    private final PresignedUploadService presignedUploadService;
+
+    @PutMapping(LocalStorageBackend.UPLOAD_PATH)
+    @Operation(summary = "Envoi direct d'un fichier", description = "Reçoit un fichier annoncé par un ticket d'upload (stockage local)")
+    public ResponseEntity<?> receiveUpload(@RequestParam("ticket") String ticket, HttpServletRequest request) {
+        PresignedUploadService.UploadTicket upload;
+        try {
+            upload = presignedUploadService.verifyForUpload(ticket);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+        long length = request.getContentLengthLong();
+        if (length <= 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED)
+                    .body(Map.of("error", "En-tête Content-Length obligatoire"));
+        }
+        if (length > upload.maxSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("error", "Fichier trop volumineux"));
+        }
+        try {
+            presignedUploadService.claimUpload(upload);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+        try (InputStream in = request.getInputStream()) {
+            localStorageBackend.upload(in, length, upload.path(), upload.contentType());
+            return ResponseEntity.ok(Map.of("message", "Fichier reçu"));
+        } catch (IOException e) {
+            log.error("Erreur lors de la réception du fichier {}", upload.path(), e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Erreur lors de la réception du fichier"));
+        }
+    }
+
+    @GetMapping(LocalStorageBackend.URL_PREFIX + "**")
+    @Operation(summary = "Fichier stocké localement", description = "Sert un fichier du stockage local (en-tête Range supporté)")
+    public void serveFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String prefix = request.getContextPath() + LocalStorageBackend.URL_PREFIX;
+        String filePath = UriUtils.decode(request.getRequestURI().substring(prefix.length()), StandardCharsets.UTF_8);
+
+        Path file;
+        try {
+            file = localStorageBackend.locate(filePath);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        // Même nom réutilisé lors d'une regénération (PDF de devis) : revalidation systématique
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePublic().getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(LocalStorageBackend.etag(file), lastModified)) {
+            return;
+        }
+
+        response.setContentType(LocalStorageBackend.contentType(file).toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && !range.isBlank()) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Plages multiples : fichier complet
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length) {
+                        throw new IllegalArgumentException("Plage hors du fichier");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = channel.transferTo(position, end + 1 - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.pneumaliback.www.controller;
 
 import com.pneumaliback.www.dto.MessageDTO;
+import com.pneumaliback.www.dto.chat.ChatSendPayload;
+import com.pneumaliback.www.dto.chat.ChatTypingEvent;
 import com.pneumaliback.www.entity.Message;
+import com.pneumaliback.www.entity.User;
 import com.pneumaliback.www.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,14 +13,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/messages")
 @RequiredArgsConstructor
+@Slf4j
 @CrossOrigin(origins = "*")
 @Tag(name = "Messages", description = "Messagerie entre utilisateurs")
 public class MessageController {
@@ -146,12 +160,124 @@ public class MessageController {
     })
     public ResponseEntity<?> threads(@RequestParam Long userId,
             @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "50") int limit) {
         try {
-            return ResponseEntity.ok(messageService.threadList(userId, q, limit));
+            return ResponseEntity.ok(messageService.threadList(userId, q, cursor, limit));
         } catch (Exception e) {
             return handleException(e);
         }
     }
-}
 
+    @GetMapping("/depuis")
+    @Operation(summary = "Messages envoyés ou reçus après un id (reprise après reconnexion)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Messages récupérés"),
+            @ApiResponse(responseCode = "400", description = "Paramètres invalides", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "500", description = "Erreur interne", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<?> depuis(@RequestParam Long userId,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(messageService.since(userId, afterId, limit));
+        } catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
+    // ===== ENDPOINTS WEBSOCKET (CHAT) =====
+    // L'utilisateur est toujours celui de la session STOMP authentifiée, jamais
+    // un id transmis dans le payload.
+
+    /**
+     * Envoi d'un message
+     * Endpoint: /app/chat.send
+     * Poussé ensuite sur /user/queue/messages du destinataire et de l'auteur
+     */
+    @MessageMapping("/chat.send")
+    @PreAuthorize("isAuthenticated()")
+    public void envoyerWebSocket(@Payload ChatSendPayload payload, Principal principal) {
+        try {
+            User author = currentUser(principal);
+            messageService.send(author.getId(), payload.recipientId(), payload.content(), payload.clientId());
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi de message via WebSocket: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Accusé de réception
+     * Endpoint: /app/chat.delivered, payload {"messageIds": [..]}
+     */
+    @MessageMapping("/chat.delivered")
+    @PreAuthorize("isAuthenticated()")
+    public void accuserReceptionWebSocket(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            User recipient = currentUser(principal);
+            List<Long> ids = ((List<?>) payload.get("messageIds")).stream()
+                    .map(id -> Long.valueOf(id.toString()))
+                    .toList();
+            messageService.markDelivered(recipient.getId(), ids);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'accusé de réception via WebSocket: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Accusé de lecture de la conversation avec un interlocuteur
+     * Endpoint: /app/chat.read, payload {"interlocuteurId": ..}
+     */
+    @MessageMapping("/chat.read")
+    @PreAuthorize("isAuthenticated()")
+    public void marquerLueWebSocket(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            User recipient = currentUser(principal);
+            Long interlocuteurId = Long.valueOf(payload.get("interlocuteurId").toString());
+            messageService.readConversation(recipient.getId(), interlocuteurId);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'accusé de lecture via WebSocket: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indicateur de saisie
+     * Endpoint: /app/chat.typing, payload {"userId": destinataire, "typing": true}
+     */
+    @MessageMapping("/chat.typing")
+    @PreAuthorize("isAuthenticated()")
+    public void saisieWebSocket(@Payload ChatTypingEvent payload, Principal principal) {
+        try {
+            User author = currentUser(principal);
+            messageService.typing(author.getId(), payload.userId(), payload.typing());
+        } catch (Exception e) {
+            log.error("Erreur lors de l'indicateur de saisie via WebSocket: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reprise après reconnexion : messages postérieurs au dernier id vu
+     * Endpoint: /app/chat.resume, payload {"afterId": ..}
+     * Réponse sur /user/queue/messages/resume
+     */
+    @MessageMapping("/chat.resume")
+    @SendToUser(destinations = "/queue/messages/resume", broadcast = false)
+    @PreAuthorize("isAuthenticated()")
+    public Object reprendreWebSocket(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            User user = currentUser(principal);
+            Object afterId = payload.get("afterId");
+            return messageService.since(user.getId(), afterId != null ? Long.valueOf(afterId.toString()) : 0L, 200);
+        } catch (Exception e) {
+            log.error("Erreur lors de la reprise des messages via WebSocket: {}", e.getMessage());
+            return Map.of("error", "Reprise impossible");
+        }
+    }
+
+    private User currentUser(Principal principal) {
+        if (principal instanceof Authentication auth && auth.getPrincipal() instanceof User user) {
+            return user;
+        }
+        throw new IllegalArgumentException("Session WebSocket non authentifiée");
+    }
+}
@@ -87,6 +87,24 @@ public class NotificationController {
         }
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Recherche plein texte dans les notifications (classée, surlignée, paginée par curseur)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Résultats récupérés"),
+            @ApiResponse(responseCode = "400", description = "Paramètres invalides", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "500", description = "Erreur interne", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<?> search(@RequestParam Long userId,
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(notificationService.searchFullText(userId, q, cursor, size));
+        } catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
     @PostMapping("/{id}/lu")
     @Operation(summary = "Marquer une notification comme lue")
     @ApiResponses(value = {
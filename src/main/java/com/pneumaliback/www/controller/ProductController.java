@@ -1,5 +1,6 @@
 package com.pneumaliback.www.controller;
 
+import com.pneumaliback.www.dto.CompleteUploadRequest;
 import com.pneumaliback.www.dto.CreateProductRequest;
 import com.pneumaliback.www.dto.UpdateProductRequest;
 import com.pneumaliback.www.entity.Category;
@@ -8,17 +9,21 @@ import com.pneumaliback.www.entity.Brand;
 import com.pneumaliback.www.repository.CategoryRepository;
 import com.pneumaliback.www.repository.BrandRepository;
 import com.pneumaliback.www.service.ProductService;
-import com.pneumaliback.www.service.StorageService;
+import com.pneumaliback.www.service.image.ImageProcessingService;
+import com.pneumaliback.www.service.image.ImageRenditions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -35,7 +40,7 @@ public class ProductController {
         private final ProductService productService;
         private final CategoryRepository categoryRepository;
         private final BrandRepository brandRepository;
-        private final StorageService storageService;
+        private final ImageProcessingService imageProcessingService;
 
         /**
          * Endpoints publics de consultation des produits
@@ -141,8 +146,10 @@ public class ProductController {
                         @RequestParam(value = "active", defaultValue = "true") String activeStr) {
                 try {
                         String imageUrl = null;
+                        ImageRenditions renditions = null;
                         if (image != null && !image.isEmpty()) {
-                                imageUrl = storageService.uploadFile(image, "products");
+                                renditions = imageProcessingService.processProductImage(image);
+                                imageUrl = renditions.fullUrl();
                         }
 
                         BigDecimal price = new BigDecimal(priceStr);
@@ -174,6 +181,9 @@ public class ProductController {
                                         imageUrl, description, categoryId, active);
 
                         Product product = productService.createFromRequest(request);
+                        if (renditions != null) {
+                                product = productService.attachImageRenditions(product.getId(), renditions);
+                        }
                         return ResponseEntity.ok(product);
                 } catch (NumberFormatException e) {
                         return ResponseEntity.badRequest()
@@ -214,16 +224,17 @@ public class ProductController {
                         @RequestParam(value = "active", required = false) String activeStr) {
                 try {
                         String imageUrl = null;
+                        ImageRenditions renditions = null;
+                        String[] previousImages = null;
                         if (image != null && !image.isEmpty()) {
+                                // Les anciennes images ne sont supprimées qu'une fois les nouvelles
+                                // calculées, envoyées et rattachées au produit
                                 Product existingProduct = productService.findById(id);
-                                if (existingProduct.getImageUrl() != null && !existingProduct.getImageUrl().isBlank()) {
-                                        String oldFilePath = storageService
-                                                        .extractFilePathFromUrl(existingProduct.getImageUrl());
-                                        if (oldFilePath != null) {
-                                                storageService.deleteFile(oldFilePath);
-                                        }
-                                }
-                                imageUrl = storageService.uploadFile(image, "products");
+                                previousImages = new String[] { existingProduct.getImageUrl(),
+                                                existingProduct.getImageCardUrl(),
+                                                existingProduct.getImageThumbnailUrl() };
+                                renditions = imageProcessingService.processProductImage(image);
+                                imageUrl = renditions.fullUrl();
                         }
 
                         BigDecimal price = priceStr != null && !priceStr.isBlank() ? new BigDecimal(priceStr) : null;
@@ -257,7 +268,22 @@ public class ProductController {
                                         tireConditionId,
                                         imageUrl, description, categoryId, active);
 
-                        Product product = productService.updateFromRequest(id, request);
+                        Product product;
+                        try {
+                                product = productService.updateFromRequest(id, request);
+                                if (renditions != null) {
+                                        product = productService.attachImageRenditions(id, renditions);
+                                }
+                        } catch (RuntimeException e) {
+                                if (renditions != null) {
+                                        imageProcessingService.deleteRenditions(renditions.fullUrl(),
+                                                        renditions.cardUrl(), renditions.thumbnailUrl());
+                                }
+                                throw e;
+                        }
+                        if (previousImages != null) {
+                                imageProcessingService.deleteRenditions(previousImages);
+                        }
                         return ResponseEntity.ok(product);
                 } catch (NumberFormatException e) {
                         return ResponseEntity.badRequest()
@@ -270,6 +296,29 @@ public class ProductController {
                 // Les autres exceptions sont gérées par GlobalExceptionHandler
         }
 
+        @PostMapping("/{id}/image")
+        @Operation(summary = "Rattacher une image envoyée directement au stockage", description = "Ticket obtenu via POST /api/storage/presigned-uploads (usage PRODUCT_IMAGE). "
+                        + "L'original est rattaché immédiatement, les déclinaisons le remplacent une fois calculées.")
+        @PreAuthorize("hasAnyRole('ADMIN','DEVELOPER')")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Image rattachée", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class))),
+                        @ApiResponse(responseCode = "400", description = "Ticket ou fichier invalide", content = @Content(mediaType = "application/json"))
+        })
+        public ResponseEntity<?> attachUploadedImage(
+                        @PathVariable Long id,
+                        @AuthenticationPrincipal UserDetails userDetails,
+                        @Valid @RequestBody CompleteUploadRequest request) {
+                try {
+                        return ResponseEntity.ok(productService.attachUploadedImage(id, request.ticket(),
+                                        userDetails.getUsername()));
+                } catch (IOException e) {
+                        return ResponseEntity.badRequest()
+                                        .body(java.util.Map.of("error",
+                                                        "Erreur lors de la vérification de l'image: " + e.getMessage()));
+                }
+                // Les autres exceptions sont gérées par GlobalExceptionHandler
+        }
+
         @DeleteMapping("/{id}")
         @Operation(summary = "Supprimer un produit")
         @PreAuthorize("hasAnyRole('ADMIN','DEVELOPER')")
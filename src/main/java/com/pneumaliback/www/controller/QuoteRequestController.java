@@ -1,11 +1,15 @@
 package com.pneumaliback.www.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import com.pneumaliback.www.dto.KeysetPage;
 import com.pneumaliback.www.dto.quote.CreateQuoteRequestPayload;
 import com.pneumaliback.www.dto.quote.QuoteResponse;
+import com.pneumaliback.www.dto.quote.QuoteSummaryResponse;
 import com.pneumaliback.www.entity.QuoteRequest;
 import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.QuoteStatus;
 import com.pneumaliback.www.repository.UserRepository;
 import com.pneumaliback.www.service.QuoteRequestService;
 
@@ -16,6 +20,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,6 +30,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -51,8 +57,21 @@ public class QuoteRequestController {
         return ResponseEntity.ok(QuoteResponse.from(request));
     }
 
+    @GetMapping("/summaries")
+    @Operation(summary = "Devis du client connecté, résumés paginés par curseur")
+    public ResponseEntity<KeysetPage<QuoteSummaryResponse>> listSummaries(
+            @AuthenticationPrincipal UserDetails principal,
+            @RequestParam(name = "status", required = false) List<QuoteStatus> statuses,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        User user = resolveUser(principal);
+        return ResponseEntity.ok(quoteRequestService.pageForUser(user, statuses, from, to, cursor, size));
+    }
+
     @GetMapping
-    @Operation(summary = "Lister les devis du client connecté")
+    @Operation(summary = "Lister les devis du client connecté", deprecated = true, description = "Charge tous les devis avec leurs articles : préférer /summaries")
     @ApiResponse(responseCode = "200", description = "Liste des devis", content = @Content(array = @ArraySchema(schema = @Schema(implementation = QuoteResponse.class))))
     public ResponseEntity<List<QuoteResponse>> listQuotes(
             @AuthenticationPrincipal UserDetails principal) {
@@ -1,14 +1,25 @@
 package com.pneumaliback.www.controller;
 
+import com.pneumaliback.www.dto.CompleteUploadRequest;
+import com.pneumaliback.www.dto.PresignedUploadRequest;
+import com.pneumaliback.www.enums.UploadPurpose;
 import com.pneumaliback.www.service.StorageService;
+import com.pneumaliback.www.service.storage.PresignedUploadService;
+import com.pneumaliback.www.service.storage.StorageDownload;
+import com.pneumaliback.www.service.storage.StoredUpload;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.Map;
@@ -22,10 +33,59 @@ import java.util.Map;
 public class StorageController {
 
     private final StorageService storageService;
+    private final PresignedUploadService presignedUploadService;
+
+    @PostMapping("/presigned-uploads")
+    @PreAuthorize("hasAnyRole('ADMIN','DEVELOPER')")
+    @Operation(summary = "Préparer un envoi direct", description = "Renvoie une URL d'envoi direct au stockage (le fichier ne transite pas par l'API) et un ticket, "
+            + "à transmettre ensuite à POST /api/products/{id}/image (PRODUCT_IMAGE) ou POST /api/storage/presigned-uploads/complete (FILE)")
+    public ResponseEntity<?> presignUpload(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Valid @RequestBody PresignedUploadRequest request) {
+        UploadPurpose purpose = request.purpose() != null ? request.purpose() : UploadPurpose.FILE;
+        if (purpose == UploadPurpose.DELIVERY_PHOTO) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Usage réservé aux livreurs"));
+        }
+        try {
+            return ResponseEntity.ok(presignedUploadService.issue(purpose, request.contentType(), request.size(),
+                    request.folder(), userDetails.getUsername()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Erreur lors de la préparation de l'envoi direct", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Erreur lors de la préparation de l'envoi"));
+        }
+    }
+
+    @PostMapping("/presigned-uploads/complete")
+    @PreAuthorize("hasAnyRole('ADMIN','DEVELOPER')")
+    @Operation(summary = "Confirmer un envoi direct", description = "Vérifie le fichier reçu par le stockage et renvoie son URL publique")
+    public ResponseEntity<?> completeUpload(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Valid @RequestBody CompleteUploadRequest request) {
+        try {
+            StoredUpload upload = presignedUploadService.complete(request.ticket(), UploadPurpose.FILE,
+                    userDetails.getUsername());
+            return ResponseEntity.ok(Map.of(
+                    "url", upload.url(),
+                    "size", upload.size(),
+                    "message", "Fichier uploadé avec succès"));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Erreur lors de la vérification de l'envoi direct", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Erreur lors de la vérification du fichier"));
+        }
+    }
 
     @PostMapping("/upload")
     @PreAuthorize("hasAnyRole('ADMIN','DEVELOPER')")
-    @Operation(summary = "Upload un fichier", description = "Upload un fichier vers Supabase Storage")
+    @Operation(summary = "Upload un fichier", description = "Upload un fichier vers le stockage")
     public ResponseEntity<?> uploadFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "folder", defaultValue = "products") String folder) {
@@ -49,9 +109,49 @@ public class StorageController {
         }
     }
 
+    @GetMapping("/download")
+    @Operation(summary = "Télécharger un fichier", description = "Relaie un fichier du stockage en flux (en-tête Range supporté)")
+    public ResponseEntity<StreamingResponseBody> downloadFile(
+            @RequestParam("path") String filePath,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        StorageDownload download;
+        try {
+            download = storageService.openDownload(filePath, range);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Erreur lors du téléchargement du fichier {}", filePath, e);
+            return ResponseEntity.internalServerError().build();
+        }
+        if (download == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, download.contentType());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (download.contentLength() >= 0) {
+            headers.setContentLength(download.contentLength());
+        }
+        if (download.contentRange() != null) {
+            headers.set(HttpHeaders.CONTENT_RANGE, download.contentRange());
+        }
+        if (download.etag() != null) {
+            headers.set(HttpHeaders.ETAG, download.etag());
+        }
+
+        // Copie par blocs de taille fixe : la mémoire utilisée ne dépend pas de la taille du fichier
+        StreamingResponseBody body = out -> {
+            try (download) {
+                download.body().transferTo(out);
+            }
+        };
+        return ResponseEntity.status(download.status()).headers(headers).body(body);
+    }
+
     @DeleteMapping("/delete")
     @PreAuthorize("hasAnyRole('ADMIN','DEVELOPER')")
-    @Operation(summary = "Supprimer un fichier", description = "Supprime un fichier de Supabase Storage")
+    @Operation(summary = "Supprimer un fichier", description = "Supprime un fichier du stockage")
     public ResponseEntity<?> deleteFile(@RequestParam("path") String filePath) {
         try {
             storageService.deleteFile(filePath);
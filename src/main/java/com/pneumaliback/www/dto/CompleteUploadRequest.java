@@ -0,0 +1,8 @@
+package com.pneumaliback.www.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record CompleteUploadRequest(
+    @NotBlank(message = "Le ticket d'upload est obligatoire")
+    String ticket
+) {}
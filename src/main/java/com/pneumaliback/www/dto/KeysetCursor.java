@@ -0,0 +1,36 @@
+package com.pneumaliback.www.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position d'une pagination par curseur (date décroissante, puis id
+ * décroissant), échangée avec le client sous la forme "date_id"
+ *
+ * Sans curseur, la position précède toute ligne : date au-delà de tout
+ * horodatage réel (acceptée par PostgreSQL, contrairement à LocalDateTime.MAX).
+ */
+public record KeysetCursor(LocalDateTime lastDate, long lastId) {
+
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    /**
+     * @param cursor curseur renvoyé par la page précédente, null ou vide pour
+     *               la première page
+     */
+    public static KeysetCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        int sep = cursor.lastIndexOf('_');
+        try {
+            return new KeysetCursor(LocalDateTime.parse(cursor.substring(0, sep)),
+                    Long.parseLong(cursor.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide: " + cursor);
+        }
+    }
+
+    public static String format(LocalDateTime date, Long id) {
+        return date + "_" + id;
+    }
+}
@@ -0,0 +1,13 @@
+package com.pneumaliback.www.dto;
+
+import java.util.List;
+
+/**
+ * Page paginée par curseur : nextCursor est à renvoyer tel quel pour obtenir
+ * la page suivante (null quand il n'y en a plus)
+ */
+public record KeysetPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext) {
+}
@@ -0,0 +1,39 @@
+package com.pneumaliback.www.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.web.util.HtmlUtils;
+
+import com.pneumaliback.www.repository.NotificationRepository;
+
+/**
+ * Résultat de la recherche plein texte des notifications
+ *
+ * highlight est du HTML sûr : le contenu (messages saisis par d'autres
+ * utilisateurs) est échappé, seuls les <mark> des correspondances restent.
+ */
+public record NotificationSearchHit(
+        Long id,
+        String title,
+        String type,
+        Boolean isRead,
+        LocalDateTime createdAt,
+        BigDecimal rank,
+        String highlight) {
+
+    public static NotificationSearchHit from(NotificationRepository.SearchHitProjection row) {
+        return new NotificationSearchHit(row.getId(), row.getTitle(), row.getType(), row.getIsRead(),
+                row.getCreatedAt(), row.getRank(), highlight(row.getHighlight()));
+    }
+
+    // ts_headline délimite les correspondances par START_SEL/STOP_SEL, retirés du contenu avant l'extrait
+    private static String highlight(String snippet) {
+        if (snippet == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(snippet)
+                .replace(NotificationRepository.START_SEL, "<mark>")
+                .replace(NotificationRepository.STOP_SEL, "</mark>");
+    }
+}
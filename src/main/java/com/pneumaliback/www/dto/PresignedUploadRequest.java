@@ -0,0 +1,15 @@
+package com.pneumaliback.www.dto;
+
+import com.pneumaliback.www.enums.UploadPurpose;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+public record PresignedUploadRequest(
+    UploadPurpose purpose,
+    @NotBlank(message = "Le type de contenu est obligatoire")
+    String contentType,
+    @Positive(message = "La taille du fichier doit être positive")
+    long size,
+    String folder
+) {}
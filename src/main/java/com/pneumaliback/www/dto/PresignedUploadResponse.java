@@ -0,0 +1,16 @@
+package com.pneumaliback.www.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Envoi direct au stockage : le client envoie le fichier à uploadUrl (méthode
+ * et en-têtes indiqués), puis transmet le ticket à l'API pour le rattacher
+ */
+public record PresignedUploadResponse(
+    String ticket,
+    String uploadUrl,
+    String method,
+    Map<String, String> headers,
+    Instant expiresAt
+) {}
@@ -0,0 +1,31 @@
+package com.pneumaliback.www.dto.chat;
+
+import com.pneumaliback.www.entity.Message;
+
+import java.time.LocalDateTime;
+
+/**
+ * Message poussé sur /user/queue/messages (destinataire et auteur)
+ */
+public record ChatMessageEvent(
+        Long id,
+        Long authorId,
+        Long recipientId,
+        String content,
+        LocalDateTime sentAt,
+        Boolean isRead,
+        LocalDateTime deliveredAt,
+        String clientId) {
+
+    public static ChatMessageEvent from(Message message, String clientId) {
+        return new ChatMessageEvent(
+                message.getId(),
+                message.getAuthor().getId(),
+                message.getRecipient().getId(),
+                message.getContent(),
+                message.getSentAt(),
+                message.getIsRead(),
+                message.getDeliveredAt(),
+                clientId);
+    }
+}
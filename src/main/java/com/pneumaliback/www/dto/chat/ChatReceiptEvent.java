@@ -0,0 +1,20 @@
+package com.pneumaliback.www.dto.chat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Accusé poussé à l'auteur sur /user/queue/messages/receipts
+ *
+ * - DELIVERED : messageId reçu par userId
+ * - READ : conversation lue par userId (messageId null : tous les messages
+ * envoyés jusque-là)
+ */
+public record ChatReceiptEvent(
+        String type,
+        Long messageId,
+        Long userId,
+        LocalDateTime at) {
+
+    public static final String DELIVERED = "DELIVERED";
+    public static final String READ = "READ";
+}
@@ -0,0 +1,13 @@
+package com.pneumaliback.www.dto.chat;
+
+/**
+ * Envoi d'un message via /app/chat.send
+ *
+ * clientId : identifiant temporaire choisi par le client, renvoyé tel quel dans
+ * le ChatMessageEvent pour remplacer le message affiché en optimiste
+ */
+public record ChatSendPayload(
+        Long recipientId,
+        String content,
+        String clientId) {
+}
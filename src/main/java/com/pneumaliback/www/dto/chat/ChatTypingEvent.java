@@ -0,0 +1,12 @@
+package com.pneumaliback.www.dto.chat;
+
+/**
+ * Indicateur de saisie
+ *
+ * Envoyé par le client sur /app/chat.typing avec userId = destinataire, relayé
+ * sur /user/queue/messages/typing du destinataire avec userId = auteur
+ */
+public record ChatTypingEvent(
+        Long userId,
+        boolean typing) {
+}
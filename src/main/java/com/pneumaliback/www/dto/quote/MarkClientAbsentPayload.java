@@ -1,7 +1,9 @@
 package com.pneumaliback.www.dto.quote;
 
 public record MarkClientAbsentPayload(
+        // Obsolète : préférer photoUploadTicket (envoi direct au stockage)
         String photoBase64,
+        String photoUploadTicket,
         String notes
 ) {}
 
@@ -5,7 +5,9 @@ import jakarta.validation.constraints.NotNull;
 public record MarkDeliveryPayload(
         @NotNull Double latitude,
         @NotNull Double longitude,
+        // Obsolète : préférer photoUploadTicket (envoi direct au stockage)
         String photoBase64,
+        String photoUploadTicket,
         String signatureData,
         String deliveryNotes
 ) {}
@@ -8,6 +8,7 @@ import java.util.List;
 
 import com.pneumaliback.www.entity.QuoteRequest;
 import com.pneumaliback.www.entity.QuoteRequestItem;
+import com.pneumaliback.www.enums.QuoteDispatchStage;
 import com.pneumaliback.www.enums.QuoteStatus;
 
 public record QuoteResponse(
@@ -34,6 +35,8 @@ public record QuoteResponse(
         String assignedLivreur,
         Boolean livreurAssignmentEmailSent,
         LocalDateTime updatedAt,
+        QuoteDispatchStage dispatchStage,
+        String dispatchError,
         List<QuoteItemResponse> items) {
 
     public static QuoteResponse from(QuoteRequest request) {
@@ -61,6 +64,8 @@ public record QuoteResponse(
                 request.getAssignedLivreur() != null ? request.getAssignedLivreur().getEmail() : null,
                 request.getLivreurAssignmentEmailSent(),
                 request.getUpdatedAt(),
+                request.getDispatchStage(),
+                request.getDispatchError(),
                 request.getItems().stream()
                         .map(QuoteResponse::mapItem)
                         .toList());
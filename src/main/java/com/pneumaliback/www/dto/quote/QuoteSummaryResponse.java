@@ -0,0 +1,61 @@
+package com.pneumaliback.www.dto.quote;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.pneumaliback.www.enums.QuoteDispatchStage;
+import com.pneumaliback.www.enums.QuoteStatus;
+import com.pneumaliback.www.repository.QuoteRequestRepository;
+
+/**
+ * Ligne des listes de devis : le détail (articles, notes, preuves) est servi
+ * par GET /{id}
+ */
+public record QuoteSummaryResponse(
+        Long id,
+        String requestNumber,
+        String quoteNumber,
+        QuoteStatus status,
+        BigDecimal subtotalRequested,
+        BigDecimal discountTotal,
+        BigDecimal totalQuoted,
+        LocalDate validUntil,
+        LocalDate requestedDeliveryDate,
+        Integer clientAbsentCount,
+        String clientEmail,
+        String clientName,
+        String assignedLivreur,
+        long itemCount,
+        QuoteDispatchStage dispatchStage,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static QuoteSummaryResponse from(QuoteRequestRepository.SummaryProjection row) {
+        return new QuoteSummaryResponse(
+                row.getId(),
+                row.getRequestNumber(),
+                row.getQuoteNumber(),
+                row.getStatus(),
+                row.getSubtotalRequested(),
+                row.getDiscountTotal(),
+                row.getTotalQuoted(),
+                row.getValidUntil(),
+                row.getRequestedDeliveryDate(),
+                row.getClientAbsentCount(),
+                row.getClientEmail(),
+                buildClientName(row),
+                row.getAssignedLivreur(),
+                row.getItemCount() != null ? row.getItemCount() : 0,
+                row.getDispatchStage(),
+                row.getCreatedAt(),
+                row.getUpdatedAt());
+    }
+
+    private static String buildClientName(QuoteRequestRepository.SummaryProjection row) {
+        String firstName = row.getClientFirstName();
+        String lastName = row.getClientLastName();
+        String fullName = ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+        return fullName.isEmpty() ? row.getClientEmail() : fullName;
+    }
+}
@@ -0,0 +1,67 @@
+package com.pneumaliback.www.entity;
+
+import java.time.LocalDateTime;
+
+import com.pneumaliback.www.enums.BatchJobStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Traitement de masse exécuté en tâche de fond, avec point de reprise
+ *
+ * lastProcessedId est mis à jour après chaque lot : un traitement interrompu
+ * (redémarrage, crash) reprend à l'id suivant.
+ */
+@Entity
+@Table(name = "batch_jobs", indexes = {
+        @Index(name = "idx_batch_jobs_type_status", columnList = "job_type, status")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BatchJob extends EntiteAuditable {
+
+    @Column(name = "job_type", nullable = false, length = 64)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private BatchJobStatus status = BatchJobStatus.EN_COURS;
+
+    // Email de l'administrateur à l'origine du traitement
+    @Column(name = "declenche_par")
+    private String triggeredBy;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    @Column(name = "traites", nullable = false)
+    private long processed;
+
+    @Column(name = "reussis", nullable = false)
+    private long succeeded;
+
+    @Column(name = "inchanges", nullable = false)
+    private long unchanged;
+
+    @Column(name = "echecs", nullable = false)
+    private long failed;
+
+    @Column(name = "dernier_id_traite", nullable = false)
+    private long lastProcessedId;
+
+    @Column(name = "date_debut", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "date_fin")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "derniere_erreur", length = 500)
+    private String lastError;
+}
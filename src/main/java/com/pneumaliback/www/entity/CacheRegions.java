@@ -0,0 +1,35 @@
+package com.pneumaliback.www.entity;
+
+import java.util.List;
+
+/**
+ * Régions du cache de second niveau Hibernate
+ *
+ * Chaque nom correspond à un cache déclaré dans ehcache.xml (taille, durée de
+ * vie). Un nom absent du fichier bloque le démarrage.
+ */
+public final class CacheRegions {
+
+    // Entités (lecture-écriture : modifiables par l'administration)
+    public static final String PRODUCTS = "products";
+    public static final String PROMOTIONS = "promotions";
+    public static final String BRANDS = "brands";
+    public static final String CATEGORIES = "categories";
+    public static final String VEHICLE_TYPES = "vehicle-types";
+    public static final String TIRE_CONDITIONS = "tire-conditions";
+
+    // Dimensions de pneus (lecture seule : créées au démarrage, jamais modifiées)
+    public static final String TIRE_DIMENSIONS = "tire-dimensions";
+
+    // Résultats de requêtes : listes du catalogue et listes de référence
+    public static final String CATALOG_QUERIES = "catalog-queries";
+    public static final String REFERENCE_QUERIES = "reference-queries";
+
+    public static final List<String> ENTITY_REGIONS = List.of(PRODUCTS, PROMOTIONS, BRANDS, CATEGORIES,
+            VEHICLE_TYPES, TIRE_CONDITIONS, TIRE_DIMENSIONS);
+
+    public static final List<String> QUERY_REGIONS = List.of(CATALOG_QUERIES, REFERENCE_QUERIES);
+
+    private CacheRegions() {
+    }
+}
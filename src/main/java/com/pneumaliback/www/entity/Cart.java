@@ -5,6 +5,9 @@ import java.util.List;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
@@ -13,9 +16,25 @@ import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "carts")
+// Vue panier : lignes et fiche de chaque produit
+@NamedEntityGraph(name = Cart.VIEW, attributeNodes = @NamedAttributeNode(value = "items", subgraph = "item"),
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                @NamedSubgraph(name = "product", attributeNodes = {
+                        @NamedAttributeNode("brand"),
+                        @NamedAttributeNode("width"),
+                        @NamedAttributeNode("profile"),
+                        @NamedAttributeNode("diameter"),
+                        @NamedAttributeNode("vehicleType"),
+                        @NamedAttributeNode("tireCondition"),
+                        @NamedAttributeNode("category")
+                })
+        })
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Cart extends EntiteAuditable {
+    public static final String VIEW = "Cart.view";
+
     @OneToOne
     private User user;
 
@@ -1,7 +1,10 @@
 package com.pneumaliback.www.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
@@ -16,9 +19,10 @@ public class CartItem extends EntiteAuditable {
     @Column(nullable = false)
     private int quantity;
 
+    @JsonIgnore
     @ManyToOne(optional = false)
     private Cart cart;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Product product;
 }
@@ -9,8 +9,12 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
@@ -21,15 +25,20 @@ import lombok.EqualsAndHashCode;
 @Table(name = "commissions", uniqueConstraints = {
         @UniqueConstraint(name = "uk_commission_order", columnNames = {"order_id"})
 })
+// Liste d'administration : influenceur et son compte ; la commande reste un identifiant
+@NamedEntityGraph(name = Commission.ADMIN_LIST,
+        attributeNodes = @NamedAttributeNode(value = "influenceur", subgraph = "influenceur"),
+        subgraphs = @NamedSubgraph(name = "influenceur", attributeNodes = @NamedAttributeNode("user")))
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Commission extends EntiteAuditable {
+    public static final String ADMIN_LIST = "Commission.adminList";
 
     @ManyToOne(optional = false)
     @JoinColumn(name = "influenceur_id", nullable = false)
     private Influenceur influenceur;
 
-    @OneToOne(optional = false)
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
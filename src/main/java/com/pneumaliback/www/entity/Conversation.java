@@ -0,0 +1,59 @@
+package com.pneumaliback.www.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Résumé d'une conversation entre deux utilisateurs (une ligne par paire)
+ *
+ * userA porte toujours le plus petit id. Mise à jour par MessageService à
+ * chaque envoi / lecture, pour que la liste des threads soit une simple
+ * lecture indexée au lieu d'un GROUP BY sur tous les messages.
+ */
+@Entity
+@Table(name = "conversations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_conversations_paire", columnNames = { "utilisateur_a_id", "utilisateur_b_id" })
+}, indexes = {
+        @Index(name = "idx_conversations_a_date", columnList = "utilisateur_a_id, date_dernier_message, id"),
+        @Index(name = "idx_conversations_b_date", columnList = "utilisateur_b_id, date_dernier_message, id")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class Conversation extends EntiteAuditable {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "utilisateur_a_id", nullable = false)
+    private User userA;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "utilisateur_b_id", nullable = false)
+    private User userB;
+
+    @Column(name = "dernier_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "dernier_auteur_id", nullable = false)
+    private Long lastAuthorId;
+
+    @Column(name = "date_dernier_message", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "apercu", length = 120)
+    private String preview;
+
+    @Column(name = "non_lus_a", nullable = false)
+    private Integer unreadA = 0;
+
+    @Column(name = "non_lus_b", nullable = false)
+    private Integer unreadB = 0;
+}
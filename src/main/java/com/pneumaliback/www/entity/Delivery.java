@@ -4,11 +4,18 @@ import com.pneumaliback.www.enums.DeliveryStatus;
 import com.pneumaliback.www.entity.User;
 
 import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Index;
@@ -19,9 +26,20 @@ import lombok.EqualsAndHashCode;
 @Table(name = "deliveries", indexes = {
         @Index(name = "idx_deliveries_zone", columnList = "zone")
 })
+// Tournée du livreur : commande, adresse et livreur
+@NamedEntityGraph(name = Delivery.DETAIL, attributeNodes = {
+        @NamedAttributeNode(value = "order", subgraph = "order"),
+        @NamedAttributeNode("address"),
+        @NamedAttributeNode("assignedLivreur")
+}, subgraphs = @NamedSubgraph(name = "order", attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("promotion"),
+        @NamedAttributeNode("payment")
+}))
 @Data
 @EqualsAndHashCode(callSuper = true, exclude = {"order"})
 public class Delivery extends EntiteAuditable {
+    public static final String DETAIL = "Delivery.detail";
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -36,7 +54,8 @@ public class Delivery extends EntiteAuditable {
     @Column(precision = 10, scale = 2)
     private BigDecimal shippingFee;
 
-    @OneToOne
+    @JsonIgnoreProperties("delivery")
+    @OneToOne(fetch = FetchType.LAZY)
     private Order order;
 
     @ManyToOne
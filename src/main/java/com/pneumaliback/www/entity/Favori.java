@@ -3,15 +3,32 @@ package com.pneumaliback.www.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "favoris")
+// Liste des favoris : fiche de chaque produit
+@NamedEntityGraph(name = Favori.WITH_PRODUCT, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode(value = "product", subgraph = "product")
+}, subgraphs = @NamedSubgraph(name = "product", attributeNodes = {
+        @NamedAttributeNode("brand"),
+        @NamedAttributeNode("width"),
+        @NamedAttributeNode("profile"),
+        @NamedAttributeNode("diameter"),
+        @NamedAttributeNode("vehicleType"),
+        @NamedAttributeNode("tireCondition"),
+        @NamedAttributeNode("category")
+}))
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Favori extends EntiteAuditable {
+    public static final String WITH_PRODUCT = "Favori.withProduct";
 
     @Column(length = 500)
     private String personalComment;
@@ -4,7 +4,9 @@ import java.math.BigDecimal;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.Column;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
@@ -12,9 +14,11 @@ import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "influenceurs")
+@NamedEntityGraph(name = Influenceur.WITH_USER, attributeNodes = @NamedAttributeNode("user"))
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Influenceur extends EntiteAuditable {
+    public static final String WITH_USER = "Influenceur.withUser";
 
     @Column(nullable = false, precision = 5, scale = 2)
     private BigDecimal commissionRate;
@@ -25,6 +29,6 @@ public class Influenceur extends EntiteAuditable {
     @Column(nullable = false)
     private boolean archived = false;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     private User user;
 }
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -12,7 +13,10 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_destinataire_id", columnList = "destinataire_id, id"),
+        @Index(name = "idx_messages_auteur_id", columnList = "auteur_id, id")
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Message extends EntiteAuditable {
@@ -32,4 +36,7 @@ public class Message extends EntiteAuditable {
 
     @Column(name = "est_lu")
     private Boolean isRead = false;
+
+    @Column(name = "date_reception")
+    private LocalDateTime deliveredAt;
 }
@@ -7,7 +7,10 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_recipient_read_created", columnList = "user_id, est_lu, created_at"),
+        @Index(name = "idx_notifications_created_at", columnList = "created_at")
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Notification extends EntiteAuditable {
@@ -3,6 +3,7 @@ package com.pneumaliback.www.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.pneumaliback.www.enums.OrderStatus;
 
 import java.math.BigDecimal;
@@ -13,6 +14,9 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
@@ -24,9 +28,29 @@ import lombok.EqualsAndHashCode;
 @Table(name = "orders", indexes = {
         @Index(name = "idx_orders_promotion_id", columnList = "promotion_id")
 })
+// Détail de commande : lignes et fiche produit, promotion, paiement et livraison
+@NamedEntityGraph(name = Order.DETAIL, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode(value = "items", subgraph = "item"),
+        @NamedAttributeNode("promotion"),
+        @NamedAttributeNode("payment"),
+        @NamedAttributeNode("delivery")
+}, subgraphs = {
+        @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+        @NamedSubgraph(name = "product", attributeNodes = {
+                @NamedAttributeNode("brand"),
+                @NamedAttributeNode("width"),
+                @NamedAttributeNode("profile"),
+                @NamedAttributeNode("diameter"),
+                @NamedAttributeNode("vehicleType"),
+                @NamedAttributeNode("tireCondition"),
+                @NamedAttributeNode("category")
+        })
+})
 @Data
 @EqualsAndHashCode(callSuper = true, exclude = { "delivery", "payment", "items" })
 public class Order extends EntiteAuditable {
+    public static final String DETAIL = "Order.detail";
 
     @Column(name = "order_number", unique = true, length = 32)
     private String orderNumber;
@@ -41,9 +65,11 @@ public class Order extends EntiteAuditable {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 
+    @JsonIgnoreProperties("order")
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private Payment payment;
 
+    @JsonIgnoreProperties("order")
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private Delivery delivery;
 
@@ -2,6 +2,8 @@ package com.pneumaliback.www.entity;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToOne;
@@ -21,6 +23,7 @@ public class OrderItem extends EntiteAuditable {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal unitPrice;
 
+    @JsonIgnore
     @ManyToOne(optional = false)
     private Order order;
 
@@ -2,6 +2,7 @@ package com.pneumaliback.www.entity;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.pneumaliback.www.enums.PaymentMethod;
 import com.pneumaliback.www.enums.PaymentStatus;
 
@@ -9,6 +10,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Index;
@@ -43,6 +45,7 @@ public class Payment extends EntiteAuditable {
     @Column(name = "invoice_token", length = 100)
     private String invoiceToken;
 
-    @OneToOne
+    @JsonIgnoreProperties("payment")
+    @OneToOne(fetch = FetchType.LAZY)
     private Order order;
 }
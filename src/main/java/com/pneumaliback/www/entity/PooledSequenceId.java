@@ -0,0 +1,20 @@
+package com.pneumaliback.www.entity;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Identifiant tiré d'une séquence propre à la table ({table}_seq), réservé
+ * par blocs (voir PooledSequenceIdGenerator)
+ */
+@IdGeneratorType(PooledSequenceIdGenerator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface PooledSequenceId {
+}
@@ -0,0 +1,54 @@
+package com.pneumaliback.www.entity;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Séquence par table avec optimiseur "pooled" : un appel à la séquence réserve
+ * un bloc de pneumali.id.allocation-size identifiants (propriété Hibernate,
+ * spring.jpa.properties.*). Contrairement à IDENTITY, Hibernate connaît l'id
+ * avant l'INSERT et peut regrouper les insertions en lots JDBC
+ * (hibernate.jdbc.batch_size).
+ *
+ * Les séquences des tables existantes sont créées et alignées sur leur
+ * max(id) par SequenceIdMigration.
+ */
+public class PooledSequenceIdGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "pneumali.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+    public static final String SEQUENCE_SUFFIX = "_seq";
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry)
+            throws MappingException {
+        String table = parameters.getProperty(PersistentIdentifierGenerator.TABLE);
+        if (table == null) {
+            throw new MappingException("Table inconnue pour la séquence d'identifiants");
+        }
+        parameters.setProperty(SEQUENCE_PARAM, table + SEQUENCE_SUFFIX);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize(serviceRegistry)));
+        parameters.setProperty(OptimizableGenerator.OPT_PARAM, "pooled");
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    public static int allocationSize(ServiceRegistry serviceRegistry) {
+        Object value = serviceRegistry.requireService(ConfigurationService.class).getSettings()
+                .get(ALLOCATION_SIZE_SETTING);
+        if (value == null || value.toString().isBlank()) {
+            return DEFAULT_ALLOCATION_SIZE;
+        }
+        int size = Integer.parseInt(value.toString().trim());
+        if (size < 1) {
+            throw new MappingException(ALLOCATION_SIZE_SETTING + " doit être supérieur à 0");
+        }
+        return size;
+    }
+}
@@ -4,14 +4,21 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.pneumaliback.www.enums.TireSeason;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Data;
@@ -19,9 +26,23 @@ import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "products")
+// Fiche produit (catalogue, panier, commande) : marque, dimensions et catégorie
+@NamedEntityGraph(name = Product.CARD, attributeNodes = {
+        @NamedAttributeNode("brand"),
+        @NamedAttributeNode("width"),
+        @NamedAttributeNode("profile"),
+        @NamedAttributeNode("diameter"),
+        @NamedAttributeNode("vehicleType"),
+        @NamedAttributeNode("tireCondition"),
+        @NamedAttributeNode("category")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PRODUCTS)
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Product extends EntiteAuditable {
+    public static final String CARD = "Product.card";
+
     @Column(nullable = false, length = 150)
     private String name;
 
@@ -31,41 +52,48 @@ public class Product extends EntiteAuditable {
     @Column(nullable = false)
     private int stock;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Brand brand;
 
     @Column(length = 50)
     private String size;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private TireWidth width;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private TireProfile profile;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private TireDiameter diameter;
 
     @Enumerated(EnumType.STRING)
     @Column(length = 20)
     private TireSeason season;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private VehicleType vehicleType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private TireCondition tireCondition;
 
+    // Image pleine taille ; vignette et carte servent aux listes du catalogue
     @Column(length = 255)
     private String imageUrl;
 
+    @Column(name = "image_thumbnail_url", length = 255)
+    private String imageThumbnailUrl;
+
+    @Column(name = "image_card_url", length = 255)
+    private String imageCardUrl;
+
     @Column(length = 1000)
     private String description;
 
     @Column(nullable = false)
     private boolean active = true;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Category category;
 
     @JsonIgnore
@@ -5,14 +5,21 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.pneumaliback.www.enums.PromotionType;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Data;
@@ -20,9 +27,17 @@ import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "promotions")
+// Administration des promotions : influenceur et son compte
+@NamedEntityGraph(name = Promotion.WITH_INFLUENCEUR,
+        attributeNodes = @NamedAttributeNode(value = "influenceur", subgraph = "influenceur"),
+        subgraphs = @NamedSubgraph(name = "influenceur", attributeNodes = @NamedAttributeNode("user")))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PROMOTIONS)
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Promotion extends EntiteAuditable {
+    public static final String WITH_INFLUENCEUR = "Promotion.withInfluenceur";
+
     @Column(nullable = false, unique = true, length = 100)
     private String code;
 
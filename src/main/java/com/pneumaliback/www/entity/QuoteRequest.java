@@ -2,10 +2,12 @@ package com.pneumaliback.www.entity;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.pneumaliback.www.enums.QuoteDispatchStage;
 import com.pneumaliback.www.enums.QuoteStatus;
 
 import jakarta.persistence.CascadeType;
@@ -24,7 +26,11 @@ import lombok.EqualsAndHashCode;
 @Entity
 @Table(name = "quote_requests", indexes = {
         @Index(name = "idx_quote_requests_number", columnList = "request_number", unique = true),
-        @Index(name = "idx_quote_requests_quote_number", columnList = "quote_number", unique = true)
+        @Index(name = "idx_quote_requests_quote_number", columnList = "quote_number", unique = true),
+        @Index(name = "idx_quote_requests_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_quote_requests_livreur_created", columnList = "assigned_livreur_id, created_at, id"),
+        @Index(name = "idx_quote_requests_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_quote_requests_dispatch", columnList = "dispatch_stage, dispatch_next_attempt_at")
 })
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -65,6 +71,10 @@ public class QuoteRequest extends EntiteAuditable {
     @Column(name = "quote_pdf_url")
     private String quotePdfUrl;
 
+    // Empreinte du contenu de quote_pdf_url (voir QuotePdfService.fingerprint)
+    @Column(name = "quote_pdf_hash", length = 64)
+    private String quotePdfHash;
+
     @Column(name = "validated_at")
     private OffsetDateTime validatedAt;
 
@@ -99,6 +109,27 @@ public class QuoteRequest extends EntiteAuditable {
     @Column(name = "delivery_details", columnDefinition = "TEXT")
     private String deliveryDetails;
 
+    // Envoi au client en tâche de fond (voir QuoteDispatchService)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dispatch_stage", length = 32)
+    private QuoteDispatchStage dispatchStage;
+
+    @Column(name = "dispatch_attempts", nullable = false, columnDefinition = "integer default 0")
+    private Integer dispatchAttempts = 0;
+
+    @Column(name = "dispatch_next_attempt_at")
+    private LocalDateTime dispatchNextAttemptAt;
+
+    @Column(name = "dispatch_error", length = 500)
+    private String dispatchError;
+
+    // Lien du devis dans l'email et administrateur notifié de l'avancement
+    @Column(name = "dispatch_quote_url", length = 512)
+    private String dispatchQuoteUrl;
+
+    @Column(name = "dispatch_triggered_by")
+    private String dispatchTriggeredBy;
+
     @OneToMany(mappedBy = "quoteRequest", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<QuoteRequestItem> items = new ArrayList<>();
 }
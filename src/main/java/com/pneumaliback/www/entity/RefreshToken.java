@@ -17,7 +17,7 @@ import java.time.Instant;
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequenceId
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -3,8 +3,12 @@ package com.pneumaliback.www.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
@@ -14,6 +18,8 @@ import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "tire_conditions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TIRE_CONDITIONS)
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class TireCondition extends EntiteAuditable {
@@ -1,5 +1,10 @@
 package com.pneumaliback.www.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -8,6 +13,9 @@ import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "tire_diameters")
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheRegions.TIRE_DIMENSIONS)
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class TireDiameter extends EntiteAuditable {
@@ -3,8 +3,12 @@ package com.pneumaliback.www.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToOne;
@@ -15,6 +19,8 @@ import lombok.EqualsAndHashCode;
 
 @Entity
 @Table(name = "vehicle_types")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.VEHICLE_TYPES)
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class VehicleType extends EntiteAuditable {
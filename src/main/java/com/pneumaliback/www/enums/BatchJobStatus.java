@@ -0,0 +1,7 @@
+package com.pneumaliback.www.enums;
+
+public enum BatchJobStatus {
+    EN_COURS,
+    TERMINE,
+    ECHEC
+}
@@ -0,0 +1,11 @@
+package com.pneumaliback.www.enums;
+
+/**
+ * Étape de l'envoi d'un devis au client (QuoteDispatchService)
+ */
+public enum QuoteDispatchStage {
+    GENERATION_PDF, // Rendu du PDF et envoi au stockage
+    ENVOI_EMAIL, // Email "devis disponible" au client
+    TERMINE, // Devis envoyé
+    ECHEC // Abandon après le nombre maximal de tentatives
+}
@@ -0,0 +1,27 @@
+package com.pneumaliback.www.enums;
+
+/**
+ * Usage d'un fichier envoyé directement au stockage, et dossier de dépôt
+ */
+public enum UploadPurpose {
+    // Image produit : déclinaisons générées après coup, l'original est supprimé
+    PRODUCT_IMAGE("incoming/products"),
+    // Photo de livraison/absence : redimensionnée et nettoyée après coup
+    DELIVERY_PHOTO("incoming/deliveries"),
+    // Fichier conservé tel quel dans le dossier demandé
+    FILE(null);
+
+    private final String folder;
+
+    UploadPurpose(String folder) {
+        this.folder = folder;
+    }
+
+    public String getFolder() {
+        return folder;
+    }
+
+    public boolean isImage() {
+        return this != FILE;
+    }
+}
@@ -0,0 +1,18 @@
+package com.pneumaliback.www.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.pneumaliback.www.entity.BatchJob;
+import com.pneumaliback.www.enums.BatchJobStatus;
+
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
+
+    Optional<BatchJob> findFirstByTypeOrderByIdDesc(String type);
+
+    List<BatchJob> findByTypeAndStatus(String type, BatchJobStatus status);
+}
@@ -2,6 +2,7 @@ package com.pneumaliback.www.repository;
 
 import com.pneumaliback.www.entity.Cart;
 import com.pneumaliback.www.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,7 @@ import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
+    @EntityGraph(Cart.VIEW)
     Optional<Cart> findByUser(User user);
     Optional<Cart> findByUserId(Long userId);
     
@@ -3,6 +3,7 @@ package com.pneumaliback.www.repository;
 import java.util.Optional;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +15,11 @@ import com.pneumaliback.www.enums.CommissionStatus;
 public interface CommissionRepository extends JpaRepository<Commission, Long> {
     Optional<Commission> findByOrder(Order order);
 
+    @Override
+    @EntityGraph(Commission.ADMIN_LIST)
+    List<Commission> findAll();
+
+    @EntityGraph(Commission.ADMIN_LIST)
     List<Commission> findByInfluenceurId(Long influenceurId);
 
     List<Commission> findByInfluenceurIdAndStatus(Long influenceurId, CommissionStatus status);
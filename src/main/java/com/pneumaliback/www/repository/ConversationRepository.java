@@ -0,0 +1,176 @@
+package com.pneumaliback.www.repository;
+
+import com.pneumaliback.www.entity.Conversation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    /**
+     * Enregistre un nouveau message dans le résumé de la paire (création ou mise
+     * à jour atomique) : dernier message si plus récent, +1 non lu côté
+     * destinataire.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversations (utilisateur_a_id, utilisateur_b_id, dernier_message_id, dernier_auteur_id, " +
+            "date_dernier_message, apercu, non_lus_a, non_lus_b, created_at, updated_at, version) " +
+            "VALUES (LEAST(:authorId, :recipientId), GREATEST(:authorId, :recipientId), :messageId, :authorId, " +
+            ":sentAt, :apercu, " +
+            "CASE WHEN :recipientId < :authorId THEN 1 ELSE 0 END, " +
+            "CASE WHEN :recipientId > :authorId THEN 1 ELSE 0 END, now(), now(), 0) " +
+            "ON CONFLICT (utilisateur_a_id, utilisateur_b_id) DO UPDATE SET " +
+            "dernier_message_id = CASE WHEN EXCLUDED.date_dernier_message >= conversations.date_dernier_message " +
+            "THEN EXCLUDED.dernier_message_id ELSE conversations.dernier_message_id END, " +
+            "dernier_auteur_id = CASE WHEN EXCLUDED.date_dernier_message >= conversations.date_dernier_message " +
+            "THEN EXCLUDED.dernier_auteur_id ELSE conversations.dernier_auteur_id END, " +
+            "apercu = CASE WHEN EXCLUDED.date_dernier_message >= conversations.date_dernier_message " +
+            "THEN EXCLUDED.apercu ELSE conversations.apercu END, " +
+            "date_dernier_message = GREATEST(EXCLUDED.date_dernier_message, conversations.date_dernier_message), " +
+            "non_lus_a = conversations.non_lus_a + EXCLUDED.non_lus_a, " +
+            "non_lus_b = conversations.non_lus_b + EXCLUDED.non_lus_b, " +
+            "updated_at = now(), version = conversations.version + 1",
+            nativeQuery = true)
+    int enregistrerMessage(@Param("authorId") Long authorId, @Param("recipientId") Long recipientId,
+            @Param("messageId") Long messageId, @Param("sentAt") LocalDateTime sentAt,
+            @Param("apercu") String apercu);
+
+    /**
+     * Verrouille le résumé de la paire jusqu'à la fin de la transaction :
+     * enregistrerMessage attend, son +1 ne peut plus tomber entre le marquage
+     * des messages et la remise à zéro
+     *
+     * @return l'id de la conversation, vide si la paire n'a encore rien échangé
+     */
+    @Query(value = "SELECT id FROM conversations " +
+            "WHERE utilisateur_a_id = LEAST(:destinataireId, :auteurId) " +
+            "AND utilisateur_b_id = GREATEST(:destinataireId, :auteurId) FOR UPDATE",
+            nativeQuery = true)
+    List<Long> verrouiller(@Param("destinataireId") Long destinataireId, @Param("auteurId") Long auteurId);
+
+    /**
+     * Remet à zéro le compteur de non-lus du destinataire pour la paire
+     * (après verrouiller, dans la même transaction)
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations SET " +
+            "non_lus_a = CASE WHEN utilisateur_a_id = :destinataireId THEN 0 ELSE non_lus_a END, " +
+            "non_lus_b = CASE WHEN utilisateur_b_id = :destinataireId THEN 0 ELSE non_lus_b END, " +
+            "updated_at = now(), version = version + 1 " +
+            "WHERE utilisateur_a_id = LEAST(:destinataireId, :auteurId) " +
+            "AND utilisateur_b_id = GREATEST(:destinataireId, :auteurId)",
+            nativeQuery = true)
+    int marquerLue(@Param("destinataireId") Long destinataireId, @Param("auteurId") Long auteurId);
+
+    interface ThreadProjection {
+        Long getConversationId();
+
+        Long getInterlocuteurId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        LocalDateTime getLastDate();
+
+        String getApercu();
+
+        Integer getNonLus();
+    }
+
+    /**
+     * Threads d'un utilisateur, du plus récent au plus ancien, paginés par
+     * curseur (date_dernier_message, id). Chaque côté de la paire est lu par son
+     * propre index puis fusionné.
+     */
+    @Query(value = "SELECT c.id AS \"conversationId\", c.interlocuteur_id AS \"interlocuteurId\", " +
+            "u.first_name AS \"firstName\", u.last_name AS \"lastName\", " +
+            "c.date_dernier_message AS \"lastDate\", c.apercu AS apercu, c.non_lus AS \"nonLus\" " +
+            "FROM ((SELECT id, utilisateur_b_id AS interlocuteur_id, date_dernier_message, apercu, non_lus_a AS non_lus " +
+            "FROM conversations WHERE utilisateur_a_id = :userId " +
+            "AND (date_dernier_message, id) < (:lastDate, :lastId) " +
+            "ORDER BY date_dernier_message DESC, id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT id, utilisateur_a_id AS interlocuteur_id, date_dernier_message, apercu, non_lus_b AS non_lus " +
+            "FROM conversations WHERE utilisateur_b_id = :userId AND utilisateur_a_id <> :userId " +
+            "AND (date_dernier_message, id) < (:lastDate, :lastId) " +
+            "ORDER BY date_dernier_message DESC, id DESC LIMIT :limit)) c " +
+            "JOIN users u ON u.id = c.interlocuteur_id " +
+            "ORDER BY c.date_dernier_message DESC, c.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<ThreadProjection> threads(@Param("userId") Long userId, @Param("lastDate") LocalDateTime lastDate,
+            @Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * Variante filtrée par recherche plein texte : nom/prénom de l'interlocuteur
+     * ou contenu d'un message de la paire (tsQuery construit par FullTextQuery)
+     */
+    @Query(value = "SELECT c.id AS \"conversationId\", u.id AS \"interlocuteurId\", " +
+            "u.first_name AS \"firstName\", u.last_name AS \"lastName\", " +
+            "c.date_dernier_message AS \"lastDate\", c.apercu AS apercu, " +
+            "CASE WHEN c.utilisateur_a_id = :userId THEN c.non_lus_a ELSE c.non_lus_b END AS \"nonLus\" " +
+            "FROM conversations c " +
+            "JOIN users u ON u.id = CASE WHEN c.utilisateur_a_id = :userId THEN c.utilisateur_b_id " +
+            "ELSE c.utilisateur_a_id END " +
+            "WHERE (c.utilisateur_a_id = :userId OR c.utilisateur_b_id = :userId) " +
+            "AND (c.date_dernier_message, c.id) < (:lastDate, :lastId) " +
+            "AND (u.search_vector @@ to_tsquery('simple', :tsQuery) OR EXISTS (" +
+            "SELECT 1 FROM messages m WHERE ((m.auteur_id = c.utilisateur_a_id AND m.destinataire_id = c.utilisateur_b_id) " +
+            "OR (m.auteur_id = c.utilisateur_b_id AND m.destinataire_id = c.utilisateur_a_id)) " +
+            "AND m.search_vector @@ (to_tsquery('french', :tsQuery) || to_tsquery('simple', :tsQuery)))) " +
+            "ORDER BY c.date_dernier_message DESC, c.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<ThreadProjection> threadsRecherche(@Param("userId") Long userId, @Param("tsQuery") String tsQuery,
+            @Param("lastDate") LocalDateTime lastDate, @Param("lastId") Long lastId, @Param("limit") int limit);
+
+    interface UnreadCountProjection {
+        Long getInterlocuteurId();
+
+        Long getTotal();
+    }
+
+    @Query(value = "SELECT utilisateur_b_id AS \"interlocuteurId\", CAST(non_lus_a AS bigint) AS total " +
+            "FROM conversations WHERE utilisateur_a_id = :destinataireId AND non_lus_a > 0 " +
+            "UNION ALL " +
+            "SELECT utilisateur_a_id AS \"interlocuteurId\", CAST(non_lus_b AS bigint) AS total " +
+            "FROM conversations WHERE utilisateur_b_id = :destinataireId AND non_lus_b > 0",
+            nativeQuery = true)
+    List<UnreadCountProjection> nonLusParInterlocuteur(@Param("destinataireId") Long destinataireId);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM conversations)", nativeQuery = true)
+    boolean existeAuMoinsUne();
+
+    /**
+     * Reconstruit les résumés des paires dont le plus petit id est dans
+     * [fromId, toId] à partir de la table messages (idempotent).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO conversations (utilisateur_a_id, utilisateur_b_id, dernier_message_id, dernier_auteur_id, " +
+            "date_dernier_message, apercu, non_lus_a, non_lus_b, created_at, updated_at, version) " +
+            "SELECT d.a, d.b, d.id, d.auteur_id, d.date_envoi, LEFT(TRIM(translate(d.contenu, E'\\r\\n', '  ')), 120), " +
+            "COALESCE(n.non_lus_a, 0), COALESCE(n.non_lus_b, 0), now(), now(), 0 " +
+            "FROM (SELECT DISTINCT ON (LEAST(auteur_id, destinataire_id), GREATEST(auteur_id, destinataire_id)) " +
+            "LEAST(auteur_id, destinataire_id) AS a, GREATEST(auteur_id, destinataire_id) AS b, " +
+            "id, auteur_id, date_envoi, contenu FROM messages " +
+            "WHERE LEAST(auteur_id, destinataire_id) BETWEEN :fromId AND :toId " +
+            "ORDER BY LEAST(auteur_id, destinataire_id), GREATEST(auteur_id, destinataire_id), date_envoi DESC, id DESC) d " +
+            "LEFT JOIN (SELECT LEAST(auteur_id, destinataire_id) AS a, GREATEST(auteur_id, destinataire_id) AS b, " +
+            "COUNT(*) FILTER (WHERE COALESCE(est_lu, FALSE) = FALSE AND auteur_id > destinataire_id) AS non_lus_a, " +
+            "COUNT(*) FILTER (WHERE COALESCE(est_lu, FALSE) = FALSE AND auteur_id < destinataire_id) AS non_lus_b " +
+            "FROM messages WHERE LEAST(auteur_id, destinataire_id) BETWEEN :fromId AND :toId GROUP BY 1, 2) n " +
+            "ON n.a = d.a AND n.b = d.b " +
+            "ON CONFLICT (utilisateur_a_id, utilisateur_b_id) DO UPDATE SET " +
+            "dernier_message_id = EXCLUDED.dernier_message_id, dernier_auteur_id = EXCLUDED.dernier_auteur_id, " +
+            "date_dernier_message = EXCLUDED.date_dernier_message, apercu = EXCLUDED.apercu, " +
+            "non_lus_a = EXCLUDED.non_lus_a, non_lus_b = EXCLUDED.non_lus_b, updated_at = now()",
+            nativeQuery = true)
+    int reconstruirePlage(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
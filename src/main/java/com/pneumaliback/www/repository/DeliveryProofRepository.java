@@ -3,7 +3,11 @@ package com.pneumaliback.www.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.pneumaliback.www.entity.DeliveryProof;
 import com.pneumaliback.www.entity.QuoteRequest;
@@ -11,5 +15,10 @@ import com.pneumaliback.www.entity.QuoteRequest;
 @Repository
 public interface DeliveryProofRepository extends JpaRepository<DeliveryProof, Long> {
     Optional<DeliveryProof> findByQuoteRequest(QuoteRequest quoteRequest);
+
+    @Modifying
+    @Transactional
+    @Query("update DeliveryProof dp set dp.photoUrl = :url where dp.id = :id")
+    int updatePhotoUrl(@Param("id") Long id, @Param("url") String url);
 }
 
@@ -7,6 +7,7 @@ import com.pneumaliback.www.entity.User;
 import com.pneumaliback.www.enums.DeliveryStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -55,5 +56,6 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
 
     void deleteByOrder(Order order);
 
+    @EntityGraph(Delivery.DETAIL)
     List<Delivery> findByAssignedLivreurOrderByCreatedAtDesc(User livreur);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.pneumaliback.www.entity.Influenceur;
 import com.pneumaliback.www.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -56,5 +57,9 @@ public interface InfluenceurRepository extends JpaRepository<Influenceur, Long>
 
     void deleteByUser(User user);
 
+    @EntityGraph(Influenceur.WITH_USER)
     List<Influenceur> findByArchived(boolean archived);
+
+    @EntityGraph(Influenceur.WITH_USER)
+    Optional<Influenceur> findWithUserById(Long id);
 }
\ No newline at end of file
@@ -25,31 +25,22 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     @Query("UPDATE Message m SET m.isRead = true WHERE m.author.id = :auteurId AND m.recipient.id = :destinataireId AND m.isRead = false")
     int marquerConversationLue(@Param("destinataireId") Long destinataireId, @Param("auteurId") Long auteurId);
 
-    interface UnreadCountProjection {
-        Long getInterlocuteurId();
-
-        Long getTotal();
-    }
-
-    @Query("SELECT m.author.id AS interlocuteurId, COUNT(m) AS total FROM Message m WHERE m.recipient.id = :destinataireId AND m.isRead = false GROUP BY m.author.id")
-    java.util.List<UnreadCountProjection> nonLusParInterlocuteur(@Param("destinataireId") Long destinataireId);
-
-    interface ThreadHeadProjection {
-        Long getInterlocuteurId();
-
-        java.time.LocalDateTime getLastDate();
-    }
-
-    @Query("SELECT CASE WHEN m.author.id = :userId THEN m.recipient.id ELSE m.author.id END AS interlocuteurId, MAX(m.sentAt) AS lastDate "
-            +
-            "FROM Message m WHERE (m.author.id = :userId OR m.recipient.id = :userId) " +
-            "AND (:q IS NULL OR :q = '' OR " +
-            "     (CASE WHEN m.author.id = :userId THEN LOWER(m.recipient.lastName) LIKE LOWER(CONCAT('%', :q, '%')) " +
-            "           ELSE LOWER(m.author.lastName) LIKE LOWER(CONCAT('%', :q, '%')) END) OR " +
-            "     (CASE WHEN m.author.id = :userId THEN LOWER(m.recipient.firstName) LIKE LOWER(CONCAT('%', :q, '%')) "
-            +
-            "           ELSE LOWER(m.author.firstName) LIKE LOWER(CONCAT('%', :q, '%')) END)) " +
-            "GROUP BY CASE WHEN m.author.id = :userId THEN m.recipient.id ELSE m.author.id END " +
-            "ORDER BY lastDate DESC")
-    java.util.List<ThreadHeadProjection> threads(@Param("userId") Long userId, @Param("q") String query);
+    /**
+     * Messages d'un utilisateur (envoyés ou reçus) postérieurs à afterId, pour la
+     * reprise après reconnexion WebSocket
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.author JOIN FETCH m.recipient " +
+            "WHERE (m.author.id = :userId OR m.recipient.id = :userId) AND m.id > :afterId ORDER BY m.id ASC")
+    java.util.List<Message> depuis(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.author " +
+            "WHERE m.id IN :ids AND m.recipient.id = :destinataireId AND m.deliveredAt IS NULL")
+    java.util.List<Message> nonRecus(@Param("destinataireId") Long destinataireId,
+            @Param("ids") java.util.Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.deliveredAt = :date " +
+            "WHERE m.id IN :ids AND m.recipient.id = :destinataireId AND m.deliveredAt IS NULL")
+    int marquerRecus(@Param("destinataireId") Long destinataireId, @Param("ids") java.util.Collection<Long> ids,
+            @Param("date") java.time.LocalDateTime date);
 }
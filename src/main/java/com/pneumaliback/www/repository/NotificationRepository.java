@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -37,8 +38,61 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     Page<Notification> findByDateRange(@Param("userId") Long userId, @Param("debut") LocalDateTime debut,
             @Param("fin") LocalDateTime fin, Pageable pageable);
 
-    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :userId AND (LOWER(n.title) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(n.content) LIKE LOWER(CONCAT('%', :q, '%'))) ORDER BY n.createdAt DESC")
-    Page<Notification> rechercher(@Param("userId") Long userId, @Param("q") String query, Pageable pageable);
+    /**
+     * Recherche plein texte (colonne search_vector + index GIN), tsQuery construit
+     * par FullTextQuery
+     */
+    @Query(value = "SELECT n.* FROM notifications n WHERE n.user_id = :userId " +
+            "AND n.search_vector @@ (to_tsquery('french', :tsQuery) || to_tsquery('simple', :tsQuery)) ORDER BY n.created_at DESC",
+            countQuery = "SELECT COUNT(*) FROM notifications n WHERE n.user_id = :userId " +
+                    "AND n.search_vector @@ (to_tsquery('french', :tsQuery) || to_tsquery('simple', :tsQuery))",
+            nativeQuery = true)
+    Page<Notification> rechercher(@Param("userId") Long userId, @Param("tsQuery") String tsQuery, Pageable pageable);
+
+    interface SearchHitProjection {
+        Long getId();
+
+        String getTitle();
+
+        String getType();
+
+        Boolean getIsRead();
+
+        LocalDateTime getCreatedAt();
+
+        java.math.BigDecimal getRank();
+
+        String getHighlight();
+    }
+
+    /**
+     * Délimiteurs des correspondances dans highlight (caractères de contrôle
+     * STX/ETX, retirés du contenu avant ts_headline) : l'extrait est échappé
+     * puis les délimiteurs remplacés par <mark> (NotificationSearchHit)
+     */
+    String START_SEL = "\u0002";
+    String STOP_SEL = "\u0003";
+
+    /**
+     * Recherche plein texte classée par pertinence, paginée par curseur
+     * (rank, id) : pas d'OFFSET ni de COUNT, et ts_headline n'est calculé que
+     * pour les lignes de la page.
+     */
+    @Query(value = "SELECT r.id AS id, r.title AS title, r.type AS type, r.est_lu AS \"isRead\", " +
+            "r.created_at AS \"createdAt\", r.rank AS rank, " +
+            "ts_headline('simple', translate(r.content, chr(2) || chr(3), ''), " +
+            "to_tsquery('french', :tsQuery) || to_tsquery('simple', :tsQuery), " +
+            "'StartSel=' || chr(2) || ', StopSel=' || chr(3) || ', MaxWords=25, MinWords=8, MaxFragments=2') AS highlight " +
+            "FROM (SELECT n.id, n.title, n.content, n.type, n.est_lu, n.created_at, " +
+            "ROUND(CAST(ts_rank(n.search_vector, to_tsquery('french', :tsQuery) || to_tsquery('simple', :tsQuery)) AS numeric), 6) AS rank " +
+            "FROM notifications n WHERE n.user_id = :userId " +
+            "AND n.search_vector @@ (to_tsquery('french', :tsQuery) || to_tsquery('simple', :tsQuery))) r " +
+            "WHERE r.rank < :lastRank OR (r.rank = :lastRank AND r.id < :lastId) " +
+            "ORDER BY r.rank DESC, r.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<SearchHitProjection> rechercherPlainTexte(@Param("userId") Long userId, @Param("tsQuery") String tsQuery,
+            @Param("lastRank") java.math.BigDecimal lastRank, @Param("lastId") Long lastId,
+            @Param("limit") int limit);
 
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :userId AND n.type = :type AND n.isRead = false")
     long countNonLuesParType(@Param("userId") Long userId, @Param("type") String type);
@@ -49,4 +103,16 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.recipient.id = :userId AND n.createdAt < :dateLimite")
     int supprimerAnciennes(@Param("userId") Long userId, @Param("dateLimite") LocalDateTime dateLimite);
+
+    /**
+     * Purge globale par lot : supprime au plus batchSize notifications antérieures
+     * à dateLimite, les plus anciennes d'abord (index idx_notifications_created_at).
+     * Chaque appel est une transaction courte.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE id IN (" +
+            "SELECT id FROM notifications WHERE created_at < :dateLimite ORDER BY created_at LIMIT :batchSize)",
+            nativeQuery = true)
+    int supprimerLotAnterieurA(@Param("dateLimite") LocalDateTime dateLimite, @Param("batchSize") int batchSize);
 }
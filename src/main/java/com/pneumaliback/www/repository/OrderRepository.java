@@ -5,6 +5,7 @@ import com.pneumaliback.www.entity.User;
 import com.pneumaliback.www.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,6 +19,9 @@ import java.util.Optional;
 public interface OrderRepository extends JpaRepository<Order, Long> {
     // === Recherche par utilisateur ===
     List<Order> findByUser(User user);
+
+    @EntityGraph(Order.DETAIL)
+    Optional<Order> findDetailedById(Long id);
     List<Order> findByUserId(Long userId);
     Page<Order> findByUserId(Long userId, Pageable pageable);
     Page<Order> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
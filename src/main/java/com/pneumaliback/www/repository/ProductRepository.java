@@ -4,28 +4,41 @@ import com.pneumaliback.www.entity.Product;
 import com.pneumaliback.www.enums.TireSeason;
 import com.pneumaliback.www.entity.Category;
 import com.pneumaliback.www.entity.Brand;
+import com.pneumaliback.www.entity.CacheRegions;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
        // === Actifs ===
-       @Query("SELECT p FROM Product p LEFT JOIN FETCH p.width LEFT JOIN FETCH p.profile LEFT JOIN FETCH p.diameter LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.vehicleType LEFT JOIN FETCH p.tireCondition WHERE p.active = true")
+       @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+               @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.CATALOG_QUERIES) })
+       @EntityGraph(Product.CARD)
+       @Query("SELECT p FROM Product p WHERE p.active = true")
        Page<Product> findByActiveTrue(Pageable pageable);
 
-       @Query("SELECT p FROM Product p LEFT JOIN FETCH p.width LEFT JOIN FETCH p.profile LEFT JOIN FETCH p.diameter LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.vehicleType LEFT JOIN FETCH p.tireCondition WHERE p.id = :id")
+       @EntityGraph(Product.CARD)
+       @Query("SELECT p FROM Product p WHERE p.id = :id")
        Optional<Product> findByIdWithDimensions(@Param("id") Long id);
 
+       @EntityGraph(Product.CARD)
+       List<Product> findAllWithDimensionsByIdIn(Collection<Long> ids);
+
        List<Product> findByCategoryAndActiveTrue(Category category);
 
        // === Recherche de base ===
@@ -47,6 +60,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
        Page<Product> findByBrand(Brand brand, Pageable pageable);
 
+       @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+               @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES) })
        @Query("SELECT DISTINCT b FROM Brand b WHERE b.active = true ORDER BY b.name")
        List<Brand> findAllActiveBrands();
 
@@ -93,7 +108,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
        void increaseStock(@Param("productId") Long productId, @Param("quantity") int quantity);
 
        // === Recherche combinée avancée ===
-       @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.width LEFT JOIN FETCH p.profile LEFT JOIN FETCH p.diameter LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.vehicleType LEFT JOIN FETCH p.tireCondition WHERE p.active = true AND "
+       @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+               @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.CATALOG_QUERIES) })
+       @EntityGraph(Product.CARD)
+       @Query("SELECT DISTINCT p FROM Product p WHERE p.active = true AND "
                      +
                      "(:category IS NULL OR p.category = :category) AND " +
                      "(:brand IS NULL OR p.brand = :brand) AND " +
@@ -111,7 +129,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                      Pageable pageable);
 
        // === Recherche textuelle ===
-       @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.width LEFT JOIN FETCH p.profile LEFT JOIN FETCH p.diameter LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.vehicleType LEFT JOIN FETCH p.tireCondition WHERE p.active = true AND "
+       @EntityGraph(Product.CARD)
+       @Query("SELECT DISTINCT p FROM Product p WHERE p.active = true AND "
                      +
                      "(LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
                      "LOWER(p.brand.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -119,7 +138,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
        Page<Product> searchProducts(@Param("searchTerm") String searchTerm, Pageable pageable);
 
        // === Statistiques et recommandations ===
-       @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.width LEFT JOIN FETCH p.profile LEFT JOIN FETCH p.diameter LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.vehicleType LEFT JOIN FETCH p.tireCondition WHERE p.active = true ORDER BY SIZE(p.orderItems) DESC")
+       @EntityGraph(Product.CARD)
+       @Query("SELECT DISTINCT p FROM Product p WHERE p.active = true ORDER BY SIZE(p.orderItems) DESC")
        Page<Product> findPopular(Pageable pageable);
 
        @Query("SELECT p FROM Product p WHERE p.active = true AND p.createdAt >= :date")
@@ -131,7 +151,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
        // === Dimensions (width/profile/diameter) - Recherche par entités de dimensions
        // ===
-       @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.width LEFT JOIN FETCH p.profile LEFT JOIN FETCH p.diameter LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.vehicleType LEFT JOIN FETCH p.tireCondition WHERE p.active = true AND p.stock > 0 AND "
+       @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+               @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.CATALOG_QUERIES) })
+       @EntityGraph(Product.CARD)
+       @Query("SELECT DISTINCT p FROM Product p WHERE p.active = true AND p.stock > 0 AND "
                      +
                      "(:width IS NULL OR p.width.value = :widthInt) AND " +
                      "(:profile IS NULL OR p.profile.value = :profileInt) AND " +
@@ -145,6 +168,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                      Pageable pageable);
 
        // === Admin: Liste tous les produits avec dimensions ===
-       @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.width LEFT JOIN FETCH p.profile LEFT JOIN FETCH p.diameter LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.vehicleType LEFT JOIN FETCH p.tireCondition")
+       @EntityGraph(Product.CARD)
+       @Query("SELECT DISTINCT p FROM Product p")
        Page<Product> findAllWithDimensions(Pageable pageable);
 }
\ No newline at end of file
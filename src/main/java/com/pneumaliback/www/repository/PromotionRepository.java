@@ -4,6 +4,7 @@ import com.pneumaliback.www.entity.Promotion;
 import com.pneumaliback.www.enums.PromotionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +20,13 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
 
     Optional<Promotion> findByCode(String code);
 
+    @EntityGraph(Promotion.WITH_INFLUENCEUR)
+    @Query("SELECT p FROM Promotion p")
+    List<Promotion> findAllWithInfluenceur();
+
+    @EntityGraph(Promotion.WITH_INFLUENCEUR)
+    Optional<Promotion> findWithInfluenceurById(Long id);
+
     List<Promotion> findByType(PromotionType type);
 
     @Query("SELECT p FROM Promotion p WHERE p.startDate <= :currentDate AND p.endDate >= :currentDate")
@@ -1,16 +1,24 @@
 package com.pneumaliback.www.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.pneumaliback.www.entity.QuoteRequest;
 import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.QuoteDispatchStage;
 import com.pneumaliback.www.enums.QuoteStatus;
 
 @Repository
@@ -32,6 +40,126 @@ public interface QuoteRequestRepository extends JpaRepository<QuoteRequest, Long
     @EntityGraph(attributePaths = { "items", "user", "assignedLivreur" })
     List<QuoteRequest> findByAssignedLivreurOrderByCreatedAtDesc(User livreur);
 
+    /**
+     * Ligne de liste d'un devis : champs affichés et nombre d'articles, sans
+     * charger le graphe (articles, client, livreur)
+     */
+    interface SummaryProjection {
+        Long getId();
+
+        String getRequestNumber();
+
+        String getQuoteNumber();
+
+        QuoteStatus getStatus();
+
+        BigDecimal getSubtotalRequested();
+
+        BigDecimal getDiscountTotal();
+
+        BigDecimal getTotalQuoted();
+
+        LocalDate getValidUntil();
+
+        LocalDate getRequestedDeliveryDate();
+
+        Integer getClientAbsentCount();
+
+        String getClientEmail();
+
+        String getClientFirstName();
+
+        String getClientLastName();
+
+        String getAssignedLivreur();
+
+        Long getItemCount();
+
+        QuoteDispatchStage getDispatchStage();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    String SUMMARY_SELECT = """
+            select qr.id as id, qr.requestNumber as requestNumber, qr.quoteNumber as quoteNumber,
+                   qr.status as status, qr.subtotalRequested as subtotalRequested,
+                   qr.discountTotal as discountTotal, qr.totalQuoted as totalQuoted,
+                   qr.validUntil as validUntil, qr.requestedDeliveryDate as requestedDeliveryDate,
+                   qr.clientAbsentCount as clientAbsentCount, u.email as clientEmail,
+                   u.firstName as clientFirstName, u.lastName as clientLastName,
+                   l.email as assignedLivreur,
+                   (select count(i) from QuoteRequestItem i where i.quoteRequest = qr) as itemCount,
+                   qr.dispatchStage as dispatchStage,
+                   qr.createdAt as createdAt, qr.updatedAt as updatedAt
+            from QuoteRequest qr
+            join qr.user u
+            left join qr.assignedLivreur l
+            """;
+
+    String SUMMARY_KEYSET = """
+             and qr.createdAt >= :from and qr.createdAt < :to
+             and (qr.createdAt < :lastDate or (qr.createdAt = :lastDate and qr.id < :lastId))
+            order by qr.createdAt desc, qr.id desc
+            """;
+
+    /**
+     * Devis du plus récent au plus ancien, paginés par curseur (created_at,
+     * id). Une requête avec et une sans filtre de statuts : chacune garde son
+     * plan (idx_quote_requests_status_created quand les statuts sont filtrés).
+     */
+    @Query(SUMMARY_SELECT + """
+            where (:livreurId is null or l.id = :livreurId)
+            """ + SUMMARY_KEYSET)
+    List<SummaryProjection> findSummaries(@Param("livreurId") Long livreurId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("lastDate") LocalDateTime lastDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + """
+            where qr.status in :statuses
+             and (:livreurId is null or l.id = :livreurId)
+            """ + SUMMARY_KEYSET)
+    List<SummaryProjection> findSummariesByStatus(@Param("statuses") Collection<QuoteStatus> statuses,
+            @Param("livreurId") Long livreurId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("lastDate") LocalDateTime lastDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * Devis assignés à un livreur (index idx_quote_requests_livreur_created)
+     */
+    @Query(SUMMARY_SELECT + """
+            where l.id = :livreurId
+            """ + SUMMARY_KEYSET)
+    List<SummaryProjection> findLivreurSummaries(@Param("livreurId") Long livreurId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("lastDate") LocalDateTime lastDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + """
+            where l.id = :livreurId and qr.status in :statuses
+            """ + SUMMARY_KEYSET)
+    List<SummaryProjection> findLivreurSummariesByStatus(@Param("livreurId") Long livreurId,
+            @Param("statuses") Collection<QuoteStatus> statuses,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("lastDate") LocalDateTime lastDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * Devis d'un client (index idx_quote_requests_user_created)
+     */
+    @Query(SUMMARY_SELECT + """
+            where u.id = :userId
+            """ + SUMMARY_KEYSET)
+    List<SummaryProjection> findUserSummaries(@Param("userId") Long userId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("lastDate") LocalDateTime lastDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + """
+            where u.id = :userId and qr.status in :statuses
+            """ + SUMMARY_KEYSET)
+    List<SummaryProjection> findUserSummariesByStatus(@Param("userId") Long userId,
+            @Param("statuses") Collection<QuoteStatus> statuses,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("lastDate") LocalDateTime lastDate, @Param("lastId") Long lastId, Pageable pageable);
+
     @Query("""
             select distinct qr
             from QuoteRequest qr
@@ -42,12 +170,100 @@ public interface QuoteRequestRepository extends JpaRepository<QuoteRequest, Long
             """)
     Optional<QuoteRequest> findDetailedById(@Param("id") Long id);
 
-    @EntityGraph(attributePaths = { "items", "user", "assignedLivreur" })
     @Query("""
-            select distinct qr
+            select qr.id
+            from QuoteRequest qr
+            where qr.quotePdfUrl is not null and qr.quotePdfUrl != '' and qr.id > :afterId
+            order by qr.id
+            """)
+    List<Long> findIdsWithPdfUrlAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+            select count(qr)
             from QuoteRequest qr
             where qr.quotePdfUrl is not null and qr.quotePdfUrl != ''
-            order by qr.createdAt desc
             """)
-    List<QuoteRequest> findAllWithPdfUrl();
+    long countWithPdfUrl();
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update QuoteRequest qr
+            set qr.quotePdfUrl = :url, qr.quotePdfHash = :hash
+            where qr.id = :id
+            """)
+    int updatePdf(@Param("id") Long id, @Param("url") String url, @Param("hash") String hash);
+
+    /**
+     * Étape et tentatives d'envoi, lues sans charger le devis
+     */
+    interface DispatchState {
+        QuoteDispatchStage getDispatchStage();
+
+        Integer getDispatchAttempts();
+    }
+
+    @Query("""
+            select qr.dispatchStage as dispatchStage, qr.dispatchAttempts as dispatchAttempts
+            from QuoteRequest qr
+            where qr.id = :id
+            """)
+    Optional<DispatchState> findDispatchState(@Param("id") Long id);
+
+    /**
+     * Envois de devis dont la prochaine tentative est due
+     */
+    @Query("""
+            select qr.id
+            from QuoteRequest qr
+            where qr.dispatchStage in :stages and qr.dispatchNextAttemptAt <= :now
+            order by qr.dispatchNextAttemptAt
+            """)
+    List<Long> findDueDispatchIds(@Param("stages") Collection<QuoteDispatchStage> stages,
+            @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Réserve l'envoi d'un devis jusqu'à leaseUntil : une seule exécution à la
+     * fois, reprise après leaseUntil si elle a été interrompue
+     *
+     * @return 1 si la réservation a été obtenue
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update QuoteRequest qr
+            set qr.dispatchNextAttemptAt = :leaseUntil
+            where qr.id = :id and qr.dispatchStage in :stages and qr.dispatchNextAttemptAt <= :now
+            """)
+    int claimDispatch(@Param("id") Long id, @Param("stages") Collection<QuoteDispatchStage> stages,
+            @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Étape d'envoi suivante ou échec : version incrémentée, une modification
+     * concurrente du devis (admin) chargée avant échoue au verrou optimiste
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update QuoteRequest qr
+            set qr.dispatchStage = :stage, qr.dispatchAttempts = :attempts,
+                qr.dispatchNextAttemptAt = :nextAttemptAt, qr.dispatchError = :error,
+                qr.version = qr.version + 1, qr.updatedAt = :now
+            where qr.id = :id
+            """)
+    int updateDispatch(@Param("id") Long id, @Param("stage") QuoteDispatchStage stage,
+            @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update QuoteRequest qr
+            set qr.dispatchStage = com.pneumaliback.www.enums.QuoteDispatchStage.TERMINE,
+                qr.dispatchNextAttemptAt = null, qr.dispatchError = null, qr.status = :status,
+                qr.version = qr.version + 1, qr.updatedAt = :now
+            where qr.id = :id
+            """)
+    int completeDispatch(@Param("id") Long id, @Param("status") QuoteStatus status,
+            @Param("now") LocalDateTime now);
 }
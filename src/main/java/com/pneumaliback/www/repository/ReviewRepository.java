@@ -5,6 +5,7 @@ import com.pneumaliback.www.entity.Review;
 import com.pneumaliback.www.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,6 +17,7 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     
+    @EntityGraph(Review.WITH_PRODUCT)
     List<Review> findByProduct(Product product);
     
     List<Review> findByProductOrderByCreatedAtDesc(Product product);
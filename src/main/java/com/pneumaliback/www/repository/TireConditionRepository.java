@@ -1,8 +1,12 @@
 package com.pneumaliback.www.repository;
 
 import com.pneumaliback.www.entity.TireCondition;
+import com.pneumaliback.www.entity.CacheRegions;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +15,8 @@ import java.util.Optional;
 
 @Repository
 public interface TireConditionRepository extends JpaRepository<TireCondition, Long> {
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES) })
     @Query("SELECT t FROM TireCondition t WHERE t.active = true ORDER BY t.name")
     List<TireCondition> findByActiveTrueOrderByNameAsc();
 
@@ -1,7 +1,11 @@
 package com.pneumaliback.www.repository;
 
 import com.pneumaliback.www.entity.TireProfile;
+import com.pneumaliback.www.entity.CacheRegions;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +13,8 @@ import java.util.Optional;
 
 @Repository
 public interface TireProfileRepository extends JpaRepository<TireProfile, Long> {
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES) })
     List<TireProfile> findByActiveTrueOrderByValueAsc();
 
     Optional<TireProfile> findByValue(Integer value);
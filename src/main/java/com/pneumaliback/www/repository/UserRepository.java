@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
        boolean existsByEmailIgnoreCase(String email);
 
+       /**
+        * Utilisateurs dont l'email figure dans la liste (emails en minuscules)
+        */
+       @Query("SELECT u FROM User u WHERE LOWER(u.email) IN :emails")
+       List<User> findByLowerEmailIn(@Param("emails") Collection<String> emails);
+
        /**
         * Vérifie si un email existe déjà (insensible à la casse) en excluant un utilisateur spécifique
         * Utilise LOWER() pour garantir la compatibilité avec PostgreSQL
@@ -2,8 +2,12 @@ package com.pneumaliback.www.repository;
 
 import com.pneumaliback.www.entity.Category;
 import com.pneumaliback.www.entity.VehicleType;
+import com.pneumaliback.www.entity.CacheRegions;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,12 +20,16 @@ public interface VehicleTypeRepository extends JpaRepository<VehicleType, Long>
 
     List<VehicleType> findByCategoryId(Long categoryId);
 
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES) })
     @Query("SELECT v FROM VehicleType v WHERE v.active = true ORDER BY v.name")
     List<VehicleType> findByActiveTrueOrderByNameAsc();
 
     @Query("SELECT v FROM VehicleType v WHERE v.category = :category AND v.active = true ORDER BY v.name")
     List<VehicleType> findByCategoryAndActiveTrueOrderByNameAsc(@Param("category") Category category);
 
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES) })
     @Query("SELECT v FROM VehicleType v WHERE v.category.id = :categoryId AND v.active = true ORDER BY v.name")
     List<VehicleType> findByCategoryIdAndActiveTrueOrderByNameAsc(@Param("categoryId") Long categoryId);
 
@@ -34,7 +34,7 @@ public class CartService {
     public Cart addItem(User user, Long productId, int quantity) {
         if (quantity <= 0) throw new IllegalArgumentException("Quantité invalide");
         Cart cart = getOrCreate(user);
-        Product p = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("Produit introuvable"));
+        Product p = productRepository.findByIdWithDimensions(productId).orElseThrow(() -> new RuntimeException("Produit introuvable"));
         // Chercher si item existe déjà
         CartItem item = cart.getItems().stream()
                 .filter(i -> i.getProduct().getId().equals(productId))
@@ -93,7 +93,7 @@ public class CartService {
             Long productId = entry.getKey();
             Integer quantity = entry.getValue();
             if (quantity != null && quantity > 0) {
-                Product product = productRepository.findById(productId)
+                Product product = productRepository.findByIdWithDimensions(productId)
                         .orElseThrow(() -> new IllegalArgumentException("Produit introuvable: " + productId));
                 CartItem item = new CartItem();
                 item.setCart(cart);
@@ -0,0 +1,62 @@
+package com.pneumaliback.www.service;
+
+import com.pneumaliback.www.repository.ConversationRepository;
+import com.pneumaliback.www.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Construit la table conversations à partir des messages existants
+ *
+ * Au démarrage, uniquement si la table est vide alors que des messages existent
+ * (premier déploiement). Traitement par plages d'ids utilisateur, une
+ * transaction par plage. rebuildAll() reste idempotent et peut être relancé.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Order(3)
+public class ConversationBackfillService implements CommandLineRunner {
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.messages.conversations.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${app.messages.conversations.backfill-chunk-size:500}")
+    private long chunkSize;
+
+    @Override
+    public void run(String... args) {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (!conversationRepository.existeAuMoinsUne() && messageRepository.count() > 0) {
+                rebuildAll();
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la construction des conversations", e);
+            // Ne pas bloquer le démarrage : la liste des threads sera simplement incomplète
+        }
+    }
+
+    public int rebuildAll() {
+        Long maxUserId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        long max = maxUserId != null ? maxUserId : 0;
+        log.info("Construction des conversations à partir des messages (users 1..{})...", max);
+        int total = 0;
+        for (long from = 0; from <= max; from += chunkSize) {
+            total += conversationRepository.reconstruirePlage(from, from + chunkSize - 1);
+        }
+        log.info("Construction des conversations terminée: {} conversation(s)", total);
+        return total;
+    }
+}
@@ -9,10 +9,12 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -22,19 +24,13 @@ public class DataInitializationService implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public void run(String... args) throws Exception {
         try {
             log.info("Début de l'initialisation des données par défaut...");
-            // Attendre un peu pour éviter les conflits au démarrage
-            Thread.sleep(500);
             initializeDefaultUsers();
             log.info("Initialisation des données par défaut terminée.");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Initialisation interrompue", e);
         } catch (Exception e) {
             log.error("Erreur lors de l'initialisation des données par défaut", e);
             // Ne pas lancer d'exception pour ne pas empêcher le démarrage de l'application
@@ -42,7 +38,6 @@ public class DataInitializationService implements CommandLineRunner {
     }
 
     private void initializeDefaultUsers() {
-        ensureAuthProviderColumn();
         List<DefaultUser> defaults = Arrays.asList(
                 new DefaultUser(
                         "contactlandoure@gmail.com",
@@ -84,22 +79,26 @@ public class DataInitializationService implements CommandLineRunner {
         int updated = 0;
         int skipped = 0;
 
+        // Une seule requête pour tous les comptes, écritures regroupées en un lot
+        Map<String, User> existingByEmail = new HashMap<>();
+        for (User user : userRepository.findByLowerEmailIn(
+                defaults.stream().map(du -> du.email().trim().toLowerCase()).toList())) {
+            existingByEmail.put(user.getEmail().toLowerCase(), user);
+        }
+        List<User> toSave = new ArrayList<>();
+
         for (DefaultUser du : defaults) {
             try {
                 String email = du.email().trim();
-                var existingOpt = userRepository.findByEmailIgnoreCase(email);
+                User existing = existingByEmail.get(email.toLowerCase());
 
-                if (existingOpt.isEmpty()) {
-                    User user = buildUser(du);
-                    userRepository.save(user);
-                    userRepository.flush();
+                if (existing == null) {
+                    toSave.add(buildUser(du));
                     created++;
                     log.info("Utilisateur par défaut créé: email={}, role={}", email, du.role());
                     continue;
                 }
 
-                User existing = existingOpt.get();
-
                 // Ne pas toucher aux utilisateurs en cours d'authentification
                 if (existing.getVerificationSentAt() != null &&
                         java.time.Instant.now().isBefore(existing.getVerificationSentAt().plusSeconds(60))) {
@@ -151,8 +150,7 @@ public class DataInitializationService implements CommandLineRunner {
                 }
 
                 if (needUpdate) {
-                    userRepository.save(existing);
-                    userRepository.flush();
+                    toSave.add(existing);
                     updated++;
                     log.info("Utilisateur par défaut mis à jour: email={}, role={}, unlocked={}, enabled={}", email,
                             existing.getRole(), existing.isAccountNonLocked(), existing.isEnabled());
@@ -163,6 +161,10 @@ public class DataInitializationService implements CommandLineRunner {
             }
         }
 
+        if (!toSave.isEmpty()) {
+            userRepository.saveAllAndFlush(toSave);
+        }
+
         if (created > 0 || updated > 0 || skipped > 0) {
             log.info("Synthèse init users -> créés: {}, mis à jour: {}, ignorés: {}", created, updated, skipped);
         } else {
@@ -194,20 +196,6 @@ public class DataInitializationService implements CommandLineRunner {
                 .build();
     }
 
-    /**
-     * Garantit la présence de la colonne auth_provider sur la table users.
-     * S'exécute avant l'initialisation des comptes par défaut.
-     */
-    private void ensureAuthProviderColumn() {
-        try {
-            jdbcTemplate.execute(
-                    "ALTER TABLE users ADD COLUMN IF NOT EXISTS auth_provider varchar(255) DEFAULT 'LOCAL' NOT NULL");
-            jdbcTemplate.execute("UPDATE users SET auth_provider='LOCAL' WHERE auth_provider IS NULL");
-        } catch (Exception e) {
-            log.warn("ensureAuthProviderColumn: {}", e.getMessage());
-        }
-    }
-
     private record DefaultUser(
             String email,
             String rawPassword,
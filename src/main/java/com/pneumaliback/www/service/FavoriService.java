@@ -24,7 +24,7 @@ public class FavoriService {
 
     @Transactional
     public Favori add(User user, Long productId) {
-        Product product = productRepository.findById(productId)
+        Product product = productRepository.findByIdWithDimensions(productId)
                 .orElseThrow(() -> new RuntimeException("Produit introuvable"));
         // éviter doublon
         return favoriRepository.findByUserAndProduct(user, product)
@@ -509,8 +509,19 @@ public class MailService {
 
     @Async
     public void sendQuoteReadyEmail(User user, QuoteRequest request, String frontendQuoteUrl) {
+        sendQuoteReadyEmailSync(user, request, frontendQuoteUrl);
+    }
+
+    /**
+     * Version synchrone de sendQuoteReadyEmail, pour l'envoi des devis avec
+     * reprise (QuoteDispatchService)
+     *
+     * @return true si l'email a été envoyé avec succès, false sinon
+     */
+    public boolean sendQuoteReadyEmailSync(User user, QuoteRequest request, String frontendQuoteUrl) {
         if (user == null || user.getEmail() == null || user.getEmail().isBlank()) {
-            return;
+            log.warn("Impossible d'envoyer le devis: client ou email manquant");
+            return false;
         }
         String baseUrl = normalizeFrontendUrl();
         String link = frontendQuoteUrl != null && !frontendQuoteUrl.isBlank()
@@ -553,7 +564,7 @@ public class MailService {
                 link);
 
         String htmlBody = buildEmailHtml(greeting, content, "Consulter le devis", link);
-        sendHtmlEmailSafely(user.getEmail(), subject, htmlBody, textBody, "devis prêt");
+        return sendHtmlEmailSafelySync(user.getEmail(), subject, htmlBody, textBody, "devis prêt");
     }
 
     @Async
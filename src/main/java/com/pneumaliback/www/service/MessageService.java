@@ -1,18 +1,25 @@
 package com.pneumaliback.www.service;
 
+import com.pneumaliback.www.dto.KeysetCursor;
+import com.pneumaliback.www.dto.chat.ChatMessageEvent;
+import com.pneumaliback.www.dto.chat.ChatReceiptEvent;
+import com.pneumaliback.www.dto.chat.ChatTypingEvent;
 import com.pneumaliback.www.entity.Message;
 import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.repository.ConversationRepository;
 import com.pneumaliback.www.repository.MessageRepository;
 import com.pneumaliback.www.repository.UserRepository;
-import com.pneumaliback.www.service.NotificationService;
+import com.pneumaliback.www.service.search.FullTextQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,11 +31,28 @@ import java.util.stream.Collectors;
 public class MessageService {
 
     private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final WebSocketPublisher webSocketPublisher;
 
     public Message send(Long authorId, Long recipientId, String content) {
+        return send(authorId, recipientId, content, null);
+    }
+
+    /**
+     * Enregistre le message puis, après commit, le pousse sur
+     * /user/queue/messages du destinataire et de l'auteur (autres onglets,
+     * confirmation de l'envoi optimiste via clientId)
+     */
+    public Message send(Long authorId, Long recipientId, String content, String clientId) {
         log.info("Message: {} -> {}", authorId, recipientId);
+        if (content == null || content.isBlank()) {
+            throw new IllegalArgumentException("Le message est vide");
+        }
+        if (content.length() > 1000) {
+            throw new IllegalArgumentException("Le message dépasse 1000 caractères");
+        }
         User author = userRepository.findById(authorId)
                 .orElseThrow(() -> new IllegalArgumentException("Author not found: " + authorId));
         User recipient = userRepository.findById(recipientId)
@@ -39,10 +63,74 @@ public class MessageService {
         m.setContent(content);
         m.setSentAt(LocalDateTime.now());
         Message saved = messageRepository.save(m);
+        conversationRepository.enregistrerMessage(authorId, recipientId, saved.getId(), saved.getSentAt(),
+                apercu(content));
         notificationService.notify(recipient, "Nouveau message", content);
+
+        ChatMessageEvent event = ChatMessageEvent.from(saved, clientId);
+        webSocketPublisher.sendToUserQueueAfterCommit(recipient, "messages", event);
+        if (!recipient.getId().equals(author.getId())) {
+            webSocketPublisher.sendToUserQueueAfterCommit(author, "messages", event);
+        }
         return saved;
     }
 
+    /**
+     * Messages envoyés ou reçus après afterId (reprise après reconnexion)
+     */
+    @Transactional(readOnly = true)
+    public List<ChatMessageEvent> since(Long userId, Long afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, 200));
+        return messageRepository.depuis(userId, afterId != null ? afterId : 0L, PageRequest.of(0, size)).stream()
+                .map(m -> ChatMessageEvent.from(m, null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Accusé de réception : marque les messages reçus par recipientId et notifie
+     * chaque auteur
+     */
+    public int markDelivered(Long recipientId, Collection<Long> messageIds) {
+        if (messageIds == null || messageIds.isEmpty()) {
+            return 0;
+        }
+        List<Message> pending = messageRepository.nonRecus(recipientId, messageIds);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = messageRepository.marquerRecus(recipientId,
+                pending.stream().map(Message::getId).collect(Collectors.toList()), now);
+        for (Message m : pending) {
+            webSocketPublisher.sendToUserQueueAfterCommit(m.getAuthor(), "messages/receipts",
+                    new ChatReceiptEvent(ChatReceiptEvent.DELIVERED, m.getId(), recipientId, now));
+        }
+        return updated;
+    }
+
+    /**
+     * Lecture de la conversation avec authorId par recipientId, avec accusé de
+     * lecture poussé à l'auteur
+     */
+    public int readConversation(Long recipientId, Long authorId) {
+        int updated = markConversationRead(recipientId, authorId);
+        if (updated > 0) {
+            userRepository.findById(authorId).ifPresent(author -> webSocketPublisher.sendToUserQueueAfterCommit(
+                    author, "messages/receipts",
+                    new ChatReceiptEvent(ChatReceiptEvent.READ, null, recipientId, LocalDateTime.now())));
+        }
+        return updated;
+    }
+
+    /**
+     * Relaie l'indicateur de saisie (rien n'est persisté)
+     */
+    @Transactional(readOnly = true)
+    public void typing(Long authorId, Long recipientId, boolean typing) {
+        userRepository.findById(recipientId).ifPresent(recipient -> webSocketPublisher.sendToUserQueue(
+                recipient, "messages/typing", new ChatTypingEvent(authorId, typing)));
+    }
+
     @Transactional(readOnly = true)
     public Page<Message> inbox(Long recipientId, Pageable pageable) {
         return messageRepository.findByRecipientIdOrderBySentAtDesc(recipientId, pageable);
@@ -59,42 +147,57 @@ public class MessageService {
     }
 
     public int markConversationRead(Long recipientId, Long authorId) {
-        return messageRepository.marquerConversationLue(recipientId, authorId);
+        // Verrou d'abord : un message arrivé avant est marqué lu, un message arrivé après reste compté
+        conversationRepository.verrouiller(recipientId, authorId);
+        int updated = messageRepository.marquerConversationLue(recipientId, authorId);
+        conversationRepository.marquerLue(recipientId, authorId);
+        return updated;
     }
 
     @Transactional(readOnly = true)
     public Map<Long, Long> unreadByInterlocutor(Long recipientId) {
-        List<MessageRepository.UnreadCountProjection> rows = messageRepository.nonLusParInterlocuteur(recipientId);
-        return rows.stream().collect(Collectors.toMap(MessageRepository.UnreadCountProjection::getInterlocuteurId,
-                MessageRepository.UnreadCountProjection::getTotal));
+        List<ConversationRepository.UnreadCountProjection> rows = conversationRepository
+                .nonLusParInterlocuteur(recipientId);
+        return rows.stream().collect(Collectors.toMap(ConversationRepository.UnreadCountProjection::getInterlocuteurId,
+                ConversationRepository.UnreadCountProjection::getTotal));
     }
 
+    /**
+     * Liste des threads (une lecture de la table conversations)
+     *
+     * @param cursor champ "cursor" du dernier thread de la page précédente (null
+     *               pour la première page)
+     */
     @Transactional(readOnly = true)
-    public List<Map<String, Object>> threadList(Long userId, String query, int limit) {
-        Map<Long, Long> unread = unreadByInterlocutor(userId);
-        return messageRepository.threads(userId, query).stream()
-                .limit(limit)
-                .map(t -> {
-                    Long interlocuteurId = t.getInterlocuteurId();
-                    Page<Message> last = messageRepository.conversation(userId, interlocuteurId,
-                            org.springframework.data.domain.PageRequest.of(0, 1));
-                    String content = last.hasContent() ? last.getContent().get(0).getContent() : "";
-                    String apercu = content != null ? content.replace('\n', ' ').replace('\r', ' ').trim() : "";
-                    if (apercu.length() > 120)
-                        apercu = apercu.substring(0, 119) + "\u2026";
-                    var userOpt = userRepository.findById(interlocuteurId);
-                    String lastName = userOpt.map(u -> u.getLastName()).orElse("");
-                    String firstName = userOpt.map(u -> u.getFirstName()).orElse("");
+    public List<Map<String, Object>> threadList(Long userId, String query, String cursor, int limit) {
+        KeysetCursor position = KeysetCursor.parse(cursor);
+        int size = Math.max(1, Math.min(limit, 100));
 
+        String tsQuery = FullTextQuery.toPrefixQuery(query);
+        List<ConversationRepository.ThreadProjection> threads = tsQuery != null
+                ? conversationRepository.threadsRecherche(userId, tsQuery, position.lastDate(),
+                        position.lastId(), size)
+                : conversationRepository.threads(userId, position.lastDate(), position.lastId(), size);
+        return threads.stream()
+                .map(t -> {
                     java.util.Map<String, Object> m = new java.util.HashMap<>();
-                    m.put("interlocuteurId", interlocuteurId);
-                    m.put("lastName", lastName);
-                    m.put("firstName", firstName);
+                    m.put("conversationId", t.getConversationId());
+                    m.put("interlocuteurId", t.getInterlocuteurId());
+                    m.put("lastName", t.getLastName() != null ? t.getLastName() : "");
+                    m.put("firstName", t.getFirstName() != null ? t.getFirstName() : "");
                     m.put("lastDate", t.getLastDate());
-                    m.put("apercu", apercu);
-                    m.put("nonLus", unread.getOrDefault(interlocuteurId, 0L));
+                    m.put("apercu", t.getApercu() != null ? t.getApercu() : "");
+                    m.put("nonLus", t.getNonLus() != null ? t.getNonLus().longValue() : 0L);
+                    m.put("cursor", KeysetCursor.format(t.getLastDate(), t.getConversationId()));
                     return m;
                 })
                 .collect(Collectors.toList());
     }
+
+    private static String apercu(String content) {
+        String apercu = content != null ? content.replace('\n', ' ').replace('\r', ' ').trim() : "";
+        if (apercu.length() > 120)
+            apercu = apercu.substring(0, 119) + "\u2026";
+        return apercu;
+    }
 }
@@ -0,0 +1,191 @@
+package com.pneumaliback.www.service;
+
+import com.pneumaliback.www.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rétention globale des notifications
+ *
+ * Tous les jours, supprime les notifications plus anciennes que
+ * app.notifications.retention.days :
+ * - table classique : DELETE par lots bornés (une transaction courte par lot,
+ * pause entre deux lots pour ne pas monopoliser la base)
+ * - table partitionnée par mois (voir db/notifications-partitioning.sql) :
+ * détache et supprime d'abord les partitions entièrement expirées, et crée à
+ * l'avance les partitions des mois à venir
+ */
+@Service
+@Slf4j
+public class NotificationRetentionService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^notifications_p(\\d{6})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final NotificationRepository notificationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter purgedCounter;
+    private final Timer sweepTimer;
+
+    @Value("${app.notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.retention.days:90}")
+    private int retentionDays;
+
+    @Value("${app.notifications.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.notifications.retention.max-batches-per-run:500}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.notifications.retention.pause-between-batches-ms:200}")
+    private long pauseBetweenBatchesMs;
+
+    @Value("${app.notifications.retention.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository, JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.purgedCounter = Counter.builder("notifications.retention.purged")
+                .description("Notifications supprimées par la rétention globale")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("notifications.retention.sweep")
+                .description("Durée d'un passage de rétention des notifications")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.notifications.retention.cron:0 30 3 * * ?}") // Tous les jours à 3h30
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Début de la rétention des notifications (> {} jours)...", retentionDays);
+        try {
+            long purged = sweepTimer.recordCallable(this::purgeExpired);
+            log.info("Rétention des notifications terminée: {} notification(s) supprimée(s)", purged);
+        } catch (Exception e) {
+            log.error("Erreur lors de la rétention des notifications", e);
+        }
+    }
+
+    /**
+     * @return nombre de notifications supprimées
+     */
+    public long purgeExpired() {
+        LocalDateTime dateLimite = LocalDateTime.now().minusDays(retentionDays);
+        if (isPartitioned()) {
+            ensureUpcomingPartitions();
+            // Les restes (partition par défaut, mois partiellement expiré) passent
+            // par la suppression par lots
+            return dropExpiredPartitions(dateLimite.toLocalDate()) + deleteInBatches(dateLimite);
+        }
+        return deleteInBatches(dateLimite);
+    }
+
+    private long deleteInBatches(LocalDateTime dateLimite) {
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = notificationRepository.supprimerLotAnterieurA(dateLimite, batchSize);
+            total += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted < batchSize) {
+                return total;
+            }
+            if (!pause()) {
+                return total;
+            }
+        }
+        log.warn("Rétention des notifications interrompue après {} lots, reprise au prochain passage",
+                maxBatchesPerRun);
+        return total;
+    }
+
+    private boolean pause() {
+        if (pauseBetweenBatchesMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatchesMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+                        "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'notifications')",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'notifications'",
+                String.class);
+    }
+
+    /**
+     * Une partition notifications_pYYYYMM est supprimée quand tout son mois est
+     * antérieur à la date limite
+     */
+    private long dropExpiredPartitions(LocalDate dateLimite) {
+        long total = 0;
+        for (String name : partitionNames()) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), PARTITION_SUFFIX);
+            if (!month.plusMonths(1).atDay(1).isAfter(dateLimite)) {
+                Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + name, Long.class);
+                jdbcTemplate.execute("ALTER TABLE notifications DETACH PARTITION " + name);
+                jdbcTemplate.execute("DROP TABLE " + name);
+                long count = rows != null ? rows : 0;
+                total += count;
+                purgedCounter.increment(count);
+                log.info("Partition {} supprimée ({} notification(s))", name, count);
+            }
+        }
+        return total;
+    }
+
+    private void ensureUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = "notifications_p" + month.format(PARTITION_SUFFIX);
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF notifications " +
+                                "FOR VALUES FROM ('%s') TO ('%s')",
+                        name, month.atDay(1), month.plusMonths(1).atDay(1)));
+            } catch (Exception e) {
+                log.warn("Impossible de créer la partition {}: {}", name, e.getMessage());
+            }
+        }
+    }
+}
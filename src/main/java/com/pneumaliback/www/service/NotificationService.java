@@ -1,18 +1,21 @@
 package com.pneumaliback.www.service;
 
+import com.pneumaliback.www.dto.KeysetPage;
 import com.pneumaliback.www.dto.NotificationRechercheDTO;
+import com.pneumaliback.www.dto.NotificationSearchHit;
 import com.pneumaliback.www.entity.Notification;
 import com.pneumaliback.www.entity.User;
 import com.pneumaliback.www.repository.NotificationRepository;
 import com.pneumaliback.www.repository.UserRepository;
+import com.pneumaliback.www.service.search.FullTextQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -24,7 +27,7 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketPublisher webSocketPublisher;
 
     @Transactional
     public Notification notify(User recipient, String title, String content) {
@@ -43,7 +46,7 @@ public class NotificationService {
         notification.setIsRead(false);
         notification = notificationRepository.save(notification);
 
-        messagingTemplate.convertAndSend("/topic/notifications/" + recipient.getId(), notification);
+        webSocketPublisher.sendToUser(recipient, "notifications", notification);
         return notification;
     }
 
@@ -69,8 +72,9 @@ public class NotificationService {
 
     @Transactional(readOnly = true)
     public Page<Notification> search(NotificationRechercheDTO criteres, Pageable pageable) {
-        if (criteres.getQuery() != null && !criteres.getQuery().trim().isEmpty()) {
-            return notificationRepository.rechercher(criteres.getUserId(), criteres.getQuery(), pageable);
+        String tsQuery = FullTextQuery.toPrefixQuery(criteres.getQuery());
+        if (tsQuery != null) {
+            return notificationRepository.rechercher(criteres.getUserId(), tsQuery, pageable);
         }
         if (criteres.getType() != null) {
             return notificationRepository.findByType(criteres.getUserId(), criteres.getType(), pageable);
@@ -82,6 +86,47 @@ public class NotificationService {
         return notificationRepository.findByRecipientIdOrderByCreatedAtDesc(criteres.getUserId(), pageable);
     }
 
+    /**
+     * Recherche plein texte classée par pertinence, avec extraits surlignés
+     *
+     * @param cursor curseur "rank_id" renvoyé par la page précédente (null pour
+     *               la première page)
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<NotificationSearchHit> searchFullText(Long userId, String query,
+            String cursor, int size) {
+        String tsQuery = FullTextQuery.toPrefixQuery(query);
+        if (tsQuery == null) {
+            throw new IllegalArgumentException("La recherche doit contenir au moins un mot");
+        }
+        int limit = Math.max(1, Math.min(size, 50));
+
+        BigDecimal lastRank = new BigDecimal("1000000");
+        long lastId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split("_");
+            try {
+                lastRank = new BigDecimal(parts[0]);
+                lastId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Curseur de recherche invalide: " + cursor);
+            }
+        }
+
+        List<NotificationRepository.SearchHitProjection> hits = notificationRepository.rechercherPlainTexte(
+                userId, tsQuery, lastRank, lastId, limit + 1);
+        boolean hasNext = hits.size() > limit;
+        if (hasNext) {
+            hits = hits.subList(0, limit);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            NotificationRepository.SearchHitProjection last = hits.get(hits.size() - 1);
+            nextCursor = last.getRank().toPlainString() + "_" + last.getId();
+        }
+        return new KeysetPage<>(hits.stream().map(NotificationSearchHit::from).toList(), nextCursor, hasNext);
+    }
+
     @Transactional(readOnly = true)
     public long countUnread(Long userId) {
         return notificationRepository.countByRecipientIdAndIsReadFalse(userId);
@@ -118,11 +163,10 @@ public class NotificationService {
      * Envoie le count des notifications non lues via WebSocket
      */
     public void sendUnreadCount(User user) {
-        String destination = "/topic/notifications/" + user.getId() + "/count";
         long count = countUnread(user.getId());
 
         log.debug("Sending unread notifications count via WebSocket to user {}: {}", user.getId(), count);
-        messagingTemplate.convertAndSend(destination, Map.of("count", count));
+        webSocketPublisher.sendToUser(user, "notifications/count", Map.of("count", count));
     }
 
     /**
@@ -134,7 +178,6 @@ public class NotificationService {
                 "Vous avez reçu un nouveau message de " + senderName, "NOUVEAU_MESSAGE");
 
         // Envoyer message WebSocket spécifique
-        String destination = "/topic/notifications/" + recipient.getId();
         NotificationMessage message = new NotificationMessage(
                 "Nouveau message",
                 "Vous avez reçu un nouveau message de " + senderName,
@@ -142,7 +185,7 @@ public class NotificationService {
                 messageId);
 
         log.info("Notification nouveau message WebSocket à l'utilisateur {}: {}", recipient.getId(), senderName);
-        messagingTemplate.convertAndSend(destination, message);
+        webSocketPublisher.sendToUser(recipient, "notifications", message);
 
         // Mettre à jour le count
         sendUnreadCount(recipient);
@@ -157,7 +200,6 @@ public class NotificationService {
                 "Un colis vous a été assigné: " + packageDescription, "COLIS_AFFECTE");
 
         // Envoyer message WebSocket spécifique
-        String destination = "/topic/notifications/" + recipient.getId();
         NotificationMessage message = new NotificationMessage(
                 "Colis assigné",
                 "Un colis vous a été assigné: " + packageDescription,
@@ -165,7 +207,7 @@ public class NotificationService {
                 packageId);
 
         log.info("Notification colis assigné WebSocket à l'utilisateur {}: {}", recipient.getId(), packageDescription);
-        messagingTemplate.convertAndSend(destination, message);
+        webSocketPublisher.sendToUser(recipient, "notifications", message);
 
         // Mettre à jour le count
         sendUnreadCount(recipient);
@@ -180,7 +222,6 @@ public class NotificationService {
                 "Votre paiement de " + amount + " a été confirmé", "PAIEMENT_RECU");
 
         // Envoyer message WebSocket spécifique
-        String destination = "/topic/notifications/" + recipient.getId();
         NotificationMessage message = new NotificationMessage(
                 "Paiement confirmé",
                 "Votre paiement de " + amount + " a été confirmé",
@@ -188,7 +229,7 @@ public class NotificationService {
                 paymentId);
 
         log.info("Notification paiement confirmé WebSocket à l'utilisateur {}: {}", recipient.getId(), amount);
-        messagingTemplate.convertAndSend(destination, message);
+        webSocketPublisher.sendToUser(recipient, "notifications", message);
 
         // Mettre à jour le count
         sendUnreadCount(recipient);
@@ -1,11 +1,13 @@
 package com.pneumaliback.www.service;
 
+import com.pneumaliback.www.configuration.IntegrationMetrics;
 import com.pneumaliback.www.entity.User;
 import com.pneumaliback.www.enums.Role;
 import com.pneumaliback.www.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Map;
 
+@Lazy
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -28,6 +31,7 @@ public class OAuth2Service {
     private final PasswordEncoder passwordEncoder;
     private final MailService mailService;
     private final AuditService auditService;
+    private final IntegrationMetrics integrationMetrics;
     private final RestTemplate restTemplate = new RestTemplate();
 
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
@@ -162,11 +166,12 @@ public class OAuth2Service {
 
             HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
 
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    "https://oauth2.googleapis.com/token",
-                    HttpMethod.POST,
-                    request,
-                    (Class<Map<String, Object>>) (Class<?>) Map.class);
+            ResponseEntity<Map<String, Object>> response = integrationMetrics.record("google", "token",
+                    () -> restTemplate.exchange(
+                            "https://oauth2.googleapis.com/token",
+                            HttpMethod.POST,
+                            request,
+                            (Class<Map<String, Object>>) (Class<?>) Map.class));
 
             Map<String, Object> body = response.getBody();
             if (body == null || !body.containsKey("access_token")) {
@@ -191,11 +196,12 @@ public class OAuth2Service {
 
             HttpEntity<String> request = new HttpEntity<>(headers);
 
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    "https://www.googleapis.com/oauth2/v3/userinfo",
-                    HttpMethod.GET,
-                    request,
-                    (Class<Map<String, Object>>) (Class<?>) Map.class);
+            ResponseEntity<Map<String, Object>> response = integrationMetrics.record("google", "userinfo",
+                    () -> restTemplate.exchange(
+                            "https://www.googleapis.com/oauth2/v3/userinfo",
+                            HttpMethod.GET,
+                            request,
+                            (Class<Map<String, Object>>) (Class<?>) Map.class));
 
             Map<String, Object> userInfo = response.getBody();
             if (userInfo == null) {
@@ -1,5 +1,6 @@
 package com.pneumaliback.www.service;
 
+import com.pneumaliback.www.configuration.IntegrationMetrics;
 import com.pneumaliback.www.configuration.PaydunyaProperties;
 import com.pneumaliback.www.dto.*;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +23,7 @@ public class PaydunyaService {
 
     private final RestTemplate restTemplate;
     private final PaydunyaProperties paydunyaProperties;
+    private final IntegrationMetrics integrationMetrics;
 
     // ObjectMapper local avec configuration minimale pour la désérialisation
     // Paydunya
@@ -62,11 +64,12 @@ public class PaydunyaService {
                     request.getStore().getName());
 
             // Récupérer la réponse brute d'abord pour le debugging
-            ResponseEntity<String> rawResponse = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    String.class);
+            ResponseEntity<String> rawResponse = integrationMetrics.record("paydunya", "create-invoice",
+                    () -> restTemplate.exchange(
+                            url,
+                            HttpMethod.POST,
+                            entity,
+                            String.class));
 
             responseBody = rawResponse.getBody();
             log.debug("Réponse brute de Paydunya: {}", responseBody);
@@ -153,11 +156,12 @@ public class PaydunyaService {
         try {
             log.info("Tentative de paiement SoftPay - URL: {}, Facture: {}, Email: {}", url, invoiceToken,
                     customerEmail);
-            ResponseEntity<PaydunyaPaymentResponse> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    PaydunyaPaymentResponse.class);
+            ResponseEntity<PaydunyaPaymentResponse> response = integrationMetrics.record("paydunya", "make-payment",
+                    () -> restTemplate.exchange(
+                            url,
+                            HttpMethod.POST,
+                            entity,
+                            PaydunyaPaymentResponse.class));
 
             PaydunyaPaymentResponse paymentResponse = response.getBody();
             if (paymentResponse == null) {
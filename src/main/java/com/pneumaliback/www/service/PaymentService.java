@@ -88,6 +88,7 @@ public class PaymentService {
         return paymentRepository.save(payment);
     }
 
+    @Transactional
     public void confirmSuccessByTransaction(String transactionReference) {
         if (transactionReference == null || transactionReference.isBlank())
             return;
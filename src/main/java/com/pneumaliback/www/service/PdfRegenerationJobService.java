@@ -0,0 +1,344 @@
+package com.pneumaliback.www.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.pneumaliback.www.configuration.PoolRoutingDataSource;
+import com.pneumaliback.www.entity.BatchJob;
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.BatchJobStatus;
+import com.pneumaliback.www.repository.BatchJobRepository;
+import com.pneumaliback.www.repository.QuoteRequestRepository;
+import com.pneumaliback.www.service.pdf.QuotePdf;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Regénération de tous les PDF de devis en tâche de fond
+ *
+ * Les ids sont lus par lots (app.pdf.regeneration.chunk-size) ; chaque devis
+ * est chargé dans une transaction courte puis rendu et envoyé hors
+ * transaction, en parallèle sur un pool borné, avec un débit d'upload limité.
+ * Le point de reprise (dernier id traité) est enregistré après chaque lot :
+ * un traitement interrompu reprend au démarrage suivant.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PdfRegenerationJobService {
+
+    public static final String JOB_TYPE = "QUOTE_PDF_REGENERATION";
+
+    private enum Result {
+        UPLOADED, UNCHANGED, FAILED
+    }
+
+    /**
+     * Résultat d'un devis, rendu au thread coordinateur : seul celui-ci modifie
+     * et enregistre le BatchJob
+     */
+    private record Outcome(Result result, String error) {
+
+        static final Outcome UPLOADED = new Outcome(Result.UPLOADED, null);
+        static final Outcome UNCHANGED = new Outcome(Result.UNCHANGED, null);
+
+        static Outcome failed(String error) {
+            return new Outcome(Result.FAILED, error);
+        }
+    }
+
+    private final BatchJobRepository batchJobRepository;
+    private final QuoteRequestRepository quoteRequestRepository;
+    private final QuoteRequestService quoteRequestService;
+    @Lazy
+    private final QuotePdfService quotePdfService;
+
+    @Value("${app.pdf.regeneration.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${app.pdf.regeneration.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.pdf.regeneration.uploads-per-second:5}")
+    private double uploadsPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Verrou explicite plutôt que synchronized : un thread virtuel qui attend la base n'épingle pas son porteur
+    private final ReentrantLock launchLock = new ReentrantLock();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(PoolRoutingDataSource.onBatchPool(runnable), "pdf-regeneration"));
+    private ExecutorService workers;
+
+    private final Object uploadLock = new Object();
+    private long nextUploadAt;
+
+    // Avancement de l'exécution en cours, pour l'estimation du temps restant
+    private volatile long runStartedAt;
+    private volatile long processedAtRunStart;
+
+    /**
+     * Lance une regénération complète
+     *
+     * @throws IllegalStateException si une regénération est déjà en cours
+     */
+    public BatchJob start(String triggeredBy) {
+        launchLock.lock();
+        try {
+            if (running.get()) {
+                throw new IllegalStateException("Une regénération des PDF est déjà en cours");
+            }
+            BatchJob job = new BatchJob();
+            job.setType(JOB_TYPE);
+            job.setTriggeredBy(triggeredBy);
+            job.setTotal(quoteRequestRepository.countWithPdfUrl());
+            job.setStartedAt(LocalDateTime.now());
+            job = batchJobRepository.save(job);
+            log.info("Regénération des PDF lancée (job {}, {} devis)", job.getId(), job.getTotal());
+            launch(job.getId());
+            return job;
+        } finally {
+            launchLock.unlock();
+        }
+    }
+
+    /**
+     * Reprend le traitement interrompu par un arrêt de l'application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        launchLock.lock();
+        try {
+            List<BatchJob> interrupted = batchJobRepository.findByTypeAndStatus(JOB_TYPE, BatchJobStatus.EN_COURS);
+            BatchJob latest = null;
+            for (BatchJob job : interrupted) {
+                if (latest == null || job.getId() > latest.getId()) {
+                    latest = job;
+                }
+            }
+            for (BatchJob job : interrupted) {
+                if (job != latest) {
+                    job.setStatus(BatchJobStatus.ECHEC);
+                    job.setFinishedAt(LocalDateTime.now());
+                    job.setLastError("Remplacé par le job " + latest.getId());
+                    batchJobRepository.save(job);
+                }
+            }
+            if (latest != null && !running.get()) {
+                log.info("Reprise de la regénération des PDF (job {}, après l'id {})", latest.getId(),
+                        latest.getLastProcessedId());
+                launch(latest.getId());
+            }
+        } finally {
+            launchLock.unlock();
+        }
+    }
+
+    /**
+     * Avancement du dernier traitement, ou null s'il n'y en a jamais eu
+     */
+    public Map<String, Object> status() {
+        BatchJob job = batchJobRepository.findFirstByTypeOrderByIdDesc(JOB_TYPE).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getId());
+        status.put("status", job.getStatus());
+        status.put("total", job.getTotal());
+        status.put("processed", job.getProcessed());
+        status.put("uploaded", job.getSucceeded());
+        status.put("unchanged", job.getUnchanged());
+        status.put("failed", job.getFailed());
+        status.put("percent", job.getTotal() > 0 ? Math.min(100, job.getProcessed() * 100 / job.getTotal()) : 100);
+        status.put("startedAt", job.getStartedAt());
+        status.put("finishedAt", job.getFinishedAt());
+        status.put("etaSeconds", job.getStatus() == BatchJobStatus.EN_COURS ? etaSeconds(job) : null);
+        status.put("lastError", job.getLastError());
+        return status;
+    }
+
+    private Long etaSeconds(BatchJob job) {
+        long done = job.getProcessed() - processedAtRunStart;
+        long elapsed = System.nanoTime() - runStartedAt;
+        if (!running.get() || done <= 0 || elapsed <= 0) {
+            return null;
+        }
+        long remaining = Math.max(0, job.getTotal() - job.getProcessed());
+        return TimeUnit.NANOSECONDS.toSeconds(elapsed * remaining / done);
+    }
+
+    private void launch(Long jobId) {
+        running.set(true);
+        if (workers == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                    runnable -> new Thread(PoolRoutingDataSource.onBatchPool(runnable),
+                            "pdf-regeneration-" + threadCount.incrementAndGet()));
+        }
+        try {
+            runner.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            // Application en cours d'arrêt : le job reprendra au démarrage
+            running.set(false);
+        }
+    }
+
+    private void run(Long jobId) {
+        BatchJob job = batchJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            running.set(false);
+            return;
+        }
+        runStartedAt = System.nanoTime();
+        processedAtRunStart = job.getProcessed();
+
+        try {
+            User emitter = quoteRequestService.loadEmitter(job.getTriggeredBy());
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Long> ids = quoteRequestRepository.findIdsWithPdfUrlAfter(job.getLastProcessedId(),
+                        PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<Outcome>> outcomes = ids.stream()
+                        .map(id -> CompletableFuture.supplyAsync(() -> regenerate(id, emitter), workers))
+                        .toList();
+                boolean interrupted = false;
+                for (CompletableFuture<Outcome> future : outcomes) {
+                    Outcome outcome;
+                    try {
+                        outcome = future.get();
+                    } catch (InterruptedException e) {
+                        // Arrêt : les devis du lot pas encore commencés ne sont pas lancés
+                        outcomes.forEach(f -> f.cancel(true));
+                        Thread.currentThread().interrupt();
+                        interrupted = true;
+                        break;
+                    }
+                    switch (outcome.result()) {
+                        case UPLOADED -> job.setSucceeded(job.getSucceeded() + 1);
+                        case UNCHANGED -> job.setUnchanged(job.getUnchanged() + 1);
+                        case FAILED -> {
+                            job.setFailed(job.getFailed() + 1);
+                            if (outcome.error() != null) {
+                                job.setLastError(outcome.error());
+                            }
+                        }
+                    }
+                }
+                if (interrupted) {
+                    // Lot incomplet : il sera repris depuis le dernier point de reprise
+                    break;
+                }
+
+                // Point de reprise
+                job.setProcessed(job.getProcessed() + ids.size());
+                job.setLastProcessedId(ids.get(ids.size() - 1));
+                if (job.getProcessed() > job.getTotal()) {
+                    job.setTotal(job.getProcessed());
+                }
+                batchJobRepository.save(job);
+                log.debug("Regénération des PDF: {}/{} (job {})", job.getProcessed(), job.getTotal(), jobId);
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                // Arrêt de l'application : le job reste EN_COURS et reprendra au démarrage
+                return;
+            }
+            job.setStatus(BatchJobStatus.TERMINE);
+            log.info("Regénération des PDF terminée (job {}): {} envoyé(s), {} inchangé(s), {} échec(s)",
+                    jobId, job.getSucceeded(), job.getUnchanged(), job.getFailed());
+        } catch (Exception e) {
+            log.error("Erreur lors de la regénération des PDF (job {})", jobId, e);
+            job.setStatus(BatchJobStatus.ECHEC);
+            job.setLastError(truncate(e.getMessage()));
+        } finally {
+            if (job.getStatus() != BatchJobStatus.EN_COURS) {
+                job.setFinishedAt(LocalDateTime.now());
+                batchJobRepository.save(job);
+            }
+            running.set(false);
+        }
+    }
+
+    private Outcome regenerate(Long quoteId, User emitter) {
+        try {
+            QuoteRequest request = quoteRequestService.loadForPdf(quoteId);
+            if (quotePdfService.fingerprint(request, emitter).equals(request.getQuotePdfHash())) {
+                return Outcome.UNCHANGED;
+            }
+            QuotePdf pdf = quotePdfService.render(request, emitter);
+            acquireUploadSlot();
+            return quoteRequestService.storeRegeneratedPdf(request, pdf) ? Outcome.UPLOADED : Outcome.UNCHANGED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.failed(null);
+        } catch (Exception e) {
+            log.error("Erreur lors de la regénération du PDF pour le devis {}: {}", quoteId, e.getMessage());
+            return Outcome.failed(truncate("Devis " + quoteId + ": " + e.getMessage()));
+        }
+    }
+
+    // Espace les uploads de 1/uploadsPerSecond seconde, sans limite si uploadsPerSecond <= 0
+    private void acquireUploadSlot() throws InterruptedException {
+        if (uploadsPerSecond <= 0) {
+            return;
+        }
+        long interval = (long) (Duration.ofSeconds(1).toNanos() / uploadsPerSecond);
+        long wait;
+        synchronized (uploadLock) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextUploadAt);
+            nextUploadAt = slot + interval;
+            wait = slot - now;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Coordinateur d'abord : il annule le reste du lot avant l'arrêt des workers
+        runner.shutdownNow();
+        try {
+            if (!runner.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("La regénération des PDF ne s'est pas arrêtée dans le délai");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+}
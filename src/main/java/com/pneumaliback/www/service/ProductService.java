@@ -19,19 +19,29 @@ import com.pneumaliback.www.repository.TireDiameterRepository;
 import com.pneumaliback.www.repository.VehicleTypeRepository;
 import com.pneumaliback.www.repository.TireConditionRepository;
 import com.pneumaliback.www.repository.CartItemRepository;
+import com.pneumaliback.www.enums.UploadPurpose;
+import com.pneumaliback.www.service.image.ImageProcessingService;
+import com.pneumaliback.www.service.image.ImageRenditions;
+import com.pneumaliback.www.service.storage.PresignedUploadService;
+import com.pneumaliback.www.service.storage.StoredUpload;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ProductService {
 
     private final ProductRepository productRepository;
@@ -43,6 +53,8 @@ public class ProductService {
     private final VehicleTypeRepository vehicleTypeRepository;
     private final TireConditionRepository tireConditionRepository;
     private final CartItemRepository cartItemRepository;
+    private final PresignedUploadService presignedUploadService;
+    private final ImageProcessingService imageProcessingService;
 
     public Page<Product> listActive(Pageable pageable) {
         return productRepository.findByActiveTrue(pageable);
@@ -253,6 +265,78 @@ public class ProductService {
         return productRepository.save(product);
     }
 
+    @Transactional
+    public Product attachImageRenditions(Long id, ImageRenditions renditions) {
+        return productRepository.save(withRenditions(findById(id), renditions));
+    }
+
+    /**
+     * Rattache une image envoyée directement au stockage : l'original est
+     * affiché tout de suite, puis remplacé par ses déclinaisons une fois
+     * celles-ci calculées en tâche de fond
+     *
+     * Ticket consommé et produit mis à jour dans la même transaction ;
+     * anciennes images supprimées et déclinaisons lancées après le commit.
+     */
+    @Transactional
+    public Product attachUploadedImage(Long id, String ticket, String owner) throws IOException {
+        Product product = findById(id);
+        StoredUpload upload = presignedUploadService.complete(ticket, UploadPurpose.PRODUCT_IMAGE, owner);
+        String[] previousImages = { product.getImageUrl(), product.getImageCardUrl(),
+                product.getImageThumbnailUrl() };
+        Product saved = productRepository
+                .save(withRenditions(product, new ImageRenditions(upload.url(), upload.url(), upload.url())));
+
+        Runnable afterCommit = () -> {
+            imageProcessingService.deleteRenditions(previousImages);
+            processUploadedImage(id, upload);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit.run();
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    afterCommit.run();
+                }
+            });
+        }
+        return saved;
+    }
+
+    private void processUploadedImage(Long id, StoredUpload upload) {
+        imageProcessingService.processStoredProductImage(upload.filePath()).whenComplete((renditions, error) -> {
+            if (error != null) {
+                log.warn("Déclinaisons de l'image du produit {} non générées, original conservé: {}", id,
+                        error.getMessage());
+                return;
+            }
+            try {
+                // Image remplacée ou produit supprimé entre-temps : déclinaisons orphelines
+                Product current = findById(id);
+                if (!upload.url().equals(current.getImageUrl())) {
+                    imageProcessingService.deleteRenditions(renditions.fullUrl(), renditions.cardUrl(),
+                            renditions.thumbnailUrl());
+                    return;
+                }
+                // Hors transaction : @Version refuse l'enregistrement si le produit a changé depuis la lecture
+                productRepository.save(withRenditions(current, renditions));
+                imageProcessingService.deleteRenditions(upload.url());
+            } catch (RuntimeException e) {
+                log.warn("Déclinaisons de l'image du produit {} non rattachées: {}", id, e.getMessage());
+                imageProcessingService.deleteRenditions(renditions.fullUrl(), renditions.cardUrl(),
+                        renditions.thumbnailUrl());
+            }
+        });
+    }
+
+    private static Product withRenditions(Product product, ImageRenditions renditions) {
+        product.setImageUrl(renditions.fullUrl());
+        product.setImageCardUrl(renditions.cardUrl());
+        product.setImageThumbnailUrl(renditions.thumbnailUrl());
+        return product;
+    }
+
     @Transactional
     public void delete(Long id) {
         Product product = findById(id);
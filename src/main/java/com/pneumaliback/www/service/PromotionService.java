@@ -95,7 +95,7 @@ public class PromotionService {
         p.setActive(true);
 
         if (dto.influenceurId() != null) {
-            Influenceur inf = influenceurRepository.findById(dto.influenceurId())
+            Influenceur inf = influenceurRepository.findWithUserById(dto.influenceurId())
                     .orElseThrow(() -> new IllegalArgumentException("Influenceur introuvable"));
             p.setInfluenceur(inf);
         }
@@ -106,13 +106,13 @@ public class PromotionService {
     }
 
     public List<PromotionResponse> findAll() {
-        return promotionRepository.findAll().stream()
+        return promotionRepository.findAllWithInfluenceur().stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
     public Optional<PromotionResponse> findById(Long id) {
-        return promotionRepository.findById(id)
+        return promotionRepository.findWithInfluenceurById(id)
                 .map(this::toResponse);
     }
 
@@ -182,7 +182,7 @@ public class PromotionService {
         }
 
         if (request.influenceurId() != null) {
-            Influenceur influenceur = influenceurRepository.findById(request.influenceurId())
+            Influenceur influenceur = influenceurRepository.findWithUserById(request.influenceurId())
                     .orElseThrow(() -> new IllegalArgumentException("Influenceur introuvable"));
             promotion.setInfluenceur(influenceur);
         }
@@ -1,24 +1,34 @@
 package com.pneumaliback.www.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
 import com.pneumaliback.www.entity.Address;
 import com.pneumaliback.www.entity.QuoteRequest;
 import com.pneumaliback.www.entity.QuoteRequestItem;
 import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.service.pdf.PdfRenderEngine;
+import com.pneumaliback.www.service.pdf.QuotePdf;
+import com.pneumaliback.www.service.pdf.QuotePdfCache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+@Lazy
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -26,16 +36,70 @@ public class QuotePdfService {
 
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.FRENCH);
 
+    // À incrémenter quand le rendu change sans que le HTML change (moteur, polices...)
+    private static final String TEMPLATE_VERSION = "2";
+
+    private final PdfRenderEngine pdfRenderEngine;
+    private final QuotePdfCache quotePdfCache;
+    private final StorageService storageService;
+
     public byte[] generateQuote(QuoteRequest request, User emitter) {
         if (request == null) {
             log.error("La demande de devis est null");
             throw new IllegalArgumentException("La demande de devis ne peut pas être null");
         }
+        return generateFromHtml(request, buildHtmlTemplate(request, emitter));
+    }
+
+    /**
+     * Empreinte des données du rendu (articles, totaux, adresses, émetteur,
+     * version du gabarit) : le HTML généré les contient toutes.
+     */
+    public String fingerprint(QuoteRequest request, User emitter) {
+        if (request == null) {
+            throw new IllegalArgumentException("La demande de devis ne peut pas être null");
+        }
+        return fingerprint(buildHtmlTemplate(request, emitter));
+    }
+
+    /**
+     * PDF du devis, depuis le cache local, puis l'objet Supabase si son
+     * empreinte est identique, et en dernier recours par un nouveau rendu
+     */
+    public QuotePdf render(QuoteRequest request, User emitter) {
+        if (request == null) {
+            log.error("La demande de devis est null");
+            throw new IllegalArgumentException("La demande de devis ne peut pas être null");
+        }
+
+        String htmlContent = buildHtmlTemplate(request, emitter);
+        String hash = fingerprint(htmlContent);
+
+        byte[] cached = quotePdfCache.get(hash);
+        if (cached != null) {
+            quotePdfCache.record("local");
+            return new QuotePdf(hash, cached);
+        }
+
+        if (hash.equals(request.getQuotePdfHash())) {
+            byte[] remote = storageService.downloadBytes(request.getQuotePdfUrl());
+            if (remote != null && remote.length > 0) {
+                quotePdfCache.record("remote");
+                quotePdfCache.put(hash, remote);
+                return new QuotePdf(hash, remote);
+            }
+        }
 
+        quotePdfCache.record("miss");
+        byte[] pdf = generateFromHtml(request, htmlContent);
+        quotePdfCache.put(hash, pdf);
+        return new QuotePdf(hash, pdf);
+    }
+
+    private byte[] generateFromHtml(QuoteRequest request, String htmlContent) {
         try {
             log.debug("Génération du PDF pour le devis ID: {}, RequestNumber: {}", request.getId(),
                     request.getRequestNumber());
-            String htmlContent = buildHtmlTemplate(request, emitter);
 
             if (htmlContent == null || htmlContent.isBlank()) {
                 log.error("Le contenu HTML généré est vide pour le devis {}", request.getId());
@@ -55,54 +119,76 @@ public class QuotePdfService {
         }
     }
 
+    private String fingerprint(String htmlContent) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(TEMPLATE_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(htmlContent.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
     private byte[] renderPdfFromHtml(String htmlContent) throws IOException {
         if (htmlContent == null || htmlContent.isBlank()) {
             log.error("Le contenu HTML est vide, impossible de générer le PDF");
             throw new IllegalStateException("Le contenu HTML est vide");
         }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] pdfBytes = pdfRenderEngine.render(htmlContent);
+        if (pdfBytes.length < 100) {
+            log.warn("Le PDF généré est très petit ({} bytes), il pourrait être invalide", pdfBytes.length);
+        }
+        return pdfBytes;
+    }
 
+    /**
+     * Premier rendu d'un devis fictif au démarrage (voir PdfRenderEngine)
+     *
+     * Condition évaluée avant la création du bean : sans préchauffage, le
+     * service (@Lazy) et le moteur de rendu ne sont créés qu'au premier devis.
+     */
+    @EventListener(value = ApplicationReadyEvent.class, condition = "@pdfRenderProperties.warmUp")
+    public void warmUp() {
         try {
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.withHtmlContent(htmlContent, null);
-            builder.useFastMode();
-            builder.toStream(outputStream);
-            builder.run();
-
-            byte[] pdfBytes = outputStream.toByteArray();
-            if (pdfBytes == null || pdfBytes.length == 0) {
-                log.error("Le PDF généré est vide");
-                throw new IllegalStateException("Le PDF généré est vide");
-            }
-
-            if (pdfBytes.length < 100) {
-                log.warn("Le PDF généré est très petit ({} bytes), il pourrait être invalide", pdfBytes.length);
-            }
-
-            log.debug("PDF généré avec succès, taille: {} bytes", pdfBytes.length);
-            return pdfBytes;
+            pdfRenderEngine.warmUp(buildHtmlTemplate(sampleQuote(), null));
         } catch (Exception e) {
-            log.error("Erreur lors du rendu PDF: {}", e.getMessage(), e);
-            throw new IOException("Erreur lors du rendu PDF: " + e.getMessage(), e);
-        } finally {
-            try {
-                outputStream.close();
-            } catch (IOException e) {
-                log.warn("Erreur lors de la fermeture du stream: {}", e.getMessage());
-            }
+            log.warn("Préchauffage du rendu PDF impossible: {}", e.getMessage());
         }
     }
 
+    private QuoteRequest sampleQuote() {
+        User client = new User();
+        client.setFirstName("Client");
+        client.setLastName("Test");
+        client.setEmail("client@pneumali.ml");
+
+        QuoteRequest request = new QuoteRequest();
+        request.setRequestNumber("DEV-WARMUP");
+        request.setUser(client);
+        request.setCreatedAt(LocalDateTime.now());
+        request.setSubtotalRequested(new BigDecimal("150000"));
+        request.setTotalQuoted(new BigDecimal("150000"));
+
+        QuoteRequestItem item = new QuoteRequestItem();
+        item.setProductName("Pneu 205/55 R16");
+        item.setBrandName("Michelin");
+        item.setWidthValue(205);
+        item.setProfileValue(55);
+        item.setDiameterValue(16);
+        item.setQuantity(4);
+        item.setUnitPrice(new BigDecimal("37500"));
+        item.setLineTotal(new BigDecimal("150000"));
+        request.getItems().add(item);
+        return request;
+    }
+
     private String buildHtmlTemplate(QuoteRequest request, User emitter) {
-        StringBuilder html = new StringBuilder();
-
-        html.append("<!DOCTYPE html>");
-        html.append("<html lang='fr'>");
-        html.append("<head>");
-        html.append("<meta charset='UTF-8' />");
-        html.append("<style>").append(getCssStyles()).append("</style>");
-        html.append("</head>");
+        StringBuilder html = new StringBuilder(HTML_HEAD.length() + 8192);
+
+        html.append(HTML_HEAD);
         html.append("<body>");
 
         // Header
@@ -132,8 +218,8 @@ public class QuotePdfService {
         return html.toString();
     }
 
-    private String getCssStyles() {
-        return """
+    // Feuille de style et en-tête HTML constants, construits une seule fois
+    private static final String CSS_STYLES = """
                 * {
                     margin: 0;
                     padding: 0;
@@ -310,7 +396,13 @@ public class QuotePdfService {
                     font-size: 10px;
                 }
                 """;
-    }
+
+    private static final String HTML_HEAD = "<!DOCTYPE html>" +
+            "<html lang='fr'>" +
+            "<head>" +
+            "<meta charset='UTF-8' />" +
+            "<style>" + CSS_STYLES + "</style>" +
+            "</head>";
 
     private String buildHeader(User emitter) {
         StringBuilder header = new StringBuilder();
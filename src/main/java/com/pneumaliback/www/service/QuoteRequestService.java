@@ -2,6 +2,7 @@ package com.pneumaliback.www.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -10,22 +11,36 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.hibernate.Hibernate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.pneumaliback.www.dto.KeysetCursor;
+import com.pneumaliback.www.dto.KeysetPage;
+import com.pneumaliback.www.dto.quote.QuoteSummaryResponse;
 import com.pneumaliback.www.entity.Product;
 import com.pneumaliback.www.entity.QuoteRequest;
 import com.pneumaliback.www.entity.QuoteRequestItem;
 import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.QuoteDispatchStage;
 import com.pneumaliback.www.enums.QuoteStatus;
 import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.enums.UploadPurpose;
 import com.pneumaliback.www.repository.ProductRepository;
-import com.pneumaliback.www.repository.QuoteRequestItemRepository;
 import com.pneumaliback.www.repository.QuoteRequestRepository;
 import com.pneumaliback.www.repository.UserRepository;
+import com.pneumaliback.www.service.image.ImageProcessingService;
+import com.pneumaliback.www.service.pdf.QuotePdf;
+import com.pneumaliback.www.service.quote.QuoteItemEditor;
+import com.pneumaliback.www.service.storage.PresignedUploadService;
+import com.pneumaliback.www.service.storage.StoredUpload;
 
 import com.pneumaliback.www.dto.quote.CreateQuoteRequestPayload;
 
@@ -41,15 +56,17 @@ public class QuoteRequestService {
     private static final String SEQUENCE_QUOTE = "QUOTE";
 
     private final QuoteRequestRepository quoteRequestRepository;
-    private final QuoteRequestItemRepository quoteRequestItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final CartService cartService;
     private final NumberSequenceService numberSequenceService;
     private final MailService mailService;
     private final StorageService storageService;
+    @Lazy
     private final QuotePdfService quotePdfService;
-    private final com.pneumaliback.www.repository.AddressRepository addressRepository;
+    private final ImageProcessingService imageProcessingService;
+    private final PresignedUploadService presignedUploadService;
+    private final QuoteItemEditor quoteItemEditor;
     private final com.pneumaliback.www.repository.DeliveryProofRepository deliveryProofRepository;
 
     private static final String QUOTE_STORAGE_FOLDER = "quotes";
@@ -121,7 +138,7 @@ public class QuoteRequestService {
         if (productIds.isEmpty()) {
             return Map.of();
         }
-        return productRepository.findAllById(productIds).stream()
+        return productRepository.findAllWithDimensionsByIdIn(productIds).stream()
                 .collect(Collectors.toMap(Product::getId, product -> product));
     }
 
@@ -143,83 +160,105 @@ public class QuoteRequestService {
         return quoteRequestRepository.findByAssignedLivreurOrderByCreatedAtDesc(livreur);
     }
 
+    /**
+     * Liste admin paginée par curseur, filtrable par statuts, livreur et
+     * période de création
+     *
+     * @param cursor curseur "createdAt_id" renvoyé par la page précédente (null
+     *               pour la première page)
+     */
     @Transactional(readOnly = true)
-    public QuoteRequest getById(Long id) {
-        return loadDetailedQuote(id);
+    public KeysetPage<QuoteSummaryResponse> pageForAdmin(List<QuoteStatus> statuses, Long livreurId,
+            LocalDate from, LocalDate to, String cursor, int size) {
+        return summaryPage(cursor, size, (lastDate, lastId, pageable) -> statuses == null || statuses.isEmpty()
+                ? quoteRequestRepository.findSummaries(livreurId, startOf(from), endOf(to), lastDate, lastId,
+                        pageable)
+                : quoteRequestRepository.findSummariesByStatus(statuses, livreurId, startOf(from), endOf(to),
+                        lastDate, lastId, pageable));
     }
 
-    @Transactional
-    public QuoteRequest updateAdminQuote(Long requestId, QuoteAdminUpdate update) {
-        QuoteRequest request = loadDetailedQuote(requestId);
+    @Transactional(readOnly = true)
+    public KeysetPage<QuoteSummaryResponse> pageForLivreur(User livreur, List<QuoteStatus> statuses,
+            LocalDate from, LocalDate to, String cursor, int size) {
+        return summaryPage(cursor, size, (lastDate, lastId, pageable) -> statuses == null || statuses.isEmpty()
+                ? quoteRequestRepository.findLivreurSummaries(livreur.getId(), startOf(from), endOf(to), lastDate,
+                        lastId, pageable)
+                : quoteRequestRepository.findLivreurSummariesByStatus(livreur.getId(), statuses, startOf(from),
+                        endOf(to), lastDate, lastId, pageable));
+    }
 
-        // Validation : Si le devis est validé par le client ou dans un stade supérieur,
-        // personne ne peut plus modifier le devis (ni admin, ni développeur)
-        boolean isQuoteValidatedOrBeyond = request.getStatus() == QuoteStatus.VALIDE_PAR_CLIENT 
-                || request.getStatus() == QuoteStatus.EN_COURS_LIVRAISON
-                || request.getStatus() == QuoteStatus.LIVRE_EN_ATTENTE_CONFIRMATION
-                || request.getStatus() == QuoteStatus.CLIENT_ABSENT
-                || request.getStatus() == QuoteStatus.TERMINE;
+    @Transactional(readOnly = true)
+    public KeysetPage<QuoteSummaryResponse> pageForUser(User user, List<QuoteStatus> statuses,
+            LocalDate from, LocalDate to, String cursor, int size) {
+        return summaryPage(cursor, size, (lastDate, lastId, pageable) -> statuses == null || statuses.isEmpty()
+                ? quoteRequestRepository.findUserSummaries(user.getId(), startOf(from), endOf(to), lastDate, lastId,
+                        pageable)
+                : quoteRequestRepository.findUserSummariesByStatus(user.getId(), statuses, startOf(from),
+                        endOf(to), lastDate, lastId, pageable));
+    }
 
-        if (isQuoteValidatedOrBeyond) {
-            throw new IllegalStateException(
-                    "Impossible de modifier ce devis : une fois validé par le client, aucune modification n'est autorisée.");
-        }
+    @FunctionalInterface
+    private interface SummaryQuery {
+        List<QuoteRequestRepository.SummaryProjection> fetch(LocalDateTime lastDate, Long lastId, Pageable pageable);
+    }
 
-        if (update.validUntil() != null) {
-            request.setValidUntil(update.validUntil());
-        }
-        if (update.adminNotes() != null) {
-            request.setAdminNotes(update.adminNotes());
-        }
-        if (update.deliveryDetails() != null) {
-            request.setDeliveryDetails(update.deliveryDetails());
-        }
+    private KeysetPage<QuoteSummaryResponse> summaryPage(String cursor, int size, SummaryQuery query) {
+        int limit = Math.max(1, Math.min(size, 100));
+        KeysetCursor position = KeysetCursor.parse(cursor);
 
-        if (update.items() != null && !update.items().isEmpty()) {
-            quoteRequestItemRepository.deleteByQuoteRequest(request);
-            request.getItems().clear();
-
-            BigDecimal subtotal = BigDecimal.ZERO;
-            for (QuoteAdminItem item : update.items()) {
-                QuoteRequestItem entity = createItemFromAdminItem(request, item);
-                request.getItems().add(entity);
-                subtotal = subtotal.add(entity.getLineTotal());
-            }
-            request.setSubtotalRequested(subtotal);
+        List<QuoteRequestRepository.SummaryProjection> rows = query.fetch(position.lastDate(), position.lastId(),
+                PageRequest.of(0, limit + 1));
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) {
+            rows = rows.subList(0, limit);
         }
+        String nextCursor = null;
+        if (hasNext) {
+            QuoteRequestRepository.SummaryProjection last = rows.get(rows.size() - 1);
+            nextCursor = KeysetCursor.format(last.getCreatedAt(), last.getId());
+        }
+        return new KeysetPage<>(rows.stream().map(QuoteSummaryResponse::from).toList(), nextCursor, hasNext);
+    }
 
-        updateFinancialFields(request, update);
+    private static LocalDateTime startOf(LocalDate from) {
+        return from != null ? from.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+    }
 
-        if (request.getTotalQuoted() != null && request.getTotalQuoted().compareTo(BigDecimal.ZERO) < 0) {
-            request.setTotalQuoted(BigDecimal.ZERO);
-        }
+    private static LocalDateTime endOf(LocalDate to) {
+        return to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.now().plusYears(100);
+    }
 
-        if (request.getStatus() == QuoteStatus.EN_ATTENTE) {
-            request.setStatus(QuoteStatus.DEVIS_EN_PREPARATION);
-        }
+    @Transactional(readOnly = true)
+    public QuoteRequest getById(Long id) {
+        return loadDetailedQuote(id);
+    }
 
+    @Transactional
+    public QuoteRequest updateAdminQuote(Long requestId, QuoteAdminUpdate update) {
+        QuoteRequest request = loadDetailedQuote(requestId);
+        applyAdminUpdate(request, update);
         return quoteRequestRepository.save(request);
     }
 
     @Transactional
     public QuoteRequest generateAndSendQuote(Long requestId, QuoteAdminUpdate update, String frontendQuoteUrl) {
         // Vérifier le statut AVANT d'appliquer les mises à jour
-        QuoteRequest currentRequest = loadDetailedQuote(requestId);
+        QuoteRequest request = loadDetailedQuote(requestId);
 
         // Vérifier si le devis a déjà été envoyé (statuts indiquant un envoi précédent)
-        if (currentRequest.getStatus() == QuoteStatus.DEVIS_ENVOYE 
-                || currentRequest.getStatus() == QuoteStatus.EN_ATTENTE_VALIDATION
-                || currentRequest.getStatus() == QuoteStatus.VALIDE_PAR_CLIENT
-                || currentRequest.getStatus() == QuoteStatus.EN_COURS_LIVRAISON
-                || currentRequest.getStatus() == QuoteStatus.LIVRE_EN_ATTENTE_CONFIRMATION
-                || currentRequest.getStatus() == QuoteStatus.CLIENT_ABSENT
-                || currentRequest.getStatus() == QuoteStatus.TERMINE) {
+        if (request.getStatus() == QuoteStatus.DEVIS_ENVOYE 
+                || request.getStatus() == QuoteStatus.EN_ATTENTE_VALIDATION
+                || request.getStatus() == QuoteStatus.VALIDE_PAR_CLIENT
+                || request.getStatus() == QuoteStatus.EN_COURS_LIVRAISON
+                || request.getStatus() == QuoteStatus.LIVRE_EN_ATTENTE_CONFIRMATION
+                || request.getStatus() == QuoteStatus.CLIENT_ABSENT
+                || request.getStatus() == QuoteStatus.TERMINE) {
             throw new IllegalStateException(
                     "Ce devis a déjà été envoyé au client. Une fois envoyé, il ne peut plus être réenvié.");
         }
 
-        // Appliquer les mises à jour
-        QuoteRequest request = updateAdminQuote(requestId, update);
+        // Appliquer les mises à jour sur le devis déjà chargé
+        applyAdminUpdate(request, update);
 
         if (request.getQuoteNumber() == null || request.getQuoteNumber().isBlank()) {
             request.setQuoteNumber(numberSequenceService.nextFormatted(SEQUENCE_QUOTE, "DEV"));
@@ -229,20 +268,33 @@ public class QuoteRequestService {
             request.setValidUntil(LocalDate.now().plusDays(7));
         }
 
-        User emitter = resolveCurrentAdmin();
-        if (emitter != null) {
-            loadUserAddresses(emitter);
-        }
-        byte[] pdf = quotePdfService.generateQuote(request, emitter);
-        storeQuotePdf(request, pdf, null);
-
+        // PDF et email sont produits après le commit par QuoteDispatchService
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         request.setStatus(QuoteStatus.DEVIS_ENVOYE);
-        QuoteRequest saved = quoteRequestRepository.save(request);
-
-        mailService.sendQuoteReadyEmail(saved.getUser(), saved, frontendQuoteUrl);
+        request.setDispatchStage(QuoteDispatchStage.GENERATION_PDF);
+        request.setDispatchAttempts(0);
+        request.setDispatchNextAttemptAt(LocalDateTime.now());
+        request.setDispatchError(null);
+        request.setDispatchQuoteUrl(frontendQuoteUrl);
+        request.setDispatchTriggeredBy(authentication != null ? authentication.getName() : null);
+        return quoteRequestRepository.save(request);
+    }
 
-        saved.setStatus(QuoteStatus.EN_ATTENTE_VALIDATION);
-        return quoteRequestRepository.save(saved);
+    /**
+     * Relance l'envoi d'un devis abandonné après trop d'échecs
+     */
+    @Transactional
+    public QuoteRequest retryDispatch(Long requestId) {
+        QuoteRequest request = loadDetailedQuote(requestId);
+        if (request.getDispatchStage() != QuoteDispatchStage.ECHEC) {
+            throw new IllegalStateException("L'envoi de ce devis n'est pas en échec.");
+        }
+        // Le PDF déjà envoyé n'est pas renvoyé s'il est inchangé (voir storeQuotePdf)
+        request.setDispatchStage(QuoteDispatchStage.GENERATION_PDF);
+        request.setDispatchAttempts(0);
+        request.setDispatchNextAttemptAt(LocalDateTime.now());
+        request.setDispatchError(null);
+        return quoteRequestRepository.save(request);
     }
 
     @Transactional
@@ -260,7 +312,7 @@ public class QuoteRequestService {
             if (emitter != null) {
                 loadUserAddresses(emitter);
             }
-            byte[] pdf = quotePdfService.generateQuote(request, emitter);
+            byte[] pdf = quotePdfService.render(request, emitter).content();
             String existingUrl = request.getQuotePdfUrl();
             
             // Sauvegarder une copie figée avec le suffixe "-validated"
@@ -339,7 +391,7 @@ public class QuoteRequestService {
 
     @Transactional
     public QuoteRequest markDelivered(Long requestId, User livreur, Double latitude, Double longitude, 
-            String photoBase64, String signatureData, String deliveryNotes) {
+            String photoBase64, String photoUploadTicket, String signatureData, String deliveryNotes) {
         QuoteRequest request = loadDetailedQuote(requestId);
 
         if (request.getAssignedLivreur() == null
@@ -353,7 +405,7 @@ public class QuoteRequestService {
         }
 
         // Créer la preuve de livraison avec toutes les informations
-        com.pneumaliback.www.entity.DeliveryProof proof = createDeliveryProof(request, livreur, latitude, longitude, photoBase64, signatureData, deliveryNotes);
+        com.pneumaliback.www.entity.DeliveryProof proof = createDeliveryProof(request, livreur, latitude, longitude, photoBase64, photoUploadTicket, signatureData, deliveryNotes);
         deliveryProofRepository.save(proof);
 
         // Mettre à jour le statut
@@ -366,7 +418,8 @@ public class QuoteRequestService {
     }
 
     @Transactional
-    public QuoteRequest markClientAbsent(Long requestId, User livreur, String photoBase64, String notes) {
+    public QuoteRequest markClientAbsent(Long requestId, User livreur, String photoBase64, String photoUploadTicket,
+            String notes) {
         QuoteRequest request = loadDetailedQuote(requestId);
 
         if (request.getAssignedLivreur() == null
@@ -382,9 +435,11 @@ public class QuoteRequestService {
         request.setClientAbsentCount(absentCount);
 
         // Créer une preuve pour l'absence si photo ou notes fournies
-        if ((photoBase64 != null && !photoBase64.isBlank()) || (notes != null && !notes.isBlank())) {
+        if ((photoBase64 != null && !photoBase64.isBlank())
+                || (photoUploadTicket != null && !photoUploadTicket.isBlank())
+                || (notes != null && !notes.isBlank())) {
             String absentNotes = "Client absent" + (notes != null && !notes.isBlank() ? " - " + notes : "");
-            com.pneumaliback.www.entity.DeliveryProof proof = createDeliveryProof(request, livreur, null, null, photoBase64, null, absentNotes);
+            com.pneumaliback.www.entity.DeliveryProof proof = createDeliveryProof(request, livreur, null, null, photoBase64, photoUploadTicket, null, absentNotes);
             deliveryProofRepository.save(proof);
         }
 
@@ -465,22 +520,40 @@ public class QuoteRequestService {
         return item;
     }
 
-    private QuoteRequestItem createItemFromAdminItem(QuoteRequest request, QuoteAdminItem adminItem) {
-        QuoteRequestItem item = new QuoteRequestItem();
-        item.setQuoteRequest(request);
-        item.setProductId(adminItem.productId());
-        item.setProductName(adminItem.productName());
-        item.setBrandName(adminItem.brand());
-        item.setWidthValue(adminItem.width());
-        item.setProfileValue(adminItem.profile());
-        item.setDiameterValue(adminItem.diameter());
-        item.setQuantity(adminItem.quantity());
-
-        BigDecimal unitPrice = adminItem.unitPrice() != null ? adminItem.unitPrice() : BigDecimal.ZERO;
-        item.setUnitPrice(unitPrice);
-        item.setLineTotal(unitPrice.multiply(BigDecimal.valueOf(adminItem.quantity())));
+    private void applyAdminUpdate(QuoteRequest request, QuoteAdminUpdate update) {
+        // Validation : Si le devis est validé par le client ou dans un stade supérieur,
+        // personne ne peut plus modifier le devis (ni admin, ni développeur)
+        boolean isQuoteValidatedOrBeyond = request.getStatus() == QuoteStatus.VALIDE_PAR_CLIENT 
+                || request.getStatus() == QuoteStatus.EN_COURS_LIVRAISON
+                || request.getStatus() == QuoteStatus.LIVRE_EN_ATTENTE_CONFIRMATION
+                || request.getStatus() == QuoteStatus.CLIENT_ABSENT
+                || request.getStatus() == QuoteStatus.TERMINE;
 
-        return item;
+        if (isQuoteValidatedOrBeyond) {
+            throw new IllegalStateException(
+                    "Impossible de modifier ce devis : une fois validé par le client, aucune modification n'est autorisée.");
+        }
+
+        if (update.validUntil() != null) {
+            request.setValidUntil(update.validUntil());
+        }
+        if (update.adminNotes() != null) {
+            request.setAdminNotes(update.adminNotes());
+        }
+        if (update.deliveryDetails() != null) {
+            request.setDeliveryDetails(update.deliveryDetails());
+        }
+
+        if (update.items() != null && !update.items().isEmpty()) {
+            // Seules les lignes modifiées sont écrites, le sous-total est ajusté
+            request.setSubtotalRequested(quoteItemEditor.apply(request, update.items()).subtotal());
+        }
+
+        updateFinancialFields(request, update);
+
+        if (request.getStatus() == QuoteStatus.EN_ATTENTE) {
+            request.setStatus(QuoteStatus.DEVIS_EN_PREPARATION);
+        }
     }
 
     private void updateFinancialFields(QuoteRequest request, QuoteAdminUpdate update) {
@@ -491,7 +564,11 @@ public class QuoteRequestService {
         if (update.totalQuoted() != null) {
             request.setTotalQuoted(update.totalQuoted());
         } else {
-            BigDecimal subtotal = calculateSubtotal(request);
+            // Sous-total tenu à jour à chaque édition des lignes
+            BigDecimal subtotal = request.getSubtotalRequested() != null ? request.getSubtotalRequested()
+                    : request.getItems().stream()
+                            .map(QuoteRequestItem::getLineTotal)
+                            .reduce(BigDecimal.ZERO, BigDecimal::add);
             BigDecimal discount = request.getDiscountTotal() != null ? request.getDiscountTotal() : BigDecimal.ZERO;
             request.setTotalQuoted(subtotal.subtract(discount));
         }
@@ -501,12 +578,6 @@ public class QuoteRequestService {
         }
     }
 
-    private BigDecimal calculateSubtotal(QuoteRequest request) {
-        return request.getItems().stream()
-                .map(QuoteRequestItem::getLineTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     @Transactional
     public QuoteRequest renderQuotePreview(Long requestId) {
         QuoteRequest request = loadDetailedQuote(requestId);
@@ -514,7 +585,7 @@ public class QuoteRequestService {
         if (emitter != null) {
             loadUserAddresses(emitter);
         }
-        byte[] pdf = quotePdfService.generateQuote(request, emitter);
+        QuotePdf pdf = quotePdfService.render(request, emitter);
         try {
             storeQuotePdf(request, pdf, "preview");
         } catch (Exception e) {
@@ -523,12 +594,7 @@ public class QuoteRequestService {
         return quoteRequestRepository.save(request);
     }
 
-    private void storeQuotePdf(QuoteRequest request, byte[] pdf, String suffix) {
-        String existingPath = storageService.extractFilePathFromUrl(request.getQuotePdfUrl());
-        if (existingPath != null) {
-            storageService.deleteFile(existingPath);
-        }
-
+    private boolean storeQuotePdf(QuoteRequest request, QuotePdf pdf, String suffix) {
         String rawBaseName = request.getQuoteNumber() != null && !request.getQuoteNumber().isBlank()
                 ? request.getQuoteNumber()
                 : request.getRequestNumber();
@@ -536,10 +602,25 @@ public class QuoteRequestService {
         String normalizedSuffix = (suffix != null && !suffix.isBlank()) ? "-" + suffix : "";
         String filename = baseName + normalizedSuffix + ".pdf";
 
+        String existingPath = storageService.extractFilePathFromUrl(request.getQuotePdfUrl());
+        // Même fichier, même contenu : rien à renvoyer au stockage
+        if (pdf.hash().equals(request.getQuotePdfHash())
+                && storageService.filePath(QUOTE_STORAGE_FOLDER, filename).equals(existingPath)) {
+            log.debug("PDF du devis {} inchangé, upload ignoré", request.getId());
+            return false;
+        }
+
+        if (existingPath != null) {
+            storageService.deleteFile(existingPath);
+        }
+
         try {
-            String pdfUrl = storageService.uploadBytes(pdf, filename, QUOTE_STORAGE_FOLDER, "application/pdf");
+            String pdfUrl = storageService.uploadBytes(pdf.content(), filename, QUOTE_STORAGE_FOLDER, "application/pdf");
             request.setQuotePdfUrl(pdfUrl);
+            request.setQuotePdfHash(pdf.hash());
+            return true;
         } catch (Exception e) {
+            request.setQuotePdfHash(null);
             throw new IllegalStateException("Impossible de sauvegarder le devis sur Supabase", e);
         }
     }
@@ -552,11 +633,12 @@ public class QuoteRequestService {
     }
 
     /**
-     * Crée une preuve de livraison avec upload de la photo dans Supabase si fournie
+     * Crée une preuve de livraison avec la photo si fournie : envoyée
+     * directement au stockage (ticket), ou en base64 (ancien format)
      */
     private com.pneumaliback.www.entity.DeliveryProof createDeliveryProof(
             QuoteRequest request, User livreur, Double latitude, Double longitude,
-            String photoBase64, String signatureData, String notes) {
+            String photoBase64, String photoUploadTicket, String signatureData, String notes) {
         com.pneumaliback.www.entity.DeliveryProof proof = new com.pneumaliback.www.entity.DeliveryProof();
         proof.setQuoteRequest(request);
         proof.setLatitude(latitude);
@@ -565,17 +647,31 @@ public class QuoteRequestService {
         proof.setDeliveryNotes(notes);
         proof.setDeliveredByLivreur(livreur);
 
-        // Uploader la photo dans Supabase si fournie
-        if (photoBase64 != null && !photoBase64.isBlank()) {
+        String quoteIdentifier = request.getQuoteNumber() != null 
+            ? request.getQuoteNumber() 
+            : request.getRequestNumber();
+        String photoPrefix = latitude != null ? "delivery-" : "absent-";
+        String photoName = photoPrefix + sanitizeFileName(quoteIdentifier) + "-" + System.currentTimeMillis();
+
+        if (photoUploadTicket != null && !photoUploadTicket.isBlank()) {
+            try {
+                StoredUpload upload = presignedUploadService.complete(photoUploadTicket,
+                        UploadPurpose.DELIVERY_PHOTO, livreur.getEmail());
+                proof.setPhotoUrl(upload.url());
+                processUploadedPhotoAfterCommit(proof, upload, photoName);
+            } catch (Exception e) {
+                log.error("Photo envoyée au stockage invalide: {}", e.getMessage());
+                if (latitude != null) {
+                    throw new IllegalStateException("Photo de livraison invalide: " + e.getMessage(), e);
+                }
+            }
+        } else if (photoBase64 != null && !photoBase64.isBlank()) {
             try {
                 byte[] photoBytes = java.util.Base64.getDecoder().decode(
                     photoBase64.replaceFirst("^data:image/[^;]*;base64,", ""));
-                String quoteIdentifier = request.getQuoteNumber() != null 
-                    ? request.getQuoteNumber() 
-                    : request.getRequestNumber();
-                String photoPrefix = latitude != null ? "delivery-" : "absent-";
-                String photoFilename = photoPrefix + quoteIdentifier + "-" + System.currentTimeMillis() + ".jpg";
-                String photoUrl = storageService.uploadBytes(photoBytes, photoFilename, "deliveries", "image/jpeg");
+                // Redimensionnée et sans métadonnées (position GPS, appareil...)
+                String photoUrl = imageProcessingService.processPhoto(
+                        new java.io.ByteArrayInputStream(photoBytes), "deliveries", photoName);
                 proof.setPhotoUrl(photoUrl);
                 log.info("Photo uploadée dans Supabase: {}", photoUrl);
             } catch (Exception e) {
@@ -591,6 +687,37 @@ public class QuoteRequestService {
         return proof;
     }
 
+    /**
+     * Après le commit : redimensionne la photo envoyée directement et retire ses
+     * métadonnées (position GPS, appareil...), puis remplace l'original dans la
+     * preuve. En cas d'échec, l'original reste rattaché.
+     */
+    private void processUploadedPhotoAfterCommit(com.pneumaliback.www.entity.DeliveryProof proof,
+            StoredUpload upload, String photoName) {
+        Runnable process = () -> imageProcessingService.processStoredPhoto(upload.filePath(), "deliveries", photoName)
+                .whenComplete((photoUrl, error) -> {
+                    if (error != null) {
+                        log.warn("Photo {} non traitée, original conservé: {}", upload.filePath(), error.getMessage());
+                        return;
+                    }
+                    if (deliveryProofRepository.updatePhotoUrl(proof.getId(), photoUrl) > 0) {
+                        imageProcessingService.deleteRenditions(upload.url());
+                    } else {
+                        imageProcessingService.deleteRenditions(photoUrl);
+                    }
+                });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            process.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                process.run();
+            }
+        });
+    }
+
     private QuoteRequest loadDetailedQuote(Long id) {
         QuoteRequest request = quoteRequestRepository.findDetailedById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Devis introuvable"));
@@ -599,21 +726,6 @@ public class QuoteRequestService {
             loadUserAddresses(request.getUser());
         }
 
-        try {
-            Hibernate.initialize(request.getItems());
-        } catch (org.hibernate.LazyInitializationException e) {
-            log.warn("Les items du devis {} ne sont pas chargés, chargement explicite", id);
-            List<QuoteRequestItem> items = quoteRequestItemRepository.findByQuoteRequest(request);
-            if (items != null && !items.isEmpty()) {
-                try {
-                    request.getItems().clear();
-                    request.getItems().addAll(items);
-                } catch (Exception ex) {
-                    log.error("Erreur lors du chargement des items: {}", ex.getMessage());
-                }
-            }
-        }
-
         return request;
     }
 
@@ -622,80 +734,45 @@ public class QuoteRequestService {
             return;
         }
         try {
-            if (Hibernate.isInitialized(user.getAddresses())) {
-                return;
-            }
-            List<com.pneumaliback.www.entity.Address> addresses = addressRepository.findByUser(user);
-            if (addresses != null && !addresses.isEmpty()) {
-                user.getAddresses().clear();
-                user.getAddresses().addAll(addresses);
-            }
+            // Une seule requête, sans rendre la collection sale
+            Hibernate.initialize(user.getAddresses());
         } catch (Exception e) {
             log.debug("Impossible de charger les adresses de l'utilisateur: {}", e.getMessage());
         }
     }
 
     /**
-     * Regénère tous les PDFs existants dans Supabase avec le nouveau format (sans le message du client).
-     * Cette méthode remplace les anciens PDFs par les nouveaux dans Supabase.
-     * 
-     * @return Nombre de PDFs regénérés avec succès
+     * Devis détaillé (articles, client et ses adresses) pour un rendu PDF hors
+     * transaction
      */
-    @Transactional
-    public int regenerateAllPdfs() {
-        List<QuoteRequest> quotesWithPdf = quoteRequestRepository.findAllWithPdfUrl();
-        if (quotesWithPdf.isEmpty()) {
-            log.info("Aucun PDF à regénérer");
-            return 0;
-        }
+    @Transactional(readOnly = true)
+    public QuoteRequest loadForPdf(Long requestId) {
+        return loadDetailedQuote(requestId);
+    }
 
-        log.info("Début de la regénération de {} PDFs", quotesWithPdf.size());
-        User defaultEmitter = resolveCurrentAdmin();
-        if (defaultEmitter != null) {
-            loadUserAddresses(defaultEmitter);
+    /**
+     * Émetteur des PDF regénérés en tâche de fond (pas d'admin connecté)
+     */
+    @Transactional(readOnly = true)
+    public User loadEmitter(String email) {
+        User emitter = email != null ? userRepository.findByEmailWithAddresses(email).orElse(null) : null;
+        if (emitter == null) {
+            emitter = userRepository.findByEmailIgnoreCase("contactlandoure@gmail.com").orElse(null);
+            loadUserAddresses(emitter);
         }
+        return emitter;
+    }
 
-        int successCount = 0;
-        int errorCount = 0;
-
-        for (QuoteRequest request : quotesWithPdf) {
-            try {
-                // Charger les données nécessaires
-                QuoteRequest detailedRequest = loadDetailedQuote(request.getId());
-                
-                User emitter = defaultEmitter;
-                if (emitter == null) {
-                    // Utiliser un admin par défaut si aucun admin n'est connecté
-                    emitter = userRepository.findByEmailIgnoreCase("contactlandoure@gmail.com")
-                            .orElse(null);
-                    if (emitter != null) {
-                        loadUserAddresses(emitter);
-                    }
-                }
-
-                // Regénérer le PDF avec le nouveau format
-                byte[] newPdf = quotePdfService.generateQuote(detailedRequest, emitter);
-                
-                // Remplacer l'ancien PDF dans Supabase
-                storeQuotePdf(detailedRequest, newPdf, null);
-                
-                // Sauvegarder la mise à jour
-                quoteRequestRepository.save(detailedRequest);
-                
-                successCount++;
-                log.debug("PDF regénéré avec succès pour le devis {}", detailedRequest.getQuoteNumber() != null 
-                        ? detailedRequest.getQuoteNumber() 
-                        : detailedRequest.getRequestNumber());
-            } catch (Exception e) {
-                errorCount++;
-                log.error("Erreur lors de la regénération du PDF pour le devis {}: {}", 
-                        request.getId(), e.getMessage(), e);
-            }
+    /**
+     * Remplace le PDF d'un devis dans Supabase si son contenu a changé
+     *
+     * @return true si un nouveau fichier a été envoyé
+     */
+    public boolean storeRegeneratedPdf(QuoteRequest request, QuotePdf pdf) {
+        if (!storeQuotePdf(request, pdf, null)) {
+            return false;
         }
-
-        log.info("Regénération terminée: {} succès, {} erreurs sur {} PDFs", 
-                successCount, errorCount, quotesWithPdf.size());
-        
-        return successCount;
+        quoteRequestRepository.updatePdf(request.getId(), request.getQuotePdfUrl(), request.getQuotePdfHash());
+        return true;
     }
 }
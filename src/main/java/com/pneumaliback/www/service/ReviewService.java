@@ -26,7 +26,7 @@ public class ReviewService {
     @Transactional
     public Review addReview(User user, Long productId, int rating, String comment) {
         if (rating < 1 || rating > 5) throw new IllegalArgumentException("Note invalide (1-5)");
-        Product p = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("Produit introuvable"));
+        Product p = productRepository.findByIdWithDimensions(productId).orElseThrow(() -> new RuntimeException("Produit introuvable"));
         Review r = new Review();
         r.setUser(user);
         r.setProduct(p);
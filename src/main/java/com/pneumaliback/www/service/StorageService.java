@@ -1,76 +1,43 @@
 package com.pneumaliback.www.service;
 
+import com.pneumaliback.www.service.storage.StorageBackend;
+import com.pneumaliback.www.service.storage.PresignedUpload;
+import com.pneumaliback.www.service.storage.StorageDownload;
+import com.pneumaliback.www.service.storage.StorageObject;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.UUID;
 
+/**
+ * Stockage des fichiers, délégué au backend choisi par app.storage.backend
+ * (supabase par défaut, ou local)
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StorageService {
 
-    private final RestTemplate restTemplate;
+    private final StorageBackend backend;
 
-    @Value("${app.storage.supabase.url}")
-    private String supabaseUrl;
-
-    @Value("${app.storage.supabase.bucket}")
-    private String bucketName;
-
-    @Value("${app.storage.supabase.service-role-key}")
-    private String serviceRoleKeyRaw;
-
-    private String serviceRoleKey;
+    @Value("${app.storage.resumable-threshold-mb:6}")
+    private long resumableThresholdMb;
 
     @jakarta.annotation.PostConstruct
     public void init() {
-        // Nettoyer et valider la clé Supabase
-        if (serviceRoleKeyRaw == null || serviceRoleKeyRaw.trim().isBlank()) {
-            log.error("⚠️ SUPABASE_SERVICE_ROLE_KEY n'est pas définie ou est vide ! L'upload vers Supabase ne fonctionnera pas.");
-            log.error("⚠️ Veuillez définir la variable d'environnement SUPABASE_SERVICE_ROLE_KEY dans Render avec la clé 'service_role' de votre projet Supabase.");
-            serviceRoleKey = null;
-        } else {
-            // Nettoyer la clé (supprimer les espaces et retours à la ligne)
-            String cleanedKey = serviceRoleKeyRaw.trim().replaceAll("\\s+", "");
-            
-            // Validation basique : un JWT doit contenir au moins deux points
-            if (!cleanedKey.contains(".") || cleanedKey.split("\\.").length < 3) {
-                log.error("⚠️ SUPABASE_SERVICE_ROLE_KEY semble invalide (format JWT attendu avec 3 parties séparées par des points)");
-                log.error("⚠️ La clé doit être la 'service_role key' (pas l'anon key) de votre projet Supabase.");
-                serviceRoleKey = null;
-            } else {
-                serviceRoleKey = cleanedKey;
-                // Logger les 10 premiers caractères pour le debug (sans exposer la clé complète)
-                String keyPreview = serviceRoleKey.length() > 10 
-                    ? serviceRoleKey.substring(0, 10) + "..." 
-                    : "***";
-                log.info("✅ Clé Supabase configurée (preview: {}, longueur: {} caractères)", keyPreview, serviceRoleKey.length());
-            }
-        }
-        
-        // Valider également les autres paramètres
-        if (supabaseUrl == null || supabaseUrl.trim().isBlank()) {
-            log.warn("⚠️ SUPABASE_URL n'est pas définie");
-        } else {
-            log.info("✅ URL Supabase configurée: {}", supabaseUrl);
-        }
-        
-        if (bucketName == null || bucketName.trim().isBlank()) {
-            log.warn("⚠️ SUPABASE_BUCKET n'est pas défini");
-        } else {
-            log.info("✅ Bucket Supabase configuré: {}", bucketName);
-        }
+        log.info("Backend de stockage des fichiers: {}", backend.getClass().getSimpleName());
     }
 
     /**
-     * Upload un fichier vers Supabase Storage
+     * Upload un fichier vers le stockage
      * 
      * @param file   Le fichier à uploader
      * @param folder Le dossier dans lequel stocker le fichier (ex: "products")
@@ -89,92 +56,77 @@ public class StorageService {
 
         String extension = getFileExtension(originalFilename);
         String fileName = generateUniqueFileName(extension);
-        return uploadBytes(file.getBytes(), fileName, folder, file.getContentType());
+        if (file.getSize() > resumableThresholdBytes()) {
+            // Gros fichier : copie sur disque (simple déplacement du fichier temporaire
+            // multipart) puis upload par morceaux avec reprise
+            Path tmp = Files.createTempFile("upload-", extension != null ? "." + extension : null);
+            try {
+                file.transferTo(tmp);
+                return uploadPath(tmp, fileName, folder, file.getContentType());
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        try (InputStream in = file.getInputStream()) {
+            return uploadStream(in, file.getSize(), fileName, folder, file.getContentType());
+        }
+    }
+
+    /**
+     * Upload d'un fichier local (par morceaux avec reprise sur Supabase au-delà
+     * de app.storage.resumable-threshold-mb)
+     */
+    public String uploadPath(Path source, String fileName, String folder, String contentType) throws IOException {
+        long size = Files.size(source);
+        if (size == 0) {
+            throw new IllegalArgumentException("Le fichier est vide");
+        }
+        return backend.upload(source, size, buildFilePath(fileName, folder), safeContentType(contentType));
     }
 
     public String uploadBytes(byte[] data, String fileName, String folder, String contentType) {
-        validateSupabaseConfiguration();
-        
         if (data == null || data.length == 0) {
             throw new IllegalArgumentException("Le fichier est vide");
         }
+        return uploadStream(new ByteArrayInputStream(data), data.length, fileName, folder, contentType);
+    }
 
-        String safeContentType = (contentType == null || contentType.isBlank())
-                ? "application/octet-stream"
-                : contentType;
-
-        String safeFileName = fileName != null && !fileName.isBlank()
-                ? fileName
-                : generateUniqueFileName(null);
-
-        String filePath = folder != null && !folder.isBlank()
-                ? folder + "/" + safeFileName
-                : safeFileName;
-
-        String uploadUrl = String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucketName, filePath);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(safeContentType));
-        headers.set("Authorization", "Bearer " + serviceRoleKey);
-        headers.set("apikey", serviceRoleKey);
-
-        HttpEntity<byte[]> requestEntity = new HttpEntity<>(data, headers);
-
+    /**
+     * Upload en flux : le contenu est transmis par blocs de taille fixe, sans
+     * jamais être chargé entièrement en mémoire
+     *
+     * @param contentLength taille exacte du contenu, ou -1 si inconnue (envoi
+     *                      chunked)
+     * @return L'URL publique du fichier uploadé
+     */
+    public String uploadStream(InputStream data, long contentLength, String fileName, String folder,
+            String contentType) {
+        if (data == null || contentLength == 0) {
+            throw new IllegalArgumentException("Le fichier est vide");
+        }
         try {
-            log.debug("Tentative d'upload vers Supabase: bucket={}, filePath={}", bucketName, filePath);
-            ResponseEntity<String> response = restTemplate.exchange(
-                    uploadUrl,
-                    HttpMethod.POST,
-                    requestEntity,
-                    String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                String publicUrl = String.format("%s/storage/v1/object/public/%s/%s",
-                        supabaseUrl, bucketName, filePath);
-                log.info("Fichier uploadé avec succès: {}", publicUrl);
-                return publicUrl;
-            } else {
-                String errorBody = response.getBody() != null ? response.getBody() : "aucun détail";
-                log.error("Échec de l'upload vers Supabase: status={}, body={}", response.getStatusCode(), errorBody);
-                throw new RuntimeException("Échec de l'upload vers Supabase: " + response.getStatusCode() + " - " + errorBody);
-            }
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            String errorDetails = e.getResponseBodyAsString();
-            log.error("Erreur HTTP lors de l'upload vers Supabase: status={}, message={}, body={}", 
-                    e.getStatusCode(), e.getMessage(), errorDetails);
-            
-            if (e.getStatusCode().value() == 403 || e.getStatusCode().value() == 401) {
-                throw new RuntimeException(
-                        "Erreur d'authentification Supabase: vérifiez que SUPABASE_SERVICE_ROLE_KEY est correctement configurée dans les variables d'environnement (Render). " +
-                        "Message: " + (errorDetails != null ? errorDetails : e.getMessage()), e);
-            }
-            throw new RuntimeException("Erreur lors de l'upload vers Supabase: " + e.getStatusCode() + " - " + errorDetails, e);
-        } catch (Exception e) {
-            log.error("Erreur lors de l'upload vers Supabase: url={}, bucket={}", uploadUrl, bucketName, e);
-            throw new RuntimeException("Erreur lors de l'upload vers Supabase: " + e.getMessage(), e);
+            return backend.upload(data, contentLength, buildFilePath(fileName, folder), safeContentType(contentType));
+        } catch (IOException e) {
+            log.error("Erreur lors de l'upload du fichier {}", fileName, e);
+            throw new RuntimeException("Erreur lors de l'upload du fichier: " + e.getMessage(), e);
         }
     }
 
-    private void validateSupabaseConfiguration() {
-        if (serviceRoleKey == null || serviceRoleKey.isBlank()) {
-            throw new IllegalStateException(
-                    "Configuration Supabase invalide: SUPABASE_SERVICE_ROLE_KEY n'est pas définie ou est vide. " +
-                    "Vérifiez les variables d'environnement dans Render.");
-        }
-        if (supabaseUrl == null || supabaseUrl.isBlank()) {
-            throw new IllegalStateException(
-                    "Configuration Supabase invalide: SUPABASE_URL n'est pas définie. " +
-                    "Vérifiez les variables d'environnement dans Render.");
-        }
-        if (bucketName == null || bucketName.isBlank()) {
-            throw new IllegalStateException(
-                    "Configuration Supabase invalide: SUPABASE_BUCKET n'est pas défini. " +
-                    "Vérifiez les variables d'environnement dans Render.");
+    /**
+     * Ouvre un fichier en flux, en appliquant l'éventuel en-tête Range
+     *
+     * @return le flux (à fermer par l'appelant), ou null si le fichier n'existe
+     *         pas
+     */
+    public StorageDownload openDownload(String filePath, String range) throws IOException {
+        if (filePath == null || filePath.isBlank() || filePath.contains("..")) {
+            throw new IllegalArgumentException("Chemin de fichier invalide");
         }
+        return backend.open(filePath, range);
     }
 
     /**
-     * Supprime un fichier de Supabase Storage
+     * Supprime un fichier du stockage
      * 
      * @param filePath Le chemin du fichier à supprimer (relatif au bucket)
      */
@@ -182,31 +134,34 @@ public class StorageService {
         if (filePath == null || filePath.isBlank()) {
             return;
         }
-
-        if (serviceRoleKey == null || serviceRoleKey.isBlank()) {
-            log.warn("Impossible de supprimer le fichier {}: clé Supabase non configurée", filePath);
-            return;
-        }
-
         try {
-            String deleteUrl = String.format("%s/storage/v1/object/%s/%s",
-                    supabaseUrl, bucketName, filePath);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + serviceRoleKey);
-            headers.set("apikey", serviceRoleKey);
-
-            HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-
-            restTemplate.exchange(deleteUrl, HttpMethod.DELETE, requestEntity, Void.class);
-            log.info("Fichier supprimé avec succès: {}", filePath);
+            backend.delete(filePath);
         } catch (Exception e) {
             log.warn("Erreur lors de la suppression du fichier {}: {}", filePath, e.getMessage());
         }
     }
 
     /**
-     * Extrait le chemin du fichier depuis une URL Supabase
+     * Télécharge un fichier du stockage à partir de son URL publique
+     *
+     * @param url L'URL publique du fichier
+     * @return Le contenu du fichier, ou null s'il est introuvable
+     */
+    public byte[] downloadBytes(String url) {
+        String filePath = extractFilePathFromUrl(url);
+        if (filePath == null) {
+            return null;
+        }
+        try (StorageDownload download = backend.open(filePath, null)) {
+            return download != null && download.status() == 200 ? download.body().readAllBytes() : null;
+        } catch (Exception e) {
+            log.warn("Erreur lors du téléchargement du fichier {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Extrait le chemin du fichier depuis son URL publique
      * 
      * @param url L'URL complète du fichier
      * @return Le chemin relatif du fichier
@@ -215,13 +170,50 @@ public class StorageService {
         if (url == null || url.isBlank()) {
             return null;
         }
+        return backend.extractFilePath(url);
+    }
 
-        String pattern = "/storage/v1/object/public/" + bucketName + "/";
-        int index = url.indexOf(pattern);
-        if (index != -1) {
-            return url.substring(index + pattern.length());
-        }
-        return null;
+    /**
+     * Taille et type d'un fichier stocké, ou null s'il n'existe pas
+     */
+    public StorageObject stat(String filePath) throws IOException {
+        return backend.stat(filePath);
+    }
+
+    public String publicUrl(String filePath) {
+        return backend.publicUrl(filePath);
+    }
+
+    /**
+     * Requête d'envoi direct d'un fichier par le client (voir
+     * PresignedUploadService)
+     */
+    public PresignedUpload presignUpload(String filePath, String contentType, String ticket) throws IOException {
+        return backend.presignUpload(filePath, safeContentType(contentType), ticket);
+    }
+
+    /**
+     * Chemin de stockage qu'aurait ce fichier dans ce dossier
+     */
+    public String filePath(String folder, String fileName) {
+        return buildFilePath(fileName, folder);
+    }
+
+    private String buildFilePath(String fileName, String folder) {
+        String safeFileName = fileName != null && !fileName.isBlank()
+                ? fileName
+                : generateUniqueFileName(null);
+        return backend.filePath(folder, safeFileName);
+    }
+
+    private static String safeContentType(String contentType) {
+        return (contentType == null || contentType.isBlank())
+                ? "application/octet-stream"
+                : contentType;
+    }
+
+    private long resumableThresholdBytes() {
+        return resumableThresholdMb * 1024 * 1024;
     }
 
     /**
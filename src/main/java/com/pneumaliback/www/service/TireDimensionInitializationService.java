@@ -1,30 +1,30 @@
 package com.pneumaliback.www.service;
 
-import com.pneumaliback.www.entity.TireWidth;
-import com.pneumaliback.www.entity.TireProfile;
-import com.pneumaliback.www.entity.TireDiameter;
-import com.pneumaliback.www.repository.TireWidthRepository;
-import com.pneumaliback.www.repository.TireProfileRepository;
-import com.pneumaliback.www.repository.TireDiameterRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Dimensions de pneus de référence
+ *
+ * Un lot d'INSERT ... ON CONFLICT DO NOTHING par table : les valeurs déjà
+ * présentes sont ignorées par PostgreSQL, sans lecture préalable, et deux
+ * instances qui démarrent ensemble ne se gênent pas.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Order(2)
 public class TireDimensionInitializationService implements CommandLineRunner {
 
-    private final TireWidthRepository tireWidthRepository;
-    private final TireProfileRepository tireProfileRepository;
-    private final TireDiameterRepository tireDiameterRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     private static final List<Integer> VALID_WIDTHS = Arrays.asList(155, 165, 175, 185, 195, 205, 215, 225, 235, 245,
             255);
@@ -35,58 +35,33 @@ public class TireDimensionInitializationService implements CommandLineRunner {
     @Transactional
     public void run(String... args) throws Exception {
         try {
-            log.info("Début de l'initialisation des dimensions de pneus...");
-            initializeWidths();
-            initializeProfiles();
-            initializeDiameters();
-            log.info("Initialisation des dimensions de pneus terminée.");
+            int created = seed("tire_widths", VALID_WIDTHS)
+                    + seed("tire_profiles", VALID_PROFILES)
+                    + seed("tire_diameters", VALID_DIAMETERS);
+            if (created > 0) {
+                log.info("{} dimension(s) de pneus créée(s)", created);
+            } else {
+                log.debug("Dimensions de pneus déjà présentes");
+            }
         } catch (Exception e) {
             log.error("Erreur lors de l'initialisation des dimensions de pneus", e);
         }
     }
 
-    private void initializeWidths() {
-        for (Integer value : VALID_WIDTHS) {
-            tireWidthRepository.findByValue(value)
-                    .orElseGet(() -> {
-                        TireWidth width = new TireWidth();
-                        width.setValue(value);
-                        width.setActive(true);
-                        TireWidth saved = tireWidthRepository.save(width);
-                        log.debug("Largeur créée: {}", value);
-                        return saved;
-                    });
+    /**
+     * @return nombre de valeurs insérées
+     */
+    private int seed(String table, List<Integer> values) {
+        // id : DEFAULT nextval('{table}_seq') (SequenceIdMigration)
+        int[][] counts = jdbcTemplate.batchUpdate("INSERT INTO " + table
+                + " (value, active, created_at, updated_at, version) VALUES (?, TRUE, now(), now(), 0) "
+                + "ON CONFLICT (value) DO NOTHING", values, values.size(), (ps, value) -> ps.setInt(1, value));
+        int created = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                created += Math.max(count, 0);
+            }
         }
-        log.info("{} largeurs initialisées", VALID_WIDTHS.size());
-    }
-
-    private void initializeProfiles() {
-        for (Integer value : VALID_PROFILES) {
-            tireProfileRepository.findByValue(value)
-                    .orElseGet(() -> {
-                        TireProfile profile = new TireProfile();
-                        profile.setValue(value);
-                        profile.setActive(true);
-                        TireProfile saved = tireProfileRepository.save(profile);
-                        log.debug("Profil créé: {}", value);
-                        return saved;
-                    });
-        }
-        log.info("{} profils initialisés", VALID_PROFILES.size());
-    }
-
-    private void initializeDiameters() {
-        for (Integer value : VALID_DIAMETERS) {
-            tireDiameterRepository.findByValue(value)
-                    .orElseGet(() -> {
-                        TireDiameter diameter = new TireDiameter();
-                        diameter.setValue(value);
-                        diameter.setActive(true);
-                        TireDiameter saved = tireDiameterRepository.save(diameter);
-                        log.debug("Diamètre créé: {}", value);
-                        return saved;
-                    });
-        }
-        log.info("{} diamètres initialisés", VALID_DIAMETERS.size());
+        return created;
     }
 }
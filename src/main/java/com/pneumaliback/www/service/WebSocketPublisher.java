@@ -0,0 +1,90 @@
+package com.pneumaliback.www.service;
+
+import com.pneumaliback.www.config.WebSocketProperties;
+import com.pneumaliback.www.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Point unique de publication WebSocket vers un utilisateur
+ *
+ * Les messages partent sur /user/queue/{suffixe} (résolu via le principal de
+ * la session STOMP), et en double sur l'ancien /topic/{suffixe}/{userId} tant
+ * que app.websocket.legacy-topics est actif.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebSocketPublisher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketProperties properties;
+
+    /**
+     * @param recipient destinataire
+     * @param queue     destination relative, ex: "notifications" ou
+     *                  "notifications/count"
+     * @param payload   contenu sérialisé en JSON
+     */
+    public void sendToUser(User recipient, String queue, Object payload) {
+        if (recipient == null || recipient.getId() == null) {
+            return;
+        }
+        sendToUserQueue(recipient, queue, payload);
+        if (properties.isLegacyTopics()) {
+            try {
+                messagingTemplate.convertAndSend(legacyTopic(queue, recipient.getId()), payload);
+            } catch (Exception e) {
+                log.warn("Échec de la publication WebSocket {} pour l'utilisateur {}: {}", queue, recipient.getId(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Publication sur /user/queue/{queue} uniquement (pas de copie /topic)
+     */
+    public void sendToUserQueue(User recipient, String queue, Object payload) {
+        if (recipient == null || recipient.getEmail() == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(recipient.getEmail(), "/queue/" + queue, payload);
+        } catch (Exception e) {
+            log.warn("Échec de la publication WebSocket {} pour l'utilisateur {}: {}", queue, recipient.getId(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Comme sendToUserQueue, mais après le commit de la transaction en cours : le
+     * client ne reçoit jamais une donnée qu'il ne pourrait pas encore relire
+     */
+    public void sendToUserQueueAfterCommit(User recipient, String queue, Object payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sendToUserQueue(recipient, queue, payload);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sendToUserQueue(recipient, queue, payload);
+            }
+        });
+    }
+
+    /**
+     * "notifications/count" -> "/topic/notifications/{id}/count"
+     */
+    private String legacyTopic(String queue, Long userId) {
+        int slash = queue.indexOf('/');
+        if (slash < 0) {
+            return "/topic/" + queue + "/" + userId;
+        }
+        return "/topic/" + queue.substring(0, slash) + "/" + userId + queue.substring(slash);
+    }
+}
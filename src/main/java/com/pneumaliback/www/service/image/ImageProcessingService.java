@@ -0,0 +1,424 @@
+package com.pneumaliback.www.service.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.w3c.dom.Node;
+
+import com.pneumaliback.www.service.StorageService;
+import com.pneumaliback.www.service.storage.StorageDownload;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Traitement des images envoyées (produits, photos de livraison)
+ *
+ * - décodage sous-échantillonné : seule la résolution utile est décodée, la
+ * mémoire ne dépend pas de la taille de la photo d'origine ;
+ * - orientation EXIF appliquée puis métadonnées supprimées (GPS, appareil...) ;
+ * - déclinaisons redimensionnées (vignette, carte, pleine taille), encodées en
+ * WebP si un encodeur ImageIO est disponible, en JPEG sinon ;
+ * - traitement sur un pool de threads dédié et borné.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageProcessingService {
+
+    private static final int THUMBNAIL_SIZE = 200;
+    private static final int CARD_SIZE = 480;
+    private static final int FULL_SIZE = 1600;
+
+    private final StorageService storageService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.images.pool-size:2}")
+    private int poolSize;
+
+    @Value("${app.images.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.images.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Value("${app.images.quality:0.82}")
+    private float quality;
+
+    @Value("${app.images.format:webp}")
+    private String preferredFormat;
+
+    private ThreadPoolExecutor executor;
+    private String format;
+    private String contentType;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> new Thread(runnable, "image-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "image-processing", Tags.empty()).bindTo(meterRegistry);
+
+        if ("webp".equalsIgnoreCase(preferredFormat) && ImageIO.getImageWritersByMIMEType("image/webp").hasNext()) {
+            format = "webp";
+            contentType = "image/webp";
+        } else {
+            if ("webp".equalsIgnoreCase(preferredFormat)) {
+                log.info("Aucun encodeur WebP disponible, les images seront encodées en JPEG");
+            }
+            format = "jpg";
+            contentType = "image/jpeg";
+        }
+    }
+
+    /**
+     * Déclinaisons d'une image produit, envoyées dans products/
+     */
+    public ImageRenditions processProductImage(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Le fichier est vide");
+        }
+        String baseName = UUID.randomUUID().toString();
+        return submit(() -> {
+            BufferedImage source;
+            try (InputStream in = file.getInputStream()) {
+                source = decode(in, FULL_SIZE);
+            }
+            return renditions(source, baseName);
+        });
+    }
+
+    /**
+     * Déclinaisons d'une image produit déjà envoyée au stockage (envoi direct),
+     * calculées en tâche de fond. L'original est conservé : à supprimer par
+     * l'appelant une fois les déclinaisons rattachées.
+     */
+    public CompletableFuture<ImageRenditions> processStoredProductImage(String filePath) {
+        String baseName = UUID.randomUUID().toString();
+        return submitAsync(() -> renditions(decodeStored(filePath), baseName));
+    }
+
+    /**
+     * Photo redimensionnée en pleine taille uniquement (preuves de livraison)
+     *
+     * @return l'URL publique de la photo
+     */
+    public String processPhoto(InputStream in, String folder, String baseName) throws IOException {
+        return submit(() -> upload(resize(decode(in, FULL_SIZE), FULL_SIZE), folder, baseName));
+    }
+
+    /**
+     * Comme processPhoto, pour une photo déjà envoyée au stockage (envoi
+     * direct), en tâche de fond. L'original est conservé : à supprimer par
+     * l'appelant une fois la photo traitée rattachée.
+     *
+     * @return l'URL publique de la photo traitée
+     */
+    public CompletableFuture<String> processStoredPhoto(String filePath, String folder, String baseName) {
+        return submitAsync(() -> upload(resize(decodeStored(filePath), FULL_SIZE), folder, baseName));
+    }
+
+    /**
+     * Supprime les déclinaisons stockées d'une image produit
+     */
+    public void deleteRenditions(String... urls) {
+        for (String url : urls) {
+            String path = storageService.extractFilePathFromUrl(url);
+            if (path != null) {
+                storageService.deleteFile(path);
+            }
+        }
+    }
+
+    private <T> T submit(Callable<T> task) throws IOException {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Trop d'images en cours de traitement, réessayez dans quelques instants");
+        }
+        try {
+            return future.get(2, TimeUnit.MINUTES);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException("Délai de traitement de l'image dépassé");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Traitement de l'image interrompu");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Erreur lors du traitement de l'image: " + cause.getMessage(), cause);
+        }
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(
+                    new IllegalStateException("Trop d'images en cours de traitement, réessayez dans quelques instants"));
+        }
+        return result;
+    }
+
+    private ImageRenditions renditions(BufferedImage source, String baseName) throws IOException {
+        String thumbnail = upload(resize(source, THUMBNAIL_SIZE), "products", baseName + "-thumb");
+        String card = upload(resize(source, CARD_SIZE), "products", baseName + "-card");
+        String full = upload(resize(source, FULL_SIZE), "products", baseName);
+        return new ImageRenditions(thumbnail, card, full);
+    }
+
+    private BufferedImage decodeStored(String filePath) throws IOException {
+        try (StorageDownload download = storageService.openDownload(filePath, null)) {
+            if (download == null || download.status() != 200) {
+                throw new IllegalStateException("Image introuvable dans le stockage: " + filePath);
+            }
+            return decode(download.body(), FULL_SIZE);
+        }
+    }
+
+    /**
+     * Décode l'image en sous-échantillonnant pour que son plus grand côté reste
+     * proche de targetSize, puis applique l'orientation EXIF
+     */
+    private BufferedImage decode(InputStream in, int targetSize) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) {
+                throw new IllegalArgumentException("Image illisible");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Format d'image non supporté");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, false);
+                // Dimensions déclarées dans l'en-tête, vérifiées avant tout décodage
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image trop grande");
+                }
+                int step = Math.max(1, Math.max(width, height) / targetSize);
+
+                int orientation = exifOrientation(reader);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                return orient(image, orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Redimensionne (plus grand côté = maxSize, jamais d'agrandissement) sur
+     * fond blanc, sans canal alpha
+     */
+    private BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // Réductions successives par deux : meilleure qualité qu'une seule interpolation
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private String upload(BufferedImage image, String folder, String baseName) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            // Aucune métadonnée écrite (EXIF, GPS, profil de l'appareil)
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return storageService.uploadBytes(out.toByteArray(), baseName + "." + format, folder, contentType);
+    }
+
+    private BufferedImage orient(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        boolean swap = false;
+        switch (orientation) {
+            case 3 -> {
+                transform.translate(width, height);
+                transform.rotate(Math.PI);
+            }
+            case 6 -> {
+                transform.translate(height, 0);
+                transform.rotate(Math.PI / 2);
+                swap = true;
+            }
+            case 8 -> {
+                transform.translate(0, width);
+                transform.rotate(-Math.PI / 2);
+                swap = true;
+            }
+            default -> {
+                return image;
+            }
+        }
+        BufferedImage rotated = new BufferedImage(swap ? height : width, swap ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rotated.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return rotated;
+    }
+
+    /**
+     * Orientation EXIF (tag 0x0112) d'un JPEG, 1 si absente
+     */
+    private int exifOrientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null || !"javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+                return 1;
+            }
+            Node root = metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+            for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (!"markerSequence".equals(node.getNodeName())) {
+                    continue;
+                }
+                for (Node marker = node.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                    Node tag = marker.getAttributes() != null ? marker.getAttributes().getNamedItem("MarkerTag") : null;
+                    if (tag != null && "225".equals(tag.getNodeValue())
+                            && marker instanceof javax.imageio.metadata.IIOMetadataNode app1
+                            && app1.getUserObject() instanceof byte[] data) {
+                        return parseOrientation(data);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Métadonnées EXIF illisibles: {}", e.getMessage());
+        }
+        return 1;
+    }
+
+    private int parseOrientation(byte[] data) {
+        // "Exif\0\0" puis en-tête TIFF
+        if (data.length < 14 || data[0] != 'E' || data[1] != 'x' || data[2] != 'i' || data[3] != 'f') {
+            return 1;
+        }
+        int tiff = 6;
+        boolean little = data[tiff] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, little);
+        if (ifd + 2 > data.length) {
+            return 1;
+        }
+        int entries = readShort(data, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > data.length) {
+                break;
+            }
+            if (readShort(data, entry, little) == 0x0112) {
+                return readShort(data, entry + 8, little);
+            }
+        }
+        return 1;
+    }
+
+    private int readShort(byte[] data, int offset, boolean little) {
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return little ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private int readInt(byte[] data, int offset, boolean little) {
+        int high = readShort(data, little ? offset + 2 : offset, little);
+        int low = readShort(data, little ? offset : offset + 2, little);
+        return (high << 16) | low;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
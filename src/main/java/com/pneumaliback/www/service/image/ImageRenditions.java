@@ -0,0 +1,8 @@
+package com.pneumaliback.www.service.image;
+
+/**
+ * URLs des déclinaisons d'une image (vignette, carte du catalogue, pleine
+ * taille)
+ */
+public record ImageRenditions(String thumbnailUrl, String cardUrl, String fullUrl) {
+}
@@ -1,5 +1,6 @@
 package com.pneumaliback.www.service.mail;
 
+import com.pneumaliback.www.configuration.IntegrationMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
@@ -27,6 +28,7 @@ public class BrevoEmailSender implements EmailSender {
 
     private final String apiKey;
     private final String fromAddress;
+    private final IntegrationMetrics integrationMetrics;
     private final RestTemplate restTemplate = new RestTemplate();
 
     private static final String BREVO_API_URL = "https://api.brevo.com/v3/smtp/email";
@@ -65,7 +67,8 @@ public class BrevoEmailSender implements EmailSender {
 
             log.info("📤 Envoi via Brevo: from={}, to={} (aucune copie)", fromAddress, to);
             @SuppressWarnings("rawtypes")
-            ResponseEntity response = restTemplate.postForEntity(BREVO_API_URL, request, Map.class);
+            ResponseEntity response = integrationMetrics.record("brevo", "send-email",
+                    () -> restTemplate.postForEntity(BREVO_API_URL, request, Map.class));
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("✅ Email envoyé à {} via Brevo (destinataire unique uniquement)", to);
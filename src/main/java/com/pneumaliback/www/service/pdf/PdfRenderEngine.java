@@ -0,0 +1,188 @@
+package com.pneumaliback.www.service.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.pneumaliback.www.config.PdfRenderProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rendu HTML -> PDF sur un pool de threads dédié et borné
+ *
+ * - le nombre de rendus simultanés est limité (CPU et mémoire), les demandes
+ * en excès attendent dans une file bornée puis sont refusées ;
+ * - warmUp() fait un premier rendu sur chaque thread au démarrage pour que le
+ * chargement des classes ne pèse pas sur le premier devis.
+ */
+@Lazy
+@Component
+@Slf4j
+public class PdfRenderEngine {
+
+    private static final String PRODUCER = "PneuMali";
+
+    private final PdfRenderProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger expectedSize;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer renderTimer;
+    private final Timer queueTimer;
+    private final MeterRegistry meterRegistry;
+
+    public PdfRenderEngine(PdfRenderProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.expectedSize = new AtomicInteger(properties.getInitialBufferSize());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, properties.getPoolSize());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "pdf-render", Tags.empty()).bindTo(meterRegistry);
+
+        this.renderTimer = Timer.builder("pdf.render")
+                .description("Durée du rendu HTML -> PDF (hors attente)")
+                .register(meterRegistry);
+        this.queueTimer = Timer.builder("pdf.render.queue.wait")
+                .description("Attente d'un thread de rendu PDF")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.queue.size", executor, e -> e.getQueue().size())
+                .description("Rendus PDF en attente")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.active", active, AtomicInteger::get)
+                .description("Rendus PDF en cours")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rend le document HTML (XHTML bien formé) en PDF
+     *
+     * @throws IllegalStateException si la file de rendu est pleine ou si le
+     *                               délai est dépassé
+     */
+    public byte[] render(String html) throws IOException {
+        if (html == null || html.isBlank()) {
+            throw new IllegalStateException("Le contenu HTML est vide");
+        }
+
+        long submittedAt = System.nanoTime();
+        Future<byte[]> future;
+        try {
+            future = executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                active.incrementAndGet();
+                try {
+                    return renderTimer.recordCallable(() -> doRender(html));
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("pdf.render.rejected").increment();
+            log.warn("File de rendu PDF saturée ({} en attente)", executor.getQueue().size());
+            throw new IllegalStateException("Trop de PDF en cours de génération, réessayez dans quelques instants");
+        }
+
+        try {
+            return future.get(properties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IllegalStateException("Délai de génération du PDF dépassé");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Génération du PDF interrompue");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Erreur lors du rendu PDF: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Rend le document une fois par thread du pool, en tâche de fond
+     */
+    public void warmUp(String html) {
+        if (!properties.isWarmUp()) {
+            return;
+        }
+        executor.prestartAllCoreThreads();
+        for (int i = 0; i < executor.getCorePoolSize(); i++) {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    doRender(html);
+                    log.debug("Préchauffage du rendu PDF sur {} en {} ms", Thread.currentThread().getName(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } catch (Exception e) {
+                    log.warn("Échec du préchauffage du rendu PDF: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    private byte[] doRender(String html) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(expectedSize.get());
+        try {
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.withProducer(PRODUCER);
+            builder.withHtmlContent(html, null);
+            builder.useFastMode();
+            builder.toStream(outputStream);
+            builder.run();
+        } catch (Exception e) {
+            throw new IOException("Erreur lors du rendu PDF: " + e.getMessage(), e);
+        }
+
+        byte[] pdfBytes = outputStream.toByteArray();
+        if (pdfBytes.length == 0) {
+            throw new IllegalStateException("Le PDF généré est vide");
+        }
+        // Marge de 25 % pour éviter les recopies du buffer sur le prochain rendu
+        expectedSize.set(Math.max(properties.getInitialBufferSize(), pdfBytes.length + pdfBytes.length / 4));
+        return pdfBytes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
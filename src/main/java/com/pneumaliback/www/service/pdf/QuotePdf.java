@@ -0,0 +1,7 @@
+package com.pneumaliback.www.service.pdf;
+
+/**
+ * PDF de devis et empreinte des données qui l'ont produit (sert d'ETag)
+ */
+public record QuotePdf(String hash, byte[] content) {
+}
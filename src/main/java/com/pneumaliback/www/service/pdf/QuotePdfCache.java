@@ -0,0 +1,181 @@
+package com.pneumaliback.www.service.pdf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache disque local des PDF de devis, indexé par empreinte du contenu
+ *
+ * Un fichier {empreinte}.pdf par rendu ; éviction LRU quand la taille totale
+ * dépasse app.pdf.cache.max-size-mb. L'index est reconstruit au démarrage à
+ * partir des fichiers présents (ordre de dernière modification).
+ */
+@Lazy
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuotePdfCache {
+
+    private static final Pattern HASH = Pattern.compile("^[0-9a-f]{64}$");
+    private static final String EXTENSION = ".pdf";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.pdf.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.pdf.cache.dir:${java.io.tmpdir}/pneumali-pdf-cache}")
+    private String directory;
+
+    @Value("${app.pdf.cache.max-size-mb:100}")
+    private long maxSizeMb;
+
+    private Path root;
+
+    // empreinte -> taille en octets, en ordre d'accès (LRU en tête)
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            root = Path.of(directory);
+            Files.createDirectories(root);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(root)) {
+                files = stream.filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                        .sorted(Comparator.comparingLong(this::lastModified))
+                        .toList();
+            }
+            synchronized (this) {
+                for (Path file : files) {
+                    String hash = hashOf(file);
+                    if (hash != null) {
+                        long size = Files.size(file);
+                        index.put(hash, size);
+                        totalBytes += size;
+                    }
+                }
+                evict();
+            }
+            log.info("Cache PDF local: {} fichier(s), {} Ko dans {}", index.size(), totalBytes / 1024, root);
+        } catch (IOException e) {
+            log.warn("Cache PDF local désactivé ({}): {}", directory, e.getMessage());
+            root = null;
+        }
+    }
+
+    public byte[] get(String hash) {
+        if (root == null || !isValid(hash)) {
+            return null;
+        }
+        synchronized (this) {
+            if (index.get(hash) == null) {
+                return null;
+            }
+        }
+        try {
+            return Files.readAllBytes(root.resolve(hash + EXTENSION));
+        } catch (IOException e) {
+            log.debug("Entrée du cache PDF illisible {}: {}", hash, e.getMessage());
+            remove(hash);
+            return null;
+        }
+    }
+
+    public void put(String hash, byte[] pdf) {
+        if (root == null || !isValid(hash) || pdf == null || pdf.length == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (index.containsKey(hash)) {
+                return;
+            }
+        }
+        try {
+            Path target = root.resolve(hash + EXTENSION);
+            Path tmp = Files.createTempFile(root, hash, ".tmp");
+            Files.write(tmp, pdf);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                if (index.put(hash, (long) pdf.length) == null) {
+                    totalBytes += pdf.length;
+                }
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Impossible d'écrire le PDF {} dans le cache local: {}", hash, e.getMessage());
+        }
+    }
+
+    public void record(String result) {
+        meterRegistry.counter("pdf.cache.requests", "result", result).increment();
+    }
+
+    private synchronized void remove(String hash) {
+        Long size = index.remove(hash);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    // Appelé sous verrou
+    private void evict() {
+        long maxBytes = maxSizeMb * 1024 * 1024;
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            totalBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            it.remove();
+        }
+        for (String hash : evicted) {
+            try {
+                Files.deleteIfExists(root.resolve(hash + EXTENSION));
+            } catch (IOException e) {
+                log.debug("Suppression impossible de {} du cache PDF: {}", hash, e.getMessage());
+            }
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static String hashOf(Path file) {
+        String name = file.getFileName().toString();
+        String hash = name.substring(0, name.length() - EXTENSION.length());
+        return isValid(hash) ? hash : null;
+    }
+
+    private static boolean isValid(String hash) {
+        return hash != null && HASH.matcher(hash).matches();
+    }
+}
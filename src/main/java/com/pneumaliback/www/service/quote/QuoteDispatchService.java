@@ -0,0 +1,222 @@
+package com.pneumaliback.www.service.quote;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.pneumaliback.www.configuration.PoolRoutingDataSource;
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.QuoteDispatchStage;
+import com.pneumaliback.www.enums.QuoteStatus;
+import com.pneumaliback.www.repository.QuoteRequestRepository;
+import com.pneumaliback.www.repository.UserRepository;
+import com.pneumaliback.www.service.MailService;
+import com.pneumaliback.www.service.QuotePdfService;
+import com.pneumaliback.www.service.QuoteRequestService;
+import com.pneumaliback.www.service.WebSocketPublisher;
+import com.pneumaliback.www.service.pdf.QuotePdf;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Envoi des devis au client en tâche de fond
+ *
+ * QuoteRequestService.generateAndSendQuote enregistre le devis à l'étape
+ * GENERATION_PDF ; les étapes (rendu et envoi du PDF au stockage, puis email)
+ * s'exécutent ensuite hors de la requête de l'administrateur, sur un pool
+ * borné. L'étape courante est enregistrée sur le devis : un échec est retenté
+ * plus tard (délai doublé à chaque tentative) à partir de cette étape, et un
+ * envoi interrompu par un arrêt reprend à l'expiration de sa réservation.
+ * Chaque changement d'étape est poussé à l'administrateur sur
+ * /user/queue/quotes/dispatch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuoteDispatchService {
+
+    private static final Set<QuoteDispatchStage> PENDING = EnumSet.of(QuoteDispatchStage.GENERATION_PDF,
+            QuoteDispatchStage.ENVOI_EMAIL);
+
+    private final QuoteRequestRepository quoteRequestRepository;
+    private final QuoteRequestService quoteRequestService;
+    @Lazy
+    private final QuotePdfService quotePdfService;
+    private final MailService mailService;
+    private final UserRepository userRepository;
+    private final WebSocketPublisher webSocketPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.quote.dispatch.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.quote.dispatch.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.quote.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.quote.dispatch.retry-delay-seconds:30}")
+    private long retryDelaySeconds;
+
+    @Value("${app.quote.dispatch.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(Math.max(1, parallelism), Math.max(1, parallelism), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> new Thread(PoolRoutingDataSource.onBatchPool(runnable),
+                        "quote-dispatch-" + threadCount.incrementAndGet()));
+        new ExecutorServiceMetrics(workers, "quote-dispatch", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Lance l'envoi d'un devis enregistré par generateAndSendQuote (transaction
+     * validée). File pleine : l'envoi sera repris par {@link #sweep()}.
+     */
+    public void dispatch(Long quoteId) {
+        try {
+            workers.execute(() -> run(quoteId));
+        } catch (RejectedExecutionException e) {
+            log.warn("File d'envoi des devis pleine, devis {} repris plus tard", quoteId);
+        }
+    }
+
+    /**
+     * Reprend les envois en attente : nouvelles tentatives, envois interrompus ou
+     * refusés par une file pleine
+     */
+    @Scheduled(fixedDelayString = "${app.quote.dispatch.sweep-interval-ms:15000}", initialDelayString = "${app.quote.dispatch.sweep-interval-ms:15000}")
+    public void sweep() {
+        int free = workers.getQueue().remainingCapacity();
+        if (free == 0) {
+            return;
+        }
+        List<Long> due = quoteRequestRepository.findDueDispatchIds(PENDING, LocalDateTime.now(),
+                PageRequest.of(0, free));
+        due.forEach(this::dispatch);
+    }
+
+    private void run(Long quoteId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (quoteRequestRepository.claimDispatch(quoteId, PENDING, now, now.plusSeconds(leaseSeconds)) == 0) {
+            // Déjà en cours ailleurs, pas encore dû, ou terminé
+            return;
+        }
+        QuoteRequest request = null;
+        try {
+            request = quoteRequestService.loadForPdf(quoteId);
+            if (request.getDispatchStage() == QuoteDispatchStage.GENERATION_PDF) {
+                publish(request, QuoteDispatchStage.GENERATION_PDF, null);
+                User emitter = quoteRequestService.loadEmitter(request.getDispatchTriggeredBy());
+                QuotePdf pdf = quotePdfService.render(request, emitter);
+                quoteRequestService.storeRegeneratedPdf(request, pdf);
+                LocalDateTime rendered = LocalDateTime.now();
+                quoteRequestRepository.updateDispatch(quoteId, QuoteDispatchStage.ENVOI_EMAIL, 0,
+                        rendered.plusSeconds(leaseSeconds), null, rendered);
+                request.setDispatchStage(QuoteDispatchStage.ENVOI_EMAIL);
+                request.setDispatchAttempts(0);
+            }
+
+            publish(request, QuoteDispatchStage.ENVOI_EMAIL, null);
+            if (!mailService.sendQuoteReadyEmailSync(request.getUser(), request, request.getDispatchQuoteUrl())) {
+                throw new IllegalStateException("Échec de l'envoi de l'email du devis");
+            }
+            quoteRequestRepository.completeDispatch(quoteId, QuoteStatus.EN_ATTENTE_VALIDATION, LocalDateTime.now());
+            publish(request, QuoteDispatchStage.TERMINE, null);
+            log.info("Devis {} envoyé au client", request.getQuoteNumber());
+        } catch (Exception e) {
+            fail(quoteId, request, e);
+        }
+    }
+
+    private void fail(Long quoteId, QuoteRequest request, Exception e) {
+        QuoteDispatchStage stage;
+        Integer previousAttempts;
+        if (request != null) {
+            stage = request.getDispatchStage();
+            previousAttempts = request.getDispatchAttempts();
+        } else {
+            // Devis non chargé : l'état de l'envoi est relu sur la ligne
+            QuoteRequestRepository.DispatchState state = quoteRequestRepository.findDispatchState(quoteId)
+                    .orElse(null);
+            if (state == null) {
+                log.warn("Envoi du devis {} abandonné, devis introuvable: {}", quoteId, e.getMessage());
+                return;
+            }
+            stage = state.getDispatchStage();
+            previousAttempts = state.getDispatchAttempts();
+        }
+        if (stage == null) {
+            stage = QuoteDispatchStage.GENERATION_PDF;
+        }
+        int attempts = (previousAttempts != null ? previousAttempts : 0) + 1;
+        String error = truncate(e.getMessage());
+        if (attempts >= maxAttempts) {
+            log.error("Envoi du devis {} abandonné après {} tentative(s) ({}): {}", quoteId, attempts, stage,
+                    e.getMessage(), e);
+            quoteRequestRepository.updateDispatch(quoteId, QuoteDispatchStage.ECHEC, attempts, null, error,
+                    LocalDateTime.now());
+            publish(request, QuoteDispatchStage.ECHEC, error);
+            return;
+        }
+        Duration delay = Duration.ofSeconds(retryDelaySeconds).multipliedBy(1L << Math.min(attempts - 1, 10));
+        log.warn("Échec de l'envoi du devis {} ({}), tentative {}/{}, nouvel essai dans {}s: {}", quoteId, stage,
+                attempts, maxAttempts, delay.toSeconds(), e.getMessage());
+        LocalDateTime now = LocalDateTime.now();
+        quoteRequestRepository.updateDispatch(quoteId, stage, attempts, now.plus(delay), error, now);
+        publish(request, stage, error);
+    }
+
+    private void publish(QuoteRequest request, QuoteDispatchStage stage, String error) {
+        if (request == null || request.getDispatchTriggeredBy() == null) {
+            return;
+        }
+        User admin = userRepository.findByEmailIgnoreCase(request.getDispatchTriggeredBy()).orElse(null);
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("quoteId", request.getId());
+        event.put("quoteNumber", request.getQuoteNumber());
+        event.put("stage", stage);
+        event.put("error", error);
+        webSocketPublisher.sendToUserQueue(admin, "quotes/dispatch", event);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Les envois en cours reprendront à l'expiration de leur réservation
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,150 @@
+package com.pneumaliback.www.service.quote;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.entity.QuoteRequestItem;
+import com.pneumaliback.www.service.QuoteRequestService.QuoteAdminItem;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Édition des lignes d'un devis par différence avec les lignes existantes
+ *
+ * Chaque ligne soumise est rapprochée d'une ligne existante (même produit, ou
+ * même désignation pour les lignes libres) : seules les lignes modifiées sont
+ * mises à jour, les nouvelles insérées et les absentes supprimées. Hibernate
+ * regroupe ces écritures en lots JDBC (hibernate.jdbc.batch_size). Le
+ * sous-total est ajusté de la différence de chaque ligne touchée, sans
+ * reparcourir le devis.
+ */
+@Component
+@Slf4j
+public class QuoteItemEditor {
+
+    public record Result(BigDecimal subtotal, int inserted, int updated, int removed) {
+    }
+
+    // Clé de rapprochement : le produit, ou la désignation pour une ligne libre
+    private record ItemKey(Long productId, String name, String brand, Integer width, Integer profile,
+            Integer diameter) {
+
+        static ItemKey of(Long productId, String name, String brand, Integer width, Integer profile,
+                Integer diameter) {
+            return productId != null
+                    ? new ItemKey(productId, null, null, null, null, null)
+                    : new ItemKey(null, name, brand, width, profile, diameter);
+        }
+    }
+
+    public Result apply(QuoteRequest request, List<QuoteAdminItem> submitted) {
+        List<QuoteRequestItem> existing = request.getItems();
+        BigDecimal subtotal = request.getSubtotalRequested() != null
+                ? request.getSubtotalRequested()
+                : sum(existing);
+
+        Map<ItemKey, Deque<QuoteRequestItem>> byKey = new HashMap<>();
+        for (QuoteRequestItem item : existing) {
+            byKey.computeIfAbsent(keyOf(item), key -> new ArrayDeque<>()).add(item);
+        }
+
+        Set<QuoteRequestItem> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<QuoteRequestItem> added = new ArrayList<>();
+        int updated = 0;
+        for (QuoteAdminItem line : submitted) {
+            if (line.quantity() == null || line.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantité invalide pour " + line.productName());
+            }
+            BigDecimal unitPrice = line.unitPrice() != null ? line.unitPrice() : BigDecimal.ZERO;
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(line.quantity()));
+
+            Deque<QuoteRequestItem> candidates = byKey.get(keyOf(line));
+            QuoteRequestItem item = candidates != null ? candidates.pollFirst() : null;
+            if (item == null) {
+                item = new QuoteRequestItem();
+                item.setQuoteRequest(request);
+                copy(line, unitPrice, lineTotal, item);
+                added.add(item);
+                subtotal = subtotal.add(lineTotal);
+            } else {
+                if (!matches(line, unitPrice, item)) {
+                    subtotal = subtotal.subtract(orZero(item.getLineTotal())).add(lineTotal);
+                    copy(line, unitPrice, lineTotal, item);
+                    updated++;
+                }
+                kept.add(item);
+            }
+        }
+
+        int before = existing.size();
+        // Lignes absentes de la soumission : supprimées par orphanRemoval
+        for (QuoteRequestItem item : existing) {
+            if (!kept.contains(item)) {
+                subtotal = subtotal.subtract(orZero(item.getLineTotal()));
+            }
+        }
+        existing.removeIf(item -> !kept.contains(item));
+        int removed = before - existing.size();
+        existing.addAll(added);
+
+        log.debug("Devis {}: {} ligne(s) ajoutée(s), {} modifiée(s), {} supprimée(s)", request.getId(),
+                added.size(), updated, removed);
+        return new Result(subtotal, added.size(), updated, removed);
+    }
+
+    private static ItemKey keyOf(QuoteRequestItem item) {
+        return ItemKey.of(item.getProductId(), item.getProductName(), item.getBrandName(), item.getWidthValue(),
+                item.getProfileValue(), item.getDiameterValue());
+    }
+
+    private static ItemKey keyOf(QuoteAdminItem line) {
+        return ItemKey.of(line.productId(), line.productName(), line.brand(), line.width(), line.profile(),
+                line.diameter());
+    }
+
+    private static boolean matches(QuoteAdminItem line, BigDecimal unitPrice, QuoteRequestItem item) {
+        return Objects.equals(line.productName(), item.getProductName())
+                && Objects.equals(line.brand(), item.getBrandName())
+                && Objects.equals(line.width(), item.getWidthValue())
+                && Objects.equals(line.profile(), item.getProfileValue())
+                && Objects.equals(line.diameter(), item.getDiameterValue())
+                && Objects.equals(line.quantity(), item.getQuantity())
+                && item.getUnitPrice() != null && unitPrice.compareTo(item.getUnitPrice()) == 0;
+    }
+
+    private static void copy(QuoteAdminItem line, BigDecimal unitPrice, BigDecimal lineTotal, QuoteRequestItem item) {
+        item.setProductId(line.productId());
+        item.setProductName(line.productName());
+        item.setBrandName(line.brand());
+        item.setWidthValue(line.width());
+        item.setProfileValue(line.profile());
+        item.setDiameterValue(line.diameter());
+        item.setQuantity(line.quantity());
+        item.setUnitPrice(unitPrice);
+        item.setLineTotal(lineTotal);
+    }
+
+    private static BigDecimal sum(List<QuoteRequestItem> items) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (QuoteRequestItem item : items) {
+            total = total.add(orZero(item.getLineTotal()));
+        }
+        return total;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
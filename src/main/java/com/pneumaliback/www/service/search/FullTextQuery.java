@@ -0,0 +1,42 @@
+package com.pneumaliback.www.service.search;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Construction des requêtes plein texte PostgreSQL (to_tsquery)
+ *
+ * Les colonnes search_vector combinent les lexèmes racinisés (french) et les
+ * mots bruts (simple) ; les requêtes font de même :
+ * to_tsquery('french', q) || to_tsquery('simple', q).
+ *
+ * La saisie utilisateur n'est jamais passée telle quelle à to_tsquery (les
+ * opérateurs & | ! : ( ) y lèveraient une erreur de syntaxe) : seuls les mots
+ * sont conservés, combinés en ET, chacun en recherche par préfixe
+ * ("ama dia" -> "ama:* & dia:*").
+ */
+public final class FullTextQuery {
+
+    private static final int MAX_TERMS = 8;
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private FullTextQuery() {
+    }
+
+    /**
+     * @param query saisie utilisateur
+     * @return l'expression to_tsquery, ou null si la saisie ne contient aucun mot
+     */
+    public static String toPrefixQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        String tsQuery = Arrays.stream(query.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(term -> term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+}
@@ -0,0 +1,51 @@
+package com.pneumaliback.www.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Lecture d'une portion [offset, offset + length) d'un fichier, sans
+ * déplacer la position du canal (reprise possible sur le même canal)
+ */
+final class BoundedChannelInputStream extends InputStream {
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private long position;
+    private final long end;
+
+    BoundedChannelInputStream(FileChannel channel, long offset, long length, boolean ownsChannel) {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+        int toRead = (int) Math.min(len, end - position);
+        int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Un canal partagé (upload par morceaux) reste ouvert pour le morceau suivant
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+}
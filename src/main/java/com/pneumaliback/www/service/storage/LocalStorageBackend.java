@@ -0,0 +1,239 @@
+package com.pneumaliback.www.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stockage sur le disque local, servi sous {app.base-url}/files/
+ *
+ * Les fichiers sont répartis dans 256 sous-dossiers par dossier (dérivés du
+ * nom de fichier) pour garder des répertoires de taille raisonnable. Chaque
+ * écriture passe par un fichier temporaire du même répertoire, renommé de
+ * façon atomique : un lecteur ne voit jamais de fichier partiel. Les copies
+ * se font de canal à canal (FileChannel.transferTo/transferFrom), sans
+ * tampon intermédiaire côté JVM pour les fichiers déjà sur disque.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+@Slf4j
+public class LocalStorageBackend implements StorageBackend {
+
+    public static final String URL_PREFIX = "/files/";
+    public static final String UPLOAD_PATH = "/files/upload";
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final String TEMP_PREFIX = ".upload-";
+
+    @Value("${app.storage.local.root:uploads}")
+    private String rootDirectory;
+
+    @Value("${app.base-url}")
+    private String baseUrl;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Path.of(rootDirectory).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("✅ Stockage local des fichiers: {}", root);
+    }
+
+    @Override
+    public String filePath(String folder, String fileName) {
+        String shard = String.format("%02x", fileName.hashCode() & 0xFF);
+        return StorageBackend.super.filePath(folder, shard + "/" + fileName);
+    }
+
+    @Override
+    public String upload(InputStream data, long contentLength, String filePath, String contentType)
+            throws IOException {
+        Path target = resolve(filePath);
+        Path tmp = createTemp(target);
+        try {
+            long written = 0;
+            try (ReadableByteChannel in = Channels.newChannel(data);
+                    FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = out.transferFrom(in, written, TRANSFER_CHUNK)) > 0) {
+                    written += transferred;
+                }
+                out.force(false);
+            }
+            if (contentLength >= 0 && written != contentLength) {
+                throw new IOException("Contenu tronqué: " + written + " octets reçus sur " + contentLength);
+            }
+            return commit(tmp, target, filePath, written);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public String upload(Path source, long size, String filePath, String contentType) throws IOException {
+        Path target = resolve(filePath);
+        Path tmp = createTemp(target);
+        try {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                    FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                long position = 0;
+                while (position < size) {
+                    long transferred = in.transferTo(position, size - position, out);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                out.force(false);
+            }
+            return commit(tmp, target, filePath, size);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public StorageDownload open(String filePath, String range) throws IOException {
+        Path file = locate(filePath);
+        if (file == null) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            String contentType = contentType(file).toString();
+            String etag = etag(file);
+
+            long start = 0;
+            long end = length - 1;
+            String contentRange = null;
+            int status = 200;
+            if (range != null && !range.isBlank()) {
+                try {
+                    List<HttpRange> ranges = HttpRange.parseRanges(range);
+                    // Plages multiples : fichier complet
+                    if (ranges.size() == 1) {
+                        start = ranges.get(0).getRangeStart(length);
+                        end = ranges.get(0).getRangeEnd(length);
+                        if (start >= length) {
+                            throw new IllegalArgumentException("Plage hors du fichier");
+                        }
+                        contentRange = "bytes " + start + "-" + end + "/" + length;
+                        status = 206;
+                    }
+                } catch (IllegalArgumentException e) {
+                    channel.close();
+                    return new StorageDownload(416, contentType, 0, "bytes */" + length, etag,
+                            InputStream.nullInputStream());
+                }
+            }
+            long count = end - start + 1;
+            return new StorageDownload(status, contentType, count, contentRange, etag,
+                    new BoundedChannelInputStream(channel, start, count, true));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String filePath) throws IOException {
+        if (Files.deleteIfExists(resolve(filePath))) {
+            log.info("Fichier supprimé avec succès: {}", filePath);
+        }
+    }
+
+    @Override
+    public StorageObject stat(String filePath) throws IOException {
+        Path file = locate(filePath);
+        return file != null ? new StorageObject(Files.size(file), contentType(file).toString()) : null;
+    }
+
+    @Override
+    public String publicUrl(String filePath) {
+        return baseUrl + URL_PREFIX + filePath;
+    }
+
+    /**
+     * PUT sur /files/upload, authentifié par le ticket (voir LocalFileController)
+     */
+    @Override
+    public PresignedUpload presignUpload(String filePath, String contentType, String ticket) {
+        return new PresignedUpload(baseUrl + UPLOAD_PATH + "?ticket=" + ticket, "PUT",
+                Map.of("Content-Type", contentType));
+    }
+
+    @Override
+    public String extractFilePath(String url) {
+        int index = url.indexOf(URL_PREFIX);
+        return index != -1 ? url.substring(index + URL_PREFIX.length()) : null;
+    }
+
+    /**
+     * Fichier stocké sous ce chemin, ou null s'il n'existe pas
+     *
+     * @throws IllegalArgumentException si le chemin sort de la racine
+     */
+    public Path locate(String filePath) {
+        Path file = resolve(filePath);
+        if (file.getFileName().toString().startsWith(TEMP_PREFIX) || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    public static MediaType contentType(Path file) {
+        return MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    /**
+     * ETag faible dérivé de la taille et de la date de modification
+     */
+    public static String etag(Path file) throws IOException {
+        return "W/\"" + Long.toHexString(Files.size(file)) + "-"
+                + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+    }
+
+    private Path resolve(String filePath) {
+        if (filePath == null || filePath.isBlank()) {
+            throw new IllegalArgumentException("Chemin de fichier invalide");
+        }
+        Path file = root.resolve(filePath).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IllegalArgumentException("Chemin de fichier invalide");
+        }
+        return file;
+    }
+
+    private static Path createTemp(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return Files.createTempFile(target.getParent(), TEMP_PREFIX, ".tmp");
+    }
+
+    private String commit(Path tmp, Path target, String filePath, long size) throws IOException {
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        String publicUrl = publicUrl(filePath);
+        log.info("Fichier enregistré ({} octets): {}", size, publicUrl);
+        return publicUrl;
+    }
+}
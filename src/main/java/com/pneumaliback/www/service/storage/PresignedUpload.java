@@ -0,0 +1,9 @@
+package com.pneumaliback.www.service.storage;
+
+import java.util.Map;
+
+/**
+ * Requête à faire par le client pour envoyer un fichier directement au backend
+ */
+public record PresignedUpload(String url, String method, Map<String, String> headers) {
+}
@@ -0,0 +1,238 @@
+package com.pneumaliback.www.service.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pneumaliback.www.dto.PresignedUploadResponse;
+import com.pneumaliback.www.enums.UploadPurpose;
+import com.pneumaliback.www.service.StorageService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Envois directs au stockage : le fichier ne transite pas par l'API
+ *
+ * 1. l'API émet un ticket signé (HMAC) et l'URL d'envoi du backend ;
+ * 2. le client envoie le fichier directement à cette URL ;
+ * 3. le client transmet le ticket à l'API, qui vérifie le fichier reçu
+ * (présence, taille) avant de le rattacher.
+ *
+ * Le ticket porte le chemin, l'usage, le propriétaire et l'expiration. Il ne
+ * sert qu'une fois pour l'envoi (backend local) et une fois pour le
+ * rattachement : les usages sont notés dans used_upload_tickets, purgée après
+ * expiration. Clé HMAC propre (APP_STORAGE_PRESIGN_SECRET), distincte de
+ * celle des JWT.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresignedUploadService {
+
+    private static final Pattern FOLDER = Pattern.compile("^[a-zA-Z0-9_-]+(/[a-zA-Z0-9_-]+)*$");
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp",
+            "image/gif", "gif",
+            "image/heic", "heic",
+            "application/pdf", "pdf");
+    // Délai laissé au client entre la fin de validité de l'URL et la confirmation
+    private static final Duration COMPLETION_GRACE = Duration.ofHours(1);
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final StorageService storageService;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.storage.presign.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    @Value("${app.storage.presign.max-size-mb:20}")
+    private long maxSizeMb;
+
+    @Value("${app.storage.presign.secret}")
+    private String secret;
+
+    @PostConstruct
+    void checkSecret() {
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("APP_STORAGE_PRESIGN_SECRET doit faire au moins " + MIN_SECRET_BYTES
+                    + " octets");
+        }
+    }
+
+    /**
+     * Contenu signé d'un ticket d'envoi
+     */
+    public record UploadTicket(String path, UploadPurpose purpose, String contentType, long maxSize, String owner,
+            long expiresAt) {
+    }
+
+    /**
+     * Prépare un envoi direct
+     *
+     * @param folder dossier de destination (usage FILE uniquement)
+     */
+    public PresignedUploadResponse issue(UploadPurpose purpose, String contentType, long size, String folder,
+            String owner) throws IOException {
+        if (purpose == null) {
+            throw new IllegalArgumentException("L'usage du fichier est obligatoire");
+        }
+        if (contentType == null || contentType.isBlank()) {
+            throw new IllegalArgumentException("Le type de contenu est obligatoire");
+        }
+        String type = contentType.trim().toLowerCase();
+        if (purpose.isImage() && !type.startsWith("image/")) {
+            throw new IllegalArgumentException("Seules les images sont acceptées");
+        }
+        long maxSize = maxSizeMb * 1024 * 1024;
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("Taille de fichier invalide (maximum " + maxSizeMb + " Mo)");
+        }
+
+        String targetFolder = purpose.getFolder();
+        if (targetFolder == null) {
+            targetFolder = folder != null && !folder.isBlank() ? folder : "products";
+            if (!FOLDER.matcher(targetFolder).matches()) {
+                throw new IllegalArgumentException("Dossier invalide");
+            }
+        }
+        String extension = EXTENSIONS.get(type);
+        String fileName = UUID.randomUUID() + (extension != null ? "." + extension : "");
+        String path = storageService.filePath(targetFolder, fileName);
+
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(ttlMinutes));
+        String ticket = sign(new UploadTicket(path, purpose, type, maxSize, owner, expiresAt.getEpochSecond()));
+        PresignedUpload upload = storageService.presignUpload(path, type, ticket);
+        log.debug("Envoi direct préparé: {} ({}, {} octets) pour {}", path, purpose, size, owner);
+        return new PresignedUploadResponse(ticket, upload.url(), upload.method(), upload.headers(), expiresAt);
+    }
+
+    /**
+     * Vérifie un ticket au moment de l'envoi du fichier (backend local), sans le
+     * consommer : voir claimUpload
+     *
+     * @throws IllegalArgumentException si le ticket est invalide ou expiré
+     */
+    public UploadTicket verifyForUpload(String ticket) {
+        UploadTicket parsed = parse(ticket);
+        if (Instant.now().getEpochSecond() > parsed.expiresAt()) {
+            throw new IllegalArgumentException("Ticket d'upload expiré");
+        }
+        return parsed;
+    }
+
+    /**
+     * Consomme le ticket juste avant l'écriture du fichier : un second envoi
+     * avec le même ticket ne peut pas remplacer l'objet
+     *
+     * @throws IllegalArgumentException si le ticket a déjà servi
+     */
+    public void claimUpload(UploadTicket ticket) {
+        markUsed(ticket, "UPLOAD");
+    }
+
+    /**
+     * Vérifie un ticket et le fichier reçu par le stockage
+     *
+     * @throws IllegalArgumentException si le ticket est invalide, expiré, ou
+     *                                  émis pour un autre usage ou utilisateur
+     * @throws IllegalStateException    si le fichier n'a pas été reçu ou
+     *                                  dépasse la taille autorisée
+     */
+    public StoredUpload complete(String ticket, UploadPurpose purpose, String owner) throws IOException {
+        UploadTicket parsed = parse(ticket);
+        if (Instant.now().getEpochSecond() > parsed.expiresAt() + COMPLETION_GRACE.toSeconds()) {
+            throw new IllegalArgumentException("Ticket d'upload expiré");
+        }
+        if (parsed.purpose() != purpose || owner == null || !owner.equalsIgnoreCase(parsed.owner())) {
+            throw new IllegalArgumentException("Ticket d'upload invalide");
+        }
+
+        StorageObject object = storageService.stat(parsed.path());
+        if (object == null) {
+            throw new IllegalStateException("Le fichier n'a pas été reçu par le stockage");
+        }
+        if (object.size() <= 0 || object.size() > parsed.maxSize()) {
+            storageService.deleteFile(parsed.path());
+            throw new IllegalStateException("Taille du fichier reçu invalide");
+        }
+        // Dans la transaction de l'appelant : annulé avec elle si le rattachement échoue
+        markUsed(parsed, "COMPLETE");
+        return new StoredUpload(parsed.path(), storageService.publicUrl(parsed.path()), object.size(),
+                parsed.contentType());
+    }
+
+    @Scheduled(cron = "${app.storage.presign.purge-cron:0 20 * * * ?}") // Toutes les heures
+    public void purgeUsedTickets() {
+        int purged = jdbcTemplate.update("DELETE FROM used_upload_tickets WHERE expires_at < ?",
+                Timestamp.from(Instant.now()));
+        if (purged > 0) {
+            log.debug("{} ticket(s) d'upload expiré(s) purgé(s)", purged);
+        }
+    }
+
+    private void markUsed(UploadTicket ticket, String stage) {
+        // Au-delà, le ticket est refusé comme expiré : la ligne peut être purgée
+        Instant expiresAt = Instant.ofEpochSecond(ticket.expiresAt()).plus(COMPLETION_GRACE);
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO used_upload_tickets (path, stage, used_by, used_at, expires_at) VALUES (?, ?, ?, ?, ?) "
+                        + "ON CONFLICT DO NOTHING",
+                ticket.path(), stage, ticket.owner(), Timestamp.from(Instant.now()), Timestamp.from(expiresAt));
+        if (inserted == 0) {
+            throw new IllegalArgumentException("Ticket d'upload déjà utilisé");
+        }
+    }
+
+    private String sign(UploadTicket ticket) throws IOException {
+        String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(ticket));
+        return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(hmac(payload));
+    }
+
+    private UploadTicket parse(String ticket) {
+        int dot = ticket != null ? ticket.indexOf('.') : -1;
+        if (dot <= 0) {
+            throw new IllegalArgumentException("Ticket d'upload invalide");
+        }
+        String payload = ticket.substring(0, dot);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(ticket.substring(dot + 1));
+            if (!MessageDigest.isEqual(hmac(payload), signature)) {
+                throw new IllegalArgumentException("Ticket d'upload invalide");
+            }
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(payload), UploadTicket.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ticket d'upload invalide");
+        }
+    }
+
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signature des tickets d'upload impossible", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.pneumaliback.www.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Support de stockage des fichiers (Supabase Storage, disque local...)
+ *
+ * Le backend actif est choisi par app.storage.backend ; les chemins manipulés
+ * sont relatifs à la racine du backend et propres à celui-ci (voir
+ * {@link #filePath(String, String)}).
+ */
+public interface StorageBackend {
+
+    /**
+     * Chemin de stockage d'un fichier dans un dossier
+     */
+    default String filePath(String folder, String fileName) {
+        return folder != null && !folder.isBlank() ? folder + "/" + fileName : fileName;
+    }
+
+    /**
+     * Enregistre un contenu lu en flux
+     *
+     * @param contentLength taille exacte du contenu, ou -1 si inconnue
+     * @return L'URL publique du fichier
+     */
+    String upload(InputStream data, long contentLength, String filePath, String contentType) throws IOException;
+
+    /**
+     * Enregistre un fichier déjà présent sur le disque
+     *
+     * @return L'URL publique du fichier
+     */
+    String upload(Path source, long size, String filePath, String contentType) throws IOException;
+
+    /**
+     * Ouvre un fichier en flux, en appliquant l'éventuel en-tête Range
+     *
+     * @return le flux (à fermer par l'appelant), ou null si le fichier n'existe
+     *         pas
+     */
+    StorageDownload open(String filePath, String range) throws IOException;
+
+    void delete(String filePath) throws IOException;
+
+    /**
+     * Taille et type d'un fichier stocké, ou null s'il n'existe pas
+     */
+    StorageObject stat(String filePath) throws IOException;
+
+    String publicUrl(String filePath);
+
+    /**
+     * Requête d'envoi direct d'un fichier par le client, sans passer par l'API
+     *
+     * @param ticket jeton signé par l'API pour cet envoi (authentifie l'envoi
+     *               auprès des backends qui n'ont pas leurs propres URL signées)
+     */
+    PresignedUpload presignUpload(String filePath, String contentType, String ticket) throws IOException;
+
+    /**
+     * Chemin de stockage d'un fichier à partir de son URL publique, ou null si
+     * l'URL n'appartient pas à ce backend
+     */
+    String extractFilePath(String url);
+}
@@ -0,0 +1,17 @@
+package com.pneumaliback.www.service.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fichier ouvert en lecture, avec les en-têtes à relayer au client
+ */
+public record StorageDownload(int status, String contentType, long contentLength, String contentRange, String etag,
+        InputStream body) implements Closeable {
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -0,0 +1,7 @@
+package com.pneumaliback.www.service.storage;
+
+/**
+ * Métadonnées d'un fichier stocké
+ */
+public record StorageObject(long size, String contentType) {
+}
@@ -0,0 +1,7 @@
+package com.pneumaliback.www.service.storage;
+
+/**
+ * Fichier envoyé directement au stockage et vérifié par l'API
+ */
+public record StoredUpload(String filePath, String url, long size, String contentType) {
+}
@@ -0,0 +1,430 @@
+package com.pneumaliback.www.service.storage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pneumaliback.www.configuration.HttpBulkheads;
+import com.pneumaliback.www.configuration.IntegrationMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Stockage sur Supabase Storage (backend par défaut)
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "supabase", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SupabaseStorageBackend implements StorageBackend {
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final IntegrationMetrics integrationMetrics;
+    private final HttpBulkheads httpBulkheads;
+
+    @Value("${app.storage.supabase.url}")
+    private String supabaseUrl;
+
+    @Value("${app.storage.supabase.bucket}")
+    private String bucketName;
+
+    @Value("${app.storage.supabase.service-role-key}")
+    private String serviceRoleKeyRaw;
+
+    @Value("${app.storage.resumable-threshold-mb:6}")
+    private long resumableThresholdMb;
+
+    private String serviceRoleKey;
+
+    // Client HTTP des transferts en flux (upload, upload par morceaux, téléchargement)
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private static final Duration UPLOAD_TIMEOUT = Duration.ofMinutes(5);
+    // Taille de morceau imposée par Supabase pour les uploads TUS
+    private static final long TUS_CHUNK_SIZE = 6L * 1024 * 1024;
+    private static final int MAX_CHUNK_RETRIES = 3;
+    private static final String INTEGRATION = "supabase";
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        // Nettoyer et valider la clé Supabase
+        if (serviceRoleKeyRaw == null || serviceRoleKeyRaw.trim().isBlank()) {
+            log.error("⚠️ SUPABASE_SERVICE_ROLE_KEY n'est pas définie ou est vide ! L'upload vers Supabase ne fonctionnera pas.");
+            log.error("⚠️ Veuillez définir la variable d'environnement SUPABASE_SERVICE_ROLE_KEY dans Render avec la clé 'service_role' de votre projet Supabase.");
+            serviceRoleKey = null;
+        } else {
+            // Nettoyer la clé (supprimer les espaces et retours à la ligne)
+            String cleanedKey = serviceRoleKeyRaw.trim().replaceAll("\\s+", "");
+
+            // Validation basique : un JWT doit contenir au moins deux points
+            if (!cleanedKey.contains(".") || cleanedKey.split("\\.").length < 3) {
+                log.error("⚠️ SUPABASE_SERVICE_ROLE_KEY semble invalide (format JWT attendu avec 3 parties séparées par des points)");
+                log.error("⚠️ La clé doit être la 'service_role key' (pas l'anon key) de votre projet Supabase.");
+                serviceRoleKey = null;
+            } else {
+                serviceRoleKey = cleanedKey;
+                // Logger les 10 premiers caractères pour le debug (sans exposer la clé complète)
+                String keyPreview = serviceRoleKey.length() > 10
+                    ? serviceRoleKey.substring(0, 10) + "..."
+                    : "***";
+                log.info("✅ Clé Supabase configurée (preview: {}, longueur: {} caractères)", keyPreview, serviceRoleKey.length());
+            }
+        }
+
+        // Valider également les autres paramètres
+        if (supabaseUrl == null || supabaseUrl.trim().isBlank()) {
+            log.warn("⚠️ SUPABASE_URL n'est pas définie");
+        } else {
+            log.info("✅ URL Supabase configurée: {}", supabaseUrl);
+        }
+
+        if (bucketName == null || bucketName.trim().isBlank()) {
+            log.warn("⚠️ SUPABASE_BUCKET n'est pas défini");
+        } else {
+            log.info("✅ Bucket Supabase configuré: {}", bucketName);
+        }
+    }
+
+    /**
+     * Upload en flux : le contenu est transmis par blocs de taille fixe, sans
+     * jamais être chargé entièrement en mémoire
+     */
+    @Override
+    public String upload(InputStream data, long contentLength, String filePath, String contentType) {
+        validateSupabaseConfiguration();
+
+        String uploadUrl = String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucketName, filePath);
+
+        HttpRequest.BodyPublisher body = contentLength > 0
+                ? HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> data),
+                        contentLength)
+                : HttpRequest.BodyPublishers.ofInputStream(() -> data);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uploadUrl))
+                .header("Content-Type", contentType)
+                .header("Authorization", "Bearer " + serviceRoleKey)
+                .header("apikey", serviceRoleKey)
+                .timeout(UPLOAD_TIMEOUT)
+                .POST(body)
+                .build();
+
+        try {
+            log.debug("Tentative d'upload vers Supabase: bucket={}, filePath={}", bucketName, filePath);
+            HttpResponse<String> response = send("upload", request, HttpResponse.BodyHandlers.ofString());
+            checkUploadResponse(response.statusCode(), response.body());
+            String publicUrl = publicUrl(filePath);
+            log.info("Fichier uploadé avec succès: {}", publicUrl);
+            return publicUrl;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Upload vers Supabase interrompu", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'upload vers Supabase: url={}, bucket={}", uploadUrl, bucketName, e);
+            throw new RuntimeException("Erreur lors de l'upload vers Supabase: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Par morceaux avec reprise (protocole TUS) au-delà de
+     * app.storage.resumable-threshold-mb, en flux sinon
+     */
+    @Override
+    public String upload(Path source, long size, String filePath, String contentType) throws IOException {
+        if (size > resumableThresholdMb * 1024 * 1024) {
+            return uploadResumable(source, size, filePath, contentType);
+        }
+        try (InputStream in = Files.newInputStream(source)) {
+            return upload(in, size, filePath, contentType);
+        }
+    }
+
+    /**
+     * Upload par morceaux (endpoint TUS de Supabase) : en cas de coupure, le
+     * serveur est interrogé sur l'offset déjà reçu et l'envoi reprend à cet
+     * offset
+     */
+    private String uploadResumable(Path source, long size, String filePath, String contentType)
+            throws IOException {
+        validateSupabaseConfiguration();
+
+        String metadata = String.join(",",
+                "bucketName " + base64(bucketName),
+                "objectName " + base64(filePath),
+                "contentType " + base64(contentType));
+        HttpRequest create = tusRequest(URI.create(supabaseUrl + "/storage/v1/upload/resumable"))
+                .header("Upload-Length", String.valueOf(size))
+                .header("Upload-Metadata", metadata)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        try {
+            HttpResponse<String> created = send("upload-create", create, HttpResponse.BodyHandlers.ofString());
+            checkUploadResponse(created.statusCode(), created.body());
+            String location = created.headers().firstValue("Location")
+                    .orElseThrow(() -> new IOException("Réponse TUS sans en-tête Location"));
+            URI uploadUri = URI.create(supabaseUrl).resolve(location);
+
+            long offset = 0;
+            int retries = 0;
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                while (offset < size) {
+                    long length = Math.min(TUS_CHUNK_SIZE, size - offset);
+                    try {
+                        offset = sendChunk(uploadUri, channel, offset, length);
+                        retries = 0;
+                    } catch (IOException e) {
+                        if (++retries > MAX_CHUNK_RETRIES) {
+                            throw e;
+                        }
+                        log.warn("Coupure pendant l'upload de {} à l'offset {} ({}), reprise...", filePath, offset,
+                                e.getMessage());
+                        Thread.sleep(1000L * retries);
+                        offset = currentOffset(uploadUri);
+                    }
+                }
+            }
+
+            String publicUrl = publicUrl(filePath);
+            log.info("Fichier uploadé avec succès (par morceaux, {} octets): {}", size, publicUrl);
+            return publicUrl;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload vers Supabase interrompu", e);
+        }
+    }
+
+    private long sendChunk(URI uploadUri, FileChannel channel, long offset, long length)
+            throws IOException, InterruptedException {
+        HttpRequest patch = tusRequest(uploadUri)
+                .header("Content-Type", "application/offset+octet-stream")
+                .header("Upload-Offset", String.valueOf(offset))
+                .method("PATCH", HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(
+                                () -> new BoundedChannelInputStream(channel, offset, length, false)),
+                        length))
+                .build();
+        HttpResponse<String> response = send("upload-chunk", patch, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 204) {
+            throw new IOException("Morceau refusé par Supabase: " + response.statusCode() + " - " + response.body());
+        }
+        return response.headers().firstValueAsLong("Upload-Offset").orElse(offset + length);
+    }
+
+    private long currentOffset(URI uploadUri) throws IOException, InterruptedException {
+        HttpRequest head = tusRequest(uploadUri).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<Void> response = send("upload-offset", head, HttpResponse.BodyHandlers.discarding());
+        return response.headers().firstValueAsLong("Upload-Offset")
+                .orElseThrow(() -> new IOException("Offset de reprise inconnu: " + response.statusCode()));
+    }
+
+    // Même cloison que les appels RestTemplate vers Supabase, tenue jusqu'aux en-têtes de la réponse
+    private <T> HttpResponse<T> send(String operation, HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        httpBulkheads.acquire(request.uri());
+        try {
+            return integrationMetrics.send(INTEGRATION, operation, httpClient, request, handler);
+        } finally {
+            httpBulkheads.release(request.uri());
+        }
+    }
+
+    private HttpRequest.Builder tusRequest(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + serviceRoleKey)
+                .header("apikey", serviceRoleKey)
+                .header("Tus-Resumable", "1.0.0")
+                .timeout(UPLOAD_TIMEOUT);
+    }
+
+    /**
+     * Relaie l'en-tête Range à Supabase
+     */
+    @Override
+    public StorageDownload open(String filePath, String range) throws IOException {
+        validateSupabaseConfiguration();
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                URI.create(String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucketName, filePath)))
+                .header("Authorization", "Bearer " + serviceRoleKey)
+                .header("apikey", serviceRoleKey)
+                .GET();
+        if (range != null && !range.isBlank()) {
+            builder.header("Range", range);
+        }
+
+        try {
+            HttpResponse<InputStream> response = send("download", builder.build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            int status = response.statusCode();
+            if (status == 400 || status == 404) {
+                response.body().close();
+                return null;
+            }
+            if (status >= 300 && status != 416) {
+                response.body().close();
+                throw new IOException("Téléchargement refusé par Supabase: " + status);
+            }
+            return new StorageDownload(status,
+                    response.headers().firstValue("Content-Type").orElse("application/octet-stream"),
+                    response.headers().firstValueAsLong("Content-Length").orElse(-1),
+                    response.headers().firstValue("Content-Range").orElse(null),
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Téléchargement interrompu", e);
+        }
+    }
+
+    @Override
+    public void delete(String filePath) {
+        if (serviceRoleKey == null || serviceRoleKey.isBlank()) {
+            log.warn("Impossible de supprimer le fichier {}: clé Supabase non configurée", filePath);
+            return;
+        }
+
+        String deleteUrl = String.format("%s/storage/v1/object/%s/%s",
+                supabaseUrl, bucketName, filePath);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + serviceRoleKey);
+        headers.set("apikey", serviceRoleKey);
+
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+
+        integrationMetrics.record(INTEGRATION, "delete",
+                () -> restTemplate.exchange(deleteUrl, HttpMethod.DELETE, requestEntity, Void.class));
+        log.info("Fichier supprimé avec succès: {}", filePath);
+    }
+
+    @Override
+    public StorageObject stat(String filePath) throws IOException {
+        validateSupabaseConfiguration();
+        HttpRequest head = HttpRequest.newBuilder(
+                URI.create(String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucketName, filePath)))
+                .header("Authorization", "Bearer " + serviceRoleKey)
+                .header("apikey", serviceRoleKey)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            HttpResponse<Void> response = send("stat", head, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if (status == 400 || status == 404) {
+                return null;
+            }
+            if (status >= 300) {
+                throw new IOException("Consultation refusée par Supabase: " + status);
+            }
+            return new StorageObject(
+                    response.headers().firstValueAsLong("Content-Length").orElse(-1),
+                    response.headers().firstValue("Content-Type").orElse("application/octet-stream"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Consultation interrompue", e);
+        }
+    }
+
+    /**
+     * URL d'upload signée de Supabase (PUT direct vers le bucket, sans clé)
+     */
+    @Override
+    public PresignedUpload presignUpload(String filePath, String contentType, String ticket) throws IOException {
+        validateSupabaseConfiguration();
+        HttpRequest sign = HttpRequest.newBuilder(URI.create(
+                String.format("%s/storage/v1/object/upload/sign/%s/%s", supabaseUrl, bucketName, filePath)))
+                .header("Authorization", "Bearer " + serviceRoleKey)
+                .header("apikey", serviceRoleKey)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            HttpResponse<String> response = send("presign", sign, HttpResponse.BodyHandlers.ofString());
+            checkUploadResponse(response.statusCode(), response.body());
+            JsonNode url = objectMapper.readTree(response.body()).path("url");
+            if (!url.isTextual()) {
+                throw new IOException("Réponse de signature Supabase sans URL");
+            }
+            return new PresignedUpload(supabaseUrl + "/storage/v1" + url.asText(), "PUT",
+                    Map.of("Content-Type", contentType, "x-upsert", "false"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Signature de l'upload interrompue", e);
+        }
+    }
+
+    @Override
+    public String extractFilePath(String url) {
+        String pattern = "/storage/v1/object/public/" + bucketName + "/";
+        int index = url.indexOf(pattern);
+        if (index != -1) {
+            return url.substring(index + pattern.length());
+        }
+        return null;
+    }
+
+    private void checkUploadResponse(int status, String body) {
+        if (status >= 200 && status < 300) {
+            return;
+        }
+        String errorBody = body != null && !body.isBlank() ? body : "aucun détail";
+        log.error("Échec de l'upload vers Supabase: status={}, body={}", status, errorBody);
+        if (status == 401 || status == 403) {
+            throw new RuntimeException(
+                    "Erreur d'authentification Supabase: vérifiez que SUPABASE_SERVICE_ROLE_KEY est correctement configurée dans les variables d'environnement (Render). " +
+                    "Message: " + errorBody);
+        }
+        throw new RuntimeException("Échec de l'upload vers Supabase: " + status + " - " + errorBody);
+    }
+
+    @Override
+    public String publicUrl(String filePath) {
+        return String.format("%s/storage/v1/object/public/%s/%s", supabaseUrl, bucketName, filePath);
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void validateSupabaseConfiguration() {
+        if (serviceRoleKey == null || serviceRoleKey.isBlank()) {
+            throw new IllegalStateException(
+                    "Configuration Supabase invalide: SUPABASE_SERVICE_ROLE_KEY n'est pas définie ou est vide. " +
+                    "Vérifiez les variables d'environnement dans Render.");
+        }
+        if (supabaseUrl == null || supabaseUrl.isBlank()) {
+            throw new IllegalStateException(
+                    "Configuration Supabase invalide: SUPABASE_URL n'est pas définie. " +
+                    "Vérifiez les variables d'environnement dans Render.");
+        }
+        if (bucketName == null || bucketName.isBlank()) {
+            throw new IllegalStateException(
+                    "Configuration Supabase invalide: SUPABASE_BUCKET n'est pas défini. " +
+                    "Vérifiez les variables d'environnement dans Render.");
+        }
+    }
+}
@@ -0,0 +1,604 @@
+-- Schéma initial : tables telles que créées par Hibernate (ddl-auto=update) avant
+-- l'introduction des migrations versionnées. Non exécuté sur une base existante
+-- (enregistré comme baseline par SchemaMigrator).
+
+    create table addresses (
+        is_default boolean not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        user_id bigint not null,
+        phone_number varchar(20),
+        postal_code varchar(50),
+        city varchar(100) not null,
+        region varchar(100) not null,
+        street varchar(150) not null,
+        country varchar(255) not null check (country in ('MALI','MOROCCO','BURKINA_FASO','SENEGAL','IVORY_COAST')),
+        primary key (id)
+    );
+
+    create table brands (
+        active boolean not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        name varchar(50) not null unique,
+        primary key (id)
+    );
+
+    create table cart_items (
+        quantity integer not null,
+        version integer default 0 not null,
+        cart_id bigint not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        product_id bigint not null,
+        updated_at timestamp(6) not null,
+        primary key (id)
+    );
+
+    create table carts (
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        user_id bigint unique,
+        primary key (id)
+    );
+
+    create table categories (
+        active boolean not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        name varchar(100) not null,
+        description varchar(500),
+        primary key (id)
+    );
+
+    create table commissions (
+        amount numeric(10,2) not null,
+        base_amount numeric(10,2) not null,
+        rate numeric(5,2) not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        influenceur_id bigint not null,
+        order_id bigint not null unique,
+        paid_at timestamp(6),
+        updated_at timestamp(6) not null,
+        status varchar(255) not null check (status in ('PENDING','PAID')),
+        primary key (id)
+    );
+
+    create table deliveries (
+        shipping_fee numeric(10,2),
+        version integer default 0 not null,
+        address_id bigint,
+        assigned_at timestamp(6) with time zone,
+        assigned_livreur_id bigint,
+        created_at timestamp(6) not null,
+        delivered_at timestamp(6) with time zone,
+        id bigint generated by default as identity,
+        order_id bigint unique,
+        updated_at timestamp(6) not null,
+        tracking_number varchar(100),
+        zone varchar(100),
+        status varchar(255) not null check (status in ('PENDING','IN_PROGRESS','DELIVERED','CANCELED')),
+        primary key (id)
+    );
+
+    create table delivery_proofs (
+        latitude float(53),
+        longitude float(53),
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        delivered_by_livreur_id bigint not null,
+        id bigint generated by default as identity,
+        quote_request_id bigint not null unique,
+        updated_at timestamp(6) not null,
+        delivery_notes TEXT,
+        photo_url varchar(255),
+        signature_data TEXT,
+        primary key (id)
+    );
+
+    create table favoris (
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        product_id bigint not null,
+        updated_at timestamp(6) not null,
+        user_id bigint not null,
+        personal_comment varchar(500),
+        tags varchar(255),
+        primary key (id)
+    );
+
+    create table influenceurs (
+        archived boolean not null,
+        commission_rate numeric(5,2) not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        user_id bigint unique,
+        promo_code varchar(50) unique,
+        primary key (id)
+    );
+
+    create table messages (
+        est_lu boolean,
+        version integer default 0 not null,
+        auteur_id bigint not null,
+        created_at timestamp(6) not null,
+        date_envoi timestamp(6) not null,
+        destinataire_id bigint not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        contenu varchar(1000) not null,
+        primary key (id)
+    );
+
+    create table notifications (
+        est_lu boolean not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        user_id bigint not null,
+        type varchar(50),
+        title varchar(200) not null,
+        content varchar(1000) not null,
+        primary key (id)
+    );
+
+    create table number_sequences (
+        version integer default 0 not null,
+        year integer not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        last_value bigint not null,
+        updated_at timestamp(6) not null,
+        sequence_key varchar(64) not null,
+        primary key (id),
+        constraint uk_number_sequence_key_year unique (sequence_key, year)
+    );
+
+    create table order_items (
+        quantity integer not null,
+        unit_price numeric(10,2) not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        order_id bigint not null,
+        product_id bigint not null,
+        updated_at timestamp(6) not null,
+        primary key (id)
+    );
+
+    create table orders (
+        discount_total numeric(10,2),
+        shipping_fee numeric(10,2),
+        subtotal numeric(10,2),
+        total_amount numeric(10,2),
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        promotion_id bigint,
+        updated_at timestamp(6) not null,
+        user_id bigint not null,
+        order_number varchar(32) unique,
+        status varchar(255) not null check (status in ('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELED')),
+        primary key (id)
+    );
+
+    create table payments (
+        amount numeric(10,2) not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        order_id bigint unique,
+        updated_at timestamp(6) not null,
+        provider varchar(50),
+        invoice_token varchar(100),
+        transaction_reference varchar(100) unique,
+        method varchar(255) not null check (method in ('ORANGE_MONEY','MALITEL_MONEY','MOOV_MONEY','BANK_CARD','PAYPAL','CASH_ON_DELIVERY')),
+        status varchar(255) not null check (status in ('PENDING','PROCESSING','SUCCESS','FAILED','REFUNDED','EXPIRED')),
+        primary key (id)
+    );
+
+    create table products (
+        active boolean not null,
+        price numeric(10,2) not null,
+        stock integer not null,
+        version integer default 0 not null,
+        brand_id bigint,
+        category_id bigint not null,
+        created_at timestamp(6) not null,
+        diameter_id bigint,
+        id bigint generated by default as identity,
+        profile_id bigint,
+        tire_condition_id bigint,
+        updated_at timestamp(6) not null,
+        vehicle_type_id bigint,
+        width_id bigint,
+        season varchar(20) check (season in ('ETE','HIVER','QUATRE_SAISONS','TOUT_TERRAIN')),
+        size varchar(50),
+        name varchar(150) not null,
+        description varchar(1000),
+        image_url varchar(255),
+        primary key (id)
+    );
+
+    create table promotions (
+        active boolean not null,
+        discount_amount numeric(10,2),
+        discount_percentage numeric(5,2),
+        end_date date not null,
+        start_date date not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        influenceur_id bigint,
+        updated_at timestamp(6) not null,
+        code varchar(100) not null unique,
+        type varchar(255) not null check (type in ('PERCENTAGE','FIXED_AMOUNT','BUY_ONE_GET_ONE','INFLUENCER_CODE')),
+        primary key (id)
+    );
+
+    create table quote_request_items (
+        diameter_value integer,
+        line_total numeric(12,2),
+        profile_value integer,
+        quantity integer not null,
+        unit_price numeric(12,2),
+        version integer default 0 not null,
+        width_value integer,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        product_id bigint,
+        quote_request_id bigint,
+        updated_at timestamp(6) not null,
+        brand_name varchar(255),
+        product_name varchar(255) not null,
+        primary key (id)
+    );
+
+    create table quote_requests (
+        client_absent_count integer not null,
+        discount_total numeric(12,2),
+        livreur_assignment_email_sent boolean not null,
+        requested_delivery_date date,
+        subtotal_requested numeric(12,2),
+        total_quoted numeric(12,2),
+        valid_until date,
+        version integer default 0 not null,
+        assigned_livreur_id bigint,
+        created_at timestamp(6) not null,
+        delivery_assigned_at timestamp(6) with time zone,
+        delivery_confirmed_at timestamp(6) with time zone,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        user_id bigint not null,
+        validated_at timestamp(6) with time zone,
+        quote_number varchar(32) unique,
+        request_number varchar(32) not null unique,
+        validated_ip varchar(64),
+        validated_device_info varchar(256),
+        admin_notes TEXT,
+        client_message TEXT,
+        delivery_details TEXT,
+        quote_pdf_url varchar(255),
+        status varchar(255) not null check (status in ('EN_ATTENTE','DEVIS_EN_PREPARATION','DEVIS_ENVOYE','EN_ATTENTE_VALIDATION','VALIDE_PAR_CLIENT','EN_COURS_LIVRAISON','LIVRE_EN_ATTENTE_CONFIRMATION','CLIENT_ABSENT','TERMINE','ANNULE')),
+        validated_pdf_url varchar(255),
+        primary key (id)
+    );
+
+    create table refresh_tokens (
+        revoked boolean not null,
+        created_at timestamp(6) with time zone not null,
+        expiry_date timestamp(6) with time zone not null,
+        id bigint generated by default as identity,
+        user_id bigint unique,
+        token varchar(255) not null unique,
+        primary key (id)
+    );
+
+    create table reviews (
+        rating integer not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        product_id bigint not null,
+        updated_at timestamp(6) not null,
+        user_id bigint not null,
+        comment varchar(1000),
+        primary key (id)
+    );
+
+    create table tire_conditions (
+        active boolean not null,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        name varchar(100) not null,
+        description varchar(500),
+        primary key (id)
+    );
+
+    create table tire_diameters (
+        active boolean not null,
+        value integer not null unique,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        primary key (id)
+    );
+
+    create table tire_profiles (
+        active boolean not null,
+        value integer not null unique,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        primary key (id)
+    );
+
+    create table tire_widths (
+        active boolean not null,
+        value integer not null unique,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        primary key (id)
+    );
+
+    create table users (
+        account_non_expired boolean not null,
+        account_non_locked boolean not null,
+        credentials_non_expired boolean not null,
+        enabled boolean not null,
+        failed_attempts integer not null,
+        otp_attempts integer,
+        otp_resend_count integer,
+        version integer default 0 not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        lock_time timestamp(6) with time zone,
+        otp_locked_until timestamp(6) with time zone,
+        reset_expiry timestamp(6) with time zone,
+        reset_sent_at timestamp(6) with time zone,
+        updated_at timestamp(6) not null,
+        verification_expiry timestamp(6) with time zone,
+        verification_sent_at timestamp(6) with time zone,
+        phone_number varchar(20),
+        last_login_ip varchar(45),
+        first_name varchar(50) not null,
+        last_name varchar(50) not null,
+        email varchar(100) not null unique,
+        previous_email varchar(100),
+        verification_code varchar(120),
+        auth_provider varchar(255) not null check (auth_provider in ('LOCAL','GOOGLE')),
+        country varchar(255) check (country in ('MALI','MOROCCO','BURKINA_FASO','SENEGAL','IVORY_COAST')),
+        gender varchar(255) check (gender in ('HOMME','FEMME','AUTRE')),
+        google_id varchar(255) unique,
+        last_login_user_agent varchar(255),
+        password varchar(255) not null,
+        reset_code varchar(255),
+        role varchar(255) not null check (role in ('ADMIN','CLIENT','INFLUENCEUR','DEVELOPER','LIVREUR')),
+        primary key (id)
+    );
+
+    create table vehicle_types (
+        active boolean not null,
+        version integer default 0 not null,
+        category_id bigint not null,
+        created_at timestamp(6) not null,
+        id bigint generated by default as identity,
+        updated_at timestamp(6) not null,
+        name varchar(100) not null,
+        description varchar(500),
+        primary key (id)
+    );
+
+    create index idx_deliveries_zone 
+       on deliveries (zone);
+
+    create index idx_orders_promotion_id 
+       on orders (promotion_id);
+
+    create index idx_payments_tx_ref 
+       on payments (transaction_reference);
+
+    alter table if exists addresses 
+       add constraint FK1fa36y2oqhao3wgg2rw1pi459 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists cart_items 
+       add constraint FKpcttvuq4mxppo8sxggjtn5i2c 
+       foreign key (cart_id) 
+       references carts;
+
+    alter table if exists cart_items 
+       add constraint FK1re40cjegsfvw58xrkdp6bac6 
+       foreign key (product_id) 
+       references products;
+
+    alter table if exists carts 
+       add constraint FKb5o626f86h46m4s7ms6ginnop 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists commissions 
+       add constraint FKf4kxxh6h6bf6d3rxky362ovcu 
+       foreign key (influenceur_id) 
+       references influenceurs;
+
+    alter table if exists commissions 
+       add constraint FK8lrww534wk9n7try26jied988 
+       foreign key (order_id) 
+       references orders;
+
+    alter table if exists deliveries 
+       add constraint FKc4e0kf56gepm3hv3gqggqrmlb 
+       foreign key (address_id) 
+       references addresses;
+
+    alter table if exists deliveries 
+       add constraint FK4di1xdghs0k4s9ojwn8dubplv 
+       foreign key (assigned_livreur_id) 
+       references users;
+
+    alter table if exists deliveries 
+       add constraint FK7isx0rnbgqr1dcofd5putl6jw 
+       foreign key (order_id) 
+       references orders;
+
+    alter table if exists delivery_proofs 
+       add constraint FK9x7mhbyxv1fn7e42rr18soy2h 
+       foreign key (delivered_by_livreur_id) 
+       references users;
+
+    alter table if exists delivery_proofs 
+       add constraint FKq4cyd31lfajin886pcfnekow7 
+       foreign key (quote_request_id) 
+       references quote_requests;
+
+    alter table if exists favoris 
+       add constraint FKan1ttj9knpj4irk5uhfcvvmrm 
+       foreign key (product_id) 
+       references products;
+
+    alter table if exists favoris 
+       add constraint FK2uwgnaadpjc5id02tub45nrfq 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists influenceurs 
+       add constraint FKgpe7gbn0bgu6wjw1r6byh8bfp 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists messages 
+       add constraint FK1726m8fidqg7s8y6bdbns3mwv 
+       foreign key (auteur_id) 
+       references users;
+
+    alter table if exists messages 
+       add constraint FKo4gljo6bqbmrn56cajs497nhr 
+       foreign key (destinataire_id) 
+       references users;
+
+    alter table if exists notifications 
+       add constraint FK9y21adhxn0ayjhfocscqox7bh 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists order_items 
+       add constraint FKbioxgbv59vetrxe0ejfubep1w 
+       foreign key (order_id) 
+       references orders;
+
+    alter table if exists order_items 
+       add constraint FKocimc7dtr037rh4ls4l95nlfi 
+       foreign key (product_id) 
+       references products;
+
+    alter table if exists orders 
+       add constraint FK42bki7v5u9s62olp5is82sd74 
+       foreign key (promotion_id) 
+       references promotions;
+
+    alter table if exists orders 
+       add constraint FK32ql8ubntj5uh44ph9659tiih 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists payments 
+       add constraint FK81gagumt0r8y3rmudcgpbk42l 
+       foreign key (order_id) 
+       references orders;
+
+    alter table if exists products 
+       add constraint FKa3a4mpsfdf4d2y6r8ra3sc8mv 
+       foreign key (brand_id) 
+       references brands;
+
+    alter table if exists products 
+       add constraint FKog2rp4qthbtt2lfyhfo32lsw9 
+       foreign key (category_id) 
+       references categories;
+
+    alter table if exists products 
+       add constraint FKi7jit1gqbtf7mjbprjkvbyaqr 
+       foreign key (diameter_id) 
+       references tire_diameters;
+
+    alter table if exists products 
+       add constraint FK4s5xbc9fvr86kkkajwpp6adyw 
+       foreign key (profile_id) 
+       references tire_profiles;
+
+    alter table if exists products 
+       add constraint FK4wgmj3cwyjyw0uwbcyg080sn5 
+       foreign key (tire_condition_id) 
+       references tire_conditions;
+
+    alter table if exists products 
+       add constraint FK5kb3lqi2lobjhcl8rkt0rgoxj 
+       foreign key (vehicle_type_id) 
+       references vehicle_types;
+
+    alter table if exists products 
+       add constraint FKo5j6u5jftylfcovysj3bl0ha2 
+       foreign key (width_id) 
+       references tire_widths;
+
+    alter table if exists promotions 
+       add constraint FKekfsubtweujn1ktlg2yifq9fw 
+       foreign key (influenceur_id) 
+       references influenceurs;
+
+    alter table if exists quote_request_items 
+       add constraint FKg0n2j3rxrvgxwip0nlu3ri8n0 
+       foreign key (quote_request_id) 
+       references quote_requests;
+
+    alter table if exists quote_requests 
+       add constraint FKiwm0a8u5oui5cfl3me7x2ehdv 
+       foreign key (assigned_livreur_id) 
+       references users;
+
+    alter table if exists quote_requests 
+       add constraint FKe9s2opsb10njcmj4mrr156cmm 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists refresh_tokens 
+       add constraint FK1lih5y2npsf8u5o3vhdb9y0os 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists reviews 
+       add constraint FKpl51cejpw4gy5swfar8br9ngi 
+       foreign key (product_id) 
+       references products;
+
+    alter table if exists reviews 
+       add constraint FKcgy7qjc1r99dp117y9en6lxye 
+       foreign key (user_id) 
+       references users;
+
+    alter table if exists vehicle_types 
+       add constraint FKerbf7ls6mk3vj428nncjl2ux4 
+       foreign key (category_id) 
+       references categories;
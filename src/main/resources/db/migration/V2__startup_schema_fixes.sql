@@ -0,0 +1,44 @@
+-- Corrections auparavant rejouées à chaque démarrage (DatabaseMigrationConfig,
+-- DataInitializationService). Sans effet sur une base déjà corrigée.
+
+-- Rôles : inclut LIVREUR
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_role_check;
+ALTER TABLE users ADD CONSTRAINT users_role_check
+    CHECK (role IN ('ADMIN', 'CLIENT', 'INFLUENCEUR', 'DEVELOPER', 'LIVREUR'));
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS auth_provider varchar(255) DEFAULT 'LOCAL' NOT NULL;
+
+-- discount_percentage est NULL pour les promotions FIXED_AMOUNT
+ALTER TABLE promotions ALTER COLUMN discount_percentage DROP NOT NULL;
+
+ALTER TABLE promotions ADD COLUMN IF NOT EXISTS active boolean;
+UPDATE promotions SET active = TRUE WHERE active IS NULL;
+ALTER TABLE promotions ALTER COLUMN active SET NOT NULL;
+ALTER TABLE promotions ALTER COLUMN active SET DEFAULT TRUE;
+
+ALTER TABLE influenceurs ADD COLUMN IF NOT EXISTS archived boolean;
+UPDATE influenceurs SET archived = FALSE WHERE archived IS NULL;
+ALTER TABLE influenceurs ALTER COLUMN archived SET NOT NULL;
+ALTER TABLE influenceurs ALTER COLUMN archived SET DEFAULT FALSE;
+
+-- Devis assignés avant l'envoi de l'email au livreur : email considéré comme envoyé
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS livreur_assignment_email_sent boolean;
+UPDATE quote_requests SET livreur_assignment_email_sent = (assigned_livreur_id IS NOT NULL)
+    WHERE livreur_assignment_email_sent IS NULL;
+ALTER TABLE quote_requests ALTER COLUMN livreur_assignment_email_sent SET NOT NULL;
+ALTER TABLE quote_requests ALTER COLUMN livreur_assignment_email_sent SET DEFAULT FALSE;
+
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS validated_device_info varchar(256);
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS validated_pdf_url varchar(512);
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS requested_delivery_date date;
+
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS client_absent_count integer;
+UPDATE quote_requests SET client_absent_count = 0 WHERE client_absent_count IS NULL;
+ALTER TABLE quote_requests ALTER COLUMN client_absent_count SET NOT NULL;
+ALTER TABLE quote_requests ALTER COLUMN client_absent_count SET DEFAULT 0;
+
+ALTER TABLE quote_requests DROP CONSTRAINT IF EXISTS quote_requests_status_check;
+ALTER TABLE quote_requests ADD CONSTRAINT quote_requests_status_check
+    CHECK (status IN ('EN_ATTENTE', 'DEVIS_EN_PREPARATION', 'DEVIS_ENVOYE', 'EN_ATTENTE_VALIDATION',
+                      'VALIDE_PAR_CLIENT', 'EN_COURS_LIVRAISON', 'LIVRE_EN_ATTENTE_CONFIRMATION',
+                      'CLIENT_ABSENT', 'TERMINE', 'ANNULE'));
@@ -0,0 +1,84 @@
+-- Tables, colonnes et index ajoutés depuis le schéma initial. Une base mise à
+-- jour par ddl-auto=update les a déjà en partie : tout est conditionnel.
+
+CREATE TABLE IF NOT EXISTS batch_jobs (
+    version integer default 0 not null,
+    created_at timestamp(6) not null,
+    date_debut timestamp(6) not null,
+    date_fin timestamp(6),
+    dernier_id_traite bigint not null,
+    echecs bigint not null,
+    id bigint not null,
+    inchanges bigint not null,
+    reussis bigint not null,
+    total bigint not null,
+    traites bigint not null,
+    updated_at timestamp(6) not null,
+    status varchar(16) not null check (status in ('EN_COURS','TERMINE','ECHEC')),
+    job_type varchar(64) not null,
+    derniere_erreur varchar(500),
+    declenche_par varchar(255),
+    primary key (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_batch_jobs_type_status ON batch_jobs (job_type, status);
+
+CREATE TABLE IF NOT EXISTS conversations (
+    non_lus_a integer not null,
+    non_lus_b integer not null,
+    version integer default 0 not null,
+    created_at timestamp(6) not null,
+    date_dernier_message timestamp(6) not null,
+    dernier_auteur_id bigint not null,
+    dernier_message_id bigint not null,
+    id bigint not null,
+    updated_at timestamp(6) not null,
+    utilisateur_a_id bigint not null references users,
+    utilisateur_b_id bigint not null references users,
+    apercu varchar(120),
+    primary key (id),
+    constraint uk_conversations_paire unique (utilisateur_a_id, utilisateur_b_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_conversations_a_date ON conversations (utilisateur_a_id, date_dernier_message, id);
+CREATE INDEX IF NOT EXISTS idx_conversations_b_date ON conversations (utilisateur_b_id, date_dernier_message, id);
+
+-- Messagerie et notifications
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS date_reception timestamp(6);
+CREATE INDEX IF NOT EXISTS idx_messages_destinataire_id ON messages (destinataire_id, id);
+CREATE INDEX IF NOT EXISTS idx_messages_auteur_id ON messages (auteur_id, id);
+CREATE INDEX IF NOT EXISTS idx_notifications_recipient_read_created ON notifications (user_id, est_lu, created_at);
+CREATE INDEX IF NOT EXISTS idx_notifications_created_at ON notifications (created_at);
+
+-- Recherche plein texte : lexèmes racinisés (french) + mots bruts (simple),
+-- les mots complets matchent avec leurs variantes, les mots en cours de
+-- frappe par préfixe
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    to_tsvector('french', coalesce(title, '') || ' ' || coalesce(content, '')) ||
+    to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(content, ''))) STORED;
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    to_tsvector('french', coalesce(contenu, '')) ||
+    to_tsvector('simple', coalesce(contenu, ''))) STORED;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    to_tsvector('simple', coalesce(first_name, '') || ' ' || coalesce(last_name, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_notifications_search ON notifications USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_messages_search ON messages USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_users_search ON users USING GIN (search_vector);
+
+-- Variantes d'images des produits
+ALTER TABLE products ADD COLUMN IF NOT EXISTS image_card_url varchar(255);
+ALTER TABLE products ADD COLUMN IF NOT EXISTS image_thumbnail_url varchar(255);
+
+-- Devis : cache du PDF et envoi en tâche de fond
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS quote_pdf_hash varchar(64);
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS dispatch_stage varchar(32)
+    check (dispatch_stage in ('GENERATION_PDF','ENVOI_EMAIL','TERMINE','ECHEC'));
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS dispatch_attempts integer default 0 not null;
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS dispatch_next_attempt_at timestamp(6);
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS dispatch_error varchar(500);
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS dispatch_quote_url varchar(512);
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS dispatch_triggered_by varchar(255);
+CREATE INDEX IF NOT EXISTS idx_quote_requests_status_created ON quote_requests (status, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_quote_requests_livreur_created ON quote_requests (assigned_livreur_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_quote_requests_user_created ON quote_requests (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_quote_requests_dispatch ON quote_requests (dispatch_stage, dispatch_next_attempt_at);
@@ -0,0 +1,30 @@
+-- Index des clés étrangères et filtres les plus utilisés : PostgreSQL n'indexe
+-- pas les clés étrangères, chaque jointure ou suppression en cascade
+-- parcourait la table entière.
+
+-- Commandes et paniers
+CREATE INDEX IF NOT EXISTS idx_orders_user_created ON orders (user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items (product_id);
+CREATE INDEX IF NOT EXISTS idx_cart_items_cart_id ON cart_items (cart_id);
+CREATE INDEX IF NOT EXISTS idx_cart_items_product_id ON cart_items (product_id);
+CREATE INDEX IF NOT EXISTS idx_addresses_user_id ON addresses (user_id);
+
+-- Devis et livraisons
+CREATE INDEX IF NOT EXISTS idx_quote_request_items_quote_request_id ON quote_request_items (quote_request_id);
+CREATE INDEX IF NOT EXISTS idx_deliveries_assigned_livreur_id ON deliveries (assigned_livreur_id);
+CREATE INDEX IF NOT EXISTS idx_delivery_proofs_livreur_id ON delivery_proofs (delivered_by_livreur_id);
+
+-- Catalogue
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category_id);
+CREATE INDEX IF NOT EXISTS idx_products_brand_id ON products (brand_id);
+CREATE INDEX IF NOT EXISTS idx_products_dimensions ON products (width_id, profile_id, diameter_id);
+CREATE INDEX IF NOT EXISTS idx_favoris_user_created ON favoris (user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_favoris_product_id ON favoris (product_id);
+CREATE INDEX IF NOT EXISTS idx_reviews_product_id ON reviews (product_id);
+CREATE INDEX IF NOT EXISTS idx_reviews_user_id ON reviews (user_id);
+
+-- Influenceurs
+CREATE INDEX IF NOT EXISTS idx_commissions_influenceur_id ON commissions (influenceur_id);
+CREATE INDEX IF NOT EXISTS idx_promotions_influenceur_id ON promotions (influenceur_id);
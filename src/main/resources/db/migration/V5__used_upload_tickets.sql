@@ -0,0 +1,14 @@
+-- Tickets d'envoi direct déjà utilisés (PresignedUploadService) : un ticket
+-- sert une fois pour l'envoi du fichier (backend local) et une fois pour son
+-- rattachement. Les lignes sont purgées après l'expiration du ticket.
+
+CREATE TABLE IF NOT EXISTS used_upload_tickets (
+    path varchar(512) not null,
+    stage varchar(16) not null check (stage in ('UPLOAD','COMPLETE')),
+    used_by varchar(255),
+    used_at timestamp(6) not null,
+    expires_at timestamp(6) not null,
+    primary key (path, stage)
+);
+
+CREATE INDEX IF NOT EXISTS idx_used_upload_tickets_expires_at ON used_upload_tickets (expires_at);
@@ -0,0 +1,85 @@
+-- Passage optionnel de la table notifications en partitionnement mensuel
+-- (à exécuter manuellement, pendant une fenêtre de maintenance)
+--
+-- Une fois la table partitionnée, NotificationRetentionService le détecte :
+-- il supprime les partitions expirées (DROP au lieu de DELETE) et crée à
+-- l'avance les partitions des mois suivants (notifications_pYYYYMM).
+--
+-- La nouvelle table reprend le schéma issu des migrations jusqu'à V3
+-- (colonne search_vector et index GIN de la recherche plein texte compris).
+-- Le script s'arrête si la table est déjà partitionnée ou si elle porte une
+-- colonne qu'il ne recopie pas : le mettre à jour avant toute nouvelle
+-- migration de notifications.
+
+BEGIN;
+
+DO $$
+DECLARE
+    unknown TEXT;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'notifications'::regclass) THEN
+        RAISE EXCEPTION 'notifications est déjà partitionnée';
+    END IF;
+    SELECT string_agg(column_name, ', ') INTO unknown
+    FROM information_schema.columns
+    WHERE table_schema = current_schema() AND table_name = 'notifications'
+      AND column_name NOT IN ('id', 'created_at', 'updated_at', 'version', 'user_id', 'title', 'content',
+                              'type', 'est_lu', 'search_vector');
+    IF unknown IS NOT NULL THEN
+        RAISE EXCEPTION 'Colonnes de notifications non prises en charge par ce script : %', unknown;
+    END IF;
+    IF to_regclass('notifications_seq') IS NULL THEN
+        RAISE EXCEPTION 'Séquence notifications_seq absente : démarrer l''application une fois avant ce script';
+    END IF;
+END $$;
+
+ALTER TABLE notifications RENAME TO notifications_old;
+ALTER TABLE notifications_old RENAME CONSTRAINT notifications_pkey TO notifications_old_pkey;
+ALTER INDEX IF EXISTS idx_notifications_recipient_read_created RENAME TO idx_notifications_old_recipient_read_created;
+ALTER INDEX IF EXISTS idx_notifications_created_at RENAME TO idx_notifications_old_created_at;
+ALTER INDEX IF EXISTS idx_notifications_search RENAME TO idx_notifications_old_search;
+
+CREATE TABLE notifications (
+    -- Ids alloués par blocs sur notifications_seq (PooledSequenceIdGenerator), comme la table d'origine
+    id          BIGINT NOT NULL DEFAULT nextval('notifications_seq'),
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL,
+    version     INTEGER DEFAULT 0 NOT NULL,
+    user_id     BIGINT NOT NULL REFERENCES users (id),
+    title       VARCHAR(200) NOT NULL,
+    content     VARCHAR(1000) NOT NULL,
+    type        VARCHAR(50),
+    est_lu      BOOLEAN NOT NULL,
+    -- Recherche plein texte (V3)
+    search_vector tsvector GENERATED ALWAYS AS (
+        to_tsvector('french', coalesce(title, '') || ' ' || coalesce(content, '')) ||
+        to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(content, ''))) STORED,
+    -- La clé de partition doit faire partie de la clé primaire
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Filet de sécurité pour les lignes hors des partitions mensuelles
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+-- Une partition par mois couvert par l'historique existant + le mois courant
+DO $$
+DECLARE
+    m DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM notifications_old), now()))::date;
+BEGIN
+    WHILE m <= date_trunc('month', now())::date LOOP
+        EXECUTE format('CREATE TABLE notifications_p%s PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+                       to_char(m, 'YYYYMM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+CREATE INDEX idx_notifications_recipient_read_created ON notifications (user_id, est_lu, created_at);
+CREATE INDEX idx_notifications_created_at ON notifications (created_at);
+CREATE INDEX idx_notifications_search ON notifications USING GIN (search_vector);
+
+INSERT INTO notifications (id, created_at, updated_at, version, user_id, title, content, type, est_lu)
+SELECT id, created_at, updated_at, version, user_id, title, content, type, est_lu FROM notifications_old;
+
+DROP TABLE notifications_old;
+
+COMMIT;
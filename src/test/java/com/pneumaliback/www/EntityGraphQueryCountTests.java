@@ -0,0 +1,333 @@
+package com.pneumaliback.www;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pneumaliback.www.entity.Brand;
+import com.pneumaliback.www.entity.Cart;
+import com.pneumaliback.www.entity.CartItem;
+import com.pneumaliback.www.entity.Category;
+import com.pneumaliback.www.entity.Commission;
+import com.pneumaliback.www.entity.Influenceur;
+import com.pneumaliback.www.entity.Order;
+import com.pneumaliback.www.entity.OrderItem;
+import com.pneumaliback.www.entity.Product;
+import com.pneumaliback.www.entity.Promotion;
+import com.pneumaliback.www.entity.TireCondition;
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.entity.VehicleType;
+import com.pneumaliback.www.enums.CommissionStatus;
+import com.pneumaliback.www.enums.OrderStatus;
+import com.pneumaliback.www.enums.PromotionType;
+import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.repository.BrandRepository;
+import com.pneumaliback.www.repository.CartRepository;
+import com.pneumaliback.www.repository.CategoryRepository;
+import com.pneumaliback.www.repository.CommissionRepository;
+import com.pneumaliback.www.repository.InfluenceurRepository;
+import com.pneumaliback.www.repository.OrderRepository;
+import com.pneumaliback.www.repository.ProductRepository;
+import com.pneumaliback.www.repository.PromotionRepository;
+import com.pneumaliback.www.repository.TireConditionRepository;
+import com.pneumaliback.www.repository.TireDiameterRepository;
+import com.pneumaliback.www.repository.TireProfileRepository;
+import com.pneumaliback.www.repository.TireWidthRepository;
+import com.pneumaliback.www.repository.UserRepository;
+import com.pneumaliback.www.repository.VehicleTypeRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Nombre de requêtes SQL par endpoint (statistiques Hibernate)
+ *
+ * Chaque liste est servie en un nombre fixe de requêtes quel que soit le
+ * nombre de lignes : une association LAZY sortie d'un plan de chargement
+ * (entity graph) fait échouer le test au lieu de passer en N+1.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+// Même contexte que ObservabilityTests
+@AutoConfigureObservability(tracing = false)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntityGraphQueryCountTests {
+
+    private static final int PRODUCTS = 6;
+    private static final int ORDERS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private BrandRepository brandRepository;
+    @Autowired
+    private VehicleTypeRepository vehicleTypeRepository;
+    @Autowired
+    private TireConditionRepository tireConditionRepository;
+    @Autowired
+    private TireWidthRepository tireWidthRepository;
+    @Autowired
+    private TireProfileRepository tireProfileRepository;
+    @Autowired
+    private TireDiameterRepository tireDiameterRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private InfluenceurRepository influenceurRepository;
+    @Autowired
+    private PromotionRepository promotionRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private CommissionRepository commissionRepository;
+
+    private Statistics statistics;
+    private Fixture fixture;
+
+    private record Fixture(Category category, Brand brand, VehicleType vehicleType, TireCondition tireCondition,
+            List<Product> products, User client, User influenceurUser, Cart cart, Influenceur influenceur,
+            Promotion promotion, List<Order> orders, List<Commission> commissions) {
+    }
+
+    @BeforeAll
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String suffix = Long.toString(System.nanoTime(), 36);
+        fixture = transactionTemplate.execute(status -> {
+            Category category = new Category();
+            category.setName("Catégorie " + suffix);
+            category = categoryRepository.save(category);
+
+            Brand brand = new Brand();
+            brand.setName("Marque " + suffix);
+            brand = brandRepository.save(brand);
+
+            VehicleType vehicleType = new VehicleType();
+            vehicleType.setName("Type " + suffix);
+            vehicleType.setCategory(category);
+            vehicleType = vehicleTypeRepository.save(vehicleType);
+
+            TireCondition tireCondition = new TireCondition();
+            tireCondition.setName("État " + suffix);
+            tireCondition = tireConditionRepository.save(tireCondition);
+
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product p = new Product();
+                p.setName("Pneu " + suffix + " " + i);
+                p.setPrice(BigDecimal.valueOf(50_000 + i));
+                p.setStock(10);
+                p.setCategory(category);
+                p.setBrand(brand);
+                p.setVehicleType(vehicleType);
+                p.setTireCondition(tireCondition);
+                p.setWidth(tireWidthRepository.findByActiveTrueOrderByValueAsc().get(i));
+                p.setProfile(tireProfileRepository.findByActiveTrueOrderByValueAsc().get(i));
+                p.setDiameter(tireDiameterRepository.findByActiveTrueOrderByValueAsc().get(i));
+                products.add(p);
+            }
+            products = productRepository.saveAll(products);
+
+            User client = TestUsers.create(userRepository, passwordEncoder, "client", Role.CLIENT);
+            User influenceurUser = TestUsers.create(userRepository, passwordEncoder, "influenceur", Role.INFLUENCEUR);
+
+            Cart cart = new Cart();
+            cart.setUser(client);
+            for (Product p : products) {
+                CartItem item = new CartItem();
+                item.setCart(cart);
+                item.setProduct(p);
+                item.setQuantity(2);
+                cart.getItems().add(item);
+            }
+            cart = cartRepository.save(cart);
+
+            Influenceur influenceur = new Influenceur();
+            influenceur.setUser(influenceurUser);
+            influenceur.setCommissionRate(BigDecimal.TEN);
+            influenceur.setPromoCode("INF" + suffix.toUpperCase());
+            influenceur = influenceurRepository.save(influenceur);
+
+            Promotion promotion = new Promotion();
+            promotion.setCode("PROMO" + suffix.toUpperCase());
+            promotion.setType(PromotionType.PERCENTAGE);
+            promotion.setDiscountPercentage(BigDecimal.TEN);
+            promotion.setStartDate(LocalDate.now().minusDays(1));
+            promotion.setEndDate(LocalDate.now().plusDays(30));
+            promotion.setInfluenceur(influenceur);
+            promotion = promotionRepository.save(promotion);
+
+            List<Order> orders = new ArrayList<>();
+            List<Commission> commissions = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = new Order();
+                order.setOrderNumber("T" + suffix.toUpperCase() + i);
+                order.setStatus(OrderStatus.CONFIRMED);
+                order.setUser(client);
+                order.setPromotion(promotion);
+                order.setTotalAmount(BigDecimal.valueOf(100_000));
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(products.get(i));
+                item.setQuantity(1);
+                item.setUnitPrice(products.get(i).getPrice());
+                order.getItems().add(item);
+                order = orderRepository.save(order);
+                orders.add(order);
+
+                Commission commission = new Commission();
+                commission.setOrder(order);
+                commission.setInfluenceur(influenceur);
+                commission.setBaseAmount(order.getTotalAmount());
+                commission.setRate(BigDecimal.TEN);
+                commission.setAmount(BigDecimal.valueOf(10_000));
+                commission.setStatus(CommissionStatus.PENDING);
+                commissions.add(commissionRepository.save(commission));
+            }
+            return new Fixture(category, brand, vehicleType, tireCondition, products, client, influenceurUser, cart,
+                    influenceur, promotion, orders, commissions);
+        });
+    }
+
+    @AfterAll
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            commissionRepository.deleteAllById(fixture.commissions().stream().map(Commission::getId).toList());
+            orderRepository.deleteAllById(fixture.orders().stream().map(Order::getId).toList());
+            promotionRepository.deleteById(fixture.promotion().getId());
+            influenceurRepository.deleteById(fixture.influenceur().getId());
+            cartRepository.deleteById(fixture.cart().getId());
+            productRepository.deleteAllById(fixture.products().stream().map(Product::getId).toList());
+            userRepository.deleteAllById(List.of(fixture.client().getId(), fixture.influenceurUser().getId()));
+            vehicleTypeRepository.deleteById(fixture.vehicleType().getId());
+            tireConditionRepository.deleteById(fixture.tireCondition().getId());
+            brandRepository.deleteById(fixture.brand().getId());
+            categoryRepository.deleteById(fixture.category().getId());
+        });
+    }
+
+    @BeforeEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void catalogPageLoadsCardsInOneQuery() throws Exception {
+        // Page incomplète quel que soit le contenu de la base : pas de requête de comptage ;
+        // la seconde lecture vient du cache de requêtes
+        long active = productRepository.findByActiveTrue(PageRequest.of(0, 1)).getTotalElements();
+        assertThat(active).as("produits actifs (taille de page maximale 2000)").isLessThan(2000);
+        String size = Long.toString(active + 1);
+        assertQueries(1, get("/api/products/active").param("size", size))
+                .andExpect(jsonPath("$.content.length()").value(active))
+                .andExpect(jsonPath("$.content[0].brand.name").exists())
+                .andExpect(jsonPath("$.content[0].width.value").exists());
+        assertQueries(0, get("/api/products/active").param("size", size))
+                .andExpect(jsonPath("$.content[0].brand.name").exists())
+                .andExpect(jsonPath("$.content[0].category.name").exists());
+    }
+
+    @Test
+    void productDetailLoadsCardInOneQuery() throws Exception {
+        Long id = fixture.products().get(0).getId();
+        assertQueries(1, get("/api/products/{id}", id))
+                .andExpect(jsonPath("$.brand.name").value(fixture.brand().getName()))
+                .andExpect(jsonPath("$.vehicleType.name").value(fixture.vehicleType().getName()))
+                .andExpect(jsonPath("$.tireCondition.name").value(fixture.tireCondition().getName()));
+    }
+
+    @Test
+    @WithMockUser
+    void cartViewLoadsItemsAndProductsInOneQuery() throws Exception {
+        // Utilisateur (contrôleur) + panier, lignes et fiches produit
+        assertQueries(2, get("/api/cart").param("userId", fixture.client().getId().toString()))
+                .andExpect(jsonPath("$.items.length()").value(PRODUCTS))
+                .andExpect(jsonPath("$.items[*].product.brand.name").exists())
+                .andExpect(jsonPath("$.items[*].product.diameter.value").exists());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adminCommissionListLoadsInfluenceursInOneQuery() throws Exception {
+        assertQueries(1, get("/api/admin/commissions/influenceur/{id}", fixture.influenceur().getId()))
+                .andExpect(jsonPath("$.length()").value(ORDERS))
+                .andExpect(jsonPath("$[0].influenceur.user.email").value(fixture.influenceurUser().getEmail()))
+                .andExpect(jsonPath("$[0].order.id").exists());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adminInfluenceurListLoadsUsersInOneQuery() throws Exception {
+        assertQueries(1, get("/api/admin/influenceurs"))
+                .andExpect(jsonPath("$[?(@.id == %d)].user.email", fixture.influenceur().getId())
+                        .value(fixture.influenceurUser().getEmail()));
+    }
+
+    @Test
+    void orderDetailLoadsItemsProductsAndPaymentInOneQuery() {
+        Long id = fixture.orders().get(0).getId();
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findDetailedById(id).orElseThrow();
+            assertThat(order.getUser().getEmail()).isEqualTo(fixture.client().getEmail());
+            assertThat(order.getPromotion().getCode()).isEqualTo(fixture.promotion().getCode());
+            assertThat(order.getPayment()).isNull();
+            assertThat(order.getDelivery()).isNull();
+            assertThat(order.getItems()).singleElement().satisfies(item -> {
+                assertThat(item.getProduct().getBrand().getName()).isEqualTo(fixture.brand().getName());
+                assertThat(item.getProduct().getWidth().getValue()).isNotNull();
+                assertThat(item.getProduct().getVehicleType().getName())
+                        .isEqualTo(fixture.vehicleType().getName());
+                assertThat(item.getProduct().getTireCondition().getName())
+                        .isEqualTo(fixture.tireCondition().getName());
+                assertThat(item.getProduct().getCategory().getName()).isEqualTo(fixture.category().getName());
+            });
+        });
+        assertThat(statistics.getPrepareStatementCount()).as("requêtes SQL pour Order.DETAIL").isEqualTo(1);
+    }
+
+    private ResultActions assertQueries(long expected, RequestBuilder request) throws Exception {
+        statistics.clear();
+        ResultActions result = mockMvc.perform(request).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount())
+                .as("requêtes SQL pour %s", result.andReturn().getRequest().getRequestURI())
+                .isEqualTo(expected);
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package com.pneumaliback.www;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.pneumaliback.www.configuration.IntegrationMetrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métriques par route, temps SQL par requête, appels externes et accès à
+ * /actuator/prometheus
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class ObservabilityTests {
+
+    private static final String ROUTE = "/api/admin/influenceurs";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private IntegrationMetrics integrationMetrics;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void statementsAreRecordedPerRoute() throws Exception {
+        mockMvc.perform(get(ROUTE)).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("http.server.requests.db.statements")
+                .tag("uri", ROUTE).tag("method", "GET").summary();
+        Timer time = meterRegistry.get("http.server.requests.db.time").tag("uri", ROUTE).timer();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(1);
+        assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(1);
+        assertThat(time.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void prometheusRequiresAdminOrScrapeToken() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong")))
+                .andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+
+    @Test
+    void integrationCallOutcomeFollowsHttpStatus() {
+        assertThatThrownBy(() -> integrationMetrics.record("test", "lookup", () -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        })).isInstanceOf(HttpClientErrorException.class);
+        integrationMetrics.record("test", "lookup", () -> "ok");
+
+        assertThat(meterRegistry.get("integration.calls").tag("integration", "test")
+                .tag("outcome", "client_error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("integration.calls").tag("integration", "test")
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+}
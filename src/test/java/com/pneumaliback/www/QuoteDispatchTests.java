@@ -0,0 +1,191 @@
+package com.pneumaliback.www;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.pneumaliback.www.entity.QuoteRequest;
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.QuoteDispatchStage;
+import com.pneumaliback.www.enums.QuoteStatus;
+import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.repository.QuoteRequestRepository;
+import com.pneumaliback.www.repository.UserRepository;
+import com.pneumaliback.www.service.MailService;
+import com.pneumaliback.www.service.QuoteRequestService;
+import com.pneumaliback.www.service.quote.QuoteDispatchService;
+
+/**
+ * Envoi des devis en tâche de fond : réservation exclusive, nouvelles
+ * tentatives espacées, abandon après max-attempts et reprise des
+ * réservations expirées. Les devis sont créés à l'étape ENVOI_EMAIL, l'envoi
+ * de l'email est simulé.
+ */
+@SpringBootTest(properties = { "app.quote.dispatch.max-attempts=3", "app.quote.dispatch.retry-delay-seconds=30" })
+class QuoteDispatchTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @MockitoBean
+    private MailService mailService;
+    @MockitoSpyBean
+    private QuoteRequestService quoteRequestService;
+
+    @Autowired
+    private QuoteDispatchService quoteDispatchService;
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User client;
+    private final List<Long> quotes = new ArrayList<>();
+
+    @BeforeEach
+    void createClient() {
+        client = TestUsers.create(userRepository, passwordEncoder, "dispatch", Role.CLIENT);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        quoteRequestRepository.deleteAllById(quotes);
+        userRepository.deleteById(client.getId());
+    }
+
+    @Test
+    void onlyOneWorkerClaimsADueQuote() throws Exception {
+        Long id = quote(0, LocalDateTime.now().minusSeconds(1));
+        LocalDateTime now = LocalDateTime.now();
+        Callable<Integer> claim = () -> quoteRequestRepository.claimDispatch(id,
+                EnumSet.of(QuoteDispatchStage.ENVOI_EMAIL), now, now.plusMinutes(5));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = pool.invokeAll(Collections.nCopies(8, claim));
+            int claimed = 0;
+            for (Future<Integer> result : results) {
+                claimed += result.get();
+            }
+            assertThat(claimed).isEqualTo(1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void failedSendIsRetriedWithDoublingDelay() {
+        when(mailService.sendQuoteReadyEmailSync(any(), any(), anyString())).thenReturn(false);
+        Long id = quote(0, LocalDateTime.now().minusSeconds(1));
+        int initialVersion = load(id).getVersion();
+
+        quoteDispatchService.dispatch(id);
+        QuoteRequest first = awaitAttempts(id, 1);
+        assertThat(first.getDispatchStage()).isEqualTo(QuoteDispatchStage.ENVOI_EMAIL);
+        assertThat(first.getDispatchError()).isNotBlank();
+        assertThat(first.getDispatchNextAttemptAt()).isCloseTo(LocalDateTime.now().plusSeconds(30),
+                within(5, ChronoUnit.SECONDS));
+        assertThat(first.getVersion()).isGreaterThan(initialVersion);
+
+        // Échéance avancée pour ne pas attendre le délai
+        quoteRequestRepository.updateDispatch(id, QuoteDispatchStage.ENVOI_EMAIL, 1,
+                LocalDateTime.now().minusSeconds(1), first.getDispatchError(), LocalDateTime.now());
+        quoteDispatchService.dispatch(id);
+        QuoteRequest second = awaitAttempts(id, 2);
+        assertThat(second.getDispatchNextAttemptAt()).isCloseTo(LocalDateTime.now().plusSeconds(60),
+                within(5, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void sendIsAbandonedAfterMaxAttempts() {
+        when(mailService.sendQuoteReadyEmailSync(any(), any(), anyString())).thenReturn(false);
+        Long id = quote(2, LocalDateTime.now().minusSeconds(1));
+
+        quoteDispatchService.dispatch(id);
+        QuoteRequest failed = awaitAttempts(id, 3);
+        assertThat(failed.getDispatchStage()).isEqualTo(QuoteDispatchStage.ECHEC);
+        assertThat(failed.getDispatchNextAttemptAt()).isNull();
+        assertThat(failed.getStatus()).isEqualTo(QuoteStatus.DEVIS_EN_PREPARATION);
+    }
+
+    @Test
+    void unloadableQuoteCountsAttemptsFromTheRow() {
+        Long id = quote(2, LocalDateTime.now().minusSeconds(1));
+        doThrow(new IllegalStateException("Devis illisible")).when(quoteRequestService).loadForPdf(id);
+
+        quoteDispatchService.dispatch(id);
+        QuoteRequest failed = awaitAttempts(id, 3);
+        assertThat(failed.getDispatchStage()).isEqualTo(QuoteDispatchStage.ECHEC);
+        assertThat(failed.getDispatchNextAttemptAt()).isNull();
+    }
+
+    @Test
+    void sweepResumesExpiredLeasesOnly() {
+        when(mailService.sendQuoteReadyEmailSync(any(), any(), anyString())).thenReturn(true);
+        // Réservation expirée (envoi interrompu) et réservation en cours
+        Long expired = quote(0, LocalDateTime.now().minusMinutes(1));
+        Long leased = quote(0, LocalDateTime.now().plusMinutes(5));
+
+        quoteDispatchService.sweep();
+        await().atMost(TIMEOUT)
+                .until(() -> load(expired).getDispatchStage() == QuoteDispatchStage.TERMINE);
+        QuoteRequest sent = load(expired);
+        assertThat(sent.getStatus()).isEqualTo(QuoteStatus.EN_ATTENTE_VALIDATION);
+        assertThat(sent.getDispatchNextAttemptAt()).isNull();
+
+        QuoteRequest untouched = load(leased);
+        assertThat(untouched.getDispatchStage()).isEqualTo(QuoteDispatchStage.ENVOI_EMAIL);
+        assertThat(untouched.getDispatchAttempts()).isZero();
+    }
+
+    private Long quote(int attempts, LocalDateTime nextAttemptAt) {
+        String number = Long.toString(System.nanoTime(), 36);
+        QuoteRequest request = new QuoteRequest();
+        request.setRequestNumber("T-" + number);
+        request.setQuoteNumber("TQ-" + number);
+        request.setUser(client);
+        request.setStatus(QuoteStatus.DEVIS_EN_PREPARATION);
+        request.setDispatchStage(QuoteDispatchStage.ENVOI_EMAIL);
+        request.setDispatchAttempts(attempts);
+        request.setDispatchNextAttemptAt(nextAttemptAt);
+        request.setDispatchQuoteUrl("http://localhost:4200/devis/" + number);
+        Long id = quoteRequestRepository.save(request).getId();
+        quotes.add(id);
+        return id;
+    }
+
+    private QuoteRequest load(Long id) {
+        return quoteRequestRepository.findById(id).orElseThrow();
+    }
+
+    private QuoteRequest awaitAttempts(Long id, int attempts) {
+        await().atMost(TIMEOUT).until(() -> load(id).getDispatchAttempts() == attempts);
+        return load(id);
+    }
+}
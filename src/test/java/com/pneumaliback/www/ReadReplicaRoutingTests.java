@@ -0,0 +1,102 @@
+package com.pneumaliback.www;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pneumaliback.www.configuration.ReplicaReadFilter;
+import com.pneumaliback.www.configuration.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Aiguillage des lectures vers un réplica
+ *
+ * La base de test sert elle-même de réplica : hors réplication, son retard
+ * mesuré est nul. Chaque cas relève le pool qui tient la connexion pendant la
+ * transaction.
+ */
+@SpringBootTest(properties = "app.datasource.replica.urls=${spring.datasource.url}")
+class ReadReplicaRoutingTests {
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+    @Autowired
+    private ReplicaReadFilter replicaReadFilter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void measureReplicas() {
+        replicaDataSource.checkReplicas();
+        assertThat(replicaDataSource.getReplicas()).singleElement()
+                .satisfies(replica -> assertThat(replica.isAvailable()).isTrue());
+    }
+
+    @AfterEach
+    void restoreMaxLag() {
+        replicaDataSource.setMaxLagMs(2000);
+    }
+
+    @Test
+    void readOnlyTransactionOfReadRequestUsesReplica() throws Exception {
+        assertThat(route("GET", null, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionStaysOnPrimary() throws Exception {
+        assertThat(route("GET", null, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactionOutsideRequestStaysOnPrimary() {
+        assertThat(inTransaction(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void writerReadsOwnWritesOnPrimary() throws Exception {
+        String writer = "writer-" + System.nanoTime();
+        assertThat(route("POST", writer, true)).isEqualTo("primary");
+        assertThat(route("GET", writer, true)).isEqualTo("primary");
+        assertThat(route("GET", "other-" + System.nanoTime(), true)).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() throws Exception {
+        long fallbacks = replicaDataSource.getFallbackReads();
+        replicaDataSource.setMaxLagMs(-1);
+        assertThat(route("GET", null, true)).isEqualTo("primary");
+        assertThat(replicaDataSource.getFallbackReads()).isEqualTo(fallbacks + 1);
+    }
+
+    private String route(String method, String user, boolean readOnly) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/products/active");
+        request.setRemoteUser(user);
+        AtomicReference<String> route = new AtomicReference<>();
+        replicaReadFilter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> route.set(inTransaction(readOnly)));
+        return route.get();
+    }
+
+    private String inTransaction(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            HikariDataSource replica = replicaDataSource.getReplicas().get(0).getDataSource();
+            return replica.getHikariPoolMXBean().getActiveConnections() > 0 ? "replica" : "primary";
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.pneumaliback.www;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.repository.UserRepository;
+import com.pneumaliback.www.service.JwtService;
+import com.pneumaliback.www.service.WebSocketPublisher;
+
+/**
+ * Abonnement STOMP sur le broker en mémoire : un client authentifié par JWT
+ * reçoit sur /user/queue/... ce que WebSocketPublisher lui adresse
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StompBrokerTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private WebSocketPublisher webSocketPublisher;
+
+    private User user;
+    private WebSocketStompClient stompClient;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, passwordEncoder, "stomp", Role.CLIENT);
+        stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stompClient.stop();
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void subscriberReceivesMessagePublishedToUserQueue() throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateToken(user));
+        StompSession session = stompClient.connectAsync("ws://localhost:{port}/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {
+                }, port).get(10, TimeUnit.SECONDS);
+
+        BlockingQueue<Map<?, ?>> received = new LinkedBlockingQueue<>();
+        session.subscribe("/user/queue/notifications", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<?, ?>) payload);
+            }
+        });
+
+        // L'abonnement est traité de façon asynchrone : republier jusqu'à réception
+        Map<?, ?> message = null;
+        for (int attempt = 0; attempt < 50 && message == null; attempt++) {
+            webSocketPublisher.sendToUserQueue(user, "notifications", Map.of("title", "Devis prêt"));
+            message = received.poll(200, TimeUnit.MILLISECONDS);
+        }
+        assertThat(message).isNotNull();
+        assertThat(message.get("title")).isEqualTo("Devis prêt");
+        session.disconnect();
+    }
+}
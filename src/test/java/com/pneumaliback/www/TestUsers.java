@@ -0,0 +1,31 @@
+package com.pneumaliback.www;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.pneumaliback.www.entity.User;
+import com.pneumaliback.www.enums.Role;
+import com.pneumaliback.www.repository.UserRepository;
+
+/**
+ * Utilisateurs de test : login unique préfixé, mot de passe commun, compte
+ * activé. La suppression reste à la charge de la classe de test.
+ */
+final class TestUsers {
+
+    static final String PASSWORD = "Test#Password1";
+
+    private TestUsers() {
+    }
+
+    static User create(UserRepository userRepository, PasswordEncoder passwordEncoder, String prefix, Role role) {
+        String login = prefix + "-" + Long.toString(System.nanoTime(), 36);
+        return userRepository.save(User.builder()
+                .email(login + "@example.test")
+                .password(passwordEncoder.encode(PASSWORD))
+                .firstName("Test")
+                .lastName(login)
+                .role(role)
+                .enabled(true)
+                .build());
+    }
+}
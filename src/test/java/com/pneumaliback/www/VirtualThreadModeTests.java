@@ -0,0 +1,115 @@
+package com.pneumaliback.www;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.pneumaliback.www.configuration.Bulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Mode threads virtuels : tâches planifiées, cloison devant le pool oltp et
+ * suivi des épinglages
+ */
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "app.bulkhead.db.max-waiting=0"
+})
+class VirtualThreadModeTests {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    @Qualifier("oltpDataSource")
+    private HikariDataSource oltpDataSource;
+    @Autowired
+    @Qualifier("batchDataSource")
+    private HikariDataSource batchDataSource;
+    @Autowired
+    private Bulkhead dbBulkhead;
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void scheduledTaskRunsOnVirtualThreadWithBatchPool() throws Exception {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        taskScheduler.schedule(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                result.complete(Thread.currentThread().isVirtual() + "/"
+                        + batchDataSource.getHikariPoolMXBean().getActiveConnections());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }, Instant.now());
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("true/1");
+    }
+
+    @Test
+    void connectionBeyondPoolSizeIsRejectedWithoutWaiting() throws Exception {
+        assertThat(dbBulkhead.getMaxConcurrent()).isEqualTo(oltpDataSource.getMaximumPoolSize());
+        long rejected = dbBulkhead.getRejected();
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < dbBulkhead.getMaxConcurrent(); i++) {
+                held.add(dataSource.getConnection());
+            }
+            long start = System.nanoTime();
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+            assertThat(dbBulkhead.getRejected()).isEqualTo(rejected + 1);
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+        assertThat(dbBulkhead.getActive()).isZero();
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    void pinnedVirtualThreadIsReported() throws Exception {
+        Object monitor = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+        long deadline = System.currentTimeMillis() + 15_000;
+        double pinned = 0;
+        while (pinned == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            pinned = meterRegistry.find("jvm.threads.virtual.pinned").counters().stream()
+                    .filter(c -> c.getId().getTag("frame").startsWith(VirtualThreadModeTests.class.getName()))
+                    .mapToDouble(Counter::count)
+                    .sum();
+        }
+        assertThat(pinned).isGreaterThanOrEqualTo(1);
+    }
+}